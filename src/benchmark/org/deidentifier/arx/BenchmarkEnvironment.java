@@ -0,0 +1,159 @@
+/*
+ * ARX Data Anonymization Tool
+ * Copyright 2012 - 2025 Fabian Prasser and contributors
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.deidentifier.arx;
+
+import java.io.File;
+import java.io.FilenameFilter;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.util.HashMap;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+import org.deidentifier.arx.ARXConfiguration.ARXConfigurationInternal;
+import org.deidentifier.arx.AttributeType.Hierarchy;
+import org.deidentifier.arx.criteria.KAnonymity;
+import org.deidentifier.arx.framework.check.distribution.DistributionAggregateFunction;
+import org.deidentifier.arx.framework.data.DataManager;
+import org.deidentifier.arx.framework.lattice.SolutionSpace;
+
+/**
+ * Provides access to the internal data structures of the anonymization engine for benchmarks.
+ * Datasets are loaded from the directory specified by the system property "arx.data", which
+ * defaults to "data".
+ *
+ * @author Fabian Prasser
+ */
+public class BenchmarkEnvironment {
+
+    /** Configuration */
+    private final ARXConfiguration config;
+
+    /** Manager */
+    private final DataManager      manager;
+
+    /** Solution space */
+    private final SolutionSpace<?> solutionSpace;
+
+    /**
+     * Returns the file of the given dataset
+     *
+     * @param dataset
+     * @return
+     */
+    public static File getFile(String dataset) {
+        return new File(System.getProperty("arx.data", "data"), dataset + ".csv");
+    }
+
+    /**
+     * Loads the given dataset including all generalization hierarchies
+     *
+     * @param dataset
+     * @return
+     * @throws IOException
+     */
+    public static Data getData(final String dataset) throws IOException {
+
+        // Load data
+        File file = getFile(dataset);
+        Data data = Data.create(file, StandardCharsets.UTF_8, ';');
+
+        // Load hierarchies
+        File[] files = file.getParentFile().listFiles(new FilenameFilter() {
+            @Override
+            public boolean accept(File dir, String name) {
+                return name.matches(dataset + "_hierarchy_(.)+.csv");
+            }
+        });
+        Pattern pattern = Pattern.compile("_hierarchy_(.*?).csv");
+        for (File hierarchy : files) {
+            Matcher matcher = pattern.matcher(hierarchy.getName());
+            if (matcher.find()) {
+                data.getDefinition().setAttributeType(matcher.group(1), Hierarchy.create(hierarchy, StandardCharsets.UTF_8, ';'));
+            }
+        }
+        return data;
+    }
+
+    /**
+     * Returns a configuration with 5-anonymity and a suppression limit of 4%
+     *
+     * @return
+     */
+    public static ARXConfiguration createConfiguration() {
+        ARXConfiguration config = ARXConfiguration.create();
+        config.addPrivacyModel(new KAnonymity(5));
+        config.setSuppressionLimit(0.04d);
+        return config;
+    }
+
+    /**
+     * Encodes the given dataset and initializes the given configuration
+     *
+     * @param dataset
+     * @param config
+     * @throws IOException
+     */
+    public BenchmarkEnvironment(String dataset, ARXConfiguration config) throws IOException {
+
+        // Encode
+        Data data = getData(dataset);
+        DataHandleInput handle = (DataHandleInput) data.getHandle();
+        handle.getDefinition().materializeHierarchies(handle);
+        handle.getRegistry().reset();
+        this.manager = new DataManager(handle.header,
+                                       handle.data,
+                                       handle.dictionary,
+                                       handle.getDefinition(),
+                                       new HashMap<String, DistributionAggregateFunction>(),
+                                       config);
+
+        // Initialize
+        config.initialize(manager);
+        config.getQualityModel().initialize(manager, handle.getDefinition(), manager.getDataGeneralized(), manager.getHierarchies(), config);
+        this.config = config;
+        this.solutionSpace = SolutionSpace.create(manager.getHierarchiesMinLevels(), manager.getHierarchiesMaxLevels());
+    }
+
+    /**
+     * Returns the internal configuration
+     *
+     * @return
+     */
+    public ARXConfigurationInternal getConfiguration() {
+        return config.getInternalConfiguration();
+    }
+
+    /**
+     * Returns the data manager
+     *
+     * @return
+     */
+    public DataManager getManager() {
+        return manager;
+    }
+
+    /**
+     * Returns the solution space
+     *
+     * @return
+     */
+    public SolutionSpace<?> getSolutionSpace() {
+        return solutionSpace;
+    }
+}
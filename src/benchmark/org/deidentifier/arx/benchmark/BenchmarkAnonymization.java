@@ -0,0 +1,98 @@
+/*
+ * ARX Data Anonymization Tool
+ * Copyright 2012 - 2025 Fabian Prasser and contributors
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.deidentifier.arx.benchmark;
+
+import java.io.IOException;
+import java.util.concurrent.TimeUnit;
+
+import org.deidentifier.arx.ARXAnonymizer;
+import org.deidentifier.arx.ARXConfiguration;
+import org.deidentifier.arx.ARXConfiguration.AnonymizationAlgorithm;
+import org.deidentifier.arx.ARXResult;
+import org.deidentifier.arx.BenchmarkEnvironment;
+import org.deidentifier.arx.Data;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * End-to-end benchmarks for anonymizing the bundled datasets with 5-anonymity.
+ * FLASH is used for optimal search, LIGHTNING for bottom-up search and the genetic
+ * algorithm for genetic search. Heuristic algorithms are limited by the number of
+ * transformations checked.
+ *
+ * @author Fabian Prasser
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.SingleShotTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 2)
+@Measurement(iterations = 5)
+@Fork(1)
+public class BenchmarkAnonymization {
+
+    /** Dataset */
+    @Param({ "adult", "cup", "fars", "atus", "ihis" })
+    public String                 dataset;
+
+    /** Algorithm */
+    @Param({ "OPTIMAL", "BEST_EFFORT_BOTTOM_UP", "BEST_EFFORT_GENETIC" })
+    public AnonymizationAlgorithm algorithm;
+
+    /** Number of threads */
+    @Param({ "1" })
+    public int                    threads;
+
+    /** Data, which can only be anonymized once */
+    private Data                  data;
+
+    /** Configuration */
+    private ARXConfiguration      config;
+
+    /**
+     * Loads the data
+     * @throws IOException
+     */
+    @Setup(Level.Invocation)
+    public void setup() throws IOException {
+        data = BenchmarkEnvironment.getData(dataset);
+        config = BenchmarkEnvironment.createConfiguration();
+        config.setAlgorithm(algorithm);
+        config.setHeuristicSearchStepLimit(1000);
+        config.setNumberOfThreads(threads);
+    }
+
+    /**
+     * Anonymizes the data
+     * @return
+     * @throws IOException
+     */
+    @Benchmark
+    public ARXResult anonymize() throws IOException {
+        return new ARXAnonymizer().anonymize(data, config);
+    }
+}
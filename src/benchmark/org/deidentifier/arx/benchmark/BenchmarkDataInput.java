@@ -0,0 +1,114 @@
+/*
+ * ARX Data Anonymization Tool
+ * Copyright 2012 - 2025 Fabian Prasser and contributors
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.deidentifier.arx.benchmark;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+import org.deidentifier.arx.BenchmarkEnvironment;
+import org.deidentifier.arx.framework.data.Dictionary;
+import org.deidentifier.arx.io.CSVDataInput;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+
+/**
+ * Benchmarks for parsing CSV files and for encoding values with dictionaries.
+ *
+ * @author Fabian Prasser
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class BenchmarkDataInput {
+
+    /** Dataset */
+    @Param({ "adult", "cup", "fars", "atus", "ihis" })
+    public String         dataset;
+
+    /** File */
+    private File          file;
+
+    /** Parsed records, including the header */
+    private List<String[]> records;
+
+    /**
+     * Prepares the benchmark
+     * @throws IOException
+     */
+    @Setup(Level.Trial)
+    public void setup() throws IOException {
+        file = BenchmarkEnvironment.getFile(dataset);
+        records = new ArrayList<String[]>();
+        CSVDataInput input = new CSVDataInput(file, StandardCharsets.UTF_8, ';');
+        Iterator<String[]> iterator = input.iterator(true);
+        while (iterator.hasNext()) {
+            records.add(iterator.next());
+        }
+        input.close();
+    }
+
+    /**
+     * Parses the dataset
+     * @param blackhole
+     * @throws IOException
+     */
+    @Benchmark
+    public void parse(Blackhole blackhole) throws IOException {
+        CSVDataInput input = new CSVDataInput(file, StandardCharsets.UTF_8, ';');
+        Iterator<String[]> iterator = input.iterator(true);
+        while (iterator.hasNext()) {
+            blackhole.consume(iterator.next());
+        }
+        input.close();
+    }
+
+    /**
+     * Encodes the dataset
+     * @return
+     */
+    @Benchmark
+    public Dictionary register() {
+        Dictionary dictionary = new Dictionary(records.get(0).length);
+        for (int row = 1; row < records.size(); row++) {
+            String[] record = records.get(row);
+            for (int column = 0; column < record.length; column++) {
+                dictionary.register(column, record[column]);
+            }
+        }
+        return dictionary;
+    }
+}
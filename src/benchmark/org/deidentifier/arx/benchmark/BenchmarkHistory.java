@@ -0,0 +1,156 @@
+/*
+ * ARX Data Anonymization Tool
+ * Copyright 2012 - 2025 Fabian Prasser and contributors
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.deidentifier.arx.benchmark;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+import org.deidentifier.arx.ARXConfiguration.ARXConfigurationInternal;
+import org.deidentifier.arx.BenchmarkEnvironment;
+import org.deidentifier.arx.framework.check.Transformer;
+import org.deidentifier.arx.framework.check.distribution.IntArrayDictionary;
+import org.deidentifier.arx.framework.check.groupify.HashGroupify;
+import org.deidentifier.arx.framework.check.history.History;
+import org.deidentifier.arx.framework.check.history.History.StorageStrategy;
+import org.deidentifier.arx.framework.data.DataManager;
+import org.deidentifier.arx.framework.lattice.ObjectIterator;
+import org.deidentifier.arx.framework.lattice.SolutionSpace;
+import org.deidentifier.arx.framework.lattice.Transformation;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * Benchmarks for storing and retrieving snapshots. The history is filled with snapshots of
+ * all transformations on the lowest levels of the solution space.
+ *
+ * @author Fabian Prasser
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 10, time = 1)
+@Fork(1)
+public class BenchmarkHistory {
+
+    /** Dataset */
+    @Param({ "adult", "cup", "fars", "atus", "ihis" })
+    public String                   dataset;
+
+    /** Number of snapshots */
+    @Param({ "200" })
+    public int                      size;
+
+    /** History */
+    private History                 history;
+
+    /** Groupify to create snapshots from */
+    private HashGroupify            groupify;
+
+    /** Stored transformations */
+    private List<Transformation<?>> transformations;
+
+    /** Transformation to retrieve a snapshot for */
+    private int[]                   top;
+
+    /** Index of the next transformation to store */
+    private int                     index;
+
+    /**
+     * Prepares the benchmark
+     * @throws IOException
+     */
+    @Setup(Level.Trial)
+    public void setup() throws IOException {
+
+        // Prepare
+        BenchmarkEnvironment environment = new BenchmarkEnvironment(dataset, BenchmarkEnvironment.createConfiguration());
+        DataManager manager = environment.getManager();
+        ARXConfigurationInternal config = environment.getConfiguration();
+        SolutionSpace<?> solutionSpace = environment.getSolutionSpace();
+        IntArrayDictionary dictionarySensValue = new IntArrayDictionary(0);
+        IntArrayDictionary dictionarySensFreq = new IntArrayDictionary(0);
+        int rows = manager.getDataGeneralized().getDataLength();
+        Transformer transformer = new Transformer(manager.getDataGeneralized().getArray(),
+                                                  manager.getDataAnalyzed().getArray(),
+                                                  manager.getAggregationInformation().getHotThreshold(),
+                                                  manager.getHierarchies(),
+                                                  config,
+                                                  dictionarySensValue,
+                                                  dictionarySensFreq,
+                                                  manager.getDataGeneralized().getDictionary().getSuppressedCodes(),
+                                                  1);
+        groupify = new HashGroupify((int) (rows * 0.01d),
+                                    config,
+                                    manager.getAggregationInformation().getHotThreshold(),
+                                    manager.getDataGeneralized().getArray(),
+                                    transformer.getBuffer(),
+                                    manager.getDataAnalyzed().getArray(),
+                                    manager.getDataGeneralized().getDictionary().getSuppressedCodes());
+
+        // Collect transformations, starting from the bottom
+        transformations = new ArrayList<Transformation<?>>();
+        for (int level = 0; transformations.size() < size && level <= solutionSpace.getTop().getLevel(); level++) {
+            ObjectIterator<?> iterator = solutionSpace.unsafeGetLevel(level);
+            while (iterator.hasNext() && transformations.size() < size) {
+                transformations.add(solutionSpace.getTransformation(iterator.next()));
+            }
+        }
+        top = solutionSpace.getTop().getGeneralization();
+
+        // Fill the history using the groupify of the top transformation, which is small
+        transformer.apply(0L, top, groupify);
+        transformer.shutdown();
+        history = new History(rows, size, 1d, 1d, config, dictionarySensValue, dictionarySensFreq, solutionSpace);
+        history.setStorageStrategy(StorageStrategy.ALL);
+        for (Transformation<?> transformation : transformations) {
+            history.store(transformation, groupify, null);
+        }
+    }
+
+    /**
+     * Retrieves the smallest snapshot of an ancestor of the top transformation
+     * @return
+     */
+    @Benchmark
+    public int[] get() {
+        return history.get(top);
+    }
+
+    /**
+     * Stores a snapshot, evicting the least recently used one
+     * @return
+     */
+    @Benchmark
+    public boolean store() {
+        index = (index + 1) % transformations.size();
+        return history.store(transformations.get(index), groupify, null);
+    }
+}
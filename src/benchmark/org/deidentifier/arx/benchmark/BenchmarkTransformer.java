@@ -0,0 +1,204 @@
+/*
+ * ARX Data Anonymization Tool
+ * Copyright 2012 - 2025 Fabian Prasser and contributors
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.deidentifier.arx.benchmark;
+
+import java.io.IOException;
+import java.util.concurrent.TimeUnit;
+
+import org.deidentifier.arx.ARXConfiguration.ARXConfigurationInternal;
+import org.deidentifier.arx.BenchmarkEnvironment;
+import org.deidentifier.arx.framework.check.Transformer;
+import org.deidentifier.arx.framework.check.distribution.IntArrayDictionary;
+import org.deidentifier.arx.framework.check.groupify.HashGroupify;
+import org.deidentifier.arx.framework.check.history.History;
+import org.deidentifier.arx.framework.check.history.History.StorageStrategy;
+import org.deidentifier.arx.framework.data.DataManager;
+import org.deidentifier.arx.framework.lattice.SolutionSpace;
+import org.deidentifier.arx.framework.lattice.Transformation;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * Benchmarks for transforming data with the three types of transitions and for analyzing
+ * the resulting equivalence classes. Data is transformed from a transformation in the
+ * middle of the solution space to one of its successors.
+ *
+ * @author Fabian Prasser
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 10, time = 1)
+@Fork(1)
+public class BenchmarkTransformer {
+
+    /** Dataset */
+    @Param({ "adult", "cup", "fars", "atus", "ihis" })
+    public String             dataset;
+
+    /** Transformer */
+    private Transformer       transformer;
+
+    /** Groupify holding the predecessor */
+    private HashGroupify      source;
+
+    /** Groupify holding the result */
+    private HashGroupify      target;
+
+    /** The predecessor */
+    private int[]             predecessor;
+
+    /** The transformation */
+    private Transformation<?> transformation;
+
+    /** Projection of the transition from the predecessor */
+    private long              projection;
+
+    /** Snapshot of the predecessor */
+    private int[]             snapshot;
+
+    /**
+     * Prepares the benchmark
+     * @throws IOException
+     */
+    @Setup(Level.Trial)
+    public void setup() throws IOException {
+
+        // Prepare
+        BenchmarkEnvironment environment = new BenchmarkEnvironment(dataset, BenchmarkEnvironment.createConfiguration());
+        DataManager manager = environment.getManager();
+        ARXConfigurationInternal config = environment.getConfiguration();
+        SolutionSpace<?> solutionSpace = environment.getSolutionSpace();
+        IntArrayDictionary dictionarySensValue = new IntArrayDictionary(0);
+        IntArrayDictionary dictionarySensFreq = new IntArrayDictionary(0);
+        int[] suppressedCodes = manager.getDataGeneralized().getDictionary().getSuppressedCodes();
+        int rows = manager.getDataGeneralized().getDataLength();
+        transformer = new Transformer(manager.getDataGeneralized().getArray(),
+                                      manager.getDataAnalyzed().getArray(),
+                                      manager.getAggregationInformation().getHotThreshold(),
+                                      manager.getHierarchies(),
+                                      config,
+                                      dictionarySensValue,
+                                      dictionarySensFreq,
+                                      suppressedCodes,
+                                      1);
+        source = createGroupify(manager, config, rows);
+        target = createGroupify(manager, config, rows);
+
+        // Transformations
+        int[] min = manager.getHierarchiesMinLevels();
+        int[] max = manager.getHierarchiesMaxLevels();
+        predecessor = new int[min.length];
+        int[] generalization = new int[min.length];
+        for (int i = 0; i < min.length; i++) {
+            predecessor[i] = (min[i] + max[i]) / 2;
+            generalization[i] = (i % 2 == 0) ? Math.min(predecessor[i] + 1, max[i]) : predecessor[i];
+            projection |= (predecessor[i] == generalization[i]) ? 1L << i : 0L;
+        }
+        transformation = solutionSpace.getTransformation(generalization);
+
+        // Transform predecessor and create a snapshot
+        transformer.apply(0L, predecessor, source);
+        History history = new History(rows, 1, 1d, 1d, config, dictionarySensValue, dictionarySensFreq, solutionSpace);
+        history.setStorageStrategy(StorageStrategy.ALL);
+        history.store(solutionSpace.getTransformation(predecessor), source, null);
+        snapshot = history.get(generalization);
+        if (snapshot == null) {
+            throw new IllegalStateException("No snapshot available");
+        }
+    }
+
+    /**
+     * Frees resources
+     */
+    @TearDown(Level.Trial)
+    public void tearDown() {
+        transformer.shutdown();
+    }
+
+    /**
+     * Transforms the input data
+     * @return
+     */
+    @Benchmark
+    public HashGroupify apply() {
+        target.stateClear();
+        return transformer.apply(0L, transformation.getGeneralization(), target);
+    }
+
+    /**
+     * Transforms the equivalence classes of the predecessor
+     * @return
+     */
+    @Benchmark
+    public HashGroupify applyRollup() {
+        target.stateClear();
+        return transformer.applyRollup(projection, transformation.getGeneralization(), source, target);
+    }
+
+    /**
+     * Transforms the snapshot of the predecessor
+     * @return
+     */
+    @Benchmark
+    public HashGroupify applySnapshot() {
+        target.stateClear();
+        return transformer.applySnapshot(projection, transformation.getGeneralization(), target, snapshot);
+    }
+
+    /**
+     * Transforms the snapshot of the predecessor and checks the privacy model
+     * @return
+     */
+    @Benchmark
+    public boolean stateAnalyze() {
+        target.stateClear();
+        transformer.applySnapshot(projection, transformation.getGeneralization(), target, snapshot);
+        target.stateAnalyze(transformation, true);
+        return target.isPrivacyModelFulfilled();
+    }
+
+    /**
+     * Creates a groupify operator
+     * @param manager
+     * @param config
+     * @param rows
+     * @return
+     */
+    private HashGroupify createGroupify(DataManager manager, ARXConfigurationInternal config, int rows) {
+        return new HashGroupify((int) (rows * 0.01d),
+                                config,
+                                manager.getAggregationInformation().getHotThreshold(),
+                                manager.getDataGeneralized().getArray(),
+                                transformer.getBuffer(),
+                                manager.getDataAnalyzed().getArray(),
+                                manager.getDataGeneralized().getDictionary().getSuppressedCodes());
+    }
+}
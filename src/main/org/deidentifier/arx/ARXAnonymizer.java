@@ -151,19 +151,25 @@ public class ARXAnonymizer { // NO_UCD
     }
 
     /** History size. */
-    private int         historySize          = 200;
+    private int                    historySize          = 200;
+
+    /** Memory budget of the history in bytes. */
+    private long                   historyMemoryLimit   = Long.MAX_VALUE;
 
     /** The listener, if any. */
-    private ARXListener listener             = null;
+    private ARXListener            listener             = null;
+
+    /** The performance listener, if any. */
+    private ARXPerformanceListener performanceListener  = null;
 
     /** Snapshot size. */
-    private double      snapshotSizeDataset  = 0.2d;
+    private double                 snapshotSizeDataset  = 0.2d;
 
     /** Snapshot size snapshot. */
-    private double      snapshotSizeSnapshot = 0.8d;
+    private double                 snapshotSizeSnapshot = 0.8d;
 
     /** The maximal number of QIs that can be processed. */
-    private int         maxQuasiIdentifiers  = Integer.MAX_VALUE;
+    private int                    maxQuasiIdentifiers  = Integer.MAX_VALUE;
 
 
     /**
@@ -226,6 +232,15 @@ public class ARXAnonymizer { // NO_UCD
         return anonymize(manager, handle.getDefinition(), config).asResult(config, handle);
     }
     
+    /**
+     * Returns the memory budget of the history in bytes.
+     * 
+     * @return The budget
+     */
+    public long getHistoryMemoryLimit() {
+        return historyMemoryLimit;
+    }
+
     /**
      * Returns the maximum number of snapshots allowed to store in the history.
      * 
@@ -262,6 +277,28 @@ public class ARXAnonymizer { // NO_UCD
         return maxQuasiIdentifiers;
     }
 
+    /**
+     * Returns the performance listener, if any.
+     * 
+     * @return
+     */
+    public ARXPerformanceListener getPerformanceListener() {
+        return performanceListener;
+    }
+
+    /**
+     * Sets the memory budget of the history in bytes. If the budget is exceeded, the least
+     * recently used snapshots are spilled to a memory-mapped temporary file. The budget
+     * applies to each concurrently used checker. By default, the budget is not limited.
+     * 
+     * @param historyMemoryLimit
+     *            The budget
+     */
+    public void setHistoryMemoryLimit(final long historyMemoryLimit) {
+        if (historyMemoryLimit < 0) { throw new IllegalArgumentException("Memory limit of the history must be positive or 0"); }
+        this.historyMemoryLimit = historyMemoryLimit;
+    }
+
     /**
      * Sets the maximum number of snapshots allowed to store in the history.
      * 
@@ -305,6 +342,17 @@ public class ARXAnonymizer { // NO_UCD
         this.snapshotSizeSnapshot = snapshotSizeSnapshot;
     }
 
+    /**
+     * Sets a listener, which is informed about the performance of each transformation checked.
+     * Aggregated statistics are available via ARXProcessStatistics.getPerformanceStatistics().
+     * 
+     * @param performanceListener
+     *            the new listener, if any
+     */
+    public void setPerformanceListener(final ARXPerformanceListener performanceListener) {
+        this.performanceListener = performanceListener;
+    }
+
     /**
      * Sets the maximal number of quasi-identifiers. Set to Integer.MAX_VALUE to disable the 
      * restriction. By default, the restriction is disabled.
@@ -769,6 +817,8 @@ public class ARXAnonymizer { // NO_UCD
                                                                         snapshotSizeDataset,
                                                                         snapshotSizeSnapshot,
                                                                         solutionSpace);
+        checker.getHistory().setMemoryLimit(historyMemoryLimit);
+        checker.setPerformanceListener(performanceListener);
 
         // Create an algorithm instance
         AbstractAlgorithm algorithm = getAlgorithm(config,
@@ -796,8 +846,10 @@ public class ARXAnonymizer { // NO_UCD
      */
     protected void parse(ARXAnonymizer anonymizer) {
         this.historySize = anonymizer.historySize;
+        this.historyMemoryLimit = anonymizer.historyMemoryLimit;
         this.snapshotSizeDataset = anonymizer.snapshotSizeDataset;
         this.snapshotSizeSnapshot = anonymizer.snapshotSizeSnapshot;
         this.maxQuasiIdentifiers = anonymizer.maxQuasiIdentifiers;
+        this.performanceListener = anonymizer.performanceListener;
     }
 }
\ No newline at end of file
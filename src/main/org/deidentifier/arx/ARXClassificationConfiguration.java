@@ -61,6 +61,8 @@ public abstract class ARXClassificationConfiguration<T extends ARXClassification
     public static final int     DEFAULT_NUMBER_OF_FOLDS = 10;
     /** Default value */
     public static final int     DEFAULT_VECTOR_LENGTH   = 1000;
+    /** Default value */
+    public static final int     DEFAULT_NUMBER_OF_THREADS = 1;
 
     /** Deterministic */
     private boolean             deterministic           = DEFAULT_DETERMINISTIC;
@@ -74,6 +76,8 @@ public abstract class ARXClassificationConfiguration<T extends ARXClassification
     private int                 vectorLength            = DEFAULT_VECTOR_LENGTH;
     /** Modified */
     private boolean             modified                = false;
+    /** Threads */
+    private Integer             numberOfThreads         = DEFAULT_NUMBER_OF_THREADS;
 
     /**
      * Creates a new instance with default settings
@@ -89,13 +93,15 @@ public abstract class ARXClassificationConfiguration<T extends ARXClassification
      * @param numberOfFolds
      * @param seed
      * @param vectorLength
+     * @param numberOfThreads
      */
-    protected ARXClassificationConfiguration(boolean deterministic, int maxRecords, int numberOfFolds, long seed, int vectorLength) {
+    protected ARXClassificationConfiguration(boolean deterministic, int maxRecords, int numberOfFolds, long seed, int vectorLength, int numberOfThreads) {
         this.deterministic = deterministic;
         this.maxRecords = maxRecords;
         this.numberOfFolds = numberOfFolds;
         this.seed = seed;
         this.vectorLength = vectorLength;
+        this.numberOfThreads = numberOfThreads;
     }
 
     @Override
@@ -115,6 +121,16 @@ public abstract class ARXClassificationConfiguration<T extends ARXClassification
         return numberOfFolds;
     }
 
+    /**
+     * @return the number of threads used for cross-validation
+     */
+    public int getNumberOfThreads() {
+        if (this.numberOfThreads == null) {
+            this.numberOfThreads = DEFAULT_NUMBER_OF_THREADS;
+        }
+        return numberOfThreads;
+    }
+
     /**
      * @return the seed
      */
@@ -155,6 +171,7 @@ public abstract class ARXClassificationConfiguration<T extends ARXClassification
         this.setNumFolds(config.numberOfFolds);
         this.setSeed((int)config.seed);
         this.setVectorLength(config.vectorLength);
+        this.setNumberOfThreads(config.getNumberOfThreads());
     }
     
     /**
@@ -208,6 +225,25 @@ public abstract class ARXClassificationConfiguration<T extends ARXClassification
         return (T)this;
     }
     
+    /**
+     * Sets the number of threads used for cross-validation. Folds and the different
+     * models trained for each fold are evaluated concurrently. Results do not depend
+     * on the number of threads.
+     * 
+     * @param numberOfThreads the numberOfThreads to set
+     */
+    @SuppressWarnings("unchecked")
+    public T setNumberOfThreads(int numberOfThreads) {
+        if (numberOfThreads <= 0) {
+            throw new IllegalArgumentException("Must be >0");
+        }
+        if (this.getNumberOfThreads() != numberOfThreads) {
+            setModified();
+            this.numberOfThreads = numberOfThreads;
+        }
+        return (T)this;
+    }
+    
     /**
      * Seed for randomization. Set to Integer.MAX_VALUE for randomization.
      * @param seed the seed to set
@@ -85,6 +85,25 @@ public class ARXConfiguration implements Serializable, Cloneable {
             this.config = config;
         }
 
+        /**
+         * Creates a copy of this configuration with separate instances of all privacy models,
+         * which are initialized for the given data manager. Privacy models may maintain
+         * internal buffers, so each thread checking transformations needs its own copy.
+         *
+         * @param manager
+         * @return
+         */
+        public ARXConfigurationInternal createWorkerConfiguration(DataManager manager) {
+            ARXConfiguration result = config.clone();
+            result.criteria = new HashSet<PrivacyCriterion>();
+            for (PrivacyCriterion c : config.criteria) {
+                // Differential privacy has already been initialized by the DataManager
+                result.criteria.add(c instanceof EDDifferentialPrivacy ? c : c.clone());
+            }
+            result.initialize(manager);
+            return result.getInternalConfiguration();
+        }
+
         /**
          * Returns the maximum number of allowed outliers.
          *
@@ -167,6 +186,15 @@ public class ARXConfiguration implements Serializable, Cloneable {
             return config.getQualityModel();
         }
         
+        /**
+         * Returns the number of threads used for checking transformations
+         * 
+         * @return
+         */
+        public int getNumberOfThreads() {
+            return config.getNumberOfThreads();
+        }
+
         /**
          * Returns the criteria's requirements.
          *
@@ -434,6 +462,12 @@ public class ARXConfiguration implements Serializable, Cloneable {
     /** The algorithm to use */
     private AnonymizationAlgorithm             algorithm                             = AnonymizationAlgorithm.OPTIMAL;
 
+    /** Number of threads used for checking transformations */
+    private Integer                            numberOfThreads                       = 1;
+
+    /** Whether data is stored with the minimal number of bits per column */
+    private Boolean                            compactDataRepresentation             = false;
+
 	
     /**
      * Creates a new configuration without tuple suppression.
@@ -575,6 +609,8 @@ public class ARXConfiguration implements Serializable, Cloneable {
 		result.geneticAlgorithmProductionFraction = this.geneticAlgorithmProductionFraction;
         result.geneticAlgorithmIterations = this.geneticAlgorithmIterations;
         result.algorithm = this.algorithm;
+        result.numberOfThreads = this.numberOfThreads;
+        result.compactDataRepresentation = this.compactDataRepresentation;
         if (this.attributeWeights != null) {
             result.attributeWeights = new HashMap<String, Double>(this.attributeWeights);
         } else {
@@ -888,7 +924,18 @@ public class ARXConfiguration implements Serializable, Cloneable {
             return Monotonicity.NONE;
         }
     }
-    
+
+    /**
+     * Returns the number of threads used for checking transformations. The default is 1.
+     * @return
+     */
+    public int getNumberOfThreads() {
+        if (this.numberOfThreads == null) {
+            this.numberOfThreads = 1;
+        }
+        return this.numberOfThreads;
+    }
+
     /**
      * Returns an instance of the class, if any. Throws an exception if more than one such model exists.
      *
@@ -1046,6 +1093,18 @@ public class ARXConfiguration implements Serializable, Cloneable {
         return this.suppressionAlwaysEnabled;
     }
 
+    /**
+     * Returns whether data is stored with the minimal number of bits per column. Default is <code>false</code>.
+     * @return
+     */
+    public boolean isUseCompactDataRepresentation() {
+        // Ensure backwards compatibility
+        if (this.compactDataRepresentation == null) {
+            this.compactDataRepresentation = false;
+        }
+        return this.compactDataRepresentation;
+    }
+
     /**
      * Is optimality guaranteed for sample-based criteria?
      */
@@ -1284,6 +1343,20 @@ public class ARXConfiguration implements Serializable, Cloneable {
         this.relMaxOutliers = max;
     }
 
+	/**
+     * Sets the number of threads used for checking transformations. With more than one thread,
+     * the records of large datasets are transformed and grouped in parallel partitions which are
+     * merged in order, producing the same results as with one thread. Moreover, the optimal and
+     * binary search algorithms as well as the genetic algorithm check candidate transformations
+     * concurrently with additional checkers, each of which maintains its own output buffer and
+     * history. The default is 1.
+     * @param numberOfThreads
+     */
+    public void setNumberOfThreads(int numberOfThreads) {
+        if (numberOfThreads <= 0) { throw new IllegalArgumentException("Parameter must be > 0"); }
+        this.numberOfThreads = numberOfThreads;
+    }
+
 	/**
      * Set, if practical monotonicity assumed.
      *
@@ -1320,6 +1393,17 @@ public class ARXConfiguration implements Serializable, Cloneable {
         this.relMaxOutliers = limit;
     }
 
+    /**
+     * Defines whether the generalized quasi-identifiers and the output buffers are stored with the
+     * minimal number of bits per column needed for the values in the dictionary, e.g. 8 bits for
+     * attributes with less than 256 distinct values and generalizations. This reduces the memory
+     * footprint, at the price of additional operations for accessing values. Default is <code>false</code>.
+     * @param value
+     */
+    public void setUseCompactDataRepresentation(boolean value) {
+        this.compactDataRepresentation = value;
+    }
+
     /**
      * Do we guarantee optimality for sample-based criteria?
      */
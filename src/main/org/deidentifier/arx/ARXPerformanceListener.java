@@ -0,0 +1,36 @@
+/*
+ * ARX Data Anonymization Tool
+ * Copyright 2012 - 2025 Fabian Prasser and contributors
+ * 
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * 
+ * http://www.apache.org/licenses/LICENSE-2.0
+ * 
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.deidentifier.arx;
+
+/**
+ * A listener, which is informed about the performance of individual steps of the
+ * anonymization process. It can be used to diagnose slow runs.
+ *
+ * @author Fabian Prasser
+ */
+public interface ARXPerformanceListener {
+
+    /**
+     * Reports that a transformation has been checked. If multiple threads are used,
+     * this method may be called concurrently.
+     *
+     * @param check Statistics about the check
+     */
+    public void checked(ARXPerformanceStatistics.Check check);
+
+}
@@ -0,0 +1,414 @@
+/*
+ * ARX Data Anonymization Tool
+ * Copyright 2012 - 2025 Fabian Prasser and contributors
+ * 
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * 
+ * http://www.apache.org/licenses/LICENSE-2.0
+ * 
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.deidentifier.arx;
+
+import java.io.Serializable;
+
+import org.deidentifier.arx.framework.check.TransformationChecker;
+import org.deidentifier.arx.framework.check.history.History;
+import org.deidentifier.arx.framework.data.DataManager;
+
+/**
+ * Statistics about the performance of the anonymization process. They can be used to tune
+ * the history of the anonymizer (see ARXAnonymizer.setHistorySize() and the limits for
+ * snapshot sizes) and to diagnose slow runs. All durations are measured in nanoseconds.
+ * 
+ * @author Fabian Prasser
+ */
+public class ARXPerformanceStatistics implements Serializable {
+
+    /**
+     * Statistics about checking an individual transformation
+     * 
+     * @author Fabian Prasser
+     */
+    public static class Check implements Serializable {
+
+        /** SVUID */
+        private static final long    serialVersionUID = 2480185213637385427L;
+
+        /** The transformation */
+        private final int[]          transformation;
+
+        /** The type of transition */
+        private final TransitionType transition;
+
+        /** Time spent transforming data */
+        private final long           durationTransformation;
+
+        /** Time spent analyzing equivalence classes */
+        private final long           durationAnalysis;
+
+        /** Time spent scoring the transformation */
+        private final long           durationScoring;
+
+        /** Number of equivalence classes */
+        private final int            numEquivalenceClasses;
+
+        /**
+         * Creates a new instance
+         * @param transformation
+         * @param transition
+         * @param durationTransformation
+         * @param durationAnalysis
+         * @param durationScoring
+         * @param numEquivalenceClasses
+         */
+        public Check(int[] transformation,
+                     TransitionType transition,
+                     long durationTransformation,
+                     long durationAnalysis,
+                     long durationScoring,
+                     int numEquivalenceClasses) {
+            this.transformation = transformation;
+            this.transition = transition;
+            this.durationTransformation = durationTransformation;
+            this.durationAnalysis = durationAnalysis;
+            this.durationScoring = durationScoring;
+            this.numEquivalenceClasses = numEquivalenceClasses;
+        }
+
+        /**
+         * Returns the time spent grouping records and evaluating privacy models
+         * @return
+         */
+        public long getDurationAnalysis() {
+            return durationAnalysis;
+        }
+
+        /**
+         * Returns the time spent calculating the quality of the transformation
+         * @return
+         */
+        public long getDurationScoring() {
+            return durationScoring;
+        }
+
+        /**
+         * Returns the time spent transforming data, including the maintenance of the history
+         * @return
+         */
+        public long getDurationTransformation() {
+            return durationTransformation;
+        }
+
+        /**
+         * Returns the number of equivalence classes
+         * @return
+         */
+        public int getNumberOfEquivalenceClasses() {
+            return numEquivalenceClasses;
+        }
+
+        /**
+         * Returns the transformation as an array of generalization levels
+         * @return
+         */
+        public int[] getTransformation() {
+            return transformation;
+        }
+
+        /**
+         * Returns the type of transition used to transform data
+         * @return
+         */
+        public TransitionType getTransition() {
+            return transition;
+        }
+    }
+
+    /**
+     * Types of transitions used to transform data
+     * 
+     * @author Fabian Prasser
+     */
+    public static enum TransitionType {
+
+        /** All records have been transformed */
+        UNOPTIMIZED,
+
+        /** The equivalence classes of the previous transformation have been rolled up */
+        ROLLUP,
+
+        /** The equivalence classes of a snapshot from the history have been transformed */
+        SNAPSHOT
+    }
+
+    /** SVUID */
+    private static final long serialVersionUID = -1842432155394563451L;
+
+    /** Number of transformations checked */
+    private long              numChecks;
+
+    /** Number of transitions of each type */
+    private long[]            numTransitions   = new long[TransitionType.values().length];
+
+    /** Time spent transforming data */
+    private long              durationTransformation;
+
+    /** Time spent analyzing equivalence classes */
+    private long              durationAnalysis;
+
+    /** Time spent scoring transformations */
+    private long              durationScoring;
+
+    /** Total number of equivalence classes */
+    private long              numEquivalenceClasses;
+
+    /** Maximal number of equivalence classes */
+    private int               numEquivalenceClassesMax;
+
+    /** Number of requests to the history for which a snapshot has been found */
+    private long              numHistoryHits;
+
+    /** Number of requests to the history for which no snapshot has been found */
+    private long              numHistoryMisses;
+
+    /** Number of snapshots stored */
+    private long              numHistoryStores;
+
+    /** Number of snapshots evicted, because the history was full */
+    private long              numHistoryEvictions;
+
+    /** Number of snapshots removed, because they were not needed anymore */
+    private long              numHistoryRemovals;
+
+    /** Maximal size of snapshots held in memory */
+    private long              memoryHistory;
+
+    /** Size of the data buffers */
+    private long              memoryData;
+
+    /**
+     * Clone constructor
+     * @param other
+     */
+    private ARXPerformanceStatistics(ARXPerformanceStatistics other) {
+        this.numTransitions = other.numTransitions.clone();
+        this.numChecks = other.numChecks;
+        this.durationTransformation = other.durationTransformation;
+        this.durationAnalysis = other.durationAnalysis;
+        this.durationScoring = other.durationScoring;
+        this.numEquivalenceClasses = other.numEquivalenceClasses;
+        this.numEquivalenceClassesMax = other.numEquivalenceClassesMax;
+        this.numHistoryHits = other.numHistoryHits;
+        this.numHistoryMisses = other.numHistoryMisses;
+        this.numHistoryStores = other.numHistoryStores;
+        this.numHistoryEvictions = other.numHistoryEvictions;
+        this.numHistoryRemovals = other.numHistoryRemovals;
+        this.memoryHistory = other.memoryHistory;
+        this.memoryData = other.memoryData;
+    }
+
+    /**
+     * Creates an instance representing the fact that no transformations have been checked
+     */
+    protected ARXPerformanceStatistics() {
+        // Empty by design
+    }
+
+    /**
+     * Creates an instance from the given checker, including all workers released by it
+     * @param checker
+     * @param manager
+     */
+    protected ARXPerformanceStatistics(TransformationChecker checker, DataManager manager) {
+        this.add(checker);
+        this.memoryData = manager.getByteSize();
+    }
+
+    /**
+     * Returns the average number of equivalence classes per transformation checked
+     * @return
+     */
+    public double getAverageNumberOfEquivalenceClasses() {
+        return numChecks == 0 ? 0d : (double) numEquivalenceClasses / (double) numChecks;
+    }
+
+    /**
+     * Returns the time spent grouping records and evaluating privacy models
+     * @return
+     */
+    public long getDurationAnalysis() {
+        return durationAnalysis;
+    }
+
+    /**
+     * Returns the time spent calculating the quality of transformations
+     * @return
+     */
+    public long getDurationScoring() {
+        return durationScoring;
+    }
+
+    /**
+     * Returns the time spent transforming data, including the maintenance of the history
+     * @return
+     */
+    public long getDurationTransformation() {
+        return durationTransformation;
+    }
+
+    /**
+     * Returns the fraction of requests to the history for which a snapshot has been found
+     * @return
+     */
+    public double getHistoryHitRate() {
+        long requests = numHistoryHits + numHistoryMisses;
+        return requests == 0 ? 0d : (double) numHistoryHits / (double) requests;
+    }
+
+    /**
+     * Returns the size of the data buffers of the anonymization process in bytes
+     * @return
+     */
+    public long getMemoryUsageData() {
+        return memoryData;
+    }
+
+    /**
+     * Returns the maximal size of the snapshots which have been held in memory by the history
+     * in bytes. If multiple threads are used, this is the maximum over all threads.
+     * @return
+     */
+    public long getMemoryUsageHistory() {
+        return memoryHistory;
+    }
+
+    /**
+     * Returns the maximal number of equivalence classes of a transformation checked
+     * @return
+     */
+    public int getMaximalNumberOfEquivalenceClasses() {
+        return numEquivalenceClassesMax;
+    }
+
+    /**
+     * Returns the number of transformations checked
+     * @return
+     */
+    public long getNumberOfChecks() {
+        return numChecks;
+    }
+
+    /**
+     * Returns the number of snapshots which have been evicted from the history, because it was full.
+     * Many evictions indicate that the size of the history should be increased.
+     * @return
+     */
+    public long getNumberOfHistoryEvictions() {
+        return numHistoryEvictions;
+    }
+
+    /**
+     * Returns the number of requests to the history for which a snapshot has been found
+     * @return
+     */
+    public long getNumberOfHistoryHits() {
+        return numHistoryHits;
+    }
+
+    /**
+     * Returns the number of requests to the history for which no snapshot has been found
+     * @return
+     */
+    public long getNumberOfHistoryMisses() {
+        return numHistoryMisses;
+    }
+
+    /**
+     * Returns the number of snapshots which have been removed from the history, because
+     * they were not needed anymore
+     * @return
+     */
+    public long getNumberOfHistoryRemovals() {
+        return numHistoryRemovals;
+    }
+
+    /**
+     * Returns the number of snapshots which have been stored in the history
+     * @return
+     */
+    public long getNumberOfHistoryStores() {
+        return numHistoryStores;
+    }
+
+    /**
+     * Returns the number of transitions of the given type
+     * @param type
+     * @return
+     */
+    public long getNumberOfTransitions(TransitionType type) {
+        return numTransitions[type.ordinal()];
+    }
+
+    /**
+     * Returns new statistics that are a merger of this and the other statistics
+     * @param statistics
+     * @return
+     */
+    public ARXPerformanceStatistics merge(ARXPerformanceStatistics statistics) {
+        ARXPerformanceStatistics result = new ARXPerformanceStatistics(this);
+        for (int i = 0; i < numTransitions.length; i++) {
+            result.numTransitions[i] += statistics.numTransitions[i];
+        }
+        result.numChecks += statistics.numChecks;
+        result.durationTransformation += statistics.durationTransformation;
+        result.durationAnalysis += statistics.durationAnalysis;
+        result.durationScoring += statistics.durationScoring;
+        result.numEquivalenceClasses += statistics.numEquivalenceClasses;
+        result.numEquivalenceClassesMax = Math.max(result.numEquivalenceClassesMax, statistics.numEquivalenceClassesMax);
+        result.numHistoryHits += statistics.numHistoryHits;
+        result.numHistoryMisses += statistics.numHistoryMisses;
+        result.numHistoryStores += statistics.numHistoryStores;
+        result.numHistoryEvictions += statistics.numHistoryEvictions;
+        result.numHistoryRemovals += statistics.numHistoryRemovals;
+        result.memoryHistory = Math.max(result.memoryHistory, statistics.memoryHistory);
+        result.memoryData = Math.max(result.memoryData, statistics.memoryData);
+        return result;
+    }
+
+    @Override
+    public ARXPerformanceStatistics clone() {
+        return new ARXPerformanceStatistics(this);
+    }
+
+    /**
+     * Adds the statistics collected by the given checker
+     * @param checker
+     */
+    private void add(TransformationChecker checker) {
+        for (TransitionType type : TransitionType.values()) {
+            long transitions = checker.getNumTransitions(type);
+            this.numTransitions[type.ordinal()] += transitions;
+            this.numChecks += transitions;
+        }
+        this.durationTransformation += checker.getDurationTransformation();
+        this.durationAnalysis += checker.getDurationAnalysis();
+        this.durationScoring += checker.getDurationScoring();
+        this.numEquivalenceClasses += checker.getNumEquivalenceClasses();
+        this.numEquivalenceClassesMax = Math.max(this.numEquivalenceClassesMax, checker.getNumEquivalenceClassesMax());
+        History history = checker.getHistory();
+        this.numHistoryHits += history.getNumHits();
+        this.numHistoryMisses += history.getNumMisses();
+        this.numHistoryStores += history.getNumStores();
+        this.numHistoryEvictions += history.getNumEvictions();
+        this.numHistoryRemovals += history.getNumRemovals();
+        this.memoryHistory = Math.max(this.memoryHistory, history.getMemoryUsagePeak());
+    }
+}
@@ -253,25 +253,28 @@ public class ARXProcessStatistics implements Serializable {
     }
 
     /** SVUID */
-    private static final long serialVersionUID       = -7984648262848553971L;
+    private static final long        serialVersionUID       = -7984648262848553971L;
 
     /** List of steps performed */
-    private List<Step>        steps                  = new ArrayList<Step>();
+    private List<Step>               steps                  = new ArrayList<Step>();
 
     /** Total transformations available in this step */
-    private long              transformationsTotal;
+    private long                     transformationsTotal;
 
     /** Total transformations available in this step */
-    private BigInteger        transformationsTotalLargeLattice;
+    private BigInteger               transformationsTotalLargeLattice;
 
     /** Transformations checked in this step */
-    private long              transformationsChecked;
+    private long                     transformationsChecked;
 
     /** If known */
-    private int               initialNumberOfRecords = -1;
+    private int                      initialNumberOfRecords = -1;
 
     /** Duration */
-    private long              duration;
+    private long                     duration;
+
+    /** Performance */
+    private ARXPerformanceStatistics performance;
 
     /**
      * Clone constructor
@@ -283,6 +286,7 @@ public class ARXProcessStatistics implements Serializable {
         this.transformationsTotalLargeLattice = other.transformationsTotalLargeLattice;
         this.duration = other.duration;
         this.initialNumberOfRecords = other.initialNumberOfRecords;
+        this.performance = other.performance != null ? other.performance.clone() : null;
         this.steps = new ArrayList<>();
         for (Step step : other.steps) {
             this.steps.add(step.clone());
@@ -304,6 +308,18 @@ public class ARXProcessStatistics implements Serializable {
      * @param duration
      */
     protected ARXProcessStatistics(ARXLattice lattice, ARXNode optimum, boolean isOptimal, long duration) {
+        this(lattice, optimum, isOptimal, duration, null);
+    }
+
+    /**
+     * Creates an instance for the global anonymization step
+     * @param lattice
+     * @param optimum
+     * @param isOptimal
+     * @param duration
+     * @param performance
+     */
+    protected ARXProcessStatistics(ARXLattice lattice, ARXNode optimum, boolean isOptimal, long duration, ARXPerformanceStatistics performance) {
         
         // Add step
         if (optimum != null) {
@@ -312,6 +328,7 @@ public class ARXProcessStatistics implements Serializable {
 
         // Compute statistics
         this.duration += duration;
+        this.performance = performance;
         this.transformationsTotal += lattice.getVirtualSize().longValue();  
         this.transformationsTotalLargeLattice = BigInteger.valueOf(0);
         this.transformationsTotalLargeLattice = this.transformationsTotalLargeLattice.add(lattice.getVirtualSize());
@@ -355,6 +372,7 @@ public class ARXProcessStatistics implements Serializable {
         this.transformationsTotalLargeLattice = this.transformationsTotalLargeLattice.add(result.solutionSpace.getSize());
         this.transformationsTotal += result.solutionSpace.getSize().longValue();
         this.duration += duration;
+        this.performance = new ARXPerformanceStatistics(result.checker, result.manager);
         
         // Collect number of checked transformations
         for (ObjectIterator<?> iterator = result.solutionSpace.getMaterializedTransformations(); iterator.hasNext();) {
@@ -394,6 +412,15 @@ public class ARXProcessStatistics implements Serializable {
         return steps.size();
     }
 
+    /**
+     * Returns statistics about the performance of the process. If no transformations have
+     * been checked, e.g. because the result has been loaded from a project, all values are 0.
+     * @return
+     */
+    public ARXPerformanceStatistics getPerformanceStatistics() {
+        return this.performance != null ? this.performance : new ARXPerformanceStatistics();
+    }
+
     /**
      * Returns a step performed during the anonymization process
      * @param index
@@ -486,5 +513,8 @@ public class ARXProcessStatistics implements Serializable {
         this.transformationsTotal += stats.transformationsTotal;
         this.transformationsChecked += stats.transformationsChecked;
         this.duration += stats.duration;
+        if (stats.performance != null) {
+            this.performance = this.performance != null ? this.performance.merge(stats.performance) : stats.performance.clone();
+        }
     }
 }
\ No newline at end of file
@@ -17,14 +17,26 @@
 
 package org.deidentifier.arx;
 
+import java.io.File;
 import java.io.IOException;
 import java.io.InputStream;
+import java.nio.channels.FileChannel;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.HashMap;
+import java.util.List;
 import java.util.Map;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Future;
 
 import org.deidentifier.arx.ARXAnonymizer.Result;
 import org.deidentifier.arx.ARXLattice.ARXNode;
+import org.deidentifier.arx.common.DaemonThreads;
 import org.deidentifier.arx.criteria.PrivacyCriterion;
+import org.deidentifier.arx.exceptions.ComputationInterruptedException;
 import org.deidentifier.arx.exceptions.RollbackRequiredException;
 import org.deidentifier.arx.framework.check.TransformationApplicator;
 import org.deidentifier.arx.framework.check.TransformationChecker;
@@ -34,10 +46,14 @@ import org.deidentifier.arx.framework.data.Data;
 import org.deidentifier.arx.framework.data.DataManager;
 import org.deidentifier.arx.framework.data.DataMatrix;
 import org.deidentifier.arx.framework.data.Dictionary;
+import org.deidentifier.arx.framework.data.GeneralizationHierarchy;
 import org.deidentifier.arx.framework.lattice.SolutionSpace;
 import org.deidentifier.arx.framework.lattice.Transformation;
 import org.deidentifier.arx.metric.Metric;
 
+import cern.colt.Sorting;
+import cern.colt.function.IntComparator;
+
 /**
  * Encapsulates the results of an execution of the ARX algorithm.
  *
@@ -46,6 +62,56 @@ import org.deidentifier.arx.metric.Metric;
  */
 public class ARXResult {
 
+    /**
+     * State of iterative local recoding, which is kept across iterations
+     *
+     * @author Fabian Prasser
+     */
+    private static class LocalRecodingState {
+
+        /** Definition, cloned once */
+        private final DataDefinition definition;
+
+        /** Suppressed rows of the baseline, in ascending order */
+        private final int[]          rows;
+
+        /** Number of suppressed rows */
+        private int                  numRows;
+
+        /**
+         * Creates a new instance
+         * @param definition
+         * @param rows
+         */
+        private LocalRecodingState(DataDefinition definition, int[] rows) {
+            this.definition = definition;
+            this.rows = rows;
+            this.numRows = rows.length;
+        }
+
+        /**
+         * Removes all rows, which are not suppressed in the given output anymore
+         * @param output
+         */
+        private void update(DataHandleOutput output) {
+            DataMatrix generalized = output.getOutputBufferGeneralized().getArray();
+            if (generalized == null || generalized.getNumRows() == 0) {
+                return;
+            }
+            int remaining = 0;
+            for (int index = 0; index < numRows; index++) {
+                int row = rows[index];
+                if ((generalized.get(row, 0) & Data.OUTLIER_MASK) != 0) {
+                    rows[remaining++] = row;
+                }
+            }
+            numRows = remaining;
+        }
+    }
+
+    /** Applicator, which may reuse state from the last transformation applied */
+    private TransformationApplicator        applicator;
+
     /** Anonymizer */
     private ARXAnonymizer                   anonymizer;
 
@@ -149,8 +215,7 @@ public class ARXResult {
         // Initialize the metric
         metric.initialize(manager, definition, manager.getDataGeneralized(), manager.getHierarchies(), config);
 
-        this.buffer = new DataMatrix(manager.getDataGeneralized().getArray().getNumRows(), 
-                                     manager.getDataGeneralized().getArray().getNumColumns());
+        this.buffer = manager.getDataGeneralized().getArray().newInstance();
         
         // Initialize the result
         this.registry = handle.getRegistry();
@@ -194,6 +259,7 @@ public class ARXResult {
         this.registry = registry;
         this.manager = manager;
         this.buffer = checker.getOutputBuffer();
+        this.applicator = checker.getApplicator();
         this.definition = definition;
         this.config = config;
         this.lattice = lattice;
@@ -201,7 +267,8 @@ public class ARXResult {
         this.duration = duration;
         this.solutionSpace = solutionSpace;
         this.optimumFound = optimumFound;
-        this.statistics = new ARXProcessStatistics(lattice, optimalTransformation, optimumFound, duration);
+        this.statistics = new ARXProcessStatistics(lattice, optimalTransformation, optimumFound, duration,
+                                                   new ARXPerformanceStatistics(checker, manager));
     }
 
     /**
@@ -320,10 +387,12 @@ public class ARXResult {
 
         // Apply the transformation
         final Transformation<?> transformation = solutionSpace.getTransformation(node.getTransformation());
-        TransformationApplicator applicator = new TransformationApplicator(this.manager,
-                                                                           this.buffer,
-                                                                           this.config.getQualityModel(),
-                                                                           this.config.getInternalConfiguration());
+        if (applicator == null) {
+            applicator = new TransformationApplicator(this.manager,
+                                                      this.buffer,
+                                                      this.config.getQualityModel(),
+                                                      this.config.getInternalConfiguration());
+        }
         
         TransformedData information = applicator.applyTransformation(transformation);
         transformation.setChecked(information.properties);
@@ -412,6 +481,38 @@ public class ARXResult {
         return result;
     }
 
+    /**
+     * Internal method, not for external use. Reads an output written with
+     * DataHandleOutput.write(), which will be memory-mapped.
+     * 
+     * @param file
+     * @param transformation
+     * @return
+     * @throws IOException 
+     * @throws ClassNotFoundException 
+     */
+    public DataHandle getOutput(File file, ARXNode transformation) throws ClassNotFoundException, IOException {
+        
+        // Create
+        DataHandleOutput result;
+        try (FileChannel channel = FileChannel.open(file.toPath(), StandardOpenOption.READ)) {
+            result = new DataHandleOutput(this,
+                                          registry,
+                                          manager,
+                                          channel,
+                                          transformation,
+                                          definition,
+                                          config);
+        }
+        
+        // Lock
+        bufferLockedByHandle = result; 
+        bufferLockedByNode = transformation;
+        
+        // Return
+        return result;
+    }
+
     /**
      * Returns statistics for the anonymization process
      * @return
@@ -456,17 +557,17 @@ public class ARXResult {
             }
         }
 
-        // Baseline records
-        RowSet baselineRowSet = config.getSubset() == null ? null : config.getSubset().getSet();
-        
         // Check, if there are enough outliers
-        int outliers = 0;
-        for (int row = 0; row < output.getNumRows(); row++) {
-            if (output.isOutlier(row) && (baselineRowSet == null || baselineRowSet.contains(row))) {
-                outliers++;
-            }
-        }
-        
+        return isOptimizable(getSuppressedRows(output).length);
+    }
+
+    /**
+     * Returns whether local recoding can be applied to the given number of suppressed records
+     * @param outliers
+     * @return
+     */
+    private boolean isOptimizable(int outliers) {
+
         // Check minimal group size
         if (config.getMinimalGroupSize() != Integer.MAX_VALUE && outliers < config.getMinimalGroupSize()) {
             return false;
@@ -586,6 +687,25 @@ public class ARXResult {
                                              double records,
                                              double gsFactor,
                                              ARXListener listener) throws RollbackRequiredException {
+        return optimizeFast(handle, records, gsFactor, listener, null);
+    }
+
+    /**
+     * This method optimizes the given data output with local recoding to improve its utility.
+     * If a state is given, it is used instead of scanning the handle and updated afterwards.
+     * @param handle
+     * @param records
+     * @param gsFactor
+     * @param listener
+     * @param state
+     * @return
+     * @throws RollbackRequiredException
+     */
+    private ARXProcessStatistics optimizeFast(DataHandle handle,
+                                              double records,
+                                              double gsFactor,
+                                              ARXListener listener,
+                                              LocalRecodingState state) throws RollbackRequiredException {
         
         // Check if null
         if (listener == null) {
@@ -613,7 +733,7 @@ public class ARXResult {
         }
         
         // Check if optimizable
-        if (!isOptimizable(handle)) {
+        if (state == null ? !isOptimizable(handle) : !isOptimizable(state.numRows)) {
             return new ARXProcessStatistics();
         }
         
@@ -629,20 +749,16 @@ public class ARXResult {
         }
         
         // Baseline records
-        RowSet baselineRowSet = config.getSubset() == null ? null : config.getSubset().getSet();
-        int baselineRecords = baselineRowSet == null ? output.getNumRows() : baselineRowSet.size();
+        int baselineRecords = config.getSubset() == null ? output.getNumRows() : config.getSubset().getSet().size();
         
         // We are now ready to go
         // Collect input and row indices
-        int initialRecords = 0;
+        int[] rows = state == null ? getSuppressedRows(output) : Arrays.copyOf(state.rows, state.numRows);
         RowSet rowset = RowSet.create(output.getNumRows());
-        for (int row = 0; row < output.getNumRows(); row++) {
-            if (output.isOutlier(row) && (baselineRowSet == null || baselineRowSet.contains(row))) {
-                rowset.add(row);
-                initialRecords++;
-            }
+        for (int row : rows) {
+            rowset.add(row);
         }
-        initialRecords = baselineRecords - initialRecords;
+        int initialRecords = baselineRecords - rows.length;
         
         // Everything that is used from here on, needs to be either
         // (a) state-less, or
@@ -665,28 +781,13 @@ public class ARXResult {
         // are cloned, when cloning the definition
         // TODO: This is probably not necessary, because they are used from the data manager,
         //       which in turn creates a clone by itself
-        DataDefinition definition = this.definition.clone();
+        DataDefinition definition = state == null ? this.definition.clone() : state.definition;
         
         // Clone the data manager
-        DataManager manager = this.manager.getSubsetInstance(rowset);
-        
-        // Create an anonymizer
-        ARXAnonymizer anonymizer = new ARXAnonymizer();
-        if (listener != null) {
-            anonymizer.setListener(listener);
-        }
-        if (this.anonymizer != null) {
-            anonymizer.parse(this.anonymizer);
-        }
+        DataManager manager = this.manager.getSubsetInstance(rows);
         
         // Anonymize
-        Result result = null;
-        try {
-            result = anonymizer.anonymize(manager, definition, config);
-        } catch (IOException e) {
-            // This should not happen at this point in time, as data has already been read from the source
-            throw new RuntimeException("Internal error: unexpected IO issue");
-        }
+        Result result = anonymize(manager, definition, config, listener);
         
         // Break, if no solution has been found
         if (result.optimum == null) {
@@ -695,30 +796,19 @@ public class ARXResult {
         
         // Else, merge the results back into the given handle
         TransformedData data = result.checker.getApplicator().applyTransformation(result.optimum, output.getOutputBufferMicroaggregated().getDictionary());
-        int newIndex = -1;
-        DataMatrix oldGeneralized = output.getOutputBufferGeneralized().getArray();
-        DataMatrix oldMicroaggregated = output.getOutputBufferMicroaggregated().getArray();
-        DataMatrix newGeneralized = data.bufferGeneralized.getArray();
-        DataMatrix newMicroaggregated = data.bufferMicroaggregated.getArray();
         
         try {
             
-            int optimized = 0;
-            for (int oldIndex = 0; oldIndex < rowset.length(); oldIndex++) {
-                if (rowset.contains(oldIndex)) {
-                    newIndex++;
-                    if (oldGeneralized != null && oldGeneralized.getNumRows() != 0) {
-                        oldGeneralized.copyFrom(oldIndex, newGeneralized, newIndex);
-                        optimized += (newGeneralized.get(newIndex, 0) & Data.OUTLIER_MASK) != 0 ? 0 : 1;
-                    }
-                    if (oldMicroaggregated != null && oldMicroaggregated.getNumRows() != 0) {
-                        oldMicroaggregated.copyFrom(oldIndex, newMicroaggregated, newIndex);
-                    }
-                }
-            }
+            // Invalidate cached equivalence classes
+            output.getRegistry().resetEquivalenceClassIndices();
+            
+            // Merge
+            int optimized = merge(output, result, data, rows);
             
-            // Update data types
-            output.updateDataTypes(result.optimum.getGeneralization());
+            // Keep track of records that are still suppressed
+            if (state != null) {
+                state.update(output);
+            }
             
             // Mark as optimized
             if (optimized != 0) {
@@ -781,69 +871,7 @@ public class ARXResult {
                                                   final int maxIterations,
                                                   final double adaptionFactor,
                                                   final ARXListener listener) throws RollbackRequiredException {
-        // Check parameters
-        if (gsFactor < 0d || gsFactor > 1d) {
-            throw new IllegalArgumentException("Generalization/suppression factor must be in [0, 1]");
-        }
-        if (adaptionFactor < 0d || adaptionFactor > 1d) {
-            throw new IllegalArgumentException("Adaption factor must be in [0, 1]");
-        }
-        if (maxIterations <= 0) {
-            throw new IllegalArgumentException("Max. iterations must be > zero");
-        }
-        if (handle == null) {
-            throw new NullPointerException("Handle must not be null");
-        }
-        
-        // Prepare 
-        int iterationsTotal = 0;
-        int optimizedCurrent = Integer.MAX_VALUE;
-        int optimizedTotal = 0;
-        int optimizedGoal = 0;
-        for (int row = 0; row < handle.getNumRows(); row++) {
-            optimizedGoal += handle.isOutlier(row) ? 1 : 0;
-        }
-        
-        // Statistics
-        ARXProcessStatistics statistics = new ARXProcessStatistics();
-
-        // Progress
-        listener.progress(0d);
-        
-        // Outer loop
-        while (isOptimizable(handle) && iterationsTotal < maxIterations && optimizedCurrent > 0) {
-
-            // Perform individual optimization
-            ARXProcessStatistics _statistics = optimize(handle, gsFactor);
-            optimizedCurrent = 0;
-            if (_statistics.isSolutationAvailable()) {
-                optimizedCurrent = _statistics.getStep(0).getNumberOfRecordsTransformed();
-                statistics = statistics.merge(_statistics);
-            }
-            optimizedTotal += optimizedCurrent;
-            
-            // Try to adapt, if possible
-            if (optimizedCurrent == 0 && adaptionFactor > 0d) {
-                gsFactor += adaptionFactor;
-                
-                // If valid, try again
-                if (gsFactor <= 1d) {
-                    optimizedCurrent = Integer.MAX_VALUE;
-                }
-            }
-            iterationsTotal++;
-
-            // Progress
-            double progress1 = (double)optimizedTotal / (double)optimizedGoal;
-            double progress2 = (double)iterationsTotal / (double)maxIterations;
-            listener.progress(Math.max(progress1, progress2));
-        }
-
-        // Progress
-        listener.progress(1d);
-        
-        // Done
-        return statistics;
+        return this.optimizeIterativeParallel(handle, gsFactor, maxIterations, adaptionFactor, 1, listener);
     }
 
     /**
@@ -918,8 +946,11 @@ public class ARXResult {
         // Progress
         listener.progress(0d);
         
+        // State that is kept across iterations
+        LocalRecodingState state = createLocalRecodingState(handle);
+        
         // Outer loop
-        while (isOptimizable(handle) && optimizedCurrent > 0) {
+        while (state != null && isOptimizable(state.numRows) && optimizedCurrent > 0) {
 
             // Progress
             final double minProgress = (double)optimizedTotal / (double)optimizedGoal;
@@ -931,7 +962,7 @@ public class ARXResult {
                 public void progress(double progress) {
                     listener.progress(minProgress + progress * (maxProgress - minProgress));
                 }
-            });
+            }, state);
             optimizedCurrent = 0;
             if (_statistics.isSolutationAvailable()) {
                 optimizedCurrent = _statistics.getStep(0).getNumberOfRecordsTransformed();
@@ -950,6 +981,417 @@ public class ARXResult {
         return statistics;
     }
     
+    /**
+     * This method optimizes the given data output with local recoding to improve its utility.
+     * In each iteration, the suppressed records are partitioned into blocks, which are
+     * optimized concurrently, see {@link #optimizeParallel(DataHandle, double, int, ARXListener)}.
+     * @param handle
+     * @param gsFactor A factor [0,1] weighting generalization and suppression.
+     *            The default value is 0.5, which means that generalization
+     *            and suppression will be treated equally. A factor of 0
+     *            will favor suppression, and a factor of 1 will favor
+     *            generalization. The values in between can be used for
+     *            balancing both methods.
+     * @param maxIterations The maximal number of iterations to perform
+     * @param adaptionFactor Is added to the gsFactor when reaching a fixpoint 
+     * @param numberOfThreads The number of threads, and hence blocks, to use
+     * @throws RollbackRequiredException 
+     */
+    public ARXProcessStatistics optimizeIterativeParallel(DataHandle handle,
+                                                          double gsFactor,
+                                                          int maxIterations,
+                                                          double adaptionFactor,
+                                                          int numberOfThreads) throws RollbackRequiredException {
+        return this.optimizeIterativeParallel(handle, gsFactor, maxIterations, adaptionFactor, numberOfThreads, new ARXListener(){
+            @Override
+            public void progress(double progress) {
+                // Empty by design
+            }
+        });
+    }
+
+    /**
+     * This method optimizes the given data output with local recoding to improve its utility.
+     * In each iteration, the suppressed records are partitioned into blocks, which are
+     * optimized concurrently, see {@link #optimizeParallel(DataHandle, double, int, ARXListener)}.
+     * @param handle
+     * @param gsFactor A factor [0,1] weighting generalization and suppression.
+     *            The default value is 0.5, which means that generalization
+     *            and suppression will be treated equally. A factor of 0
+     *            will favor suppression, and a factor of 1 will favor
+     *            generalization. The values in between can be used for
+     *            balancing both methods.
+     * @param maxIterations The maximal number of iterations to perform
+     * @param adaptionFactor Is added to the gsFactor when reaching a fixpoint 
+     * @param numberOfThreads The number of threads, and hence blocks, to use
+     * @param listener 
+     * @throws RollbackRequiredException 
+     */
+    public ARXProcessStatistics optimizeIterativeParallel(final DataHandle handle,
+                                                          double gsFactor,
+                                                          final int maxIterations,
+                                                          final double adaptionFactor,
+                                                          final int numberOfThreads,
+                                                          final ARXListener listener) throws RollbackRequiredException {
+        // Check parameters
+        if (gsFactor < 0d || gsFactor > 1d) {
+            throw new IllegalArgumentException("Generalization/suppression factor must be in [0, 1]");
+        }
+        if (adaptionFactor < 0d || adaptionFactor > 1d) {
+            throw new IllegalArgumentException("Adaption factor must be in [0, 1]");
+        }
+        if (maxIterations <= 0) {
+            throw new IllegalArgumentException("Max. iterations must be > zero");
+        }
+        if (numberOfThreads <= 0) {
+            throw new IllegalArgumentException("Number of threads must be > zero");
+        }
+        if (handle == null) {
+            throw new NullPointerException("Handle must not be null");
+        }
+        
+        // Prepare 
+        int iterationsTotal = 0;
+        int optimizedCurrent = Integer.MAX_VALUE;
+        int optimizedTotal = 0;
+        int optimizedGoal = 0;
+        for (int row = 0; row < handle.getNumRows(); row++) {
+            optimizedGoal += handle.isOutlier(row) ? 1 : 0;
+        }
+        
+        // Statistics
+        ARXProcessStatistics statistics = new ARXProcessStatistics();
+
+        // Progress
+        listener.progress(0d);
+        
+        // State that is kept across iterations
+        LocalRecodingState state = createLocalRecodingState(handle);
+        
+        // Outer loop
+        while (state != null && isOptimizable(state.numRows) && iterationsTotal < maxIterations && optimizedCurrent > 0) {
+
+            // Perform individual optimization
+            ARXProcessStatistics _statistics = optimizeParallel(handle, gsFactor, numberOfThreads, new ARXListener(){
+                @Override
+                public void progress(double progress) {
+                    // Empty by design
+                }
+            }, state);
+            optimizedCurrent = 0;
+            if (_statistics.isSolutationAvailable()) {
+                for (ARXProcessStatistics.Step step : _statistics.getSteps()) {
+                    optimizedCurrent += step.getNumberOfRecordsTransformed();
+                }
+                statistics = statistics.merge(_statistics);
+            }
+            optimizedTotal += optimizedCurrent;
+            
+            // Try to adapt, if possible
+            if (optimizedCurrent == 0 && adaptionFactor > 0d) {
+                gsFactor += adaptionFactor;
+                
+                // If valid, try again
+                if (gsFactor <= 1d) {
+                    optimizedCurrent = Integer.MAX_VALUE;
+                }
+            }
+            iterationsTotal++;
+
+            // Progress
+            double progress1 = (double)optimizedTotal / (double)optimizedGoal;
+            double progress2 = (double)iterationsTotal / (double)maxIterations;
+            listener.progress(Math.max(progress1, progress2));
+        }
+
+        // Progress
+        listener.progress(1d);
+        
+        // Done
+        return statistics;
+    }
+
+    /**
+     * This method optimizes the given data output with local recoding to improve its utility.
+     * The suppressed records are partitioned into blocks of records with similar values of a coarse
+     * generalization of the quasi-identifiers. The blocks are optimized independently and concurrently,
+     * and the results are merged into the handle afterwards.
+     * @param handle
+     * @param gsFactor A factor [0,1] weighting generalization and suppression.
+     *            The default value is 0.5, which means that generalization
+     *            and suppression will be treated equally. A factor of 0
+     *            will favor suppression, and a factor of 1 will favor
+     *            generalization. The values in between can be used for
+     *            balancing both methods.
+     * @param numberOfThreads The number of threads, and hence blocks, to use
+     * @return The number of optimized records
+     * @throws RollbackRequiredException 
+     */
+    public ARXProcessStatistics optimizeParallel(DataHandle handle, double gsFactor, int numberOfThreads) throws RollbackRequiredException {
+        return this.optimizeParallel(handle, gsFactor, numberOfThreads, new ARXListener(){
+            @Override
+            public void progress(double progress) {
+                // Empty by design
+            }
+        });
+    }
+
+    /**
+     * This method optimizes the given data output with local recoding to improve its utility.
+     * The suppressed records are partitioned into blocks of records with similar values of a coarse
+     * generalization of the quasi-identifiers. The blocks are optimized independently and concurrently,
+     * and the results are merged into the handle afterwards.
+     * @param handle
+     * @param gsFactor A factor [0,1] weighting generalization and suppression.
+     *            The default value is 0.5, which means that generalization
+     *            and suppression will be treated equally. A factor of 0
+     *            will favor suppression, and a factor of 1 will favor
+     *            generalization. The values in between can be used for
+     *            balancing both methods.
+     * @param numberOfThreads The number of threads, and hence blocks, to use
+     * @param listener 
+     * @return The number of optimized records
+     * @throws RollbackRequiredException 
+     */
+    public ARXProcessStatistics optimizeParallel(DataHandle handle,
+                                                 double gsFactor,
+                                                 int numberOfThreads,
+                                                 ARXListener listener) throws RollbackRequiredException {
+        return optimizeParallel(handle, gsFactor, numberOfThreads, listener, null);
+    }
+
+    /**
+     * This method optimizes the given data output with local recoding to improve its utility.
+     * If a state is given, it is used instead of scanning the handle and updated afterwards.
+     * @param handle
+     * @param gsFactor
+     * @param numberOfThreads
+     * @param listener
+     * @param state
+     * @return
+     * @throws RollbackRequiredException
+     */
+    private ARXProcessStatistics optimizeParallel(DataHandle handle,
+                                                  double gsFactor,
+                                                  int numberOfThreads,
+                                                  final ARXListener listener,
+                                                  LocalRecodingState state) throws RollbackRequiredException {
+
+        // Check if null
+        if (listener == null) {
+            throw new NullPointerException("Listener must not be null");
+        }
+        
+        // Check if null
+        if (handle == null) {
+            throw new NullPointerException("Handle must not be null");
+        }
+        
+        // Check bounds
+        if (numberOfThreads <= 0) {
+            throw new IllegalArgumentException("Number of threads must be > zero");
+        }
+        
+        // Sequential
+        if (numberOfThreads == 1) {
+            return optimizeFast(handle, Double.NaN, gsFactor, listener, state);
+        }
+        
+        // Check bounds
+        if (!Double.isNaN(gsFactor) && (gsFactor < 0d || gsFactor > 1d)) {
+            throw new IllegalArgumentException("Generalization/suppression factor must be in [0, 1]");
+        }
+        
+        // Check if output
+        if (!(handle instanceof DataHandleOutput)) {
+            throw new IllegalArgumentException("Local recoding can only be applied to output data");
+        }
+        
+        // Check if optimizable
+        if (state == null ? !isOptimizable(handle) : !isOptimizable(state.numRows)) {
+            return new ARXProcessStatistics();
+        }
+        
+        // Extract
+        DataHandleOutput output = (DataHandleOutput)handle;
+        
+        // Check, if input matches
+        if (output.getInputBuffer() == null || !output.getInputBuffer().equals(this.manager.getDataGeneralized().getArray())) {
+            throw new IllegalArgumentException("This output data is not associated to the correct input data");
+        }
+        
+        // Baseline records
+        int baselineRecords = config.getSubset() == null ? output.getNumRows() : config.getSubset().getSet().size();
+        
+        // Collect row indices and partition them
+        int[] rows = state == null ? getSuppressedRows(output) : Arrays.copyOf(state.rows, state.numRows);
+        int initialRecords = baselineRecords - rows.length;
+        final int[][] partitions = getPartitions(rows, numberOfThreads);
+        
+        // Prepare an independent configuration, definition and data manager for each partition. 
+        // Everything is projected and cloned on this thread, so that the tasks do not share any
+        // mutable state. Partitions are processed with one thread each.
+        final double[] progress = new double[partitions.length];
+        final long[] durations = new long[partitions.length];
+        final int total = rows.length;
+        List<Callable<Result>> tasks = new ArrayList<>();
+        for (int i = 0; i < partitions.length; i++) {
+            RowSet rowset = RowSet.create(output.getNumRows());
+            for (int row : partitions[i]) {
+                rowset.add(row);
+            }
+            final ARXConfiguration config = this.config.getInstanceForLocalRecoding(rowset, gsFactor);
+            config.setNumberOfThreads(1);
+            final DataDefinition definition = this.definition.clone();
+            final DataManager manager = this.manager.getSubsetInstance(partitions[i]);
+            final int index = i;
+            tasks.add(new Callable<Result>() {
+                @Override
+                public Result call() throws Exception {
+                    long time = System.currentTimeMillis();
+                    Result result = anonymize(manager, definition, config, new ARXListener() {
+                        @Override
+                        public void progress(double value) {
+                            synchronized (progress) {
+                                progress[index] = value;
+                                double sum = 0d;
+                                for (int partition = 0; partition < partitions.length; partition++) {
+                                    sum += progress[partition] * partitions[partition].length;
+                                }
+                                listener.progress(sum / total);
+                            }
+                        }
+                    });
+                    durations[index] = System.currentTimeMillis() - time;
+                    return result;
+                }
+            });
+        }
+        
+        // Anonymize
+        Result[] results = anonymize(tasks, numberOfThreads);
+        
+        // Merge the results back into the given handle
+        try {
+            
+            // Invalidate cached equivalence classes
+            output.getRegistry().resetEquivalenceClassIndices();
+            
+            // Merge each partition
+            ARXProcessStatistics statistics = new ARXProcessStatistics();
+            int optimized = 0;
+            for (int i = 0; i < partitions.length; i++) {
+                
+                // Skip partitions for which no solution has been found
+                Result result = results[i];
+                if (result.optimum == null) {
+                    continue;
+                }
+                TransformedData data = result.checker.getApplicator().applyTransformation(result.optimum, output.getOutputBufferMicroaggregated().getDictionary());
+                int _optimized = merge(output, result, data, partitions[i]);
+                statistics = statistics.merge(new ARXProcessStatistics(result, initialRecords, _optimized, durations[i]));
+                optimized += _optimized;
+            }
+            
+            // Keep track of records that are still suppressed
+            if (state != null) {
+                state.update(output);
+            }
+            
+            // Mark as optimized
+            if (optimized != 0) {
+                output.setOptimized(true);
+            }
+            
+            // Done
+            return statistics;
+            
+        // If anything happens in the above block, the operation needs to be rolled back, because
+        // the buffer might be in an inconsistent state
+        } catch (Exception e) {
+            throw new RollbackRequiredException("Handle must be rebuilt to guarantee privacy", e);
+        }
+    }
+    
+    /**
+     * Anonymizes the given data with a fresh anonymizer, which is configured like the one used
+     * for creating this result
+     * @param manager
+     * @param definition
+     * @param config
+     * @param listener
+     * @return
+     */
+    private Result anonymize(DataManager manager, DataDefinition definition, ARXConfiguration config, ARXListener listener) {
+        
+        // Create an anonymizer
+        ARXAnonymizer anonymizer = new ARXAnonymizer();
+        if (listener != null) {
+            anonymizer.setListener(listener);
+        }
+        if (this.anonymizer != null) {
+            anonymizer.parse(this.anonymizer);
+        }
+        
+        // Anonymize
+        try {
+            return anonymizer.anonymize(manager, definition, config);
+        } catch (IOException e) {
+            // This should not happen at this point in time, as data has already been read from the source
+            throw new RuntimeException("Internal error: unexpected IO issue");
+        }
+    }
+
+    /**
+     * Executes the given anonymization tasks concurrently
+     * @param tasks
+     * @param numberOfThreads
+     * @return
+     */
+    private Result[] anonymize(List<Callable<Result>> tasks, int numberOfThreads) {
+        
+        ExecutorService pool = DaemonThreads.newFixedThreadPool(Math.min(numberOfThreads, tasks.size()), "ARX local recoding");
+        
+        // Submit
+        List<Future<Result>> futures = new ArrayList<>();
+        try {
+            for (Callable<Result> task : tasks) {
+                futures.add(pool.submit(task));
+            }
+            Result[] results = new Result[futures.size()];
+            for (int i = 0; i < results.length; i++) {
+                results[i] = futures.get(i).get();
+            }
+            return results;
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new ComputationInterruptedException("Interrupted");
+        } catch (ExecutionException e) {
+            if (e.getCause() instanceof RuntimeException) {
+                throw (RuntimeException)e.getCause();
+            } else {
+                throw new RuntimeException("Internal error: unexpected issue during local recoding", e.getCause());
+            }
+        } finally {
+            for (Future<Result> future : futures) {
+                future.cancel(true);
+            }
+            pool.shutdown();
+        }
+    }
+    
+    /**
+     * Creates the state for iterative local recoding, if local recoding can be applied
+     * @param handle
+     * @return
+     */
+    private LocalRecodingState createLocalRecodingState(DataHandle handle) {
+        if (!isOptimizable(handle)) {
+            return null;
+        }
+        return new LocalRecodingState(this.definition.clone(), getSuppressedRows((DataHandleOutput)handle));
+    }
+
     /**
      * Returns a map of all microaggregation functions
      * @param definition
@@ -963,6 +1405,121 @@ public class ARXResult {
         return result;
     }
 
+    /**
+     * Partitions the given rows into the given number of blocks at most, each of which contains
+     * at least as many records as required by the minimal group size. Records are sorted by the
+     * second-highest generalization level of all quasi-identifiers and then by their values, so that
+     * each block contains records, which are likely to be generalized to common values.
+     * @param rows
+     * @param numberOfPartitions
+     * @return Partitions, each in ascending order
+     */
+    private int[][] getPartitions(int[] rows, int numberOfPartitions) {
+        
+        // Determine number of partitions
+        int minimalSize = config.getMinimalGroupSize() == Integer.MAX_VALUE ? 1 : config.getMinimalGroupSize();
+        numberOfPartitions = Math.max(1, Math.min(numberOfPartitions, rows.length / minimalSize));
+        if (numberOfPartitions == 1) {
+            return new int[][] { rows };
+        }
+        
+        // Prepare
+        final DataMatrix data = this.manager.getDataGeneralized().getArray();
+        GeneralizationHierarchy[] hierarchies = this.manager.getHierarchies();
+        final int[][][] maps = new int[hierarchies.length][][];
+        final int[] levels = new int[hierarchies.length];
+        for (int column = 0; column < hierarchies.length; column++) {
+            maps[column] = hierarchies[column].getArray();
+            levels[column] = Math.max(0, hierarchies[column].getHeight() - 2);
+        }
+        
+        // Sort
+        int[] order = rows.clone();
+        Sorting.mergeSort(order, 0, order.length, new IntComparator() {
+            @Override
+            public int compare(int row1, int row2) {
+                for (int column = 0; column < maps.length; column++) {
+                    int cmp = Integer.compare(maps[column][data.get(row1, column)][levels[column]],
+                                              maps[column][data.get(row2, column)][levels[column]]);
+                    if (cmp != 0) {
+                        return cmp;
+                    }
+                }
+                for (int column = 0; column < maps.length; column++) {
+                    int cmp = Integer.compare(data.get(row1, column), data.get(row2, column));
+                    if (cmp != 0) {
+                        return cmp;
+                    }
+                }
+                return Integer.compare(row1, row2);
+            }
+        });
+        
+        // Split into blocks of equal size
+        int[][] partitions = new int[numberOfPartitions][];
+        for (int partition = 0; partition < numberOfPartitions; partition++) {
+            int from = (int) ((long) order.length * partition / numberOfPartitions);
+            int to = (int) ((long) order.length * (partition + 1) / numberOfPartitions);
+            partitions[partition] = Arrays.copyOfRange(order, from, to);
+            Arrays.sort(partitions[partition]);
+        }
+        return partitions;
+    }
+
+    /**
+     * Returns the suppressed rows of the given output, which belong to the baseline, in ascending order
+     * @param output
+     * @return
+     */
+    private int[] getSuppressedRows(DataHandleOutput output) {
+        RowSet baselineRowSet = config.getSubset() == null ? null : config.getSubset().getSet();
+        int[] rows = new int[output.getNumRows()];
+        int count = 0;
+        for (int row = 0; row < output.getNumRows(); row++) {
+            if (output.isOutlier(row) && (baselineRowSet == null || baselineRowSet.contains(row))) {
+                rows[count++] = row;
+            }
+        }
+        return Arrays.copyOf(rows, count);
+    }
+
+    /**
+     * Copies the transformed records into the given output. The i-th record of the transformed
+     * data belongs to the i-th row in the given array.
+     * @param output
+     * @param result
+     * @param data
+     * @param rows
+     * @return The number of records that are not suppressed anymore
+     */
+    private int merge(DataHandleOutput output, Result result, TransformedData data, int[] rows) {
+        
+        // Prepare
+        DataMatrix oldGeneralized = output.getOutputBufferGeneralized().getArray();
+        DataMatrix oldMicroaggregated = output.getOutputBufferMicroaggregated().getArray();
+        DataMatrix newGeneralized = data.bufferGeneralized.getArray();
+        DataMatrix newMicroaggregated = data.bufferMicroaggregated.getArray();
+        
+        // Copy
+        int optimized = 0;
+        for (int newIndex = 0; newIndex < rows.length; newIndex++) {
+            int oldIndex = rows[newIndex];
+            if (oldGeneralized != null && oldGeneralized.getNumRows() != 0) {
+                oldGeneralized.copyFrom(oldIndex, newGeneralized, newIndex);
+                optimized += (newGeneralized.get(newIndex, 0) & Data.OUTLIER_MASK) != 0 ? 0 : 1;
+            }
+            if (oldMicroaggregated != null && oldMicroaggregated.getNumRows() != 0) {
+                oldMicroaggregated.copyFrom(oldIndex, newMicroaggregated, newIndex);
+            }
+        }
+        
+        // Update data types
+        output.updateDataTypes(result.optimum.getGeneralization());
+        
+        // Done
+        return optimized;
+    }
+
     /**
      * Releases the buffer.
      *
@@ -18,6 +18,8 @@ package org.deidentifier.arx;
 
 import java.util.Arrays;
 
+import org.deidentifier.arx.risk.SolverCache;
+
 import de.linearbits.newtonraphson.NewtonRaphsonConfiguration;
 
 /**
@@ -45,6 +47,14 @@ public class ARXSolverConfiguration extends NewtonRaphsonConfiguration<ARXSolver
     public static double getDefaultAccuracy() {
         return 1e-6;
     }
+
+    /**
+     * Default value. 
+     * @return
+     */
+    public static int getDefaultCacheSize() {
+        return 100;
+    }
     
     /**
      * Default value. 
@@ -101,8 +111,25 @@ public class ARXSolverConfiguration extends NewtonRaphsonConfiguration<ARXSolver
         return 1000;
     }
 
+    /**
+     * Default value. 
+     * @return
+     */
+    public static boolean getDefaultWarmStart() {
+        return false;
+    }
+
     /** Modified*/
-    private boolean modified = false;
+    private boolean             modified = false;
+
+    /** Maximal number of cached results, null for the default */
+    private Integer             cacheSize;
+
+    /** Whether the solver is warm-started, null for the default */
+    private Boolean             warmStart;
+
+    /** Cache */
+    private transient SolverCache cache;
     
     /**
      * Creates a new instance
@@ -121,11 +148,29 @@ public class ARXSolverConfiguration extends NewtonRaphsonConfiguration<ARXSolver
     @Override
     public ARXSolverConfiguration accuracy(double arg0) {
         if (arg0 != super.getAccuracy()) {
-            modified = true;
+            setModified();
         }
         return super.accuracy(arg0);
     }
 
+    /**
+     * Sets the maximal number of results of population uniqueness models, which are cached.
+     * Results are cached per histogram of class sizes and evicted in LRU order. 0 disables caching.
+     * 
+     * @param size
+     * @return
+     */
+    public ARXSolverConfiguration cacheSize(int size) {
+        if (size < 0) {
+            throw new IllegalArgumentException("Cache size must not be negative");
+        }
+        if (size != getCacheSize()) {
+            setModified();
+        }
+        this.cacheSize = size;
+        return this;
+    }
+
     /**
      * Clones this config
      */
@@ -137,9 +182,35 @@ public class ARXSolverConfiguration extends NewtonRaphsonConfiguration<ARXSolver
         result.timePerTry(this.getTimePerTry());
         result.timeTotal(this.getTimeTotal());
         result.preparedStartValues(this.getStartValues().clone());
+        result.cacheSize(this.getCacheSize());
+        result.warmStart(this.isWarmStart());
         return result;
     }
 
+    /**
+     * Returns the cache for results of population uniqueness models, null if caching is disabled.
+     * The cache is cleared when the configuration is modified.
+     * 
+     * @return
+     */
+    public synchronized SolverCache getCache() {
+        if (getCacheSize() == 0) {
+            return null;
+        }
+        if (cache == null) {
+            cache = new SolverCache(getCacheSize());
+        }
+        return cache;
+    }
+
+    /**
+     * Returns the maximal number of cached results
+     * @return
+     */
+    public int getCacheSize() {
+        return cacheSize == null ? getDefaultCacheSize() : cacheSize;
+    }
+
     /**
      * Returns whether the solving process is deterministic
      * @return
@@ -156,10 +227,18 @@ public class ARXSolverConfiguration extends NewtonRaphsonConfiguration<ARXSolver
         return this.modified;
     }
 
+    /**
+     * Returns whether the solver is warm-started with solutions for similar histograms
+     * @return
+     */
+    public boolean isWarmStart() {
+        return warmStart == null ? getDefaultWarmStart() : warmStart;
+    }
+
     @Override
     public ARXSolverConfiguration iterationsPerTry(int arg0) {
         if (arg0 != super.getIterationsPerTry()) {
-            modified = true;
+            setModified();
         }
         return super.iterationsPerTry(arg0);
     }
@@ -167,7 +246,7 @@ public class ARXSolverConfiguration extends NewtonRaphsonConfiguration<ARXSolver
     @Override
     public ARXSolverConfiguration iterationsTotal(int arg0) {
         if (arg0 != super.getIterationsTotal()) {
-            modified = true;
+            setModified();
         }
         return super.iterationsTotal(arg0);
     }
@@ -177,7 +256,7 @@ public class ARXSolverConfiguration extends NewtonRaphsonConfiguration<ARXSolver
         if ((super.getStartValues() == null && values != null) || 
             (values == null && super.getStartValues() != null) ||
             (values != null && !Arrays.equals(super.getStartValues(), values))) {
-            modified = true;
+            setModified();
         }
         return super.preparedStartValues(values);
     }
@@ -201,7 +280,7 @@ public class ARXSolverConfiguration extends NewtonRaphsonConfiguration<ARXSolver
     @Override
     public ARXSolverConfiguration timePerTry(int arg0) {
         if (arg0 != super.getTimePerTry()) {
-            modified = true;
+            setModified();
         }
         return super.timePerTry(arg0);
     }
@@ -209,8 +288,32 @@ public class ARXSolverConfiguration extends NewtonRaphsonConfiguration<ARXSolver
     @Override
     public ARXSolverConfiguration timeTotal(int arg0) {
         if (arg0 != super.getTimeTotal()) {
-            modified = true;
+            setModified();
         }
         return super.timeTotal(arg0);
     }
+
+    /**
+     * Sets whether the solver is warm-started with the solution found for the most similar
+     * histogram in the cache. This may speed up solving, but results may differ within the
+     * specified accuracy, depending on the order in which histograms are solved.
+     * 
+     * @param warmStart
+     * @return
+     */
+    public ARXSolverConfiguration warmStart(boolean warmStart) {
+        if (warmStart != isWarmStart()) {
+            setModified();
+        }
+        this.warmStart = warmStart;
+        return this;
+    }
+
+    /**
+     * Marks this configuration as modified and clears the cache
+     */
+    private synchronized void setModified() {
+        this.modified = true;
+        this.cache = null;
+    }
 }
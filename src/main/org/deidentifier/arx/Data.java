@@ -26,11 +26,15 @@ import java.util.Iterator;
 import java.util.List;
 import java.util.NoSuchElementException;
 
+import org.deidentifier.arx.io.CSVDataEncoder;
 import org.deidentifier.arx.io.CSVDataInput;
 import org.deidentifier.arx.io.CSVOptions;
 import org.deidentifier.arx.io.CSVSyntax;
+import org.deidentifier.arx.io.DataEncoder;
 import org.deidentifier.arx.io.ImportAdapter;
+import org.deidentifier.arx.io.ImportAdapterJDBC;
 import org.deidentifier.arx.io.ImportConfiguration;
+import org.deidentifier.arx.io.JDBCDataEncoder;
 
 /**
  * Represents input data for the ARX framework.
@@ -117,6 +121,71 @@ public abstract class Data { // NO_UCD
 
     }
 
+    /**
+     * A data object for CSV files, which is encoded without materializing records.
+     *
+     * @author Fabian Prasser
+     */
+    static class CSVData extends Data {
+
+        /** Input */
+        private final CSVDataInput input;
+
+        /**
+         * Creates a new instance.
+         *
+         * @param input the input
+         */
+        private CSVData(final CSVDataInput input) {
+            this.input = input;
+        }
+
+        @Override
+        protected DataEncoder getEncoder() {
+            return new CSVDataEncoder(input);
+        }
+
+        @Override
+        protected Iterator<String[]> iterator() {
+            return input.iterator();
+        }
+    }
+
+    /**
+     * A data object for JDBC sources, which is encoded without materializing records.
+     *
+     * @author Fabian Prasser
+     */
+    static class JDBCData extends Data {
+
+        /** Adapter */
+        private final ImportAdapterJDBC adapter;
+
+        /**
+         * Creates a new instance.
+         *
+         * @param adapter the adapter
+         */
+        private JDBCData(final ImportAdapterJDBC adapter) {
+            this.adapter = adapter;
+        }
+
+        @Override
+        protected DataEncoder getEncoder() {
+            return new JDBCDataEncoder(adapter);
+        }
+
+        @Override
+        protected Integer getLength() {
+            return adapter.getLength();
+        }
+
+        @Override
+        protected Iterator<String[]> iterator() {
+            return adapter;
+        }
+    }
+
     /**
      * A data object for iterators.
      *
@@ -182,6 +251,11 @@ public abstract class Data { // NO_UCD
 
         ImportConfiguration config = source.getConfiguration();
         ImportAdapter adapter = ImportAdapter.create(config);
+        if (adapter instanceof ImportAdapterJDBC) {
+            Data result = new JDBCData((ImportAdapterJDBC) adapter);
+            result.getDefinition().parse(adapter);
+            return result;
+        }
         return create(adapter, adapter.getLength());
     }
 
@@ -193,7 +267,7 @@ public abstract class Data { // NO_UCD
      * @throws IOException Signals that an I/O exception has occurred.
      */
     public static Data create(final File file, final Charset charset) throws IOException {
-        return new IterableData(new CSVDataInput(file, charset).iterator());
+        return new CSVData(new CSVDataInput(file, charset));
     }
 
     /**
@@ -205,7 +279,7 @@ public abstract class Data { // NO_UCD
      * @throws IOException Signals that an I/O exception has occurred.
      */
     public static Data create(final File file, final Charset charset, final char delimiter) throws IOException {
-        return new IterableData(new CSVDataInput(file, charset, delimiter).iterator());
+        return new CSVData(new CSVDataInput(file, charset, delimiter));
     }
 
     /**
@@ -218,7 +292,7 @@ public abstract class Data { // NO_UCD
      * @throws IOException Signals that an I/O exception has occurred.
      */
     public static Data create(final File file, final Charset charset, final char delimiter, final char quote) throws IOException {
-        return new IterableData(new CSVDataInput(file, charset, delimiter, quote).iterator());
+        return new CSVData(new CSVDataInput(file, charset, delimiter, quote));
     }
 
     /**
@@ -232,7 +306,7 @@ public abstract class Data { // NO_UCD
      * @throws IOException Signals that an I/O exception has occurred.
      */
     public static Data create(final File file, final Charset charset, final char delimiter, final char quote, final char escape) throws IOException {
-        return new IterableData(new CSVDataInput(file, charset, delimiter, quote, escape).iterator());
+        return new CSVData(new CSVDataInput(file, charset, delimiter, quote, escape));
     }
 
     /**
@@ -247,7 +321,7 @@ public abstract class Data { // NO_UCD
      * @throws IOException Signals that an I/O exception has occurred.
      */
     public static Data create(final File file, final Charset charset, final char delimiter, final char quote, final char escape, final char[] linebreak) throws IOException {
-        return new IterableData(new CSVDataInput(file, charset, delimiter, quote, escape, linebreak).iterator());
+        return new CSVData(new CSVDataInput(file, charset, delimiter, quote, escape, linebreak));
     }
 
     /**
@@ -259,7 +333,7 @@ public abstract class Data { // NO_UCD
      * @throws IOException Signals that an I/O exception has occurred.
      */
     public static Data create(final File file, final Charset charset, final CSVSyntax config) throws IOException {
-        return new IterableData(new CSVDataInput(file, charset, config).iterator());
+        return new CSVData(new CSVDataInput(file, charset, config));
     }
 
     /**
@@ -272,7 +346,7 @@ public abstract class Data { // NO_UCD
      * @throws IOException Signals that an I/O exception has occurred.
      */
     public static Data create(final File file, final Charset charset, final CSVSyntax config, final CSVOptions options) throws IOException {
-        return new IterableData(new CSVDataInput(file, charset, config, options).iterator());
+        return new CSVData(new CSVDataInput(file, charset, config, options));
     }
 
     /**
@@ -285,7 +359,7 @@ public abstract class Data { // NO_UCD
      * @throws IOException Signals that an I/O exception has occurred.
      */
     public static Data create(final File file, final Charset charset, final CSVSyntax config, final DataType<?>[] datatypes) throws IOException {
-        return new IterableData(new CSVDataInput(file, charset, config, datatypes).iterator());
+        return new CSVData(new CSVDataInput(file, charset, config, datatypes));
     }
     /**
      * Creates a new data object from a CSV file. Assumes that the file contains a header.
@@ -295,7 +369,7 @@ public abstract class Data { // NO_UCD
      * @throws IOException Signals that an I/O exception has occurred.
      */
     public static Data create(final InputStream stream, final Charset charset) throws IOException {
-        return new IterableData(new CSVDataInput(stream, charset).iterator());
+        return new CSVData(new CSVDataInput(stream, charset));
     }
 
     /**
@@ -307,7 +381,7 @@ public abstract class Data { // NO_UCD
      * @throws IOException Signals that an I/O exception has occurred.
      */
     public static Data create(final InputStream stream, final Charset charset, final char delimiter) throws IOException {
-        return new IterableData(new CSVDataInput(stream, charset, delimiter).iterator());
+        return new CSVData(new CSVDataInput(stream, charset, delimiter));
     }
 
     /**
@@ -333,7 +407,7 @@ public abstract class Data { // NO_UCD
      * @throws IOException Signals that an I/O exception has occurred.
      */
     public static Data create(final InputStream stream, final Charset charset, final char delimiter, final char quote) throws IOException {
-        return new IterableData(new CSVDataInput(stream, charset, delimiter, quote).iterator());
+        return new CSVData(new CSVDataInput(stream, charset, delimiter, quote));
     }
 
     /**
@@ -347,7 +421,7 @@ public abstract class Data { // NO_UCD
      * @throws IOException Signals that an I/O exception has occurred.
      */
     public static Data create(final InputStream stream, final Charset charset, final char delimiter, final char quote, final char escape) throws IOException {
-        return new IterableData(new CSVDataInput(stream, charset, delimiter, quote, escape).iterator());
+        return new CSVData(new CSVDataInput(stream, charset, delimiter, quote, escape));
     }
 
     /**
@@ -362,7 +436,7 @@ public abstract class Data { // NO_UCD
      * @throws IOException Signals that an I/O exception has occurred.
      */
     public static Data create(final InputStream stream, final Charset charset, final char delimiter, final char quote, final char escape, final char[] linebreak) throws IOException {
-        return new IterableData(new CSVDataInput(stream, charset, delimiter, quote, escape, linebreak).iterator());
+        return new CSVData(new CSVDataInput(stream, charset, delimiter, quote, escape, linebreak));
     }
 
     /**
@@ -374,7 +448,7 @@ public abstract class Data { // NO_UCD
      * @throws IOException Signals that an I/O exception has occurred.
      */
     public static Data create(final InputStream stream, final Charset charset, final CSVSyntax config) throws IOException {
-        return new IterableData(new CSVDataInput(stream, charset, config).iterator());
+        return new CSVData(new CSVDataInput(stream, charset, config));
     }
 
     /**
@@ -387,7 +461,7 @@ public abstract class Data { // NO_UCD
      * @throws IOException Signals that an I/O exception has occurred.
      */
     public static Data create(final InputStream stream, final Charset charset, final CSVSyntax config, final DataType<?>[] datatypes) throws IOException {
-        return new IterableData(new CSVDataInput(stream, charset, config, datatypes).iterator());
+        return new CSVData(new CSVDataInput(stream, charset, config, datatypes));
     }
 
     /**
@@ -461,7 +535,7 @@ public abstract class Data { // NO_UCD
      * @throws IOException Signals that an I/O exception has occurred.
      */
     public static Data create(final String path, final Charset charset) throws IOException {
-        return new IterableData(new CSVDataInput(path, charset).iterator());
+        return new CSVData(new CSVDataInput(path, charset));
     }
 
     /**
@@ -473,7 +547,7 @@ public abstract class Data { // NO_UCD
      * @throws IOException Signals that an I/O exception has occurred.
      */
     public static Data create(final String path, final Charset charset, final char delimiter) throws IOException {
-        return new IterableData(new CSVDataInput(path, charset, delimiter).iterator());
+        return new CSVData(new CSVDataInput(path, charset, delimiter));
     }
 
     /**
@@ -486,7 +560,7 @@ public abstract class Data { // NO_UCD
      * @throws IOException Signals that an I/O exception has occurred.
      */
     public static Data create(final String path, final Charset charset, final char delimiter, final char quote) throws IOException {
-        return new IterableData(new CSVDataInput(path, charset, delimiter, quote).iterator());
+        return new CSVData(new CSVDataInput(path, charset, delimiter, quote));
     }
 
     /**
@@ -500,7 +574,7 @@ public abstract class Data { // NO_UCD
      * @throws IOException Signals that an I/O exception has occurred.
      */
     public static Data create(final String path, final Charset charset, final char delimiter, final char quote, final char escape) throws IOException {
-        return new IterableData(new CSVDataInput(path, charset, delimiter, quote, escape).iterator());
+        return new CSVData(new CSVDataInput(path, charset, delimiter, quote, escape));
     }
 
     /**
@@ -515,7 +589,7 @@ public abstract class Data { // NO_UCD
      * @throws IOException Signals that an I/O exception has occurred.
      */
     public static Data create(final String path, final Charset charset, final char delimiter, final char quote, final char escape, final char[] linebreak) throws IOException {
-        return new IterableData(new CSVDataInput(path, charset, delimiter, quote, escape, linebreak).iterator());
+        return new CSVData(new CSVDataInput(path, charset, delimiter, quote, escape, linebreak));
     }
 
     /**
@@ -528,7 +602,7 @@ public abstract class Data { // NO_UCD
      * @throws IOException Signals that an I/O exception has occurred.
      */
     public static Data create(final String path, final Charset charset, final CSVSyntax config, final CSVOptions options) throws IOException {
-        return new IterableData(new CSVDataInput(path, charset, config, options).iterator());
+        return new CSVData(new CSVDataInput(path, charset, config, options));
     }
 
     /**
@@ -541,7 +615,7 @@ public abstract class Data { // NO_UCD
      * @throws IOException Signals that an I/O exception has occurred.
      */
     public static Data create(final String path, final Charset charset, final CSVSyntax config, final DataType<?>[] datatypes) throws IOException {
-        return new IterableData(new CSVDataInput(path, charset, config, datatypes).iterator());
+        return new CSVData(new CSVDataInput(path, charset, config, datatypes));
     }
 
     /**
@@ -583,6 +657,14 @@ public abstract class Data { // NO_UCD
         return handle;
     }
 
+    /**
+     * Override to encode the data directly into a dictionary and a data matrix
+     * @return the encoder, or null if records should be obtained from the iterator
+     */
+    protected DataEncoder getEncoder() {
+        return null;
+    }
+
     /**
      * Override to return a length to improve loading
      * @return
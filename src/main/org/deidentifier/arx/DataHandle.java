@@ -29,6 +29,7 @@ import java.util.Date;
 import java.util.HashMap;
 import java.util.HashSet;
 import java.util.Iterator;
+import java.util.LinkedHashMap;
 import java.util.List;
 import java.util.Locale;
 import java.util.Map;
@@ -44,8 +45,11 @@ import org.deidentifier.arx.DataType.ARXInteger;
 import org.deidentifier.arx.DataType.DataTypeDescription;
 import org.deidentifier.arx.aggregates.StatisticsBuilder;
 import org.deidentifier.arx.certificate.elements.ElementData;
+import org.deidentifier.arx.io.CSVDataExporter;
 import org.deidentifier.arx.io.CSVDataOutput;
+import org.deidentifier.arx.io.CSVOptions;
 import org.deidentifier.arx.io.CSVSyntax;
+import org.deidentifier.arx.risk.EquivalenceClassIndex;
 import org.deidentifier.arx.risk.RiskEstimateBuilder;
 import org.deidentifier.arx.risk.RiskModelHistogram;
 
@@ -67,6 +71,9 @@ import com.carrotsearch.hppc.ObjectIntOpenHashMap;
  */
 public abstract class DataHandle {
 
+    /** Maximal number of cached equivalence class indices */
+    private static final int MAX_EQUIVALENCE_CLASS_INDICES = 8;
+
     /** The data types. */
     protected DataType<?>[]                columnToDataType = null;
 
@@ -87,6 +94,9 @@ public abstract class DataHandle {
 
     /** The current research subset. */
     protected DataHandle                   subset           = null;
+
+    /** Cached equivalence classes. */
+    private Map<String, EquivalenceClassIndex> equivalenceClasses = null;
     
     /**
      * Returns the name of the specified column.
@@ -699,6 +709,42 @@ public abstract class DataHandle {
         output.write(iterator());
     }
 
+    /**
+     * Writes the data to a CSV file. Values are encoded via dictionary codes and blocks of
+     * rows are encoded using the number of threads specified in the options. Files are
+     * compressed with gzip, if specified in the options.
+     *
+     * @param file the file
+     * @param config the config
+     * @param options the options
+     * @throws IOException Signals that an I/O exception has occurred.
+     */
+    public void save(final File file, final CSVSyntax config, final CSVOptions options) throws IOException {
+        checkReleased();
+        final CSVDataExporter output = new CSVDataExporter(file, config, options);
+        output.write(new CSVDataExporter.Source() {
+            @Override
+            public int getCode(int row, int column) {
+                return internalGetEncodedValue(row, column, false);
+            }
+
+            @Override
+            public String[] getHeader() {
+                return header;
+            }
+
+            @Override
+            public int getNumRows() {
+                return DataHandle.this.getNumRows();
+            }
+
+            @Override
+            public String getValue(int row, int column) {
+                return internalGetValue(row, column, false);
+            }
+        });
+    }
+
     /**
      * Writes the data to a CSV file.
      *
@@ -944,6 +990,16 @@ public abstract class DataHandle {
      */
     protected abstract String[] getDistinctValues(int column, boolean ignoreSuppression, InterruptHandler handler);
 
+    /**
+     * Returns cached equivalence classes, null if there are none
+     *
+     * @param key
+     * @return
+     */
+    protected synchronized EquivalenceClassIndex getEquivalenceClassIndex(String key) {
+        return equivalenceClasses == null ? null : equivalenceClasses.get(key);
+    }
+
     /**
      * Returns the registry associated with this handle.
      *
@@ -1061,6 +1117,32 @@ public abstract class DataHandle {
         this.registry = registry;
     }
 
+    /**
+     * Caches equivalence classes
+     *
+     * @param key
+     * @param index
+     */
+    @SuppressWarnings("serial")
+    protected synchronized void setEquivalenceClassIndex(String key, EquivalenceClassIndex index) {
+        if (equivalenceClasses == null) {
+            equivalenceClasses = new LinkedHashMap<String, EquivalenceClassIndex>(16, 0.75f, true) {
+                @Override
+                protected boolean removeEldestEntry(Map.Entry<String, EquivalenceClassIndex> eldest) {
+                    return size() > MAX_EQUIVALENCE_CLASS_INDICES;
+                }
+            };
+        }
+        equivalenceClasses.put(key, index);
+    }
+
+    /**
+     * Invalidates cached equivalence classes. Must be called whenever the data represented by this handle changes.
+     */
+    protected synchronized void resetEquivalenceClassIndex() {
+        equivalenceClasses = null;
+    }
+
     /**
      * Sets the subset.
      *
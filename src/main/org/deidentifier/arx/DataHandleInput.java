@@ -17,6 +17,7 @@
 
 package org.deidentifier.arx;
 
+import java.io.IOException;
 import java.security.SecureRandom;
 import java.util.ArrayList;
 import java.util.Arrays;
@@ -29,6 +30,7 @@ import org.deidentifier.arx.DataHandleInternal.InterruptHandler;
 import org.deidentifier.arx.aggregates.StatisticsBuilder;
 import org.deidentifier.arx.framework.data.DataMatrix;
 import org.deidentifier.arx.framework.data.Dictionary;
+import org.deidentifier.arx.io.DataEncoder;
 
 /**
  * An implementation of the DataHandle interface for input data.
@@ -66,6 +68,31 @@ public class DataHandleInput extends DataHandle {
      */
     protected DataHandleInput(final Data data) {
         
+        // Encode directly, if supported
+        DataEncoder encoder = data.getEncoder();
+        if (encoder != null) {
+            try {
+                if (!encoder.encode()) {
+                    throw new IllegalArgumentException("Data object is empty!");
+                }
+            } catch (IOException e) {
+                throw new RuntimeException("Error while reading data", e);
+            }
+
+            // Register
+            this.setRegistry(new DataRegistry());
+            this.getRegistry().updateInput(this);
+            this.definition = data.getDefinition().clone();
+
+            // Store
+            super.setHeader(encoder.getHeader());
+            this.dictionary = encoder.getDictionary();
+            this.data = encoder.getData();
+            this.dictionary.finalizeAll();
+            this.columnToDataType = getColumnToDataType();
+            return;
+        }
+
         // Obtain and check iterator
         Iterator<String[]> iterator = data.iterator();
         if (!iterator.hasNext()) { 
@@ -91,7 +118,7 @@ public class DataHandleInput extends DataHandle {
             int records = data.getLength();
 
             // Build array
-            this.data = new DataMatrix(records, header.length);
+            this.data = DataMatrix.create(records, header.length);
             
             // Encode data on the fly
             int row = 0;
@@ -132,7 +159,7 @@ public class DataHandleInput extends DataHandle {
             }
     
             // Build array
-            this.data = new DataMatrix(vals.size(), header.length);
+            this.data = DataMatrix.create(vals.size(), header.length);
             for (int row = 0; row < vals.size(); row++) {
                 this.data.setRow(row, vals.get(row));
             }
@@ -18,6 +18,7 @@
 package org.deidentifier.arx;
 
 import org.deidentifier.arx.aggregates.StatisticsBuilder;
+import org.deidentifier.arx.risk.EquivalenceClassIndex;
 
 /**
  * Wrapper class that provides information to StatisticsBuilder.
@@ -151,6 +152,15 @@ public class DataHandleInternal {
         return handle.getDistinctValues(column, false, stop);
     }
     
+    /**
+     * Returns cached equivalence classes, null if there are none
+     * @param key
+     * @return
+     */
+    public EquivalenceClassIndex getEquivalenceClassIndex(String key) {
+        return handle.getEquivalenceClassIndex(key);
+    }
+
     /**
      * Gets the encoded value. Returns -1 for suppressed values.
      */
@@ -303,4 +313,13 @@ public class DataHandleInternal {
             return this.handle instanceof DataHandleOutput;
         }
     }
+
+    /**
+     * Caches equivalence classes
+     * @param key
+     * @param index
+     */
+    public void setEquivalenceClassIndex(String key, EquivalenceClassIndex index) {
+        handle.setEquivalenceClassIndex(key, index);
+    }
 }
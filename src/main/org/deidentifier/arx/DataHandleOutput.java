@@ -17,11 +17,15 @@
 
 package org.deidentifier.arx;
 
+import java.io.BufferedInputStream;
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
 import java.io.IOException;
 import java.io.InputStream;
 import java.io.ObjectInputStream;
 import java.io.ObjectOutputStream;
 import java.io.OutputStream;
+import java.nio.channels.FileChannel;
 import java.security.SecureRandom;
 import java.util.HashSet;
 import java.util.Iterator;
@@ -33,6 +37,7 @@ import org.deidentifier.arx.ARXLattice.Anonymity;
 import org.deidentifier.arx.DataHandleInternal.InterruptHandler;
 import org.deidentifier.arx.aggregates.StatisticsBuilder;
 import org.deidentifier.arx.framework.data.Data;
+import org.deidentifier.arx.framework.data.DataBinaryFormat;
 import org.deidentifier.arx.framework.data.DataManager;
 import org.deidentifier.arx.framework.data.DataMatrix;
 
@@ -189,22 +194,55 @@ public class DataHandleOutput extends DataHandle {
     protected DataHandleOutput(final ARXResult result,
                                final DataRegistry registry,
                                final DataManager manager,
-                               final InputStream stream,
+                               InputStream stream,
                                final ARXNode node,
                                final DataDefinition definition,
                                final ARXConfiguration config) throws ClassNotFoundException, IOException {
         
-        // Read data from stream
-        ObjectInputStream ois = new ObjectInputStream(stream);
-        Data outputGeneralized = (Data) ois.readObject();
-        Data outputMicroaggregated = (Data) ois.readObject();
-        DataType<?>[] dataTypes = (DataType<?>[]) ois.readObject();
-
-        // Initialize
-        this.initialize(result, registry, manager, outputGeneralized, outputMicroaggregated, node, definition, config);
-
-        // Obtain data types
-        this.columnToDataType = dataTypes;
+        // Read data from stream, which may use the binary format or Java serialization
+        stream = stream.markSupported() ? stream : new BufferedInputStream(stream);
+        if (DataBinaryFormat.isBinaryFormat(stream)) {
+            this.initialize(result, registry, manager, DataBinaryFormat.createReader(stream), node, definition, config);
+        } else {
+            ObjectInputStream ois = new ObjectInputStream(stream);
+            Data outputGeneralized = (Data) ois.readObject();
+            Data outputMicroaggregated = (Data) ois.readObject();
+            DataType<?>[] dataTypes = (DataType<?>[]) ois.readObject();
+    
+            // Initialize
+            this.initialize(result, registry, manager, outputGeneralized, outputMicroaggregated, node, definition, config);
+    
+            // Obtain data types
+            this.columnToDataType = dataTypes;
+        }
+        
+        // Mark as optimized
+        this.optimized = true;
+    }
+    
+    /**
+     * Instantiates a new handle from a file in the binary format, which will be memory-mapped.
+     * 
+     * @param result
+     * @param registry
+     * @param manager
+     * @param channel
+     * @param node
+     * @param definition
+     * @param config
+     * @throws IOException 
+     * @throws ClassNotFoundException 
+     */
+    protected DataHandleOutput(final ARXResult result,
+                               final DataRegistry registry,
+                               final DataManager manager,
+                               final FileChannel channel,
+                               final ARXNode node,
+                               final DataDefinition definition,
+                               final ARXConfiguration config) throws ClassNotFoundException, IOException {
+        
+        // Read data from file
+        this.initialize(result, registry, manager, DataBinaryFormat.createReader(channel), node, definition, config);
         
         // Mark as optimized
         this.optimized = true;
@@ -288,10 +326,52 @@ public class DataHandleOutput extends DataHandle {
      * @throws IOException 
      */
     public void write(OutputStream out) throws IOException {
-        ObjectOutputStream oos = new ObjectOutputStream(out);
-        oos.writeObject(this.dataGeneralized);
-        oos.writeObject(this.dataAggregated);
+        
+        // Data types are serialized
+        ByteArrayOutputStream types = new ByteArrayOutputStream();
+        ObjectOutputStream oos = new ObjectOutputStream(types);
         oos.writeObject(this.columnToDataType);
+        oos.flush();
+        
+        // Write
+        DataBinaryFormat.Writer writer = DataBinaryFormat.createWriter(out);
+        writer.writeBytes(types.toByteArray());
+        writer.writeData(this.dataGeneralized);
+        writer.writeData(this.dataAggregated);
+        writer.flush();
+    }
+
+    /**
+     * Initialization method reading data in the binary format
+     * @param result
+     * @param registry
+     * @param manager
+     * @param reader
+     * @param node
+     * @param definition
+     * @param config
+     * @throws IOException
+     * @throws ClassNotFoundException
+     */
+    private void initialize(final ARXResult result,
+                            final DataRegistry registry,
+                            final DataManager manager,
+                            final DataBinaryFormat.Reader reader,
+                            final ARXNode node,
+                            final DataDefinition definition,
+                            final ARXConfiguration config) throws IOException, ClassNotFoundException {
+        
+        // Read
+        ObjectInputStream ois = new ObjectInputStream(new ByteArrayInputStream(reader.readBytes()));
+        DataType<?>[] dataTypes = (DataType<?>[]) ois.readObject();
+        Data outputGeneralized = reader.readData();
+        Data outputMicroaggregated = reader.readData();
+        
+        // Initialize
+        this.initialize(result, registry, manager, outputGeneralized, outputMicroaggregated, node, definition, config);
+        
+        // Obtain data types
+        this.columnToDataType = dataTypes;
     }
 
     /**
@@ -67,8 +67,29 @@ class DataRegistry {
         if (!output.isEmpty()) {
             replaced |= output.values().iterator().next().internalReplace(column, original, replacement);
         }
+        if (replaced) {
+            resetEquivalenceClassIndices();
+        }
         return replaced;
     }
+
+    /**
+     * Invalidates cached equivalence classes of all handles
+     */
+    protected void resetEquivalenceClassIndices() {
+        if (input != null) {
+            input.resetEquivalenceClassIndex();
+        }
+        if (inputSubset != null) {
+            inputSubset.resetEquivalenceClassIndex();
+        }
+        for (DataHandleOutput handle : output.values()) {
+            handle.resetEquivalenceClassIndex();
+        }
+        for (DataHandleSubset handle : outputSubset.values()) {
+            handle.resetEquivalenceClassIndex();
+        }
+    }
     
     /**
      * Helper that creates a view on a research subset.
@@ -332,6 +332,33 @@ public class DataSource { // NO_UCD
         }
     }
     
+    /**
+     * Sets the number of rows fetched from the database at once. Only supported for JDBC sources.
+     *
+     * @param fetchSize
+     */
+    public void setFetchSize(int fetchSize) {
+        if (!(config instanceof ImportConfigurationJDBC)) {
+            throw new IllegalStateException("Only supported for JDBC sources");
+        }
+        ((ImportConfigurationJDBC) config).setFetchSize(fetchSize);
+    }
+    
+    /**
+     * Enables importing data in parallel. The query is split into ranges of the given
+     * integral key column, which are read via separate connections. Records are ordered
+     * by key ranges. Only supported for JDBC sources.
+     *
+     * @param keyColumn
+     * @param numberOfThreads
+     */
+    public void setParallelImport(String keyColumn, int numberOfThreads) {
+        if (!(config instanceof ImportConfigurationJDBC)) {
+            throw new IllegalStateException("Only supported for JDBC sources");
+        }
+        ((ImportConfigurationJDBC) config).setParallelImport(keyColumn, numberOfThreads);
+    }
+    
     /**
      * Returns the configuration.
      *
@@ -24,6 +24,11 @@ import java.util.List;
 import java.util.Map;
 import java.util.Random;
 import java.util.Set;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicLong;
 
 import org.deidentifier.arx.ARXClassificationConfiguration;
 import org.deidentifier.arx.ARXFeatureScaling;
@@ -35,6 +40,7 @@ import org.deidentifier.arx.aggregates.classification.MultiClassLogisticRegressi
 import org.deidentifier.arx.aggregates.classification.MultiClassNaiveBayes;
 import org.deidentifier.arx.aggregates.classification.MultiClassRandomForest;
 import org.deidentifier.arx.aggregates.classification.MultiClassZeroR;
+import org.deidentifier.arx.common.DaemonThreads;
 import org.deidentifier.arx.common.WrappedBoolean;
 import org.deidentifier.arx.common.WrappedInteger;
 import org.deidentifier.arx.exceptions.ComputationInterruptedException;
@@ -235,18 +241,168 @@ public class StatisticsClassification {
         }
     }
     
+    /**
+     * Trains a model on all folds but one and classifies the records of the remaining fold
+     * 
+     * @author Fabian Prasser
+     */
+    private class FoldEvaluation implements Callable<FoldEvaluation> {
+
+        /** Type */
+        private final ModelType                         type;
+        /** Specification */
+        private final ClassificationDataSpecification   specification;
+        /** Config */
+        private final ARXClassificationConfiguration<?> config;
+        /** Input handle */
+        private final DataHandleInternal                inputHandle;
+        /** Output handle */
+        private final DataHandleInternal                outputHandle;
+        /** Folds */
+        private final List<List<Integer>>               folds;
+        /** Fold used for validation */
+        private final int                               evaluationFold;
+        /** Confidences, shared with the evaluations of other folds */
+        private final double[]                          confidences;
+        /** Offset of this fold in the confidences */
+        private final int                               offset;
+        /** Seed, or null */
+        private final Long                              seed;
+
+        /** Error for each record in the evaluation fold */
+        private double[]                                errors;
+        /** Correctness for each record in the evaluation fold */
+        private boolean[]                               correct;
+        /** Whether the model has been trained */
+        private boolean                                 trained;
+
+        /**
+         * Creates a new instance
+         * @param type
+         * @param specification
+         * @param config
+         * @param inputHandle
+         * @param outputHandle
+         * @param folds
+         * @param evaluationFold
+         * @param confidences
+         * @param offset
+         * @param seed
+         */
+        private FoldEvaluation(ModelType type,
+                               ClassificationDataSpecification specification,
+                               ARXClassificationConfiguration<?> config,
+                               DataHandleInternal inputHandle,
+                               DataHandleInternal outputHandle,
+                               List<List<Integer>> folds,
+                               int evaluationFold,
+                               double[] confidences,
+                               int offset,
+                               Long seed) {
+            this.type = type;
+            this.specification = specification;
+            this.config = config;
+            this.inputHandle = inputHandle;
+            this.outputHandle = outputHandle;
+            this.folds = folds;
+            this.evaluationFold = evaluationFold;
+            this.confidences = confidences;
+            this.offset = offset;
+            this.seed = seed;
+        }
+
+        @Override
+        public FoldEvaluation call() {
+
+            // Create classifier
+            ClassificationMethod classifier = type == ModelType.ZEROR ? new MultiClassZeroR(interrupt, specification) :
+                                                                        getClassifier(interrupt, specification, config, inputHandle, seed);
+            DataHandleInternal features = type == ModelType.OUTPUT ? outputHandle : inputHandle;
+            
+            // Train with all training sets
+            for (int trainingFold = 0; trainingFold < folds.size(); trainingFold++) {
+                if (trainingFold != evaluationFold) {
+                    for (int index : folds.get(trainingFold)) {
+                        checkInterrupt();
+                        if (type != ModelType.OUTPUT || !outputHandle.isOutlier(index)) {
+                            classifier.train(features, outputHandle, index);
+                            trained = true;
+                        }
+                        progress();
+                    }
+                }
+            }
+            
+            // Close
+            if (type != ModelType.OUTPUT) {
+                trained = true;
+            }
+            if (trained) {
+                classifier.close();
+            }
+            
+            // Now validate
+            List<Integer> fold = folds.get(evaluationFold);
+            errors = new double[fold.size()];
+            correct = new boolean[fold.size()];
+            int confidencesIndex = offset;
+            for (int i = 0; i < fold.size(); i++) {
+                
+                // Check
+                checkInterrupt();
+                
+                // Classify
+                if (trained) {
+                    int index = fold.get(i);
+                    ClassificationResult result = classifier.classify(features, index);
+                    
+                    // Correct result
+                    String actualValue = outputHandle.getValue(index, specification.classIndex, true);
+                    errors[i] = result.error(actualValue);
+                    correct[i] = result.correct(actualValue);
+                    double[] _confidences = result.confidences();
+                    confidences[confidencesIndex] = index;
+                    System.arraycopy(_confidences, 0, confidences, confidencesIndex + 1, _confidences.length);
+                }
+                
+                // Next
+                confidencesIndex += numClasses + 1;
+                progress();
+            }
+            
+            // Done
+            return this;
+        }
+    }
+
+    /**
+     * Type of model
+     * 
+     * @author Fabian Prasser
+     */
+    private static enum ModelType {
+        /** Trained on input data */
+        INPUT,
+        /** ZeroR trained on input data */
+        ZEROR,
+        /** Trained on output data */
+        OUTPUT
+    }
+
     /**
      * Returns the classification method for the given config
      * @param interrupt
      * @param specification
      * @param config
      * @param inputHandle
+     * @param seed
      * @return
      */
     private static ClassificationMethod getClassifier(WrappedBoolean interrupt,
                                                       ClassificationDataSpecification specification,
                                                       ARXClassificationConfiguration<?> config,
-                                                      DataHandleInternal inputHandle) {
+                                                      DataHandleInternal inputHandle,
+                                                      Long seed) {
         if (config instanceof ClassificationConfigurationLogisticRegression) {
             return new MultiClassLogisticRegression(interrupt, specification, (ClassificationConfigurationLogisticRegression)config, inputHandle);
         } else if (config instanceof ClassificationConfigurationNaiveBayes) {
@@ -254,7 +410,7 @@ public class StatisticsClassification {
             return new MultiClassNaiveBayes(interrupt, specification, (ClassificationConfigurationNaiveBayes)config, inputHandle);
         } else if (config instanceof ClassificationConfigurationRandomForest) {
             System.setProperty("smile.threads", "1");
-            return new MultiClassRandomForest(interrupt, specification, (ClassificationConfigurationRandomForest)config, inputHandle);
+            return new MultiClassRandomForest(interrupt, specification, (ClassificationConfigurationRandomForest)config, inputHandle, seed);
         } else {
             throw new IllegalArgumentException("Unknown type of configuration");
         }
@@ -272,6 +428,10 @@ public class StatisticsClassification {
     private final Random          random;
     /** Measurements */
     private int                   numMeasurements;
+    /** Progress per step */
+    private double                total;
+    /** Steps done */
+    private final AtomicLong      done        = new AtomicLong();
 
     /** ZeroR accuracy */
     private double                zeroRAccuracy;
@@ -350,105 +510,61 @@ public class StatisticsClassification {
         int k = numSamples > config.getNumFolds() ? config.getNumFolds() : numSamples;
         List<List<Integer>> folds = getFolds(inputHandle.getNumRows(), numSamples, k);
 
-        // Track
-        int classifications = 0;
-        double total = 100d / ((double)numSamples * (double)folds.size());
-        double done = 0d;
-        
         // ROC
         double[] inputConfidences = new double[numSamples * ( 1 + numClasses)];
         double[] outputConfidences = (inputHandle == outputHandle) ? null : new double[numSamples * ( 1 + numClasses)];
         double[] zerorConfidences = new double[numSamples * ( 1 + numClasses)];
-        int confidencesIndex = 0;
-                
-        // For each fold as a validation set
+        
+        // Prepare evaluations of the models for each fold as a validation set
+        List<FoldEvaluation> evaluations = new ArrayList<>();
+        int offset = 0;
         for (int evaluationFold = 0; evaluationFold < folds.size(); evaluationFold++) {
-            
-            // Create classifiers
-            ClassificationMethod inputClassifier = getClassifier(interrupt, specification, config, inputHandle);
-            ClassificationMethod inputZeroR = new MultiClassZeroR(interrupt, specification);
-            ClassificationMethod outputClassifier = null;
+            Long seed = config.isDeterministic() ? random.nextLong() : null;
+            evaluations.add(new FoldEvaluation(ModelType.INPUT, specification, config, inputHandle, outputHandle, 
+                                               folds, evaluationFold, inputConfidences, offset, seed));
+            evaluations.add(new FoldEvaluation(ModelType.ZEROR, specification, config, inputHandle, outputHandle, 
+                                               folds, evaluationFold, zerorConfidences, offset, null));
             if (inputHandle != outputHandle) {
-                outputClassifier = getClassifier(interrupt, specification, config, inputHandle);
+                evaluations.add(new FoldEvaluation(ModelType.OUTPUT, specification, config, inputHandle, outputHandle, 
+                                                   folds, evaluationFold, outputConfidences, offset, seed));
+            }
+            offset += folds.get(evaluationFold).size() * (numClasses + 1);
+        }
+
+        // Track
+        this.total = 100d / ((double)numSamples * (double)evaluations.size());
+        
+        // Evaluate
+        evaluate(evaluations, config.getNumberOfThreads());
+        
+        // Collect in the order of a sequential evaluation
+        int classifications = 0;
+        for (int evaluation = 0; evaluation < evaluations.size(); ) {
+            
+            // Results for the current fold
+            FoldEvaluation resultInput = evaluations.get(evaluation++);
+            FoldEvaluation resultInputZR = evaluations.get(evaluation++);
+            FoldEvaluation resultOutput = inputHandle == outputHandle ? null : evaluations.get(evaluation++);
+            if (resultOutput != null && !resultOutput.trained) {
+                resultOutput = null;
             }
             
-            // Try
-            try {
-                
-                // Train with all training sets
-                boolean trained = false;
-                for (int trainingFold = 0; trainingFold < folds.size(); trainingFold++) {
-                    if (trainingFold != evaluationFold) {                        
-                        for (int index : folds.get(trainingFold)) {
-                            checkInterrupt();
-                            inputClassifier.train(inputHandle, outputHandle, index);
-                            inputZeroR.train(inputHandle, outputHandle, index);
-                            if (outputClassifier != null && !outputHandle.isOutlier(index)) {
-                                outputClassifier.train(outputHandle, outputHandle, index);
-                                trained = true;
-                            }
-                            this.progress.value = (int)((++done) * total);
-                        }
-                    }
-                }
+            // For each record
+            for (int i = 0; i < resultInput.errors.length; i++) {
+                classifications++;
                 
-                // Close
-                inputClassifier.close();
-                inputZeroR.close();
-                if (outputClassifier != null && trained) {
-                    outputClassifier.close();
-                }
-                
-                // Now validate
-                for (int index : folds.get(evaluationFold)) {
-                    
-                    // Check
-                    checkInterrupt();
-                    
-                    // Classify
-                    ClassificationResult resultInput = inputClassifier.classify(inputHandle, index);
-                    ClassificationResult resultInputZR = inputZeroR.classify(inputHandle, index);
-                    ClassificationResult resultOutput = outputClassifier == null || !trained ? null : outputClassifier.classify(outputHandle, index);
-                    classifications++;
-                        
-                    // Correct result
-                    String actualValue = outputHandle.getValue(index, specification.classIndex, true);
-                        
-                    // Maintain data about ZeroR
-                    this.zeroRAverageError += resultInputZR.error(actualValue);
-                    this.zeroRAccuracy += resultInputZR.correct(actualValue) ? 1d : 0d;
-                    double[] confidences = resultInputZR.confidences();
-                    zerorConfidences[confidencesIndex] = index;
-                    System.arraycopy(confidences, 0, zerorConfidences, confidencesIndex + 1, confidences.length);
-
-                    // Maintain data about input-based classifier
-                    boolean correct = resultInput.correct(actualValue);
-                    this.originalAverageError += resultInput.error(actualValue);
-                    this.originalAccuracy += correct ? 1d : 0d;
-                    confidences = resultInput.confidences();
-                    inputConfidences[confidencesIndex] = index;
-                    System.arraycopy(confidences, 0, inputConfidences, confidencesIndex + 1, confidences.length);
-
-                    // Maintain data about output-based                     
-                    if (resultOutput != null) {
-                        correct = resultOutput.correct(actualValue);
-                        this.averageError += resultOutput.error(actualValue);
-                        this.accuracy += correct ? 1d : 0d;
-                        confidences = resultOutput.confidences();
-                        outputConfidences[confidencesIndex] = index;
-                        System.arraycopy(confidences, 0, outputConfidences, confidencesIndex + 1, confidences.length);
-                    }
-                        
-                    // Next
-                    confidencesIndex += numClasses + 1;
-                    
-                    this.progress.value = (int)((++done) * total);
-                }
-            } catch (Exception e) {
-                if (e instanceof ComputationInterruptedException) {
-                    throw e;
-                } else {
-                    throw new UnexpectedErrorException(e);
+                // Maintain data about ZeroR
+                this.zeroRAverageError += resultInputZR.errors[i];
+                this.zeroRAccuracy += resultInputZR.correct[i] ? 1d : 0d;
+
+                // Maintain data about input-based classifier
+                this.originalAverageError += resultInput.errors[i];
+                this.originalAccuracy += resultInput.correct[i] ? 1d : 0d;
+
+                // Maintain data about output-based
+                if (resultOutput != null) {
+                    this.averageError += resultOutput.errors[i];
+                    this.accuracy += resultOutput.correct[i] ? 1d : 0d;
                 }
             }
         }
@@ -712,11 +828,63 @@ public class StatisticsClassification {
      * Checks whether an interruption happened.
      */
     private void checkInterrupt() {
-        if (interrupt.value) {
+        if (interrupt.value || Thread.currentThread().isInterrupted()) {
             throw new ComputationInterruptedException("Interrupted");
         }
     }
 
+    /**
+     * Performs the given evaluations using the given number of threads
+     * @param evaluations
+     * @param threads
+     */
+    private void evaluate(List<FoldEvaluation> evaluations, int threads) {
+        
+        // Sequential
+        threads = Math.min(threads, evaluations.size());
+        if (threads <= 1) {
+            try {
+                for (FoldEvaluation evaluation : evaluations) {
+                    evaluation.call();
+                }
+            } catch (Exception e) {
+                if (e instanceof ComputationInterruptedException) {
+                    throw e;
+                } else {
+                    throw new UnexpectedErrorException(e);
+                }
+            }
+            return;
+        }
+
+        ExecutorService pool = DaemonThreads.newFixedThreadPool(threads, "ARX classification");
+        
+        // Submit
+        List<Future<FoldEvaluation>> futures = new ArrayList<>();
+        try {
+            for (FoldEvaluation evaluation : evaluations) {
+                futures.add(pool.submit(evaluation));
+            }
+            for (Future<FoldEvaluation> future : futures) {
+                future.get();
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new ComputationInterruptedException("Interrupted");
+        } catch (ExecutionException e) {
+            if (e.getCause() instanceof ComputationInterruptedException) {
+                throw (ComputationInterruptedException)e.getCause();
+            } else {
+                throw new UnexpectedErrorException(e.getCause());
+            }
+        } finally {
+            for (Future<FoldEvaluation> future : futures) {
+                future.cancel(true);
+            }
+            pool.shutdown();
+        }
+    }
+
     /**
      * Creates the folds
      * @param numRecords
@@ -766,6 +934,13 @@ public class StatisticsClassification {
         return folds;
     }
     
+    /**
+     * Tracks progress
+     */
+    private void progress() {
+        this.progress.value = (int)(done.incrementAndGet() * total);
+    }
+
     /**
      * Returns the number of samples as the minimum of actual number of rows in
      * the dataset and maximal number of rows as specified in config.
@@ -91,7 +91,8 @@ public class ClassificationFeatureMetadata {
     }
     
     /**
-     * Returns a scaled double representation, NaN if the value cannot be parsed or scaled
+     * Returns a scaled double representation, NaN if the value cannot be parsed or scaled.
+     * Thread-safe, as data types and expressions may be shared between features.
      * 
      * @param value
      */
@@ -102,9 +103,18 @@ public class ClassificationFeatureMetadata {
         }
         
         try {
-            @SuppressWarnings({ "unchecked", "rawtypes" })
-            double numeric = ((DataTypeWithRatioScale)type).toDouble(type.parse(value));
-            return this.expression != null ? this.expression.setVariable("x", numeric).evaluate() : Double.NaN;
+            double numeric;
+            synchronized (type) {
+                @SuppressWarnings({ "unchecked", "rawtypes" })
+                double parsed = ((DataTypeWithRatioScale)type).toDouble(type.parse(value));
+                numeric = parsed;
+            }
+            if (this.expression == null) {
+                return Double.NaN;
+            }
+            synchronized (this.expression) {
+                return this.expression.setVariable("x", numeric).evaluate();
+            }
         } catch (Exception e) {
             return Double.NaN;
         }
@@ -54,6 +54,8 @@ public class MultiClassRandomForest extends ClassificationMethod {
     private final DataHandleInternal                      inputHandle;
     /** Because SMILE sucks */
     private IntIntOpenHashMap                             mapping;
+    /** Seed, null if training should not be deterministic */
+    private final Long                                    seed;
 
     /**
      * Creates a new instance
@@ -61,11 +63,13 @@ public class MultiClassRandomForest extends ClassificationMethod {
      * @param specification
      * @param config
      * @param inputHandle
+     * @param seed - The seed, null if training should not be deterministic
      */
     public MultiClassRandomForest(WrappedBoolean interrupt,
                                   ClassificationDataSpecification specification,
                                   ClassificationConfigurationRandomForest config,
-                                  DataHandleInternal inputHandle) {
+                                  DataHandleInternal inputHandle,
+                                  Long seed) {
 
         super(interrupt);
 
@@ -73,6 +77,7 @@ public class MultiClassRandomForest extends ClassificationMethod {
         this.config = config;
         this.specification = specification;
         this.inputHandle = inputHandle;
+        this.seed = seed;
         
         // Set number of variables to split as floor(sqrt(number of features)) if default value was chosen
         if (config.getNumberOfVariablesToSplit() == ClassificationConfigurationRandomForest.DEFAULT_NUMBER_OF_VARIABLES_TO_SPLIT) {
@@ -136,6 +141,11 @@ public class MultiClassRandomForest extends ClassificationMethod {
             encodedClasses[i] = encoded;
         }
         
+        // SMILE uses a thread-local generator, which is not seeded deterministically
+        if (seed != null) {
+            smile.math.Math.setSeed(seed);
+        }
+        
         // Learn now
         rm = new RandomForest((Attribute[])null, features.toArray(new double[features.size()][]), encodedClasses, 
                               config.getNumberOfTrees(), config.getMaximumNumberOfLeafNodes(), config.getMinimumSizeOfLeafNodes(),
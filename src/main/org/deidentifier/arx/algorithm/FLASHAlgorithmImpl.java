@@ -19,12 +19,19 @@ package org.deidentifier.arx.algorithm;
 
 import java.math.BigInteger;
 import java.util.ArrayList;
+import java.util.HashMap;
 import java.util.Iterator;
 import java.util.LinkedList;
 import java.util.List;
+import java.util.Map;
 import java.util.PriorityQueue;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Future;
 
 import org.deidentifier.arx.algorithm.FLASHPhaseConfiguration.PhaseAnonymityProperty;
+import org.deidentifier.arx.common.DaemonThreads;
 import org.deidentifier.arx.framework.check.TransformationChecker;
 import org.deidentifier.arx.framework.check.TransformationResult;
 import org.deidentifier.arx.framework.check.groupify.HashGroupify;
@@ -71,6 +78,18 @@ public class FLASHAlgorithmImpl extends AbstractAlgorithm {
     /** Size of the solution space */
     private final int                  solutionSpaceSize;
 
+    /** The number of threads used for checking transformations concurrently */
+    private final int                  threads;
+
+    /** Results of transformations that have been checked by workers ahead of time, if any */
+    private final Map<Long, TransformationResult> prefetched;
+
+    /** Checkers used by the workers, lazily initialized */
+    private TransformationChecker[]    workers;
+
+    /** Thread pool, lazily initialized */
+    private ExecutorService            workerPool;
+
     /**
      * Creates a new instance.
      *
@@ -100,6 +119,8 @@ public class FLASHAlgorithmImpl extends AbstractAlgorithm {
         this.config = config;
         this.potentiallyInsufficientUtility = this.config.isPruneInsufficientUtility() ? 
                                               new LinkedList<Integer>() : null;
+        this.threads = checker.getConfiguration().getNumberOfThreads();
+        this.prefetched = threads > 1 ? new HashMap<Long, TransformationResult>() : null;
     }
 
     @Override
@@ -154,6 +175,9 @@ public class FLASHAlgorithmImpl extends AbstractAlgorithm {
             }
         }
 
+        // Release workers
+        shutdown();
+
         // Potentially allows to better estimate utility in the lattice
         computeUtilityForMonotonicMetrics(bottom);
         computeUtilityForMonotonicMetrics(top);
@@ -211,6 +235,21 @@ public class FLASHAlgorithmImpl extends AbstractAlgorithm {
         }
     }
 
+    /**
+     * Checks the given transformation or returns the result obtained by a worker.
+     *
+     * @param transformation
+     * @return
+     */
+    private TransformationResult check(Transformation<Long> transformation) {
+        TransformationResult result = prefetched == null ? null : prefetched.remove(transformation.getIdentifier());
+        if (result != null) {
+            checker.registerCheck();
+            return result;
+        }
+        return checker.check(transformation);
+    }
+
     /**
      * Checks and tags the given transformation.
      *
@@ -228,7 +267,7 @@ public class FLASHAlgorithmImpl extends AbstractAlgorithm {
                 transformation.setLowerBound(checker.getMetric().getLowerBound(transformation));
             }
         } else if (configuration.getTriggerCheck().appliesTo(transformation)) {
-            transformation.setChecked(checker.check(transformation));
+            transformation.setChecked(check(transformation));
             trackProgressFromLimits((double)++checked / (double)solutionSpaceSize);
         }
         
@@ -281,6 +320,11 @@ public class FLASHAlgorithmImpl extends AbstractAlgorithm {
             // Skip
             if (!skip(triggerSkip, transformation)) {
 
+                // Check the next transformations concurrently, if needed
+                if (prefetched != null && !prefetched.containsKey(transformation.getIdentifier())) {
+                    prefetch(getBinarySearchCandidates(path, low, high), config.getBinaryPhaseConfiguration());
+                }
+
                 // Check and tag
                 checkAndTag(transformation, config.getBinaryPhaseConfiguration());
 
@@ -335,6 +379,32 @@ public class FLASHAlgorithmImpl extends AbstractAlgorithm {
         return path;
     }
     
+    /**
+     * Returns the transformations which will be checked next when performing a binary
+     * search on the given range of the path, in breadth-first order of the implied
+     * search tree. The number of transformations is bounded by the number of threads.
+     *
+     * @param path
+     * @param low
+     * @param high
+     * @return
+     */
+    private List<Transformation<Long>> getBinarySearchCandidates(List<Transformation<Long>> path, int low, int high) {
+        List<Transformation<Long>> result = new ArrayList<Transformation<Long>>();
+        LinkedList<int[]> ranges = new LinkedList<int[]>();
+        ranges.add(new int[] { low, high });
+        while (!ranges.isEmpty() && result.size() < threads) {
+            int[] range = ranges.poll();
+            if (range[0] <= range[1]) {
+                int mid = (range[0] + range[1]) / 2;
+                result.add(path.get(mid));
+                ranges.add(new int[] { range[0], mid - 1 });
+                ranges.add(new int[] { mid + 1, range[1] });
+            }
+        }
+        return result;
+    }
+
     /**
      * Sorts pointers to successor nodes according to the strategy.
      *
@@ -381,6 +451,26 @@ public class FLASHAlgorithmImpl extends AbstractAlgorithm {
         return array;
     }
 
+    /**
+     * Initializes the workers, if this has not been done before.
+     */
+    private void initializeWorkers() {
+
+        // Already initialized
+        if (workerPool != null) {
+            return;
+        }
+
+        // Each worker uses its own checker
+        workers = new TransformationChecker[threads];
+        for (int i = 0; i < threads; i++) {
+            workers[i] = checker.createWorker();
+            workers[i].getHistory().setStorageStrategy(config.getSnapshotStorageStrategy());
+        }
+
+        workerPool = DaemonThreads.newFixedThreadPool(threads, "ARX checker");
+    }
+
     /**
      * Implements a depth-first search with predictive tagging.
      *
@@ -402,6 +492,15 @@ public class FLASHAlgorithmImpl extends AbstractAlgorithm {
             // Check and tag
             checkAndTag(transformation, config.getLinearPhaseConfiguration());
 
+            // Check successors concurrently, if needed
+            if (prefetched != null) {
+                List<Transformation<Long>> successors = new ArrayList<Transformation<Long>>();
+                for (final int child : getSortedSuccessors(transformation)) {
+                    successors.add(((SolutionSpaceLong)solutionSpace).getTransformation((long)child));
+                }
+                prefetch(successors, config.getLinearPhaseConfiguration());
+            }
+
             // DFS
             for (final int child : getSortedSuccessors(transformation)) {
                 Transformation<Long> childTransformation = ((SolutionSpaceLong)solutionSpace).getTransformation((long)child);
@@ -415,6 +514,77 @@ public class FLASHAlgorithmImpl extends AbstractAlgorithm {
         transformation.setProperty(solutionSpace.getPropertySuccessorsPruned());
     }
 
+    /**
+     * Checks the given transformations concurrently, if this is worthwhile. Only transformations
+     * that will need to be checked by the given phase, given their current properties, are
+     * considered. Consecutive transformations are assigned to the same worker to benefit from its
+     * history. The solution space is not modified while the workers are running and the results
+     * are only published when they are consumed by check(), in the same order in which they
+     * would be produced sequentially. As a consequence, results are the same as with one thread.
+     *
+     * @param transformations
+     * @param configuration
+     */
+    private void prefetch(List<Transformation<Long>> transformations, FLASHPhaseConfiguration configuration) {
+
+        // Select transformations that need to be checked
+        final List<Transformation<Long>> selected = new ArrayList<Transformation<Long>>();
+        for (Transformation<Long> transformation : transformations) {
+            if (!prefetched.containsKey(transformation.getIdentifier()) &&
+                transformation.getData() == null &&
+                !configuration.getTriggerSkip().appliesTo(transformation) &&
+                !configuration.getTriggerEvaluate().appliesTo(transformation) &&
+                configuration.getTriggerCheck().appliesTo(transformation)) {
+                selected.add(transformation);
+            }
+        }
+
+        // Not worthwhile
+        if (selected.size() < 2) {
+            return;
+        }
+
+        // Prepare
+        initializeWorkers();
+        int partitions = Math.min(threads, selected.size());
+        int size = selected.size() / partitions;
+
+        // Submit
+        List<Future<TransformationResult[]>> futures = new ArrayList<Future<TransformationResult[]>>();
+        for (int i = 0; i < partitions; i++) {
+            final TransformationChecker worker = workers[i];
+            final int partitionStart = i * size;
+            final int partitionStop = (i == partitions - 1) ? selected.size() : partitionStart + size;
+            futures.add(workerPool.submit(new Callable<TransformationResult[]>() {
+                @Override
+                public TransformationResult[] call() throws Exception {
+                    TransformationResult[] results = new TransformationResult[partitionStop - partitionStart];
+                    for (int j = partitionStart; j < partitionStop; j++) {
+                        results[j - partitionStart] = worker.check(selected.get(j));
+                    }
+                    return results;
+                }
+            }));
+        }
+
+        // Collect
+        try {
+            int index = 0;
+            for (Future<TransformationResult[]> future : futures) {
+                for (TransformationResult result : future.get()) {
+                    prefetched.put(selected.get(index++).getIdentifier(), result);
+                }
+            }
+        } catch (InterruptedException e) {
+            shutdown();
+            Thread.currentThread().interrupt();
+            throw new RuntimeException("Interrupted while checking transformations", e);
+        } catch (ExecutionException e) {
+            shutdown();
+            throw new RuntimeException("Error while checking transformations", e.getCause());
+        }
+    }
+
     /**
      * We may be able to prune some transformations based on weak lower bounds on
      * the monotonic share of a node's information loss.
@@ -490,6 +660,25 @@ public class FLASHAlgorithmImpl extends AbstractAlgorithm {
         }
     }
 
+    /**
+     * Releases the workers and all results obtained by them, if any.
+     */
+    private void shutdown() {
+        if (workerPool != null) {
+            workerPool.shutdownNow();
+            workerPool = null;
+        }
+        if (workers != null) {
+            for (TransformationChecker worker : workers) {
+                checker.releaseWorker(worker);
+            }
+            workers = null;
+        }
+        if (prefetched != null) {
+            prefetched.clear();
+        }
+    }
+
     /**
      * Returns whether a node should be skipped.
      *
@@ -18,14 +18,22 @@ package org.deidentifier.arx.algorithm;
 
 import java.util.ArrayList;
 import java.util.Collections;
+import java.util.HashMap;
 import java.util.List;
+import java.util.Map;
 import java.util.Random;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Future;
 
 import org.apache.commons.math3.distribution.EnumeratedDistribution;
 import org.apache.commons.math3.random.AbstractRandomGenerator;
 import org.apache.commons.math3.util.Pair;
+import org.deidentifier.arx.common.DaemonThreads;
 import org.deidentifier.arx.framework.check.TransformationChecker;
 import org.deidentifier.arx.framework.check.TransformationChecker.ScoreType;
+import org.deidentifier.arx.framework.check.TransformationResult;
 import org.deidentifier.arx.framework.check.history.History.StorageStrategy;
 import org.deidentifier.arx.framework.lattice.SolutionSpace;
 import org.deidentifier.arx.framework.lattice.Transformation;
@@ -111,6 +119,14 @@ public class GeneticAlgorithm extends AbstractAlgorithm {
     private int                         geneticAlgorithmSubpopulationSize;
     /** Configuration */
     private double                      geneticAlgorithmProductionFraction;
+    /** The number of threads used for checking transformations concurrently */
+    private final int                   threads;
+    /** Results of transformations that have been checked by workers ahead of time, if any */
+    private final Map<Object, TransformationResult> prefetched;
+    /** Checkers used by the workers, lazily initialized */
+    private TransformationChecker[]     workers;
+    /** Thread pool, lazily initialized */
+    private ExecutorService             workerPool;
 
     /**
      * Creates a new instance
@@ -155,6 +171,8 @@ public class GeneticAlgorithm extends AbstractAlgorithm {
         this.geneticAlgorithmSubpopulationSize = geneticAlgorithmSubpopulationSize;
         this.geneticAlgorithmProductionFraction = geneticAlgorithmpProductionFraction;
         this.random = geneticAlgorithmDeterministic ? new Random(0xDEADBEEF) : new Random();
+        this.threads = checker.getConfiguration().getNumberOfThreads();
+        this.prefetched = threads > 1 ? new HashMap<Object, TransformationResult>() : null;
     }
 
     @Override
@@ -162,6 +180,23 @@ public class GeneticAlgorithm extends AbstractAlgorithm {
 
         // Prepare
         super.startTraverse();
+        
+        // Evolve and release workers
+        try {
+            return evolve();
+        } finally {
+            shutdown();
+        }
+    }
+
+    /**
+     * Evolves the sub-populations. Offspring is created on the calling thread and then
+     * checked concurrently, if needed, before it is added to the sub-populations in the
+     * same order as when checking sequentially.
+     * 
+     * @return Whether a solution has been found
+     */
+    private boolean evolve() {
 
         // k is defined in a way that stops very small sub-populations
         // from breaking the algorithm, as very small values fail to
@@ -176,7 +211,8 @@ public class GeneticAlgorithm extends AbstractAlgorithm {
         GeneticAlgorithmSubpopulation z1 = new GeneticAlgorithmSubpopulation();
         GeneticAlgorithmSubpopulation z2 = new GeneticAlgorithmSubpopulation();
 
-        // Fill sub-population 1
+        // Create sub-population 1
+        List<int[]> generalizations1 = new ArrayList<>();
         for (int i = 0; i < k; i++) {
 
             // Prepare
@@ -203,13 +239,11 @@ public class GeneticAlgorithm extends AbstractAlgorithm {
                 }
             }
 
-            // Stop
-            if (mustStop()) { return false; }
-
-            z1.addIndividual(getIndividual(generalization));
+            generalizations1.add(generalization);
         }
 
-        // Fill sub-population 2
+        // Create sub-population 2
+        List<int[]> generalizations2 = new ArrayList<>();
         for (int i = 0; i < k; i++) {
 
             // Prepare
@@ -220,6 +254,24 @@ public class GeneticAlgorithm extends AbstractAlgorithm {
                 generalization[j] = getRandomGeneralizationLevel(j);
             }
 
+            generalizations2.add(generalization);
+        }
+
+        // Check concurrently
+        prefetch(generalizations1, generalizations2);
+
+        // Fill sub-population 1
+        for (int[] generalization : generalizations1) {
+
+            // Stop
+            if (mustStop()) { return false; }
+
+            z1.addIndividual(getIndividual(generalization));
+        }
+
+        // Fill sub-population 2
+        for (int[] generalization : generalizations2) {
+
             // Stop
             if (mustStop()) { return false; }
 
@@ -246,8 +298,11 @@ public class GeneticAlgorithm extends AbstractAlgorithm {
             }
 
             // Iterate
-            iterateSubpopulation(z1);
-            iterateSubpopulation(z2);
+            List<int[]> offspring1 = getOffspring(z1);
+            List<int[]> offspring2 = getOffspring(z2);
+            prefetch(offspring1, offspring2);
+            iterateSubpopulation(z1, offspring1);
+            iterateSubpopulation(z2, offspring2);
 
             // Stop
             if (mustStop()) { return false; }
@@ -266,7 +321,13 @@ public class GeneticAlgorithm extends AbstractAlgorithm {
     private Transformation<?> getIndividual(int[] generalization) {
         Transformation<?> transformation = this.solutionSpace.getTransformation(generalization);
         if (!transformation.hasProperty(this.solutionSpace.getPropertyChecked())) {
-            transformation.setChecked(this.checker.check(transformation, true, ScoreType.INFORMATION_LOSS));
+            TransformationResult result = prefetched == null ? null : prefetched.remove(transformation.getIdentifier());
+            if (result != null) {
+                this.checker.registerCheck();
+            } else {
+                result = this.checker.check(transformation, true, ScoreType.INFORMATION_LOSS);
+            }
+            transformation.setChecked(result);
         }
         trackOptimum(transformation);
         trackProgressFromLimits();
@@ -274,7 +335,7 @@ public class GeneticAlgorithm extends AbstractAlgorithm {
     }
 
     /**
-     * Returns a mutated transformation, which means that a random parent is
+     * Returns the generalization of a mutated transformation, which means that a random parent is
      * selected. <br>
      * - Randomly generate an integer r, representing the number of mutated
      * places (from 1 to ceil (upper bound on mutation probability * m)) <br>
@@ -284,7 +345,7 @@ public class GeneticAlgorithm extends AbstractAlgorithm {
      * 
      * @return
      */
-    private Transformation<?> getMutatedIndividual(Transformation<?> transformation) {
+    private int[] getMutatedGeneralization(Transformation<?> transformation) {
 
         // Prepare
         int[] generalization = transformation.getGeneralization().clone();
@@ -310,7 +371,7 @@ public class GeneticAlgorithm extends AbstractAlgorithm {
         }
 
         // Done
-        return getIndividual(generalization);
+        return generalization;
     }
 
     /**
@@ -380,14 +441,13 @@ public class GeneticAlgorithm extends AbstractAlgorithm {
     }
 
     /**
-     * Performs one iteration on a sub-population.
+     * Creates the offspring for one iteration on a sub-population. Returns the generalizations
+     * of the crossover children followed by the generalizations of the mutated individuals.
      * 
      * @param population
+     * @return
      */
-    private void iterateSubpopulation(GeneticAlgorithmSubpopulation population) {
-
-        // Copy old Population
-        GeneticAlgorithmSubpopulation oldPopulation = new GeneticAlgorithmSubpopulation(population);
+    private List<int[]> getOffspring(GeneticAlgorithmSubpopulation population) {
 
         // The population (ordered by fitness descending) consists of 3 groups
         // - First: all individuals in the elite group will remain unchanged
@@ -401,6 +461,7 @@ public class GeneticAlgorithm extends AbstractAlgorithm {
         int crossoverCount = (int) Math.ceil(geneticAlgorithmCrossoverFraction * k);
         int eliteCount = (int) Math.ceil(geneticAlgorithmEliteFraction * k);
         int productionCount = (int) Math.ceil(geneticAlgorithmProductionFraction * k);
+        List<int[]> offspring = new ArrayList<>();
 
         // Crossover individuals
         Transformation<?>[] parents1 = getRandomIndividuals(population, productionCount, crossoverCount);
@@ -412,25 +473,181 @@ public class GeneticAlgorithm extends AbstractAlgorithm {
             for (int i = 0; i < maxLevels.length; i++) {
                 vec[i] = (random.nextDouble() < 0.5 ? parents1[crossover] : parents2[crossover]).getGeneralization()[i];
             }
+            offspring.add(vec);
+        }
+
+        // Mutate individuals of the old population
+        for (int mutation = eliteCount; mutation < k - crossoverCount; mutation++) {
+            offspring.add(getMutatedGeneralization(population.getIndividual(random.nextInt(k))));
+        }
+        
+        // Done
+        return offspring;
+    }
+
+    /**
+     * Initializes the workers, if this has not been done before.
+     */
+    private void initializeWorkers() {
+
+        // Already initialized
+        if (workerPool != null) {
+            return;
+        }
+
+        // Each worker uses its own checker
+        workers = new TransformationChecker[threads];
+        for (int i = 0; i < threads; i++) {
+            workers[i] = checker.createWorker();
+            workers[i].getHistory().setStorageStrategy(StorageStrategy.ALL);
+        }
+
+        workerPool = DaemonThreads.newFixedThreadPool(threads, "ARX checker");
+    }
+
+    /**
+     * Performs one iteration on a sub-population by replacing individuals with the given
+     * offspring.
+     * 
+     * @param population
+     * @param offspring
+     */
+    private void iterateSubpopulation(GeneticAlgorithmSubpopulation population, List<int[]> offspring) {
+
+        // Calculate mutation configuration parameters
+        int k = population.individualCount();
+        int crossoverCount = (int) Math.ceil(geneticAlgorithmCrossoverFraction * k);
+        int eliteCount = (int) Math.ceil(geneticAlgorithmEliteFraction * k);
+        int index = 0;
+
+        // Crossover individuals
+        for (int crossover = 0; crossover < crossoverCount; crossover++) {
 
             // Stop
             if (mustStop()) { return; }
 
             // Replace
-            population.setIndividual(k - crossover - 1, getIndividual(vec));
+            population.setIndividual(k - crossover - 1, getIndividual(offspring.get(index++)));
         }
 
         // Mutate individuals
         for (int mutation = eliteCount; mutation < k - crossoverCount; mutation++) {
 
-            // Mutate
-            Transformation<?> individual = getMutatedIndividual(oldPopulation.getIndividual(random.nextInt(k)));
-            if (individual != null) {
-                population.setIndividual(mutation, individual);
-            }
+            // Replace
+            population.setIndividual(mutation, getIndividual(offspring.get(index++)));
 
             // Stop
             if (mustStop()) { return; }
         }
     }
+
+    /**
+     * Checks the transformations with the given generalizations concurrently, if this is
+     * worthwhile. Only transformations which have not been checked before are considered.
+     * The solution space is not modified while the workers are running and the results are
+     * only published when they are consumed by getIndividual(), in the same order in which
+     * they would be produced sequentially. As a consequence, results are the same as with
+     * one thread. The number of transformations checked is limited by the remaining number
+     * of checks and workers stop when the time limit is reached.
+     * 
+     * @param generalizations1
+     * @param generalizations2
+     */
+    private void prefetch(List<int[]> generalizations1, List<int[]> generalizations2) {
+
+        // Nothing to do
+        if (prefetched == null || mustStop()) {
+            return;
+        }
+
+        // Select transformations that need to be checked, considering results which have not been consumed yet
+        final List<Transformation<?>> selected = new ArrayList<>();
+        int budget = getCheckLimit() - checker.getNumChecksPerformed() - prefetched.size();
+        List<int[]> generalizations = new ArrayList<>(generalizations1);
+        generalizations.addAll(generalizations2);
+        for (int[] generalization : generalizations) {
+            if (selected.size() >= budget) {
+                break;
+            }
+            Transformation<?> transformation = this.solutionSpace.getTransformation(generalization);
+            if (!prefetched.containsKey(transformation.getIdentifier()) &&
+                !transformation.hasProperty(this.solutionSpace.getPropertyChecked())) {
+                prefetched.put(transformation.getIdentifier(), null);
+                selected.add(transformation);
+            }
+        }
+
+        // Not worthwhile
+        if (selected.size() < 2) {
+            for (Transformation<?> transformation : selected) {
+                prefetched.remove(transformation.getIdentifier());
+            }
+            return;
+        }
+
+        // Prepare
+        initializeWorkers();
+        int partitions = Math.min(threads, selected.size());
+        int size = selected.size() / partitions;
+
+        // Submit
+        List<Future<TransformationResult[]>> futures = new ArrayList<Future<TransformationResult[]>>();
+        for (int i = 0; i < partitions; i++) {
+            final TransformationChecker worker = workers[i];
+            final int partitionStart = i * size;
+            final int partitionStop = (i == partitions - 1) ? selected.size() : partitionStart + size;
+            futures.add(workerPool.submit(new Callable<TransformationResult[]>() {
+                @Override
+                public TransformationResult[] call() throws Exception {
+                    TransformationResult[] results = new TransformationResult[partitionStop - partitionStart];
+                    for (int j = partitionStart; j < partitionStop && !mustStop(); j++) {
+                        results[j - partitionStart] = worker.check(selected.get(j), true, ScoreType.INFORMATION_LOSS);
+                    }
+                    return results;
+                }
+            }));
+        }
+
+        // Collect
+        try {
+            int index = 0;
+            for (Future<TransformationResult[]> future : futures) {
+                for (TransformationResult result : future.get()) {
+                    Object identifier = selected.get(index++).getIdentifier();
+                    if (result != null) {
+                        prefetched.put(identifier, result);
+                    } else {
+                        // Not checked, because the time limit has been reached
+                        prefetched.remove(identifier);
+                    }
+                }
+            }
+        } catch (InterruptedException e) {
+            shutdown();
+            Thread.currentThread().interrupt();
+            throw new RuntimeException("Interrupted while checking transformations", e);
+        } catch (ExecutionException e) {
+            shutdown();
+            throw new RuntimeException("Error while checking transformations", e.getCause());
+        }
+    }
+
+    /**
+     * Releases the workers and all results obtained by them, if any.
+     */
+    private void shutdown() {
+        if (workerPool != null) {
+            workerPool.shutdownNow();
+            workerPool = null;
+        }
+        if (workers != null) {
+            for (TransformationChecker worker : workers) {
+                checker.releaseWorker(worker);
+            }
+            workers = null;
+        }
+        if (prefetched != null) {
+            prefetched.clear();
+        }
+    }
 }
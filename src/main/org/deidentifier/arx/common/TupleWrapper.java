@@ -33,6 +33,19 @@ public class TupleWrapper {
     /** Indices */
     private final String[] values;
 
+    /**
+     * Creates a new instance
+     * @param values
+     */
+    public TupleWrapper(String[] values) {
+        int hashcode = 1;
+        for (String value : values) {
+            hashcode = 31 * hashcode + value.hashCode();
+        }
+        this.values = values;
+        this.hashcode = hashcode;
+    }
+
     /**
      * Creates a new instance
      * @param handle
@@ -59,6 +59,28 @@ public abstract class ExplicitPrivacyCriterion extends PrivacyCriterion {
         return attribute;
     }
 
+    /**
+     * Returns the index of the sensitive attribute in the analyzed data.
+     * Only available after initialization.
+     *
+     * @return
+     */
+    public int getIndex() {
+        return index;
+    }
+
+    /**
+     * Returns whether the result of isAnonymous() only depends on the size of a class and on
+     * the distribution of the sensitive attribute, independently of the order in which values
+     * are stored, and whether evaluating the criterion is expensive enough to cache results for
+     * classes with equal distributions. The default is false.
+     *
+     * @return
+     */
+    public boolean isDistributionBased() {
+        return false;
+    }
+
     @Override
     public void initialize(DataManager manager, ARXConfiguration config) {
         String[] header = manager.getDataAnalyzed().getHeader();
@@ -17,6 +17,8 @@
 
 package org.deidentifier.arx.criteria;
 
+import java.util.Arrays;
+
 import org.deidentifier.arx.ARXConfiguration;
 import org.deidentifier.arx.AttributeType.Hierarchy;
 import org.deidentifier.arx.certificate.elements.ElementData;
@@ -24,6 +26,8 @@ import org.deidentifier.arx.framework.check.groupify.HashGroupifyEntry;
 import org.deidentifier.arx.framework.data.DataManager;
 import org.deidentifier.arx.framework.lattice.Transformation;
 
+import com.carrotsearch.hppc.IntIntOpenHashMap;
+
 /**
  * The t-closeness criterion with hierarchical-distance EMD.
  *
@@ -32,20 +36,70 @@ import org.deidentifier.arx.framework.lattice.Transformation;
  */
 public class HierarchicalDistanceTCloseness extends TCloseness {
 
+    /**
+     * Buffers used for evaluating a class. Each thread uses its own instance.
+     *
+     * @author Fabian Prasser
+     */
+    private static class Buffers {
+
+        /** Frequencies of nodes in the current class. */
+        private final int[]  counts;
+
+        /** Sums of the negative extras of the children of nodes. */
+        private final long[] negatives;
+
+        /** Markers of the nodes touched by the current class. */
+        private final int[]  stamps;
+
+        /** Marker of the current class. */
+        private int          stamp;
+
+        /** List of nodes touched at the current level. */
+        private final int[]  current;
+
+        /** List of nodes touched at the next level. */
+        private final int[]  next;
+
+        /**
+         * Creates new buffers.
+         *
+         * @param numNodes
+         * @param numLeafs
+         */
+        private Buffers(int numNodes, int numLeafs) {
+            this.counts = new int[numNodes];
+            this.negatives = new long[numNodes];
+            this.stamps = new int[numNodes];
+            this.stamp = 0;
+            this.current = new int[numLeafs];
+            this.next = new int[numLeafs];
+        }
+    }
+
     /**  SVUID */
-    private static final long serialVersionUID = -2142590190479670706L;
+    private static final long              serialVersionUID = -2142590190479670706L;
 
     /** The hierarchy used for the EMD. */
-    private final Hierarchy   hierarchy;
+    private final Hierarchy                hierarchy;
+
+    /** Parent of each node, -1 for roots. Leafs are identified by their values. */
+    private int[]                          parents;
+
+    /** Level of each node. */
+    private int[]                          levels;
+
+    /** Frequency of each node in the overall dataset. */
+    private int[]                          frequencies;
 
-    /** Internal tree. */
-    private int[]             tree;
+    /** Number of records in the overall dataset. */
+    private int                            total;
 
-    /** Internal offset. */
-    private int               start;
+    /** Height of the hierarchy. */
+    private int                            height;
 
-    /** Internal empty tree. */
-    private int[]             empty;
+    /** Internal buffers of each thread. */
+    private transient ThreadLocal<Buffers> buffers;
 
     /**
      * Creates a new instance of the t-closeness criterion with hierarchical earth-movers-distance as proposed in:
@@ -79,93 +133,144 @@ public class HierarchicalDistanceTCloseness extends TCloseness {
     @Override
     public void initialize(DataManager manager, ARXConfiguration config) {
         super.initialize(manager, config);
-        this.tree = manager.getTree(attribute);
-        this.start = this.tree[1] + 3;
-        this.empty = new int[this.tree[1]];
+
+        // Tree data format: #p_count, #leafs, height, freqLeaf_1, ...,
+        // freqLeaf_n, extra_1,..., extra_n, [#childs, level, child_1, ...
+        // child_x, pos_e, neg_e], ...
+        // Inner nodes are stored level by level, starting with the lowest level
+        int[] tree = manager.getTree(attribute);
+        int numLeafs = tree[1];
+        int extraStartPos = numLeafs + 3;
+        int extraEndPos = extraStartPos + numLeafs;
+        int numNodes = numLeafs;
+        for (int i = extraEndPos; i < tree.length; i += tree[i] + 4) {
+            numNodes++;
+        }
+
+        // Convert into arrays indexed by node
+        this.total = tree[0];
+        this.height = tree[2];
+        this.parents = new int[numNodes];
+        this.levels = new int[numNodes];
+        this.frequencies = new int[numNodes];
+        Arrays.fill(this.parents, -1);
+        System.arraycopy(tree, 3, this.frequencies, 0, numLeafs);
+        IntIntOpenHashMap offsets = new IntIntOpenHashMap();
+        int node = numLeafs;
+        for (int i = extraEndPos; i < tree.length; i += tree[i] + 4) {
+            offsets.put(i, node);
+            this.levels[node] = tree[i + 1];
+            for (int j = 0; j < tree[i]; j++) {
+                int pointer = tree[i + 2 + j];
+                int child = this.levels[node] == 1 ? pointer - extraStartPos : offsets.get(pointer);
+                this.parents[child] = node;
+                this.frequencies[node] += this.frequencies[child];
+            }
+            node++;
+        }
+
+        // Buffers
+        final int nodes = numNodes;
+        final int leafs = numLeafs;
+        this.buffers = new ThreadLocal<Buffers>() {
+            @Override
+            protected Buffers initialValue() {
+                return new Buffers(nodes, leafs);
+            }
+        };
     }
 
+    /**
+     * Calculates the EMD bottom-up, only considering nodes on the paths from the values
+     * contained in the class to the root. For all other nodes, the extras of all children
+     * are non-negative, which means that they do not contribute to the costs. For each
+     * node, the minimum of positive and negative extras equals the negative extras plus
+     * the node's own extra, if the latter is negative.
+     */
     @Override
     public boolean isAnonymous(Transformation<?> node, HashGroupifyEntry entry) {
-        
-        // Empty data in tree
-        System.arraycopy(empty, 0, tree, start, empty.length);
-
-        // init parameters
-        final int totalElementsP = tree[0];
-        final int numLeafs = tree[1];
-        final double height = tree[2]; // cast to double as it is used in double
-                                       // calculations
-        final int extraStartPos = numLeafs + 3;
-        final int extraEndPos = extraStartPos + numLeafs;
+
+        // Prepare markers
+        final Buffers buffers = this.buffers.get();
+        final int[] counts = buffers.counts;
+        final long[] negatives = buffers.negatives;
+        final int[] stamps = buffers.stamps;
+        if (++buffers.stamp == Integer.MAX_VALUE) {
+            Arrays.fill(stamps, 0);
+            buffers.stamp = 1;
+        }
+        final int stamp = buffers.stamp;
 
         // Copy and count
         int totalElementsQ = 0;
+        int size = 0;
+        int[] current = buffers.current;
+        int[] next = buffers.next;
         int[] buckets = entry.distributions[index].getBuckets();
         for (int i = 0; i < buckets.length; i += 2) {
             if (buckets[i] != -1) { // bucket not empty
                 final int value = buckets[i];
                 final int frequency = buckets[i + 1];
-                tree[value + extraStartPos] = frequency;
+                stamps[value] = stamp;
+                counts[value] = frequency;
+                negatives[value] = 0;
+                current[size++] = value;
                 totalElementsQ += frequency;
             }
         }
-        // Tree data format: #p_count, #leafs, height, freqLeaf_1, ...,
-        // freqLeaf_n, extra_1,..., extra_n, [#childs, level, child_1, ...
-        // child_x, pos_e, neg_e], ...
-        double cost = 0;
 
-        // leafs
-        for (int i = extraStartPos; i < extraEndPos; i++) {
-            tree[i] = (tree[i - numLeafs] * totalElementsQ) -
-                      (tree[i] * totalElementsP); // p_i - q_i
-        }
+        // Costs are scaled by height, total and totalElementsQ
+        final double threshold = t * height * (double) total * (double) totalElementsQ;
+        long cost = 0;
+
+        // Level by level
+        while (size > 0) {
+            int sizeNext = 0;
+            for (int i = 0; i < size; i++) {
 
-        // innerNodes
-        for (int i = extraEndPos; i < tree.length; i++) {
-            int pos_e = 0;
-            int neg_e = 0;
-
-            final int numChilds = tree[i++];
-            final int level = tree[i++];
-
-            // iterate over all children
-            for (int j = 0; j < numChilds; j++) {
-                // differentiate between first level and rest
-
-                int extra = 0;
-                if (level == 1) {
-                    extra = tree[tree[i + j]];
-                } else {
-                    final int extra_child_index = tree[i + j] +
-                                                  tree[tree[i + j]] + 2; // pointer to the pos_e of node
-                    final int pos_child = tree[extra_child_index];
-                    final int neg_child = tree[extra_child_index + 1];
-                    extra = pos_child - neg_child;
+                // Extras: p_i - q_i
+                final int current_node = current[i];
+                final long extra = (long) frequencies[current_node] * totalElementsQ -
+                                   (long) counts[current_node] * total;
+
+                // Sum and check
+                cost += levels[current_node] * (negatives[current_node] + Math.min(0L, extra));
+                if (cost > threshold) {
+                    return false;
                 }
 
-                if (extra > 0) { // positive
-                    pos_e += extra;
-                } else { // negative
-                    neg_e += (-extra);
+                // Propagate to parent
+                final int parent = parents[current_node];
+                if (parent != -1) {
+                    if (stamps[parent] != stamp) {
+                        stamps[parent] = stamp;
+                        counts[parent] = 0;
+                        negatives[parent] = 0;
+                        next[sizeNext++] = parent;
+                    }
+                    counts[parent] += counts[current_node];
+                    if (extra < 0) {
+                        negatives[parent] -= extra;
+                    }
                 }
             }
 
-            // save extras
-            i += numChilds; // increment pointer to extra
-            tree[i++] = pos_e;
-            tree[i] = neg_e;
-
-            // sum
-            final double cost_n = (level / height) * Math.min(pos_e, neg_e);
-            cost += cost_n;
+            // Next level
+            int[] temp = current;
+            current = next;
+            next = temp;
+            size = sizeNext;
         }
 
-        cost /= ((double) totalElementsP * (double) totalElementsQ);
-
-        // check
-        return cost <= t;
+        // Check
+        return true;
     }
     
+	@Override
+    public boolean isDistributionBased() {
+        return true;
+    }
+
 	@Override
     public boolean isLocalRecodingSupported() {
         return true;
@@ -157,6 +157,11 @@ public class OrderedDistanceTCloseness extends TCloseness {
         return true;
     }
     
+    @Override
+    public boolean isDistributionBased() {
+        return true;
+    }
+
     @Override
     public boolean isLocalRecodingSupported() {
         return true;
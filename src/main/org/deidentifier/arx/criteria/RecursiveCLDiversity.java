@@ -101,6 +101,11 @@ public class RecursiveCLDiversity extends LDiversity{
         return frequencyCopy[frequencyCopy.length - 1] < threshold;
     }
     
+	@Override
+    public boolean isDistributionBased() {
+        return true;
+    }
+
 	@Override
     public boolean isLocalRecodingSupported() {
         return true;
@@ -17,6 +17,8 @@
 
 package org.deidentifier.arx.framework.check;
 
+import java.util.Arrays;
+
 import org.deidentifier.arx.ARXConfiguration.ARXConfigurationInternal;
 import org.deidentifier.arx.framework.check.groupify.HashGroupify;
 import org.deidentifier.arx.framework.data.Data;
@@ -30,7 +32,9 @@ import org.deidentifier.arx.metric.InformationLoss;
 import org.deidentifier.arx.metric.Metric;
 
 /**
- * This class applies a transformation to the dataset.
+ * This class applies a transformation to the dataset. The groupify operator of the last
+ * transformation is kept, so that it can be reused if the same transformation is applied again.
+ * In this case, only the generalized output is materialized.
  *
  * @author Fabian Prasser
  * @author Florian Kohlmayer
@@ -61,6 +65,12 @@ public class TransformationApplicator {
     /** Is a minimal class size required */
     private final boolean                    minimalClassSizeRequired;
 
+    /** Generalization represented by the cached groupify operator, if any */
+    private int[]                            cachedGeneralization;
+
+    /** Groupify operator of the last transformation, if any */
+    private HashGroupify                     cachedGroupify;
+
     /**
      * Creates a new transformation applicator instance.
      * 
@@ -73,6 +83,26 @@ public class TransformationApplicator {
                                     final DataMatrix buffer,
                                     final Metric<?> metric,
                                     final ARXConfigurationInternal config) {
+        this(manager, buffer, metric, config, null, null);
+    }
+
+    /**
+     * Creates a new transformation applicator instance, which reuses the given groupify operator
+     * if the given transformation is applied. The operator must group the given buffer.
+     * 
+     * @param manager The manager
+     * @param buffer The buffer
+     * @param metric The metric
+     * @param config The configuration
+     * @param generalization The generalization represented by the groupify operator
+     * @param groupify The groupify operator, which must maintain distributions for all attributes
+     */
+    TransformationApplicator(final DataManager manager,
+                             final DataMatrix buffer,
+                             final Metric<?> metric,
+                             final ARXConfigurationInternal config,
+                             final int[] generalization,
+                             final HashGroupify groupify) {
 
         // Initialize all operators
         this.metric = metric;
@@ -83,6 +113,8 @@ public class TransformationApplicator {
         this.aggregation = manager.getAggregationInformation();
         this.outputGeneralized = buffer;
         this.minimalClassSizeRequired = config.getMinimalGroupSize() != Integer.MAX_VALUE;
+        this.cachedGeneralization = generalization != null ? generalization.clone() : null;
+        this.cachedGroupify = generalization != null ? groupify : null;
     }
 
     
@@ -107,25 +139,39 @@ public class TransformationApplicator {
         // Prepare
         microaggregationDictionary.definalizeAll();
         
+        // Reuse the groupify operator, if possible
+        HashGroupify currentGroupify;
+        int[] generalization = transformation.getGeneralization();
+        if (cachedGroupify != null && Arrays.equals(cachedGeneralization, generalization)) {
+            
+            // Materialize the output and restore the operator's state
+            materialize(generalization);
+            currentGroupify = cachedGroupify;
+            currentGroupify.stateRestore();
+            
+        } else {
 
-        int initialSize = (int) (inputGeneralized.getDataLength() * 0.01d);
-        Transformer transformer = new Transformer(inputGeneralized.getArray(),
-                                                  inputAnalyzed,
-                                                  outputGeneralized,
-                                                  aggregation.getHeader().length,
-                                                  hierarchies,
-                                                  config);
-        
-        HashGroupify currentGroupify = new HashGroupify(initialSize,
-                                                        config, 
-                                                        aggregation.getHeader().length,
-                                                        inputGeneralized.getArray(),
-                                                        outputGeneralized,
-                                                        inputAnalyzed,
-                                                        inputGeneralized.getDictionary().getSuppressedCodes());
-        
-        // Apply transition and groupify
-        currentGroupify = transformer.apply(0L, transformation.getGeneralization(), currentGroupify);
+            int initialSize = (int) (inputGeneralized.getDataLength() * 0.01d);
+            Transformer transformer = new Transformer(inputGeneralized.getArray(),
+                                                      inputAnalyzed,
+                                                      outputGeneralized,
+                                                      aggregation.getHeader().length,
+                                                      hierarchies,
+                                                      config);
+            
+            currentGroupify = new HashGroupify(initialSize,
+                                               config, 
+                                               aggregation.getHeader().length,
+                                               inputGeneralized.getArray(),
+                                               outputGeneralized,
+                                               inputAnalyzed,
+                                               inputGeneralized.getDictionary().getSuppressedCodes());
+            
+            // Apply transition and groupify
+            currentGroupify = transformer.apply(0L, generalization, currentGroupify);
+            cachedGeneralization = generalization.clone();
+            cachedGroupify = currentGroupify;
+        }
         currentGroupify.stateAnalyze(transformation, true);
         if (!currentGroupify.isPrivacyModelFulfilled() && !config.isSuppressionAlwaysEnabled()) {
             currentGroupify.stateResetSuppression();
@@ -139,17 +185,15 @@ public class TransformationApplicator {
         
         // Prepare buffers
         Data microaggregatedOutput = Data.createWrapper(new DataMatrix(0,0), new String[0], new int[0], new Dictionary(0));
-        Data generalizedOutput = Data.createWrapper(transformer.getBuffer(), inputGeneralized.getHeader(), inputGeneralized.getColumns(), inputGeneralized.getDictionary());
+        Data generalizedOutput = Data.createWrapper(outputGeneralized, inputGeneralized.getHeader(), inputGeneralized.getColumns(), inputGeneralized.getDictionary());
         
-        // Perform microaggregation. This has to be done before suppression.
+        // Perform microaggregation and suppression. Microaggregation has to be done before suppression.
+        boolean suppress = config.getAbsoluteSuppressionLimit() != 0 || !currentGroupify.isPrivacyModelFulfilled();
         if (aggregation.getColdQIsFunctions().length > 0 ||
             aggregation.getHotQIsNotGeneralizedFunctions().length > 0 ||
             aggregation.getHotQIsGeneralizedFunctions().length > 0) {
-            microaggregatedOutput = currentGroupify.performMicroaggregation(aggregation, microaggregationDictionary);
-        }
-        
-        // Perform suppression
-        if (config.getAbsoluteSuppressionLimit() != 0 || !currentGroupify.isPrivacyModelFulfilled()) {
+            microaggregatedOutput = currentGroupify.performMicroaggregation(aggregation, microaggregationDictionary, suppress);
+        } else if (suppress) {
             currentGroupify.performSuppression();
         }
         
@@ -159,5 +203,29 @@ public class TransformationApplicator {
                                               minimalClassSizeRequired ? currentGroupify.isMinimalClassSizeFulfilled() : null, 
                                               loss, null));
     }
-    
+
+    /**
+     * Writes the generalized values of all records into the output buffer. Codes are
+     * mapped via arrays which have been precomputed for the levels of generalization.
+     * 
+     * @param generalization
+     */
+    private void materialize(final int[] generalization) {
+        
+        // Prepare maps
+        int[][] maps = new int[generalization.length][];
+        for (int column = 0; column < maps.length; column++) {
+            maps[column] = hierarchies[column].getLevel(generalization[column]);
+        }
+        
+        // Transform
+        DataMatrix input = inputGeneralized.getArray();
+        for (int row = 0; row < input.getNumRows(); row++) {
+            input.iterator(row);
+            outputGeneralized.iterator(row);
+            for (int column = 0; column < maps.length; column++) {
+                outputGeneralized.iterator_write(maps[column][input.iterator_next()]);
+            }
+        }
+    }
 }
@@ -19,11 +19,16 @@ package org.deidentifier.arx.framework.check;
 
 import org.deidentifier.arx.ARXConfiguration;
 import org.deidentifier.arx.ARXConfiguration.ARXConfigurationInternal;
+import org.deidentifier.arx.ARXPerformanceListener;
+import org.deidentifier.arx.ARXPerformanceStatistics;
+import org.deidentifier.arx.ARXPerformanceStatistics.TransitionType;
 import org.deidentifier.arx.framework.check.TransformationCheckerStateMachine.Transition;
 import org.deidentifier.arx.framework.check.distribution.IntArrayDictionary;
 import org.deidentifier.arx.framework.check.groupify.HashGroupify;
+import org.deidentifier.arx.framework.check.groupify.HashGroupifyVerdictCache;
 import org.deidentifier.arx.framework.check.history.History;
 import org.deidentifier.arx.framework.data.Data;
+import org.deidentifier.arx.framework.data.DataAggregationInformation;
 import org.deidentifier.arx.framework.data.DataManager;
 import org.deidentifier.arx.framework.data.DataMatrix;
 import org.deidentifier.arx.framework.lattice.SolutionSpace;
@@ -90,6 +95,36 @@ public class TransformationChecker {
     /** Count the number of checks performed */
     private int                                     numChecksPerformed = 0;
 
+    /** The history max size */
+    private final int                               historyMaxSize;
+
+    /** A history threshold */
+    private final double                            snapshotSizeDataset;
+
+    /** A history threshold */
+    private final double                            snapshotSizeSnapshot;
+
+    /** The performance listener, if any */
+    private ARXPerformanceListener                  performanceListener;
+
+    /** Number of transitions of each type */
+    private final long[]                            numTransitions     = new long[TransitionType.values().length];
+
+    /** Time spent transforming data in nanoseconds */
+    private long                                    durationTransformation;
+
+    /** Time spent analyzing equivalence classes in nanoseconds */
+    private long                                    durationAnalysis;
+
+    /** Time spent scoring transformations in nanoseconds */
+    private long                                    durationScoring;
+
+    /** Total number of equivalence classes */
+    private long                                    numEquivalenceClasses;
+
+    /** Maximal number of equivalence classes */
+    private int                                     numEquivalenceClassesMax;
+
     /**
      * Creates a new transformation checker.
      * 
@@ -108,6 +143,42 @@ public class TransformationChecker {
                                  final double snapshotSizeDataset,
                                  final double snapshotSizeSnapshot,
                                  final SolutionSpace<?> solutionSpace) {
+        this(manager,
+             manager.getDataGeneralized().getArray(),
+             manager.getDataAnalyzed().getArray(),
+             metric,
+             config,
+             historyMaxSize,
+             snapshotSizeDataset,
+             snapshotSizeSnapshot,
+             solutionSpace,
+             config.getNumberOfThreads());
+    }
+
+    /**
+     * Creates a new transformation checker.
+     * 
+     * @param manager The manager
+     * @param inputGeneralized The generalized input data
+     * @param inputAnalyzed The analyzed input data
+     * @param metric The metric
+     * @param config The configuration
+     * @param historyMaxSize The history max size
+     * @param snapshotSizeDataset A history threshold
+     * @param snapshotSizeSnapshot A history threshold
+     * @param solutionSpace
+     * @param threads The number of threads used for transforming data
+     */
+    private TransformationChecker(final DataManager manager,
+                                  final DataMatrix inputGeneralized,
+                                  final DataMatrix inputAnalyzed,
+                                  final Metric<?> metric,
+                                  final ARXConfigurationInternal config,
+                                  final int historyMaxSize,
+                                  final double snapshotSizeDataset,
+                                  final double snapshotSizeSnapshot,
+                                  final SolutionSpace<?> solutionSpace,
+                                  final int threads) {
         
         // Store data
         this.metric = metric;
@@ -116,6 +187,9 @@ public class TransformationChecker {
         this.dataGeneralized = manager.getDataGeneralized();
         this.solutionSpace = solutionSpace;
         this.minimalClassSizeRequired = config.getMinimalGroupSize() != Integer.MAX_VALUE;
+        this.historyMaxSize = historyMaxSize;
+        this.snapshotSizeDataset = snapshotSizeDataset;
+        this.snapshotSizeSnapshot = snapshotSizeSnapshot;
         
         // Initialize all operators
         int initialSize = (int) (manager.getDataGeneralized().getDataLength() * 0.01d);
@@ -130,7 +204,7 @@ public class TransformationChecker {
             dictionarySensFreq = new IntArrayDictionary(0);
         }
         
-        this.history = new History(manager.getDataGeneralized().getArray().getNumRows(),
+        this.history = new History(inputGeneralized.getNumRows(),
                                    historyMaxSize,
                                    snapshotSizeDataset,
                                    snapshotSizeSnapshot,
@@ -140,25 +214,32 @@ public class TransformationChecker {
                                    solutionSpace);
         
         this.stateMachine = new TransformationCheckerStateMachine(history);
-        this.transformer = new Transformer(manager.getDataGeneralized().getArray(),
-                                           manager.getDataAnalyzed().getArray(),
+        this.transformer = new Transformer(inputGeneralized,
+                                           inputAnalyzed,
                                            manager.getAggregationInformation().getHotThreshold(),
                                            manager.getHierarchies(),
                                            config,
                                            dictionarySensValue,
-                                           dictionarySensFreq);
+                                           dictionarySensFreq,
+                                           manager.getDataGeneralized().getDictionary().getSuppressedCodes(),
+                                           threads);
+        
+        // Results of evaluating privacy models are shared between both groupify operators
+        HashGroupifyVerdictCache verdicts = new HashGroupifyVerdictCache(config.getClassBasedPrivacyModelsAsArray());
         
         this.currentGroupify = new HashGroupify(initialSize, config, manager.getAggregationInformation().getHotThreshold(),
-                                                manager.getDataGeneralized().getArray(),
+                                                inputGeneralized,
                                                 transformer.getBuffer(),
-                                                manager.getDataAnalyzed().getArray(),
-                                                manager.getDataGeneralized().getDictionary().getSuppressedCodes());
+                                                inputAnalyzed,
+                                                manager.getDataGeneralized().getDictionary().getSuppressedCodes(),
+                                                verdicts);
         
         this.lastGroupify = new HashGroupify(initialSize, config, manager.getAggregationInformation().getHotThreshold(),
-                                             manager.getDataGeneralized().getArray(),
+                                             inputGeneralized,
                                              transformer.getBuffer(),
-                                             manager.getDataAnalyzed().getArray(),
-                                             manager.getDataGeneralized().getDictionary().getSuppressedCodes());
+                                             inputAnalyzed,
+                                             manager.getDataGeneralized().getDictionary().getSuppressedCodes(),
+                                             verdicts);
     }
 
     /**
@@ -188,6 +269,7 @@ public class TransformationChecker {
         }
         
         // Store snapshot from last check
+        final long timeStart = System.nanoTime();
         if (stateMachine.getLastTransformation() != null) {
             history.store(solutionSpace.getTransformation(stateMachine.getLastTransformation()), currentGroupify, stateMachine.getLastTransition().snapshot);
         }
@@ -201,42 +283,69 @@ public class TransformationChecker {
         currentGroupify = temp;
         
         // Apply transition
+        TransitionType type = null;
         switch (transition.type) {
         case UNOPTIMIZED:
             currentGroupify = transformer.apply(transition.projection, node.getGeneralization(), currentGroupify);
+            type = TransitionType.UNOPTIMIZED;
             break;
         case ROLLUP:
             currentGroupify = transformer.applyRollup(transition.projection, node.getGeneralization(), lastGroupify, currentGroupify);
+            type = TransitionType.ROLLUP;
             break;
         case SNAPSHOT:
             currentGroupify = transformer.applySnapshot(transition.projection, node.getGeneralization(), currentGroupify, transition.snapshot);
+            type = TransitionType.SNAPSHOT;
             break;
         }
+        final long timeTransformed = System.nanoTime();
         
         // We are done with transforming and adding
         currentGroupify.stateAnalyze(node, forceMeasureInfoLoss);
         if (forceMeasureInfoLoss && !currentGroupify.isPrivacyModelFulfilled() && !config.isSuppressionAlwaysEnabled()) {
             currentGroupify.stateResetSuppression();
         }
+        final long timeAnalyzed = System.nanoTime();
         
-        // Compute information loss and lower bound
+        // Compute information loss and lower bound. Quality models may maintain internal caches,
+        // so we synchronize on them, as they may be shared with workers (see createWorker())
         InformationLoss<?> loss = null;
         InformationLoss<?> bound = null;
         
-        switch (scoreType) {
-        case DP_SCORE:
-            // Evaluate score function
-            loss = metric.getScore(node, currentGroupify);
-            break;
-        case INFORMATION_LOSS:
-            // Calculate conventional information loss and bound
-            InformationLossWithBound<?> result = (currentGroupify.isPrivacyModelFulfilled() || forceMeasureInfoLoss) ?
-                                                  metric.getInformationLoss(node, currentGroupify) : null;
-            loss = result != null ? result.getInformationLoss() : null;
-            bound = result != null ? result.getLowerBound() : metric.getLowerBound(node, currentGroupify);
-            break;
-        default:
-            throw new RuntimeException("The score type " + scoreType + " is not supported");
+        synchronized (metric) {
+            switch (scoreType) {
+            case DP_SCORE:
+                // Evaluate score function
+                loss = metric.getScore(node, currentGroupify);
+                break;
+            case INFORMATION_LOSS:
+                // Calculate conventional information loss and bound
+                InformationLossWithBound<?> result = (currentGroupify.isPrivacyModelFulfilled() || forceMeasureInfoLoss) ?
+                                                      metric.getInformationLoss(node, currentGroupify) : null;
+                loss = result != null ? result.getInformationLoss() : null;
+                bound = result != null ? result.getLowerBound() : metric.getLowerBound(node, currentGroupify);
+                break;
+            default:
+                throw new RuntimeException("The score type " + scoreType + " is not supported");
+            }
+        }
+        final long timeScored = System.nanoTime();
+        
+        // Collect statistics
+        final int classes = currentGroupify.getNumberOfEquivalenceClasses();
+        numTransitions[type.ordinal()]++;
+        durationTransformation += timeTransformed - timeStart;
+        durationAnalysis += timeAnalyzed - timeTransformed;
+        durationScoring += timeScored - timeAnalyzed;
+        numEquivalenceClasses += classes;
+        numEquivalenceClassesMax = Math.max(numEquivalenceClassesMax, classes);
+        if (performanceListener != null) {
+            performanceListener.checked(new ARXPerformanceStatistics.Check(node.getGeneralization(),
+                                                                           type,
+                                                                           timeTransformed - timeStart,
+                                                                           timeAnalyzed - timeTransformed,
+                                                                           timeScored - timeAnalyzed,
+                                                                           classes));
         }
         
         // Return result;
@@ -247,11 +356,46 @@ public class TransformationChecker {
     }
     
     /**
-     * Returns an associated transformation applicator
+     * Creates a worker for checking transformations concurrently to this checker. The worker
+     * shares the input data, the quality model and the solution space with this checker, but
+     * maintains its own output buffer and history. Workers transform data with a single thread.
+     * Workers must not modify the solution space and the solution space must not be modified
+     * while workers are checking transformations. Workers must be released with
+     * releaseWorker() when they are not needed anymore.
+     * 
+     * @return
+     */
+    public TransformationChecker createWorker() {
+        DataMatrix inputAnalyzed = manager.getDataAnalyzed().getArray();
+        TransformationChecker worker = new TransformationChecker(manager,
+                                                                 manager.getDataGeneralized().getArray().getView(),
+                                                                 inputAnalyzed != null ? inputAnalyzed.getView() : null,
+                                                                 metric,
+                                                                 config.createWorkerConfiguration(manager),
+                                                                 historyMaxSize,
+                                                                 snapshotSizeDataset,
+                                                                 snapshotSizeSnapshot,
+                                                                 solutionSpace,
+                                                                 1);
+        worker.history.setMemoryLimit(history.getMemoryLimit());
+        worker.performanceListener = performanceListener;
+        return worker;
+    }
+    
+    /**
+     * Returns an associated transformation applicator. If the transformation checked last is
+     * applied, the applicator reuses the groupify operator of this checker. This requires that
+     * the checker is not used anymore.
      * @return
      */
     public TransformationApplicator getApplicator() {
-        return new TransformationApplicator(this.manager, this.getOutputBuffer(), this.metric, this.config);
+        
+        // Groupify operators of checkers only maintain distributions of "hot" attributes
+        DataAggregationInformation aggregation = manager.getAggregationInformation();
+        boolean reusable = aggregation.getHotThreshold() == aggregation.getHeader().length;
+        return new TransformationApplicator(this.manager, this.getOutputBuffer(), this.metric, this.config,
+                                            reusable ? stateMachine.getLastTransformation() : null,
+                                            currentGroupify);
     }
     
     /**
@@ -262,6 +406,30 @@ public class TransformationChecker {
         return config;
     }
 
+    /**
+     * Returns the time spent analyzing equivalence classes in nanoseconds
+     * @return
+     */
+    public long getDurationAnalysis() {
+        return durationAnalysis;
+    }
+
+    /**
+     * Returns the time spent scoring transformations in nanoseconds
+     * @return
+     */
+    public long getDurationScoring() {
+        return durationScoring;
+    }
+
+    /**
+     * Returns the time spent transforming data, including the maintenance of the history, in nanoseconds
+     * @return
+     */
+    public long getDurationTransformation() {
+        return durationTransformation;
+    }
+
     /**
      * Returns the header of generalized data
      * @return
@@ -295,6 +463,22 @@ public class TransformationChecker {
         return metric;
     }
     
+    /**
+     * Returns the total number of equivalence classes of all transformations checked
+     * @return
+     */
+    public long getNumEquivalenceClasses() {
+        return numEquivalenceClasses;
+    }
+
+    /**
+     * Returns the maximal number of equivalence classes of a transformation checked
+     * @return
+     */
+    public int getNumEquivalenceClassesMax() {
+        return numEquivalenceClassesMax;
+    }
+
     /**
      * Returns the number of checks performed
      * @return
@@ -303,6 +487,15 @@ public class TransformationChecker {
         return this.numChecksPerformed;
     }
     
+    /**
+     * Returns the number of transitions of the given type performed by this checker
+     * @param type
+     * @return
+     */
+    public long getNumTransitions(TransitionType type) {
+        return numTransitions[type.ordinal()];
+    }
+    
     /**
      * Returns the output buffer
      * @return
@@ -311,11 +504,46 @@ public class TransformationChecker {
         return this.transformer.getBuffer();
     }
 
+    /**
+     * Registers a check that has been performed by a worker on behalf of this checker
+     */
+    public void registerCheck() {
+        numChecksPerformed++;
+    }
+
+    /**
+     * Releases a worker created by this checker. The statistics collected by the worker
+     * are added to the statistics of this checker and its memory is freed.
+     * @param worker
+     */
+    public void releaseWorker(TransformationChecker worker) {
+        for (int i = 0; i < numTransitions.length; i++) {
+            numTransitions[i] += worker.numTransitions[i];
+        }
+        durationTransformation += worker.durationTransformation;
+        durationAnalysis += worker.durationAnalysis;
+        durationScoring += worker.durationScoring;
+        numEquivalenceClasses += worker.numEquivalenceClasses;
+        numEquivalenceClassesMax = Math.max(numEquivalenceClassesMax, worker.numEquivalenceClassesMax);
+        history.addStatistics(worker.history);
+        worker.reset();
+    }
+
+    /**
+     * Sets a listener, which is informed about the performance of checks. Workers created
+     * afterwards use the same listener.
+     * @param listener
+     */
+    public void setPerformanceListener(ARXPerformanceListener listener) {
+        this.performanceListener = listener;
+    }
+
     /**
      * Frees memory
      */
     public void reset() {
         stateMachine.reset();
+        transformer.shutdown();
         history.reset();
         history.setSize(0);
         currentGroupify.stateClear();
@@ -17,7 +17,14 @@
 
 package org.deidentifier.arx.framework.check;
 
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Future;
+
 import org.deidentifier.arx.ARXConfiguration.ARXConfigurationInternal;
+import org.deidentifier.arx.common.DaemonThreads;
 import org.deidentifier.arx.framework.check.TransformationCheckerStateMachine.TransitionType;
 import org.deidentifier.arx.framework.check.distribution.IntArrayDictionary;
 import org.deidentifier.arx.framework.check.groupify.HashGroupify;
@@ -50,6 +57,9 @@ import org.deidentifier.arx.framework.data.GeneralizationHierarchy;
  */
 public class Transformer {
 
+    /** Minimal number of records or classes processed by each thread */
+    private static final int                  MIN_RECORDS_PER_THREAD = 1000;
+
     /** The config. */
     protected final ARXConfigurationInternal  config;
 
@@ -80,6 +90,24 @@ public class Transformer {
     /** Number of columns to analyze */
     protected final int                       dataAnalyzedNumberOfColumns;
 
+    /** The number of threads */
+    protected final int                       threads;
+
+    /** Suppressed codes, needed for creating groupify operators for workers */
+    private final int[]                       suppressedCodes;
+
+    /** Transformers of the workers, lazily initialized */
+    private AbstractTransformer[][]           workerInstances;
+
+    /** Groupify operators of the workers, lazily initialized */
+    private HashGroupify[]                    workerGroupifies;
+
+    /** Views on the output buffer used by the workers, lazily initialized */
+    private DataMatrix[]                      workerBuffers;
+
+    /** Thread pool, lazily initialized */
+    private ExecutorService                   workerPool;
+
     /**
      * Instantiates a new transformer.
      *
@@ -90,6 +118,8 @@ public class Transformer {
      * @param config
      * @param dictionarySensValue
      * @param dictionarySensFreq
+     * @param suppressedCodes
+     * @param threads
      */
     public Transformer(final DataMatrix inputGeneralized,
                        final DataMatrix inputAnalyzed,
@@ -97,22 +127,24 @@ public class Transformer {
                        final GeneralizationHierarchy[] hierarchies,
                        final ARXConfigurationInternal config,
                        final IntArrayDictionary dictionarySensValue,
-                       final IntArrayDictionary dictionarySensFreq) {
+                       final IntArrayDictionary dictionarySensFreq,
+                       final int[] suppressedCodes,
+                       final int threads) {
 
         this.config = config;
         this.inputGeneralized = inputGeneralized;
         this.dataAnalyzedNumberOfColumns = dataAnalyzedNumberOfColumns;
         this.hierarchies = hierarchies;
-        this.instances = new AbstractTransformer[16];
-        this.outputGeneralized = new DataMatrix(inputGeneralized.getNumRows(), 
-                                                inputGeneralized.getNumColumns());
+        this.outputGeneralized = inputGeneralized.newInstance();
 
         this.dimensions = inputGeneralized.getNumColumns();
         this.dictionarySensValue = dictionarySensValue;
         this.dictionarySensFreq = dictionarySensFreq;
         this.inputAnalyzed = inputAnalyzed;
+        this.suppressedCodes = suppressedCodes;
+        this.threads = threads;
 
-        buildTransformers();
+        this.instances = buildTransformers(inputGeneralized, inputAnalyzed);
     }
 
     /**
@@ -145,6 +177,8 @@ public class Transformer {
         this.dimensions = inputGeneralized.getNumColumns();
         this.dictionarySensValue = null;
         this.dictionarySensFreq = null;
+        this.suppressedCodes = null;
+        this.threads = 1;
 
         // Build just one applicator
         this.instances = new AbstractTransformer[1];
@@ -230,122 +264,279 @@ public class Transformer {
         return outputGeneralized;
     }
 
+    /**
+     * Releases the threads used for parallel transformation, if any.
+     * They will be recreated when needed.
+     */
+    public void shutdown() {
+        if (workerPool != null) {
+            workerPool.shutdownNow();
+            workerPool = null;
+        }
+        workerGroupifies = null;
+        workerInstances = null;
+        workerBuffers = null;
+    }
+
+    /**
+     * Transforms the given range in parallel. The range is split into consecutive partitions,
+     * each of which is transformed and grouped by a worker into its own groupify operator.
+     * The results are merged into the target in the order of the partitions, which produces
+     * the same classes, order of classes and representatives as a sequential pass.
+     * 
+     * @param projection the projection
+     * @param state the state
+     * @param target the target
+     * @param snapshot the snapshot
+     * @param transition the transition
+     * @param startIndex the start index
+     * @param stopIndex the stop index
+     * @return the hash groupify
+     */
+    private HashGroupify applyParallel(final long projection,
+                                       final int[] state,
+                                       final HashGroupify target,
+                                       final int[] snapshot,
+                                       final TransitionType transition,
+                                       final int startIndex,
+                                       final int stopIndex) {
+
+        // Prepare
+        initializeWorkers();
+        int partitions = Math.min(threads, (stopIndex - startIndex) / MIN_RECORDS_PER_THREAD);
+        int size = (stopIndex - startIndex) / partitions;
+        
+        // Submit
+        List<Future<HashGroupify>> futures = new ArrayList<Future<HashGroupify>>();
+        for (int i = 0; i < partitions; i++) {
+            
+            int partitionStart = startIndex + i * size;
+            int partitionStop = (i == partitions - 1) ? stopIndex : partitionStart + size;
+            AbstractTransformer transformer = getTransformer(workerInstances[i], projection);
+            transformer.init(projection,
+                             state,
+                             workerGroupifies[i],
+                             null,
+                             snapshot,
+                             transition,
+                             partitionStart,
+                             partitionStop,
+                             null,
+                             workerBuffers[i]);
+            futures.add(workerPool.submit(transformer));
+        }
+        
+        // Merge in order
+        target.stateClear();
+        try {
+            for (Future<HashGroupify> future : futures) {
+                target.stateMerge(future.get());
+            }
+        } catch (InterruptedException e) {
+            cancel(futures);
+            Thread.currentThread().interrupt();
+            throw new RuntimeException("Interrupted while transforming data", e);
+        } catch (ExecutionException e) {
+            cancel(futures);
+            throw new RuntimeException("Error while transforming data", e.getCause());
+        }
+        
+        // Return
+        return target;
+    }
+
     /**
      * Builds the applicators.
+     * 
+     * @param data
+     * @param dataAnalyzed
+     * @return
+     */
+    private AbstractTransformer[] buildTransformers(final DataMatrix data, final DataMatrix dataAnalyzed) {
+        final AbstractTransformer[] result = new AbstractTransformer[16];
+        result[15] = new Transformer15(data,
+                                       hierarchies,
+                                       dataAnalyzed,
+                                       dataAnalyzedNumberOfColumns,
+                                       dictionarySensValue,
+                                       dictionarySensFreq,
+                                       config);
+        result[14] = new Transformer14(data,
+                                       hierarchies,
+                                       dataAnalyzed,
+                                       dataAnalyzedNumberOfColumns,
+                                       dictionarySensValue,
+                                       dictionarySensFreq,
+                                       config);
+        result[13] = new Transformer13(data,
+                                       hierarchies,
+                                       dataAnalyzed,
+                                       dataAnalyzedNumberOfColumns,
+                                       dictionarySensValue,
+                                       dictionarySensFreq,
+                                       config);
+        result[12] = new Transformer12(data,
+                                       hierarchies,
+                                       dataAnalyzed,
+                                       dataAnalyzedNumberOfColumns,
+                                       dictionarySensValue,
+                                       dictionarySensFreq,
+                                       config);
+        result[11] = new Transformer11(data,
+                                       hierarchies,
+                                       dataAnalyzed,
+                                       dataAnalyzedNumberOfColumns,
+                                       dictionarySensValue,
+                                       dictionarySensFreq,
+                                       config);
+        result[10] = new Transformer10(data,
+                                       hierarchies,
+                                       dataAnalyzed,
+                                       dataAnalyzedNumberOfColumns,
+                                       dictionarySensValue,
+                                       dictionarySensFreq,
+                                       config);
+        result[9] = new Transformer09(data,
+                                      hierarchies,
+                                      dataAnalyzed,
+                                      dataAnalyzedNumberOfColumns,
+                                      dictionarySensValue,
+                                      dictionarySensFreq,
+                                      config);
+        result[8] = new Transformer08(data,
+                                      hierarchies,
+                                      dataAnalyzed,
+                                      dataAnalyzedNumberOfColumns,
+                                      dictionarySensValue,
+                                      dictionarySensFreq,
+                                      config);
+        result[7] = new Transformer07(data,
+                                      hierarchies,
+                                      dataAnalyzed,
+                                      dataAnalyzedNumberOfColumns,
+                                      dictionarySensValue,
+                                      dictionarySensFreq,
+                                      config);
+        result[6] = new Transformer06(data,
+                                      hierarchies,
+                                      dataAnalyzed,
+                                      dataAnalyzedNumberOfColumns,
+                                      dictionarySensValue,
+                                      dictionarySensFreq,
+                                      config);
+        result[5] = new Transformer05(data,
+                                      hierarchies,
+                                      dataAnalyzed,
+                                      dataAnalyzedNumberOfColumns,
+                                      dictionarySensValue,
+                                      dictionarySensFreq,
+                                      config);
+        result[4] = new Transformer04(data,
+                                      hierarchies,
+                                      dataAnalyzed,
+                                      dataAnalyzedNumberOfColumns,
+                                      dictionarySensValue,
+                                      dictionarySensFreq,
+                                      config);
+        result[3] = new Transformer03(data,
+                                      hierarchies,
+                                      dataAnalyzed,
+                                      dataAnalyzedNumberOfColumns,
+                                      dictionarySensValue,
+                                      dictionarySensFreq,
+                                      config);
+        result[2] = new Transformer02(data,
+                                      hierarchies,
+                                      dataAnalyzed,
+                                      dataAnalyzedNumberOfColumns,
+                                      dictionarySensValue,
+                                      dictionarySensFreq,
+                                      config);
+        result[1] = new Transformer01(data,
+                                      hierarchies,
+                                      dataAnalyzed,
+                                      dataAnalyzedNumberOfColumns,
+                                      dictionarySensValue,
+                                      dictionarySensFreq,
+                                      config);
+        result[0] = new TransformerAll(data,
+                                       hierarchies,
+                                       dataAnalyzed,
+                                       dataAnalyzedNumberOfColumns,
+                                       dictionarySensValue,
+                                       dictionarySensFreq,
+                                       config);
+
+        return result;
+    }
+
+    /**
+     * Cancels all futures.
+     * 
+     * @param futures
+     */
+    private void cancel(List<Future<HashGroupify>> futures) {
+        for (Future<HashGroupify> future : futures) {
+            future.cancel(true);
+        }
+    }
+
+    /**
+     * Gets the applicator from the given set of instances.
+     * 
+     * @param instances the instances
+     * @param projection the projection
+     * @return the applicator
      */
-    private void buildTransformers() {
-        instances[15] = new Transformer15(inputGeneralized,
-                                          hierarchies,
-                                          inputAnalyzed,
-                                          dataAnalyzedNumberOfColumns,
-                                          dictionarySensValue,
-                                          dictionarySensFreq,
-                                          config);
-        instances[14] = new Transformer14(inputGeneralized,
-                                          hierarchies,
-                                          inputAnalyzed,
-                                          dataAnalyzedNumberOfColumns,
-                                          dictionarySensValue,
-                                          dictionarySensFreq,
-                                          config);
-        instances[13] = new Transformer13(inputGeneralized,
-                                          hierarchies,
-                                          inputAnalyzed,
-                                          dataAnalyzedNumberOfColumns,
-                                          dictionarySensValue,
-                                          dictionarySensFreq,
-                                          config);
-        instances[12] = new Transformer12(inputGeneralized,
-                                          hierarchies,
-                                          inputAnalyzed,
-                                          dataAnalyzedNumberOfColumns,
-                                          dictionarySensValue,
-                                          dictionarySensFreq,
-                                          config);
-        instances[11] = new Transformer11(inputGeneralized,
-                                          hierarchies,
-                                          inputAnalyzed,
-                                          dataAnalyzedNumberOfColumns,
-                                          dictionarySensValue,
-                                          dictionarySensFreq,
-                                          config);
-        instances[10] = new Transformer10(inputGeneralized,
-                                          hierarchies,
-                                          inputAnalyzed,
-                                          dataAnalyzedNumberOfColumns,
-                                          dictionarySensValue,
-                                          dictionarySensFreq,
-                                          config);
-        instances[9] = new Transformer09(inputGeneralized,
-                                         hierarchies,
-                                         inputAnalyzed,
-                                         dataAnalyzedNumberOfColumns,
-                                         dictionarySensValue,
-                                         dictionarySensFreq,
-                                         config);
-        instances[8] = new Transformer08(inputGeneralized,
-                                         hierarchies,
-                                         inputAnalyzed,
-                                         dataAnalyzedNumberOfColumns,
-                                         dictionarySensValue,
-                                         dictionarySensFreq,
-                                         config);
-        instances[7] = new Transformer07(inputGeneralized,
-                                         hierarchies,
-                                         inputAnalyzed,
-                                         dataAnalyzedNumberOfColumns,
-                                         dictionarySensValue,
-                                         dictionarySensFreq,
-                                         config);
-        instances[6] = new Transformer06(inputGeneralized,
-                                         hierarchies,
-                                         inputAnalyzed,
-                                         dataAnalyzedNumberOfColumns,
-                                         dictionarySensValue,
-                                         dictionarySensFreq,
-                                         config);
-        instances[5] = new Transformer05(inputGeneralized,
-                                         hierarchies,
-                                         inputAnalyzed,
-                                         dataAnalyzedNumberOfColumns,
-                                         dictionarySensValue,
-                                         dictionarySensFreq,
-                                         config);
-        instances[4] = new Transformer04(inputGeneralized,
-                                         hierarchies,
-                                         inputAnalyzed,
-                                         dataAnalyzedNumberOfColumns,
-                                         dictionarySensValue,
-                                         dictionarySensFreq,
-                                         config);
-        instances[3] = new Transformer03(inputGeneralized,
-                                         hierarchies,
-                                         inputAnalyzed,
-                                         dataAnalyzedNumberOfColumns,
-                                         dictionarySensValue,
-                                         dictionarySensFreq,
-                                         config);
-        instances[2] = new Transformer02(inputGeneralized,
-                                         hierarchies,
-                                         inputAnalyzed,
-                                         dataAnalyzedNumberOfColumns,
-                                         dictionarySensValue,
-                                         dictionarySensFreq,
-                                         config);
-        instances[1] = new Transformer01(inputGeneralized,
-                                         hierarchies,
-                                         inputAnalyzed,
-                                         dataAnalyzedNumberOfColumns,
-                                         dictionarySensValue,
-                                         dictionarySensFreq,
-                                         config);
-        instances[0] = new TransformerAll(inputGeneralized,
-                                          hierarchies,
-                                          inputAnalyzed,
-                                          dataAnalyzedNumberOfColumns,
-                                          dictionarySensValue,
-                                          dictionarySensFreq,
-                                          config);
+    private AbstractTransformer getTransformer(final AbstractTransformer[] instances, final long projection) {
+        final int index = dimensions - Long.bitCount(projection);
+        if (index > (instances.length - 1)) {
+            return instances[0];
+        } else {
+            return instances[index];
+        }
+    }
+
+    /**
+     * Initializes the workers, if this has not been done before.
+     */
+    private void initializeWorkers() {
+        
+        // Already initialized
+        if (workerPool != null) {
+            return;
+        }
+        
+        // Prepare
+        int capacity = (int) (inputGeneralized.getNumRows() * 0.01d / threads);
+        workerInstances = new AbstractTransformer[threads][];
+        workerGroupifies = new HashGroupify[threads];
+        workerBuffers = new DataMatrix[threads];
+        
+        // Each worker uses its own views on the data, because they maintain a state
+        for (int i = 0; i < threads; i++) {
+            DataMatrix input = inputGeneralized.getView();
+            DataMatrix analyzed = inputAnalyzed == null ? null : inputAnalyzed.getView();
+            workerBuffers[i] = outputGeneralized.getView();
+            workerInstances[i] = buildTransformers(input, analyzed);
+            workerGroupifies[i] = new HashGroupify(capacity, config, dataAnalyzedNumberOfColumns,
+                                                   input,
+                                                   workerBuffers[i],
+                                                   analyzed,
+                                                   suppressedCodes);
+        }
+        
+        workerPool = DaemonThreads.newFixedThreadPool(threads, "ARX transformer");
+    }
+
+    /**
+     * Returns whether the given number of records or classes should be processed in parallel
+     * 
+     * @param size
+     * @return
+     */
+    private boolean isParallelizable(int size) {
+        return threads > 1 && size >= 2 * MIN_RECORDS_PER_THREAD;
     }
 
     /**
@@ -387,6 +578,11 @@ public class Transformer {
             break;
         }
 
+        // Transform and group partitions in parallel, if possible
+        if (transition != TransitionType.ROLLUP && isParallelizable(stopIndex - startIndex)) {
+            return applyParallel(projection, state, target, snapshot, transition, startIndex, stopIndex);
+        }
+
         AbstractTransformer transformer = null;
 
         transformer = getTransformer(projection);
@@ -412,11 +608,6 @@ public class Transformer {
      * @return the applicator
      */
     protected AbstractTransformer getTransformer(final long projection) {
-        final int index = dimensions - Long.bitCount(projection);
-        if (index > (instances.length - 1)) {
-            return instances[0];
-        } else {
-            return instances[index];
-        }
+        return getTransformer(instances, projection);
     }
 }
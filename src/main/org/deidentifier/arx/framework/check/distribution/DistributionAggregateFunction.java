@@ -27,6 +27,7 @@ import java.util.Map;
 import java.util.Random;
 
 import org.apache.commons.math3.stat.descriptive.DescriptiveStatistics;
+import org.apache.commons.math3.util.FastMath;
 import org.deidentifier.arx.DataType;
 import org.deidentifier.arx.DataType.DataTypeWithRatioScale;
 
@@ -91,13 +92,43 @@ public abstract class DistributionAggregateFunction implements Serializable {
 
         @Override
         public <T> String aggregate(Distribution distribution) {
-            stats.clear();
-            @SuppressWarnings("unchecked")
-            DataType<T> type = (DataType<T>)this.type;
+            
             @SuppressWarnings("unchecked")
             DataTypeWithRatioScale<T> rType = (DataTypeWithRatioScale<T>) this.type;
-            addAll(stats, distribution, rType, 0d);
-            return stats.getN() == 0 ? DataType.NULL_VALUE : type.format(rType.fromDouble(stats.getMean()));
+            
+            // Sum, as in commons math
+            int[] buckets = distribution.getBuckets();
+            double sum = 0d;
+            long count = 0;
+            for (int i = 0; i < buckets.length; i += 2) {
+                int code = buckets[i];
+                if (code != -1 && (!ignoreMissingData || !missing[code])) {
+                    double value = missing[code] ? 0d : values[code];
+                    int frequency = buckets[i + 1];
+                    for (int j = 0; j < frequency; j++) {
+                        sum += value;
+                    }
+                    count += frequency;
+                }
+            }
+            if (count == 0) {
+                return DataType.NULL_VALUE;
+            }
+            
+            // Mean with correction, as in commons math
+            double mean = sum / (double) count;
+            double correction = 0d;
+            for (int i = 0; i < buckets.length; i += 2) {
+                int code = buckets[i];
+                if (code != -1 && (!ignoreMissingData || !missing[code])) {
+                    double value = missing[code] ? 0d : values[code];
+                    int frequency = buckets[i + 1];
+                    for (int j = 0; j < frequency; j++) {
+                        correction += value - mean;
+                    }
+                }
+            }
+            return rType.format(rType.fromDouble(mean + correction / (double) count));
         }
 
         /**
@@ -179,13 +210,26 @@ public abstract class DistributionAggregateFunction implements Serializable {
 
         @Override
         public <T> String aggregate(Distribution distribution) {
-            stats.clear();
-            @SuppressWarnings("unchecked")
-            DataType<T> type = (DataType<T>)this.type;
+            
             @SuppressWarnings("unchecked")
             DataTypeWithRatioScale<T> rType = (DataTypeWithRatioScale<T>) this.type;
-            addAll(stats, distribution, rType, 1d);
-            return stats.getN() == 0 ? DataType.NULL_VALUE : type.format(rType.fromDouble(stats.getGeometricMean() - 1d));
+            
+            // Sum of logs, as in commons math
+            int[] buckets = distribution.getBuckets();
+            double sum = 0d;
+            long count = 0;
+            for (int i = 0; i < buckets.length; i += 2) {
+                int code = buckets[i];
+                if (code != -1 && (!ignoreMissingData || !missing[code])) {
+                    double log = FastMath.log((missing[code] ? 0d : values[code]) + 1d);
+                    int frequency = buckets[i + 1];
+                    for (int j = 0; j < frequency; j++) {
+                        sum += log;
+                    }
+                    count += frequency;
+                }
+            }
+            return count == 0 ? DataType.NULL_VALUE : rType.format(rType.fromDouble(FastMath.exp(sum / (double) count) - 1d));
         }
 
         /**
@@ -331,6 +375,11 @@ public abstract class DistributionAggregateFunction implements Serializable {
         @Override
         public <T> String aggregate(Distribution distribution) {
             
+            // Use pre-parsed values, if possible
+            if (values != null && !isMissing(distribution)) {
+                return aggregateNumeric(distribution);
+            }
+            
             @SuppressWarnings("unchecked")
             final DataType<T> type = (DataType<T>)this.type;
             
@@ -449,6 +498,78 @@ public abstract class DistributionAggregateFunction implements Serializable {
             }
         }
 
+        /**
+         * Determines the median from pre-parsed values without any missing data
+         * @param distribution
+         * @return
+         */
+        private <T> String aggregateNumeric(Distribution distribution) {
+            
+            @SuppressWarnings("unchecked")
+            DataTypeWithRatioScale<T> rType = (DataTypeWithRatioScale<T>) this.type;
+            
+            // Collect
+            int[] buckets = distribution.getBuckets();
+            final int[] codes = new int[distribution.size()];
+            final int[] frequencies = new int[distribution.size()];
+            int size = 0;
+            for (int i = 0; i < buckets.length; i += 2) {
+                if (buckets[i] != -1) {
+                    codes[size] = buckets[i];
+                    frequencies[size++] = buckets[i + 1];
+                }
+            }
+            
+            // Sort
+            GenericSorting.mergeSort(0, size, new IntComparator() {
+                @Override
+                public int compare(int arg0, int arg1) {
+                    return Double.compare(values[codes[arg0]], values[codes[arg1]]);
+                }
+            }, new Swapper() {
+                @Override
+                public void swap(int arg0, int arg1) {
+                    int temp = codes[arg0];
+                    codes[arg0] = codes[arg1];
+                    codes[arg1] = temp;
+                    temp = frequencies[arg0];
+                    frequencies[arg0] = frequencies[arg1];
+                    frequencies[arg1] = temp;
+                }
+            });
+            
+            // Accumulate
+            int total = 0;
+            for (int i = 0; i < size; i++) {
+                total += frequencies[i];
+                frequencies[i] = total - 1;
+            }
+            
+            // Switch
+            if (total % 2 == 1) {
+                return rType.format(rType.parse(dictionary[getCodeAt(codes, frequencies, total / 2)]));
+            } else {
+                double median1 = values[getCodeAt(codes, frequencies, total / 2 - 1)];
+                double median2 = values[getCodeAt(codes, frequencies, total / 2)];
+                return rType.format(rType.fromDouble((median1 + median2) / 2d));
+            }
+        }
+        
+        /**
+         * Returns the code at
+         * @param codes
+         * @param frequencies
+         * @param index
+         * @return
+         */
+        private int getCodeAt(int[] codes, int[] frequencies, int index) {
+            int pointer = 0;
+            while (frequencies[pointer] < index) {
+                pointer++;
+            }
+            return codes[pointer];
+        }
+
         /**
          * Returns the value at
          * @param values
@@ -884,6 +1005,12 @@ public abstract class DistributionAggregateFunction implements Serializable {
     
     /** Type */
     protected transient DataType<?> type;
+    
+    /** Values parsed from the dictionary, if the type has a ratio scale */
+    protected transient double[]    values;
+    
+    /** Whether values parsed from the dictionary are missing, if the type has a ratio scale */
+    protected transient boolean[]   missing;
 
     /**
      * Instantiates a new function.
@@ -947,6 +1074,19 @@ public abstract class DistributionAggregateFunction implements Serializable {
     public void initialize(String[] dictionary, DataType<?> type) {
         this.dictionary = dictionary;
         this.type = type;
+        this.values = null;
+        this.missing = null;
+        if (type instanceof DataTypeWithRatioScale) {
+            @SuppressWarnings("unchecked")
+            DataTypeWithRatioScale<Object> rType = (DataTypeWithRatioScale<Object>) type;
+            this.values = new double[dictionary.length];
+            this.missing = new boolean[dictionary.length];
+            for (int i = 0; i < dictionary.length; i++) {
+                Double value = rType.toDouble(rType.parse(dictionary[i]));
+                this.missing[i] = value == null;
+                this.values[i] = value == null ? 0d : value;
+            }
+        }
     }
     
     /**
@@ -976,14 +1116,32 @@ public abstract class DistributionAggregateFunction implements Serializable {
                            Distribution distribution,
                            DataTypeWithRatioScale<T> type,
                            double offset) {
-        Iterator<Double> it = DistributionIterator.createIteratorDouble(distribution, dictionary, type);
-        while (it.hasNext()) {
-            Double value = it.next();
-            value = value == null ? (ignoreMissingData ? null : 0d) : value;
-            if (value != null) {
-                statistics.addValue(value + offset);
+        int[] buckets = distribution.getBuckets();
+        for (int i = 0; i < buckets.length; i += 2) {
+            int code = buckets[i];
+            if (code != -1 && (!ignoreMissingData || !missing[code])) {
+                double value = (missing[code] ? 0d : values[code]) + offset;
+                int frequency = buckets[i + 1];
+                for (int j = 0; j < frequency; j++) {
+                    statistics.addValue(value);
+                }
+            }
+        }
+    }
+
+    /**
+     * Returns whether the distribution contains missing values, requires pre-parsed values
+     * @param distribution
+     * @return
+     */
+    protected boolean isMissing(Distribution distribution) {
+        int[] buckets = distribution.getBuckets();
+        for (int i = 0; i < buckets.length; i += 2) {
+            if (buckets[i] != -1 && missing[buckets[i]]) {
+                return true;
             }
         }
+        return false;
     }
 
     /**
@@ -17,6 +17,8 @@
 
 package org.deidentifier.arx.framework.check.groupify;
 
+import java.util.Arrays;
+
 import org.deidentifier.arx.ARXConfiguration.ARXConfigurationInternal;
 import org.deidentifier.arx.RowSet;
 import org.deidentifier.arx.criteria.DPresence;
@@ -32,11 +34,12 @@ import org.deidentifier.arx.framework.data.Dictionary;
 import org.deidentifier.arx.framework.lattice.Transformation;
 import org.deidentifier.arx.metric.Metric;
 
-import com.carrotsearch.hppc.ObjectIntOpenHashMap;
 
 /**
- * A hash groupify operator. It implements a hash table with chaining and keeps
- * track of additional properties per equivalence class
+ * A hash groupify operator. It implements a hash table with open addressing and keeps
+ * track of additional properties per equivalence class. Hash codes and the indices of
+ * classes are stored in primitive arrays. Classes are stored in the order in which they
+ * have been added and entries are reused after clearing the operator.
  * 
  * @author Fabian Prasser
  * @author Florian Kohlmayer
@@ -49,17 +52,17 @@ public class HashGroupify {
     /** The current number of outliers. */
     private int                          currentNumOutliers;
 
-    /** The entry array. */
-    private HashGroupifyEntry[]          hashTableBuckets;
+    /** The index of the class stored in each slot, -1 if the slot is empty. */
+    private int[]                        hashTableSlots;
 
-    /** Current number of elements. */
-    private int                          hashTableElementCount;
+    /** The hash code of the class stored in each slot. */
+    private int[]                        hashTableHashCodes;
 
-    /** The first entry. */
-    private HashGroupifyEntry            hashTableFirstEntry;
+    /** The classes, in the order in which they have been added. Reused after clearing. */
+    private HashGroupifyEntry[]          hashTableEntries;
 
-    /** The last entry. */
-    private HashGroupifyEntry            hashTableLastEntry;
+    /** Current number of elements. */
+    private int                          hashTableElementCount;
 
     /** Load factor. */
     private final float                  hashTableLoadFactor = 0.75f;
@@ -91,6 +94,9 @@ public class HashGroupify {
     /** Allowed tuple outliers. */
     private final int                    suppressionLimit;
 
+    /** Cache for results of evaluating class-based privacy models, may be null */
+    private final HashGroupifyVerdictCache verdicts;
+
     /** Utility measure */
     private final Metric<?>              utilityMeasure;
 
@@ -130,8 +136,32 @@ public class HashGroupify {
                         DataMatrix output,
                         DataMatrix analyzed,
                         int[] suppressedCodes) {
+        this(capacity, config, dataAnalyzedNumberOfColumns, input, output, analyzed, suppressedCodes, null);
+    }
+
+    /**
+     * Constructs a new hash groupify operator.
+     *
+     * @param capacity The capacity
+     * @param config The config
+     * @param dataAnalyzedNumberOfColumns
+     * @param input
+     * @param output
+     * @param analyzed
+     * @param suppressedCodes
+     * @param verdicts Cache for results of evaluating privacy models, may be null
+     */
+    public HashGroupify(int capacity, 
+                        ARXConfigurationInternal config,
+                        int dataAnalyzedNumberOfColumns,
+                        DataMatrix input,
+                        DataMatrix output,
+                        DataMatrix analyzed,
+                        int[] suppressedCodes,
+                        HashGroupifyVerdictCache verdicts) {
         
         // Store
+        this.verdicts = verdicts;
         this.dataInput = input;
         this.dataOutput = output;
         this.dataAnalyzed = analyzed;
@@ -142,8 +172,11 @@ public class HashGroupify {
         // Set capacity
         capacity = HashTableUtil.calculateCapacity(capacity);
         this.hashTableElementCount = 0;
-        this.hashTableBuckets = new HashGroupifyEntry[capacity];
-        this.hashTableThreshold = HashTableUtil.calculateThreshold(hashTableBuckets.length, hashTableLoadFactor);
+        this.hashTableSlots = new int[capacity];
+        this.hashTableHashCodes = new int[capacity];
+        this.hashTableEntries = new HashGroupifyEntry[capacity];
+        this.hashTableThreshold = HashTableUtil.calculateThreshold(hashTableSlots.length, hashTableLoadFactor);
+        Arrays.fill(this.hashTableSlots, -1);
         
         // Set params
         this.currentNumOutliers = 0;
@@ -282,12 +315,16 @@ public class HashGroupify {
      */
     public HashGroupifyEntry getEntry(int[] tuple) {
         final int hash = dataOutput.hashCode(tuple);
-        int index = hash & (hashTableBuckets.length - 1);
-        HashGroupifyEntry m = hashTableBuckets[index];
-        while ((m != null) && ((m.hashcode != hash) || !dataOutput.equals(m.row, tuple))) {
-            m = m.next;
+        final int mask = hashTableSlots.length - 1;
+        int slot = getSlot(hash, mask);
+        int index;
+        while ((index = hashTableSlots[slot]) != -1) {
+            if (hashTableHashCodes[slot] == hash && dataOutput.equals(hashTableEntries[index].row, tuple)) {
+                return hashTableEntries[index];
+            }
+            slot = (slot + 1) & mask;
         }
-        return m;
+        return null;
     }
     
     /**
@@ -295,7 +332,7 @@ public class HashGroupify {
      * @return
      */
     public HashGroupifyEntry getFirstEquivalenceClass() {
-        return hashTableFirstEntry;
+        return hashTableElementCount == 0 ? null : hashTableEntries[0];
     }
     
     /**
@@ -365,6 +402,20 @@ public class HashGroupify {
      */
     public Data performMicroaggregation(DataAggregationInformation microaggregationData,
                                         Dictionary dictionary) {
+        return performMicroaggregation(microaggregationData, dictionary, false);
+    }
+
+    /**
+     * Returns a data object with microaggregation performed. If requested, suppression
+     * will be performed in the same pass, see <code>performSuppression()</code>.
+     * @param microaggregationData
+     * @param dictionary
+     * @param suppress
+     * @return
+     */
+    public Data performMicroaggregation(DataAggregationInformation microaggregationData,
+                                        Dictionary dictionary,
+                                        boolean suppress) {
         
         // Initialize
         int[] indices = microaggregationData.getMicroaggregationIndices();
@@ -373,31 +424,34 @@ public class HashGroupify {
         int[] columns = microaggregationData.getMicroaggregationColumns();
         
         // Prepare result
-        Data result = Data.createWrapper(new DataMatrix(dataOutput.getNumRows(), indices.length), header, columns, dictionary);
-
-        // TODO: To improve performance, microaggregation and marking of outliers could be performed in one pass
-        ObjectIntOpenHashMap<Distribution> cache = new ObjectIntOpenHashMap<Distribution>();
+        Data result = Data.createWrapper(DataMatrix.create(dataOutput.getNumRows(), indices.length), header, columns, dictionary);
+        
+        // Aggregates are computed once per class
+        for (int i = 0; i < hashTableElementCount; i++) {
+            hashTableEntries[i].aggregates = null;
+        }
+        
+        // Microaggregate and suppress
         for (int row = 0; row < dataOutput.getNumRows(); row++) {
             if (privacyModelDefinesSubset == null || privacyModelDefinesSubset.contains(row)) {
-                final int hash = dataOutput.hashCode(row);
-                final int index = hash & (hashTableBuckets.length - 1);
-                HashGroupifyEntry m = hashTableBuckets[index];
-                while ((m != null) && ((m.hashcode != hash) || !dataOutput.equalsIgnoringOutliers(row, m.row))) {
-                    m = m.next;
-                }
+                HashGroupifyEntry m = findEntryIgnoringOutliers(row);
                 if (m == null) { throw new RuntimeException("Invalid state! Groupify the data before performing microaggregation!"); }
+                if (m.aggregates == null) {
+                    m.aggregates = new int[indices.length];
+                    for (int i = 0; i < indices.length; i++) {
+                        String value = functions[i].aggregate(m.distributions[indices[i]]);
+                        m.aggregates[i] = result.getDictionary().register(i, value);
+                    }
+                }
                 result.getArray().iterator(row);
                 for (int i = 0; i < indices.length; i++) {
-                    int columnIndex = indices[i];
-                    Distribution distribution = m.distributions[columnIndex];
-                    int code = cache.getOrDefault(distribution, -1);
-                    if (code == -1) {
-                        String value = functions[i].aggregate(distribution);
-                        code = result.getDictionary().register(i, value);
-                        cache.put(distribution, code);
-                    }
-                    result.getArray().iterator_write(code);
+                    result.getArray().iterator_write(m.aggregates[i]);
                 }
+                if (suppress) {
+                    suppress(row, m);
+                }
+            } else if (suppress) {
+                dataOutput.or(row, Data.OUTLIER_MASK);
             }
         }
         
@@ -418,19 +472,11 @@ public class HashGroupify {
         
         for (int row = 0; row < dataOutput.getNumRows(); row++) {
             if (privacyModelDefinesSubset == null || privacyModelDefinesSubset.contains(row)) {
-                final int hash = dataOutput.hashCode(row);
-                final int index = hash & (hashTableBuckets.length - 1);
-                HashGroupifyEntry m = hashTableBuckets[index];
-                while ((m != null) && ((m.hashcode != hash) || !dataOutput.equalsIgnoringOutliers(row, m.row))) {
-                    m = m.next;
-                }
+                HashGroupifyEntry m = findEntryIgnoringOutliers(row);
                 if (m == null) {
                     throw new RuntimeException("Invalid state! Group the data before suppressing records!");
                 }
-                if (!m.isNotOutlier || this.isCompletelyGeneralized(m)) {
-                    dataOutput.or(row, Data.OUTLIER_MASK);
-                    m.isNotOutlier = false;
-                }
+                suppress(row, m);
             } else {
                 dataOutput.or(row, Data.OUTLIER_MASK);
             }
@@ -454,23 +500,59 @@ public class HashGroupify {
         if (hashTableElementCount > 0) {
             this.hashTableElementCount = 0;
             this.currentNumOutliers = 0;
-            this.hashTableFirstEntry = null;
-            this.hashTableLastEntry = null;
-            HashTableUtil.nullifyArray(hashTableBuckets);
+            Arrays.fill(hashTableSlots, -1);
         }
     }
-    
+
+    /**
+     * Merges all classes from the given operator into this operator, in the order in which
+     * they have been added to the other operator. Both operators must group the same output buffer.
+     * @param other
+     */
+    public void stateMerge(HashGroupify other) {
+        for (int i = 0; i < other.hashTableElementCount; i++) {
+            HashGroupifyEntry entry = other.hashTableEntries[i];
+
+            // Add
+            final HashGroupifyEntry target = addInternal(entry.row, entry.hashcode, entry.representative, entry.count, entry.pcount);
+
+            // Merge distributions, if any
+            if (entry.distributions != null) {
+                if (target.distributions == null) {
+                    target.distributions = entry.distributions;
+                } else {
+                    for (int j = 0; j < target.distributions.length; j++) {
+                        target.distributions[j].merge(entry.distributions[j]);
+                    }
+                }
+            }
+        }
+    }
+
     /**
      * This method will reset all flags that indicate that equivalence classes are suppressed.
      */
     public void stateResetSuppression() {
-        HashGroupifyEntry entry = hashTableFirstEntry;
-        while (entry != null) {
-            entry.isNotOutlier = true;
-            entry = entry.nextOrdered;
+        for (int i = 0; i < hashTableElementCount; i++) {
+            hashTableEntries[i].isNotOutlier = true;
         }
         this.currentNumOutliers = 0;
     }
+
+    /**
+     * Restores the state which is present after all records have been added, so that
+     * the classes can be analyzed again.
+     */
+    public void stateRestore() {
+        this.currentNumOutliers = 0;
+        for (int i = 0; i < hashTableElementCount; i++) {
+            HashGroupifyEntry entry = hashTableEntries[i];
+            entry.isNotOutlier = entry.count >= minimalClassSize;
+            if (!entry.isNotOutlier) {
+                this.currentNumOutliers += entry.count;
+            }
+        }
+    }
     
     /**
      * Internal adder method.
@@ -485,14 +567,26 @@ public class HashGroupify {
     private HashGroupifyEntry addInternal(final int generalized, final int hash, final int representative, int count, final int pcount) {
         
         // Find or create entry
-        int index = hash & (hashTableBuckets.length - 1);
-        HashGroupifyEntry entry = findEntry(generalized, index, hash);
-        if (entry == null) {
-            if (++hashTableElementCount > hashTableThreshold) {
+        int mask = hashTableSlots.length - 1;
+        int slot = getSlot(hash, mask);
+        int index;
+        while ((index = hashTableSlots[slot]) != -1 &&
+               (hashTableHashCodes[slot] != hash || !dataOutput.equals(generalized, hashTableEntries[index].row))) {
+            slot = (slot + 1) & mask;
+        }
+        HashGroupifyEntry entry;
+        if (index == -1) {
+            if (hashTableElementCount + 1 > hashTableThreshold) {
                 rehash();
-                index = hash & (hashTableBuckets.length - 1);
+                mask = hashTableSlots.length - 1;
+                slot = getSlot(hash, mask);
+                while (hashTableSlots[slot] != -1) {
+                    slot = (slot + 1) & mask;
+                }
             }
-            entry = createEntry(generalized, index, hash, representative);
+            entry = createEntry(generalized, slot, hash, representative);
+        } else {
+            entry = hashTableEntries[index];
         }
         
         // If we enforce d-presence and the tuple is not contained in the research subset: set its count to zero
@@ -557,10 +651,10 @@ public class HashGroupify {
         // Iterate over all classes
         boolean dpresent = true;
         currentNumOutliers = 0;
-        HashGroupifyEntry entry = hashTableFirstEntry;
-        while (entry != null) {
+        for (int i = 0; i < hashTableElementCount; i++) {
             
             // Check for anonymity
+            HashGroupifyEntry entry = hashTableEntries[i];
             int anonymous = isPrivacyModelFulfilled(transformation, entry);
             
             // Determine outliers
@@ -580,9 +674,6 @@ public class HashGroupify {
             
             // We only suppress classes that are contained in the research subset
             entry.isNotOutlier = entry.count != 0 ? (anonymous == -1) : true;
-            
-            // Next class
-            entry = entry.nextOrdered;
         }
         
         this.analyzeSampleBasedCriteria(transformation, false);
@@ -646,10 +737,10 @@ public class HashGroupify {
         
         // Iterate over all classes
         currentNumOutliers = 0;
-        HashGroupifyEntry entry = hashTableFirstEntry;
-        while (entry != null) {
+        for (int i = 0; i < hashTableElementCount; i++) {
             
             // Check for anonymity
+            HashGroupifyEntry entry = hashTableEntries[i];
             int anonymous = isPrivacyModelFulfilled(transformation, entry);
             
             // Determine outliers
@@ -679,9 +770,6 @@ public class HashGroupify {
             
             // We only suppress classes that are contained in the research subset
             entry.isNotOutlier = entry.count != 0 ? (anonymous == -1) : true;
-            
-            // Next class
-            entry = entry.nextOrdered;
         }
         
         this.analyzeSampleBasedCriteria(transformation, true);
@@ -689,50 +777,83 @@ public class HashGroupify {
     }
 
     /**
-     * Creates a new entry.
+     * Creates a new entry, reusing a previously allocated entry if possible.
      * 
      * @param row
      *            the row
-     * @param index
-     *            the index
+     * @param slot
+     *            the free slot
      * @param hash
      *            the hash
      * @param line
      *            the line
      * @return the hash groupify entry
      */
-    private HashGroupifyEntry createEntry(final int row, final int index, final int hash, final int line) {
-        final HashGroupifyEntry entry = new HashGroupifyEntry(this.dataOutput, row, hash);
-        entry.next = hashTableBuckets[index];
-        entry.representative = line;
-        hashTableBuckets[index] = entry;
-        if (hashTableFirstEntry == null) {
-            hashTableFirstEntry = entry;
-            hashTableLastEntry = entry;
+    private HashGroupifyEntry createEntry(final int row, final int slot, final int hash, final int line) {
+        final int index = hashTableElementCount++;
+        if (index == hashTableEntries.length) {
+            hashTableEntries = Arrays.copyOf(hashTableEntries, hashTableEntries.length << 1);
+        }
+        HashGroupifyEntry entry = hashTableEntries[index];
+        if (entry == null) {
+            entry = new HashGroupifyEntry(this.dataOutput, row, hash);
+            hashTableEntries[index] = entry;
         } else {
-            hashTableLastEntry.nextOrdered = entry;
-            hashTableLastEntry = entry;
+            entry.reset(row, hash);
+        }
+        entry.representative = line;
+        hashTableSlots[slot] = index;
+        hashTableHashCodes[slot] = hash;
+        if (index > 0) {
+            hashTableEntries[index - 1].nextOrdered = entry;
         }
         return entry;
     }
 
     /**
-     * Returns the according entry.
+     * Suppresses the given row, if its class does not satisfy privacy requirements
+     * @param row
+     * @param entry
+     */
+    private void suppress(int row, HashGroupifyEntry entry) {
+        if (!entry.isNotOutlier || this.isCompletelyGeneralized(entry)) {
+            dataOutput.or(row, Data.OUTLIER_MASK);
+            entry.isNotOutlier = false;
+        }
+    }
+
+    /**
+     * Returns the entry for the given row, ignoring outlier flags
      * 
      * @param row
      *            the row
-     * @param index
-     *            the index
-     * @param keyHash
-     *            the key hash
      * @return the hash groupify entry
      */
-    private HashGroupifyEntry findEntry(final int row, final int index, final int keyHash) {
-        HashGroupifyEntry m = hashTableBuckets[index];
-        while ((m != null) && ((m.hashcode != keyHash) || !dataOutput.equals(row, m.row))) {
-            m = m.next;
+    private HashGroupifyEntry findEntryIgnoringOutliers(final int row) {
+        final int hash = dataOutput.hashCode(row);
+        final int mask = hashTableSlots.length - 1;
+        int slot = getSlot(hash, mask);
+        int index;
+        while ((index = hashTableSlots[slot]) != -1) {
+            if (hashTableHashCodes[slot] == hash && dataOutput.equalsIgnoringOutliers(row, hashTableEntries[index].row)) {
+                return hashTableEntries[index];
+            }
+            slot = (slot + 1) & mask;
         }
-        return m;
+        return null;
+    }
+
+    /**
+     * Returns the first slot to probe for the given hash code. Bits are mixed,
+     * because linear probing is sensitive to clustered hash codes.
+     * 
+     * @param hash
+     * @param mask
+     * @return
+     */
+    private int getSlot(final int hash, final int mask) {
+        final int h = hash * 0x9E3779B9;
+        return (h ^ (h >>> 16)) & mask;
     }
 
     /**
@@ -755,7 +876,9 @@ public class HashGroupify {
         // Note: The d-presence criterion must be checked first to ensure correct handling of d-presence with tuple suppression.
         // This is currently ensured by convention. See ARXConfiguration.getCriteriaAsArray();
         for (int i = 0; i < classBasedCriteria.length; i++) {
-            if (!classBasedCriteria[i].isAnonymous(transformation, entry)) {
+            boolean anonymous = verdicts != null ? verdicts.isAnonymous(i, classBasedCriteria[i], transformation, entry) :
+                                                   classBasedCriteria[i].isAnonymous(transformation, entry);
+            if (!anonymous) {
                 return i + 1;
             }
         }
@@ -767,16 +890,22 @@ public class HashGroupify {
      */
     private void rehash() {
         
-        final int length = HashTableUtil.calculateCapacity((hashTableBuckets.length == 0 ? 1 : hashTableBuckets.length << 1));
-        final HashGroupifyEntry[] newData = new HashGroupifyEntry[length];
-        HashGroupifyEntry entry = hashTableFirstEntry;
-        while (entry != null) {
-            final int index = entry.hashcode & (length - 1);
-            entry.next = newData[index];
-            newData[index] = entry;
-            entry = entry.nextOrdered;
-        }
-        hashTableBuckets = newData;
-        hashTableThreshold = HashTableUtil.calculateThreshold(hashTableBuckets.length, hashTableLoadFactor);
+        final int length = HashTableUtil.calculateCapacity((hashTableSlots.length == 0 ? 1 : hashTableSlots.length << 1));
+        final int mask = length - 1;
+        final int[] slots = new int[length];
+        final int[] hashCodes = new int[length];
+        Arrays.fill(slots, -1);
+        for (int i = 0; i < hashTableElementCount; i++) {
+            final int hash = hashTableEntries[i].hashcode;
+            int slot = getSlot(hash, mask);
+            while (slots[slot] != -1) {
+                slot = (slot + 1) & mask;
+            }
+            slots[slot] = i;
+            hashCodes[slot] = hash;
+        }
+        hashTableSlots = slots;
+        hashTableHashCodes = hashCodes;
+        hashTableThreshold = HashTableUtil.calculateThreshold(hashTableSlots.length, hashTableLoadFactor);
     }
 }
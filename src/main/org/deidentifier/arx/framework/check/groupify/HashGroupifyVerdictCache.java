@@ -0,0 +1,158 @@
+/*
+ * ARX Data Anonymization Tool
+ * Copyright 2012 - 2025 Fabian Prasser and contributors
+ * 
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * 
+ * http://www.apache.org/licenses/LICENSE-2.0
+ * 
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.deidentifier.arx.framework.check.groupify;
+
+import java.util.Arrays;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+import org.deidentifier.arx.criteria.ExplicitPrivacyCriterion;
+import org.deidentifier.arx.criteria.PrivacyCriterion;
+import org.deidentifier.arx.framework.check.distribution.Distribution;
+import org.deidentifier.arx.framework.lattice.Transformation;
+
+/**
+ * Caches the results of evaluating privacy models, whose results only depend on the size
+ * of a class and the distribution of a sensitive attribute. Classes with equal distributions
+ * typically occur in many transformations, so each distribution is evaluated only once.
+ * Instances are not thread-safe.
+ *
+ * @author Fabian Prasser
+ */
+public class HashGroupifyVerdictCache {
+
+    /**
+     * Key consisting of a criterion, the size of a class and the distribution
+     *
+     * @author Fabian Prasser
+     */
+    private static class Key {
+
+        /** Index of the criterion */
+        private final int    criterion;
+        /** Size of the class */
+        private final int    count;
+        /** Values and frequencies, sorted by value */
+        private final long[] distribution;
+        /** Hash code */
+        private final int    hashcode;
+
+        /**
+         * Creates a new instance
+         * @param criterion
+         * @param count
+         * @param distribution
+         */
+        private Key(int criterion, int count, long[] distribution) {
+            this.criterion = criterion;
+            this.count = count;
+            this.distribution = distribution;
+            this.hashcode = 31 * (31 * criterion + count) + Arrays.hashCode(distribution);
+        }
+
+        @Override
+        public boolean equals(Object obj) {
+            if (this == obj) {
+                return true;
+            }
+            if (!(obj instanceof Key)) {
+                return false;
+            }
+            Key other = (Key) obj;
+            return criterion == other.criterion && count == other.count && Arrays.equals(distribution, other.distribution);
+        }
+
+        @Override
+        public int hashCode() {
+            return hashcode;
+        }
+    }
+
+    /** Maximal number of verdicts stored */
+    private static final int         MAX_SIZE = 1 << 16;
+
+    /** Index of the sensitive attribute of each criterion, -1 if the criterion is not cached */
+    private final int[]              indices;
+
+    /** Verdicts, ordered by access */
+    private final Map<Key, Boolean>  verdicts = new LinkedHashMap<Key, Boolean>(16, 0.75f, true) {
+        /** SVUID */
+        private static final long serialVersionUID = 6541276524939574325L;
+        @Override
+        protected boolean removeEldestEntry(Map.Entry<Key, Boolean> eldest) {
+            return size() > MAX_SIZE;
+        }
+    };
+
+    /**
+     * Creates a new instance for the given, initialized criteria
+     * @param criteria
+     */
+    public HashGroupifyVerdictCache(PrivacyCriterion[] criteria) {
+        this.indices = new int[criteria.length];
+        for (int i = 0; i < criteria.length; i++) {
+            boolean cached = criteria[i] instanceof ExplicitPrivacyCriterion && ((ExplicitPrivacyCriterion) criteria[i]).isDistributionBased();
+            this.indices[i] = cached ? ((ExplicitPrivacyCriterion) criteria[i]).getIndex() : -1;
+        }
+    }
+
+    /**
+     * Returns whether the given entry fulfills the criterion with the given index
+     * @param index
+     * @param criterion
+     * @param transformation
+     * @param entry
+     * @return
+     */
+    public boolean isAnonymous(int index, PrivacyCriterion criterion, Transformation<?> transformation, HashGroupifyEntry entry) {
+        
+        // Not cached
+        int attribute = indices[index];
+        if (attribute == -1 || entry.distributions == null) {
+            return criterion.isAnonymous(transformation, entry);
+        }
+        
+        // Lookup
+        Key key = new Key(index, entry.count, pack(entry.distributions[attribute]));
+        Boolean verdict = verdicts.get(key);
+        if (verdict == null) {
+            verdict = criterion.isAnonymous(transformation, entry);
+            verdicts.put(key, verdict);
+        }
+        return verdict;
+    }
+
+    /**
+     * Returns a canonical representation of the distribution, in which each value
+     * is packed with its frequency, sorted by value
+     * @param distribution
+     * @return
+     */
+    private long[] pack(Distribution distribution) {
+        long[] result = new long[distribution.size()];
+        int[] buckets = distribution.getBuckets();
+        int count = 0;
+        for (int i = 0; i < buckets.length; i += 2) {
+            if (buckets[i] != -1) { // bucket not empty
+                result[count++] = ((long) buckets[i] << 32) | (buckets[i + 1] & 0xffffffffL);
+            }
+        }
+        Arrays.sort(result);
+        return result;
+    }
+}
@@ -17,7 +17,6 @@
 
 package org.deidentifier.arx.framework.check.history;
 
-import java.util.HashMap;
 import java.util.Iterator;
 
 import org.deidentifier.arx.ARXConfiguration;
@@ -60,7 +59,31 @@ public class History {
     private final IntArrayDictionary        dictionarySensValue;
 
     /** A map from nodes to snapshots. */
-    private HashMap<Object, int[]>          nodeToSnapshot                = null;
+    private SnapshotStore                   nodeToSnapshot                = null;
+
+    /** An index of all entries, by level and length of their snapshots. */
+    private SnapshotIndex                   index                         = null;
+
+    /** Counter for the time of last access. */
+    private long                            stamp                         = 0;
+
+    /** Number of requests for which a snapshot has been found. */
+    private long                            numHits                       = 0;
+
+    /** Number of requests for which no snapshot has been found. */
+    private long                            numMisses                     = 0;
+
+    /** Number of snapshots stored. */
+    private long                            numStores                     = 0;
+
+    /** Number of snapshots evicted, because the history was full. */
+    private long                            numEvictions                  = 0;
+
+    /** Number of snapshots removed, because they were not needed anymore. */
+    private long                            numRemovals                   = 0;
+
+    /** Maximal size of the snapshots held in memory by histories whose statistics have been added. */
+    private long                            memoryUsagePeakAdded          = 0;
 
     /** The current requirements. */
     private final int                       requirements;
@@ -123,7 +146,8 @@ public class History {
         this.snapshotSizeDataset = (long) (rowCount * snapshotSizeDataset);
         this.snapshotSizeSnapshot = snapshotSizeSnapshot;
         this.cache = new MRUCache<MRUCacheEntryMetadata>(size);
-        this.nodeToSnapshot = new HashMap<Object, int[]>(size);
+        this.nodeToSnapshot = new SnapshotStore(Long.MAX_VALUE);
+        this.index = new SnapshotIndex();
         this.size = size;
         this.dictionarySensFreq = dictionarySensFreq;
         this.dictionarySensValue = dictionarySensValue;
@@ -134,37 +158,42 @@ public class History {
     }
     
     /**
-     * Retrieves a snapshot.
+     * Adds the statistics collected by the given history to the statistics of this history.
+     *
+     * @param other
+     */
+    public void addStatistics(History other) {
+        this.numHits += other.numHits;
+        this.numMisses += other.numMisses;
+        this.numStores += other.numStores;
+        this.numEvictions += other.numEvictions;
+        this.numRemovals += other.numRemovals;
+        this.memoryUsagePeakAdded = Math.max(this.memoryUsagePeakAdded, other.getMemoryUsagePeak());
+    }
+
+    /**
+     * Retrieves the smallest snapshot of an ancestor of the given transformation.
+     * Amongst snapshots of the same size, the least recently used one is returned.
      * 
      * @param transformation
      * @return snapshot
      */
     public int[] get(final int[] transformation) {
 
-        // Init
-        int[] resultSnapshot = null;
-        MRUCacheEntryMetadata resultMetadata = null;
-        int level = solutionSpace.getLevel(transformation);
-
         // Search
-        MRUCacheEntry<MRUCacheEntryMetadata> entry = cache.getHead();
-        while (entry != null) {
-            MRUCacheEntryMetadata currentMetadata = entry.data;
-            if (currentMetadata.level < level) {
-                final int[] currentSnapshot = nodeToSnapshot.get(currentMetadata.id);
-                if ((resultMetadata == null) || (currentSnapshot.length < resultSnapshot.length)) {
-                    if (solutionSpace.isParentChildOrEqual(transformation, currentMetadata.transformation)) {
-                        resultMetadata = currentMetadata;
-                        resultSnapshot = currentSnapshot;
-                    }
-                }
-            }
-            entry = entry.next;
-        }
+        int[] resultSnapshot = null;
+        MRUCacheEntryMetadata resultMetadata = index.get(transformation, solutionSpace.getLevel(transformation));
 
         // Manager
         if (resultMetadata != null) {
+            resultSnapshot = nodeToSnapshot.get(resultMetadata.id);
+            numHits++;
             cache.touch(resultMetadata);
+            index.remove(resultMetadata);
+            resultMetadata.stamp = stamp++;
+            index.add(resultMetadata);
+        } else {
+            numMisses++;
         }
         this.resultMetadata = resultMetadata;
 
@@ -190,6 +219,79 @@ public class History {
         return dictionarySensValue;
     }
 
+    /**
+     * Returns the memory budget for snapshots in bytes.
+     *
+     * @return
+     */
+    public long getMemoryLimit() {
+        return nodeToSnapshot.getMemoryLimit();
+    }
+
+    /**
+     * Returns the maximal size of the snapshots which have been held in memory in bytes,
+     * by this history or by histories whose statistics have been added.
+     *
+     * @return
+     */
+    public long getMemoryUsagePeak() {
+        return Math.max(nodeToSnapshot.getMemoryUsagePeak(), memoryUsagePeakAdded);
+    }
+
+    /**
+     * Returns the number of snapshots which have been evicted, because the history was full.
+     *
+     * @return
+     */
+    public long getNumEvictions() {
+        return numEvictions;
+    }
+
+    /**
+     * Returns the number of requests for which a snapshot has been found.
+     *
+     * @return
+     */
+    public long getNumHits() {
+        return numHits;
+    }
+
+    /**
+     * Returns the number of requests for which no snapshot has been found.
+     *
+     * @return
+     */
+    public long getNumMisses() {
+        return numMisses;
+    }
+
+    /**
+     * Returns the number of snapshots which have been removed, because they were not needed anymore.
+     *
+     * @return
+     */
+    public long getNumRemovals() {
+        return numRemovals;
+    }
+
+    /**
+     * Returns the number of snapshots which have been spilled to disk.
+     *
+     * @return
+     */
+    public int getNumSpilledSnapshots() {
+        return nodeToSnapshot.getNumSpilledSnapshots();
+    }
+
+    /**
+     * Returns the number of snapshots which have been stored.
+     *
+     * @return
+     */
+    public long getNumStores() {
+        return numStores;
+    }
+
     /**
      * Returns the current storage strategy.
      *
@@ -217,12 +319,24 @@ public class History {
      */
     public void reset() {
         this.cache.clear();
+        this.index.clear();
         this.nodeToSnapshot.clear();
         this.dictionarySensFreq.clear();
         this.dictionarySensValue.clear();
         this.resultMetadata = null;
     }
 
+    /**
+     * Sets the memory budget for snapshots in bytes. Snapshots exceeding the budget
+     * are spilled to a memory-mapped temporary file.
+     *
+     * @param memoryLimit
+     */
+    public void setMemoryLimit(long memoryLimit) {
+        if (memoryLimit < 0) { throw new IllegalArgumentException("Memory limit must be positive or 0"); }
+        this.nodeToSnapshot.setMemoryLimit(memoryLimit);
+    }
+
     /**
      * Sets the size of this history.
      *
@@ -277,14 +391,19 @@ public class History {
         // Perform LRU eviction, if still too large
         if (cache.size() >= size) {
             removeHistoryEntry(cache.removeHead());
+            numEvictions++;
         }
         
         // Create the snapshot
         final int[] data = createSnapshot(groupify);
 
         // Assign snapshot and keep reference for cache
-        nodeToSnapshot.put(transformation.getIdentifier(), data);
-        cache.append(new MRUCacheEntryMetadata(transformation));
+        final MRUCacheEntryMetadata metadata = new MRUCacheEntryMetadata(transformation, data.length);
+        metadata.stamp = stamp++;
+        nodeToSnapshot.put(metadata.id, data);
+        index.add(metadata);
+        cache.append(metadata);
+        numStores++;
 
         // Success
         return true;
@@ -301,6 +420,7 @@ public class History {
             if (solutionSpace.hasProperty(node.transformation, solutionSpace.getPropertySuccessorsPruned())) {
                 metadata.remove();
                 removeHistoryEntry(node);
+                numRemovals++;
             }
         }
     }
@@ -363,6 +483,7 @@ public class History {
      * @param metadata
      */
     private final void removeHistoryEntry(final MRUCacheEntryMetadata metadata) {
+        index.remove(metadata);
         final int[] snapshot = nodeToSnapshot.remove(metadata.id);
 
         switch (requirements) {
@@ -31,14 +31,20 @@ public class MRUCacheEntryMetadata {
     public final int   level;
     /** Id */
     public final Object  id;
+    /** Length of the snapshot */
+    public final int   length;
+    /** Time of last access */
+    public long        stamp;
 
     /**
      * Creates a new instance
      * @param transformation
+     * @param length
      */
-    public MRUCacheEntryMetadata(Transformation<?> transformation) {
+    public MRUCacheEntryMetadata(Transformation<?> transformation, int length) {
         this.transformation = transformation.getGeneralization().clone();
         this.level = transformation.getLevel();
         this.id = transformation.getIdentifier();
+        this.length = length;
     }
 }
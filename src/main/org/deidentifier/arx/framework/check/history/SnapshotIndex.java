@@ -0,0 +1,168 @@
+/*
+ * ARX Data Anonymization Tool
+ * Copyright 2012 - 2025 Fabian Prasser and contributors
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.deidentifier.arx.framework.check.history;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.List;
+import java.util.TreeSet;
+
+/**
+ * An index of the entries of a history, which is used to find the smallest snapshot of an
+ * ancestor of a transformation. Entries are partitioned by the level of their transformations.
+ * For each level, a lower bound of the generalization levels of each dimension is maintained,
+ * which allows to skip levels that cannot contain an ancestor. Within a level, entries are
+ * ordered by the length of their snapshots and the time of last access.
+ *
+ * @author Fabian Prasser
+ */
+public class SnapshotIndex {
+
+    /**
+     * The entries of one level.
+     *
+     * @author Fabian Prasser
+     */
+    private static class Bucket {
+
+        /** Entries, ordered by the length of their snapshots and the time of last access */
+        private final TreeSet<MRUCacheEntryMetadata> entries = new TreeSet<MRUCacheEntryMetadata>(COMPARATOR);
+
+        /** Lower bounds of the generalization levels of each dimension */
+        private int[]                                minimum  = null;
+    }
+
+    /** Orders entries by the length of their snapshots and the time of last access */
+    private static final Comparator<MRUCacheEntryMetadata> COMPARATOR = new Comparator<MRUCacheEntryMetadata>() {
+        @Override
+        public int compare(MRUCacheEntryMetadata o1, MRUCacheEntryMetadata o2) {
+            int result = Integer.compare(o1.length, o2.length);
+            return result != 0 ? result : Long.compare(o1.stamp, o2.stamp);
+        }
+    };
+
+    /** Buckets, indexed by level */
+    private final List<Bucket>                             buckets    = new ArrayList<Bucket>();
+
+    /**
+     * Adds an entry. The length and time of last access of the entry must not be modified
+     * while it is contained in the index.
+     *
+     * @param entry
+     */
+    public void add(MRUCacheEntryMetadata entry) {
+
+        // Obtain bucket
+        while (buckets.size() <= entry.level) {
+            buckets.add(null);
+        }
+        Bucket bucket = buckets.get(entry.level);
+        if (bucket == null) {
+            bucket = new Bucket();
+            buckets.set(entry.level, bucket);
+        }
+
+        // Update bounds
+        int[] transformation = entry.transformation;
+        if (bucket.minimum == null) {
+            bucket.minimum = transformation.clone();
+        } else {
+            for (int i = 0; i < transformation.length; i++) {
+                bucket.minimum[i] = Math.min(bucket.minimum[i], transformation[i]);
+            }
+        }
+
+        // Add
+        bucket.entries.add(entry);
+    }
+
+    /**
+     * Removes all entries
+     */
+    public void clear() {
+        buckets.clear();
+    }
+
+    /**
+     * Returns the entry with the smallest snapshot amongst all entries of transformations on
+     * a lower level which are ancestors of the given transformation. Amongst snapshots of the
+     * same size, the least recently used one is returned. Returns null if there is none.
+     *
+     * @param transformation
+     * @param level
+     * @return
+     */
+    public MRUCacheEntryMetadata get(int[] transformation, int level) {
+
+        MRUCacheEntryMetadata result = null;
+        for (int i = 0; i < level && i < buckets.size(); i++) {
+
+            // Skip levels that cannot contain an ancestor
+            Bucket bucket = buckets.get(i);
+            if (bucket == null || bucket.entries.isEmpty() || !isAncestor(bucket.minimum, transformation)) {
+                continue;
+            }
+
+            // The first match is the smallest snapshot on this level
+            for (MRUCacheEntryMetadata entry : bucket.entries) {
+                if (result != null && COMPARATOR.compare(entry, result) >= 0) {
+                    break;
+                }
+                if (isAncestor(entry.transformation, transformation)) {
+                    result = entry;
+                    break;
+                }
+            }
+        }
+        return result;
+    }
+
+    /**
+     * Removes an entry
+     *
+     * @param entry
+     */
+    public void remove(MRUCacheEntryMetadata entry) {
+        if (entry.level >= buckets.size()) {
+            return;
+        }
+        Bucket bucket = buckets.get(entry.level);
+        if (bucket != null && bucket.entries.remove(entry) && bucket.entries.isEmpty()) {
+            // Bounds are only reset when the bucket is empty, otherwise they remain valid lower bounds
+            Arrays.fill(bucket.minimum, Integer.MAX_VALUE);
+        }
+    }
+
+    /**
+     * Returns whether the given ancestor is less than or equal to the given transformation
+     * in each dimension
+     *
+     * @param ancestor
+     * @param transformation
+     * @return
+     */
+    private boolean isAncestor(int[] ancestor, int[] transformation) {
+        for (int i = 0; i < ancestor.length; i++) {
+            if (ancestor[i] > transformation[i]) {
+                return false;
+            }
+        }
+        return true;
+    }
+}
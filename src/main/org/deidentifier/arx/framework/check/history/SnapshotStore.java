@@ -0,0 +1,376 @@
+/*
+ * ARX Data Anonymization Tool
+ * Copyright 2012 - 2025 Fabian Prasser and contributors
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.deidentifier.arx.framework.check.history;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.RandomAccessFile;
+import java.nio.IntBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.channels.FileChannel.MapMode;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.Map.Entry;
+import java.util.TreeMap;
+
+/**
+ * A store for snapshots with a memory budget. If the budget is exceeded, the least
+ * recently used snapshots are spilled to a memory-mapped temporary file. The file is
+ * mapped as a single region, which grows on demand. The space of snapshots which
+ * have been removed is reused.
+ *
+ * @author Fabian Prasser
+ */
+public class SnapshotStore {
+
+    /**
+     * A region of the temporary file.
+     *
+     * @author Fabian Prasser
+     */
+    private static class Region {
+
+        /** Offset in ints */
+        private final int offset;
+
+        /** Length in ints */
+        private final int length;
+
+        /**
+         * Creates a new instance
+         *
+         * @param offset
+         * @param length
+         */
+        private Region(int offset, int length) {
+            this.offset = offset;
+            this.length = length;
+        }
+    }
+
+    /** Initial size of the temporary file in ints */
+    private static final int                    INITIAL_CAPACITY = 1 << 20;
+
+    /** Maximal size of the temporary file in ints, which is limited by the size of a mapping */
+    private static final int                    MAXIMAL_CAPACITY = Integer.MAX_VALUE / 4;
+
+    /** Snapshots held in memory, in access order */
+    private final LinkedHashMap<Object, int[]>  memory           = new LinkedHashMap<Object, int[]>(16, 0.75f, true);
+
+    /** Snapshots which have been spilled to disk */
+    private final HashMap<Object, Region>       spilled          = new HashMap<Object, Region>();
+
+    /** Unused regions of the file, indexed by offset */
+    private final TreeMap<Integer, Integer>     free             = new TreeMap<Integer, Integer>();
+
+    /** Size of the snapshots held in memory in bytes */
+    private long                                memoryBytes;
+
+    /** Maximal size of the snapshots held in memory in bytes */
+    private long                                memoryBytesPeak;
+
+    /** Memory budget in bytes */
+    private long                                memoryLimit;
+
+    /** The file, if any */
+    private File                                file;
+
+    /** The random access file, if any */
+    private RandomAccessFile                    raf;
+
+    /** The channel, if any */
+    private FileChannel                         channel;
+
+    /** The mapped file, if any */
+    private IntBuffer                           mapping;
+
+    /** Current end of the used part of the file in ints */
+    private int                                 position;
+
+    /**
+     * Creates a new instance
+     *
+     * @param memoryLimit Memory budget in bytes
+     */
+    public SnapshotStore(long memoryLimit) {
+        this.memoryLimit = memoryLimit;
+    }
+
+    /**
+     * Removes all snapshots and deletes the temporary file, if any
+     */
+    public void clear() {
+        memory.clear();
+        spilled.clear();
+        free.clear();
+        memoryBytes = 0;
+        position = 0;
+        if (raf != null) {
+            // Release the mapping before deleting the file
+            mapping = null;
+            channel = null;
+            try {
+                raf.close();
+            } catch (IOException e) {
+                // Ignore
+            }
+            raf = null;
+            file.delete();
+            file = null;
+        }
+    }
+
+    /**
+     * Returns the snapshot with the given identifier, null if there is none. Spilled
+     * snapshots are loaded back into memory.
+     *
+     * @param id
+     * @return
+     */
+    public int[] get(Object id) {
+        int[] snapshot = memory.get(id);
+        if (snapshot != null) {
+            return snapshot;
+        }
+        Region region = spilled.remove(id);
+        if (region == null) {
+            return null;
+        }
+        snapshot = read(region);
+        insert(id, snapshot);
+        return snapshot;
+    }
+
+    /**
+     * Returns the size of the temporary file in bytes
+     * @return
+     */
+    public long getFileSize() {
+        return mapping == null ? 0L : (long) mapping.capacity() * 4L;
+    }
+
+    /**
+     * Returns the memory budget in bytes
+     * @return
+     */
+    public long getMemoryLimit() {
+        return memoryLimit;
+    }
+
+    /**
+     * Returns the maximal size of the snapshots which have been held in memory at the
+     * same time in bytes
+     * @return
+     */
+    public long getMemoryUsagePeak() {
+        return memoryBytesPeak;
+    }
+
+    /**
+     * Returns the number of snapshots which have been spilled to disk
+     * @return
+     */
+    public int getNumSpilledSnapshots() {
+        return spilled.size();
+    }
+
+    /**
+     * Stores a snapshot
+     *
+     * @param id
+     * @param snapshot
+     */
+    public void put(Object id, int[] snapshot) {
+        remove(id);
+        insert(id, snapshot);
+    }
+
+    /**
+     * Removes the snapshot with the given identifier and returns it
+     *
+     * @param id
+     * @return
+     */
+    public int[] remove(Object id) {
+        int[] snapshot = memory.remove(id);
+        if (snapshot != null) {
+            memoryBytes -= getBytes(snapshot);
+            return snapshot;
+        }
+        Region region = spilled.remove(id);
+        return region == null ? null : read(region);
+    }
+
+    /**
+     * Sets the memory budget in bytes
+     *
+     * @param memoryLimit
+     */
+    public void setMemoryLimit(long memoryLimit) {
+        this.memoryLimit = memoryLimit;
+        spill();
+    }
+
+    /**
+     * Returns a region of the given length, null if the file cannot grow any further
+     *
+     * @param length
+     * @return
+     * @throws IOException
+     */
+    private Region allocate(int length) throws IOException {
+
+        // First fit amongst unused regions
+        for (Entry<Integer, Integer> entry : free.entrySet()) {
+            int offset = entry.getKey();
+            int available = entry.getValue();
+            if (available >= length) {
+                free.remove(offset);
+                if (available > length) {
+                    free.put(offset + length, available - length);
+                }
+                return new Region(offset, length);
+            }
+        }
+
+        // Append
+        if (length > MAXIMAL_CAPACITY - position) {
+            return null;
+        }
+        if (channel == null) {
+            file = File.createTempFile("arx", "snapshots");
+            file.deleteOnExit();
+            raf = new RandomAccessFile(file, "rw");
+            channel = raf.getChannel();
+        }
+        if (mapping == null || position + length > mapping.capacity()) {
+            int capacity = mapping == null ? INITIAL_CAPACITY : mapping.capacity();
+            while (capacity < position + length) {
+                capacity = (int) Math.min((long) capacity * 2L, MAXIMAL_CAPACITY);
+            }
+            // The previous mapping is released by dropping the reference to it
+            mapping = channel.map(MapMode.READ_WRITE, 0, (long) capacity * 4L).asIntBuffer();
+        }
+        Region result = new Region(position, length);
+        position += length;
+        return result;
+    }
+
+    /**
+     * Returns a region of the file to the unused space, merging it with adjacent regions
+     *
+     * @param region
+     */
+    private void free(Region region) {
+        int offset = region.offset;
+        int length = region.length;
+        Entry<Integer, Integer> lower = free.lowerEntry(offset);
+        if (lower != null && lower.getKey() + lower.getValue() == offset) {
+            free.remove(lower.getKey());
+            offset = lower.getKey();
+            length += lower.getValue();
+        }
+        Integer higher = free.remove(offset + length);
+        if (higher != null) {
+            length += higher;
+        }
+        if (offset + length == position) {
+            position = offset;
+        } else {
+            free.put(offset, length);
+        }
+    }
+
+    /**
+     * Returns the size of a snapshot in bytes
+     *
+     * @param snapshot
+     * @return
+     */
+    private long getBytes(int[] snapshot) {
+        return (long) snapshot.length * 4L;
+    }
+
+    /**
+     * Stores a snapshot in memory and spills other snapshots, if required
+     *
+     * @param id
+     * @param snapshot
+     */
+    private void insert(Object id, int[] snapshot) {
+        memory.put(id, snapshot);
+        memoryBytes += getBytes(snapshot);
+        spill();
+        memoryBytesPeak = Math.max(memoryBytesPeak, memoryBytes);
+    }
+
+    /**
+     * Reads a spilled snapshot and releases its region
+     *
+     * @param region
+     * @return
+     */
+    private int[] read(Region region) {
+        int[] snapshot = new int[region.length];
+        IntBuffer buffer = mapping.duplicate();
+        buffer.position(region.offset);
+        buffer.get(snapshot);
+        free(region);
+        return snapshot;
+    }
+
+    /**
+     * Spills the least recently used snapshots until the budget is met. The most recently
+     * used snapshot is kept in memory in any case.
+     */
+    private void spill() {
+        Iterator<Entry<Object, int[]>> iterator = memory.entrySet().iterator();
+        while (memoryBytes > memoryLimit && memory.size() > 1) {
+            Entry<Object, int[]> entry = iterator.next();
+            int[] snapshot = entry.getValue();
+            Region region = write(snapshot);
+            if (region == null) {
+                // The file cannot grow any further
+                return;
+            }
+            spilled.put(entry.getKey(), region);
+            memoryBytes -= getBytes(snapshot);
+            iterator.remove();
+        }
+    }
+
+    /**
+     * Writes a snapshot to the temporary file. Returns null if the file cannot grow any further.
+     *
+     * @param snapshot
+     * @return
+     */
+    private Region write(int[] snapshot) {
+        try {
+            Region region = allocate(snapshot.length);
+            if (region != null) {
+                IntBuffer buffer = mapping.duplicate();
+                buffer.position(region.offset);
+                buffer.put(snapshot);
+            }
+            return region;
+        } catch (IOException e) {
+            throw new RuntimeException("Cannot spill snapshot to disk", e);
+        }
+    }
+}
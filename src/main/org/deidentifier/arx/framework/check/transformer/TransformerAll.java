@@ -54,9 +54,10 @@ public class TransformerAll extends AbstractTransformer {
     @Override
     protected void processAll() {
         
-        int[][][] mHierarchies = new int[dimensions][][];
+        // Precomputed maps for the levels of generalization
+        int[][] mLevels = new int[dimensions][];
         for (int i = 0; i < dimensions; i++) {
-            mHierarchies[i] = hierarchies[i].getArray();
+            mLevels[i] = hierarchies[i].getLevel(generalization[i]);
         }
         
         for (int i = startIndex; i < stopIndex; i++) {
@@ -65,7 +66,7 @@ public class TransformerAll extends AbstractTransformer {
             buffer.setRow(i);
             data.setRow(i);
             for (int d = 0; d < dimensions; d++) {
-                buffer.setValueAtColumn(d, mHierarchies[d][data.getValueAtColumn(d)][generalization[d]]);
+                buffer.setValueAtColumn(d, mLevels[d][data.getValueAtColumn(d)]);
             }
 
             // Call
@@ -62,7 +62,7 @@ public class Data implements Cloneable, Serializable {
         }
 
         // Clone matrix
-        DataMatrix matrix = new DataMatrix(data.getNumRows(), columns.length);
+        DataMatrix matrix = DataMatrix.create(data.getNumRows(), columns.length);
         for (int row = 0; row < data.getNumRows(); row++) {
             
             // Prepare row
@@ -191,6 +191,40 @@ public class Data implements Cloneable, Serializable {
         return header;
     }
     
+    /**
+     * Returns a new instance, in which each column of the data is stored with the minimal number
+     * of bits needed for the codes in the dictionary. Returns this instance, if this is not possible.
+     * The dictionary must be finalized.
+     * @return
+     */
+    public Data getCompactInstance() {
+        
+        // Check
+        if (data == null || data.getNumColumns() == 0 || data instanceof DataMatrixSubset) {
+            return this;
+        }
+        
+        // Determine layout
+        String[][] mapping = dictionary.getMapping();
+        int[] bits = new int[data.getNumColumns()];
+        for (int column = 0; column < bits.length; column++) {
+            bits[column] = DataMatrixPacked.getBits(mapping[column].length);
+        }
+        
+        // Not worthwhile or too large
+        long words = DataMatrixPacked.getWords(bits);
+        if (words * 2 > bits.length || words * data.getNumRows() > DataMatrix.MAX_ARRAY_SIZE) {
+            return this;
+        }
+        
+        // Copy
+        DataMatrixPacked matrix = new DataMatrixPacked(data.getNumRows(), bits);
+        for (int row = 0; row < data.getNumRows(); row++) {
+            matrix.copyFrom(row, data, row);
+        }
+        return new Data(matrix, header, columns, dictionary);
+    }
+
     /**
      * Returns the index of the given attribute. Returns -1 if the attribute is not contained.
      * @param attribute
@@ -213,7 +247,18 @@ public class Data implements Cloneable, Serializable {
                 rows[index++] = row;
             }
         }
-        return new Data(new DataMatrixSubset(data, rows), header, columns, dictionary);
+        return getSubsetInstance(rows);
+    }
+
+    /**
+     * Returns a new instance that is projected onto the given rows, which must be sorted
+     * in ascending order. The array is not copied. The instance reads the data through a
+     * view, so that multiple instances can be used concurrently.
+     * @param rows
+     * @return
+     */
+    public Data getSubsetInstance(int[] rows) {
+        return new Data(new DataMatrixSubset(data == null ? null : data.getView(), rows), header, columns, dictionary);
     }
 
     /**
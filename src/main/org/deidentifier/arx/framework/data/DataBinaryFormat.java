@@ -0,0 +1,480 @@
+/*
+ * ARX Data Anonymization Tool
+ * Copyright 2012 - 2025 Fabian Prasser and contributors
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.deidentifier.arx.framework.data;
+
+import java.io.EOFException;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.IntBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+
+/**
+ * A versioned binary format for data objects. Matrices and dictionaries are stored as
+ * raw little-endian arrays, which can be read in bulk from streams or from memory-mapped
+ * files. This avoids the object graphs, and the memory, required by Java serialization.
+ * <br>
+ * Layout: magic number, version, followed by the blocks written by the caller. Blocks are
+ * either byte arrays, which are prefixed with their length, or data objects, which consist
+ * of the header, the columns, the dictionary and the matrix.
+ *
+ * @author Fabian Prasser
+ */
+public class DataBinaryFormat {
+
+    /**
+     * Reads blocks
+     *
+     * @author Fabian Prasser
+     */
+    public static abstract class Reader {
+
+        /**
+         * Returns a buffer with the next given number of bytes
+         * @param bytes
+         * @return
+         * @throws IOException
+         */
+        protected abstract ByteBuffer next(int bytes) throws IOException;
+
+        /**
+         * Reads a byte array
+         * @return
+         * @throws IOException
+         */
+        public byte[] readBytes() throws IOException {
+            int length = readInt();
+            if (length < 0) {
+                return null;
+            }
+            byte[] result = new byte[length];
+            next(length).get(result);
+            return result;
+        }
+
+        /**
+         * Reads a data object
+         * @return
+         * @throws IOException
+         */
+        public Data readData() throws IOException {
+
+            // Null
+            if (readInt() == 0) {
+                return null;
+            }
+
+            // Header and columns
+            String[] header = readStrings();
+            int[] columns = readInts();
+
+            // Dictionary
+            String[][] mapping = new String[readInt()][];
+            for (int dimension = 0; dimension < mapping.length; dimension++) {
+                mapping[dimension] = readStrings();
+            }
+            Dictionary dictionary = new Dictionary(mapping, readInts());
+
+            // Matrix
+            DataMatrix matrix = null;
+            if (readInt() != 0) {
+                int rows = readInt();
+                int cols = readInt();
+                matrix = DataMatrix.create(rows, cols);
+                int[] tuple = new int[cols];
+                int rowsPerBlock = Math.max(1, BLOCK_SIZE / Math.max(1, cols * 4));
+                for (int row = 0; row < rows; row += rowsPerBlock) {
+                    int count = Math.min(rowsPerBlock, rows - row);
+                    IntBuffer buffer = next(count * cols * 4).asIntBuffer();
+                    for (int offset = 0; offset < count; offset++) {
+                        buffer.get(tuple);
+                        matrix.setRow(row + offset, tuple);
+                    }
+                }
+            }
+
+            // Done
+            return Data.createWrapper(matrix, header, columns, dictionary);
+        }
+
+        /**
+         * Reads an integer
+         * @return
+         * @throws IOException
+         */
+        private int readInt() throws IOException {
+            return next(4).getInt();
+        }
+
+        /**
+         * Reads an array of integers
+         * @return
+         * @throws IOException
+         */
+        private int[] readInts() throws IOException {
+            int length = readInt();
+            if (length < 0) {
+                return null;
+            }
+            int[] result = new int[length];
+            for (int index = 0; index < length; index += BLOCK_SIZE / 4) {
+                int count = Math.min(BLOCK_SIZE / 4, length - index);
+                next(count * 4).asIntBuffer().get(result, index, count);
+            }
+            return result;
+        }
+
+        /**
+         * Reads an array of strings
+         * @return
+         * @throws IOException
+         */
+        private String[] readStrings() throws IOException {
+            int length = readInt();
+            if (length < 0) {
+                return null;
+            }
+            String[] result = new String[length];
+            for (int index = 0; index < length; index++) {
+                byte[] bytes = readBytes();
+                result[index] = bytes == null ? null : new String(bytes, StandardCharsets.UTF_8);
+            }
+            return result;
+        }
+    }
+
+    /**
+     * Reads from memory-mapped regions of a file
+     *
+     * @author Fabian Prasser
+     */
+    private static class ReaderMapped extends Reader {
+
+        /** Channel */
+        private final FileChannel channel;
+        /** Current window */
+        private ByteBuffer        window;
+        /** Position of the window in the file */
+        private long              windowPosition;
+        /** Position in the file */
+        private long              position;
+
+        /**
+         * Creates a new instance
+         * @param channel
+         * @param position
+         */
+        ReaderMapped(FileChannel channel, long position) {
+            this.channel = channel;
+            this.position = position;
+        }
+
+        @Override
+        protected ByteBuffer next(int bytes) throws IOException {
+
+            // Map the next window, if required
+            if (window == null || position < windowPosition || position + bytes > windowPosition + window.limit()) {
+                long size = Math.min(Math.max(bytes, WINDOW_SIZE), channel.size() - position);
+                if (size < bytes) {
+                    throw new EOFException("Unexpected end of file");
+                }
+                window = channel.map(FileChannel.MapMode.READ_ONLY, position, size);
+                windowPosition = position;
+            }
+
+            // Slice
+            ByteBuffer result = window.duplicate();
+            result.position((int) (position - windowPosition));
+            result.limit(result.position() + bytes);
+            position += bytes;
+            return result.slice().order(ByteOrder.LITTLE_ENDIAN);
+        }
+    }
+
+    /**
+     * Reads from a stream. Exactly the bytes belonging to the blocks are consumed.
+     *
+     * @author Fabian Prasser
+     */
+    private static class ReaderStream extends Reader {
+
+        /** Stream */
+        private final InputStream stream;
+        /** Buffer */
+        private byte[]            buffer = new byte[1024];
+
+        /**
+         * Creates a new instance
+         * @param stream
+         */
+        ReaderStream(InputStream stream) {
+            this.stream = stream;
+        }
+
+        @Override
+        protected ByteBuffer next(int bytes) throws IOException {
+            if (buffer.length < bytes) {
+                buffer = new byte[Math.max(bytes, buffer.length * 2)];
+            }
+            int offset = 0;
+            while (offset < bytes) {
+                int read = stream.read(buffer, offset, bytes - offset);
+                if (read < 0) {
+                    throw new EOFException("Unexpected end of stream");
+                }
+                offset += read;
+            }
+            return ByteBuffer.wrap(buffer, 0, bytes).order(ByteOrder.LITTLE_ENDIAN);
+        }
+    }
+
+    /**
+     * Writes blocks
+     *
+     * @author Fabian Prasser
+     */
+    public static class Writer {
+
+        /** Stream */
+        private final OutputStream stream;
+        /** Buffer */
+        private final ByteBuffer   buffer = ByteBuffer.allocate(BLOCK_SIZE).order(ByteOrder.LITTLE_ENDIAN);
+
+        /**
+         * Creates a new instance
+         * @param stream
+         */
+        private Writer(OutputStream stream) {
+            this.stream = stream;
+        }
+
+        /**
+         * Flushes all buffered bytes into the stream. Does not flush the stream.
+         * @throws IOException
+         */
+        public void flush() throws IOException {
+            stream.write(buffer.array(), 0, buffer.position());
+            buffer.clear();
+        }
+
+        /**
+         * Writes a byte array
+         * @param bytes
+         * @throws IOException
+         */
+        public void writeBytes(byte[] bytes) throws IOException {
+            if (bytes == null) {
+                writeInt(-1);
+                return;
+            }
+            writeInt(bytes.length);
+            int offset = 0;
+            while (offset < bytes.length) {
+                int count = Math.min(buffer.remaining(), bytes.length - offset);
+                buffer.put(bytes, offset, count);
+                offset += count;
+                if (!buffer.hasRemaining()) {
+                    flush();
+                }
+            }
+        }
+
+        /**
+         * Writes a data object
+         * @param data
+         * @throws IOException
+         */
+        public void writeData(Data data) throws IOException {
+
+            // Null
+            if (data == null) {
+                writeInt(0);
+                return;
+            }
+            writeInt(1);
+
+            // Header and columns
+            writeStrings(data.getHeader());
+            writeInts(data.getColumns());
+
+            // Dictionary
+            String[][] mapping = data.getDictionary().getMapping();
+            writeInt(mapping.length);
+            for (String[] values : mapping) {
+                writeStrings(values);
+            }
+            writeInts(data.getDictionary().getSuppressedCodes());
+
+            // Matrix
+            DataMatrix matrix = data.getArray();
+            if (matrix == null) {
+                writeInt(0);
+                return;
+            }
+            writeInt(1);
+            writeInt(matrix.getNumRows());
+            writeInt(matrix.getNumColumns());
+            for (int row = 0; row < matrix.getNumRows(); row++) {
+                matrix.setRow(row);
+                for (int column = 0; column < matrix.getNumColumns(); column++) {
+                    writeInt(matrix.getValueAtColumn(column));
+                }
+            }
+        }
+
+        /**
+         * Writes an integer
+         * @param value
+         * @throws IOException
+         */
+        private void writeInt(int value) throws IOException {
+            if (buffer.remaining() < 4) {
+                flush();
+            }
+            buffer.putInt(value);
+        }
+
+        /**
+         * Writes an array of integers
+         * @param values
+         * @throws IOException
+         */
+        private void writeInts(int[] values) throws IOException {
+            if (values == null) {
+                writeInt(-1);
+                return;
+            }
+            writeInt(values.length);
+            for (int value : values) {
+                writeInt(value);
+            }
+        }
+
+        /**
+         * Writes an array of strings
+         * @param values
+         * @throws IOException
+         */
+        private void writeStrings(String[] values) throws IOException {
+            if (values == null) {
+                writeInt(-1);
+                return;
+            }
+            writeInt(values.length);
+            for (String value : values) {
+                writeBytes(value == null ? null : value.getBytes(StandardCharsets.UTF_8));
+            }
+        }
+    }
+
+    /** Magic number */
+    private static final int  MAGIC       = 0x41525844;
+
+    /** Version */
+    private static final int  VERSION     = 1;
+
+    /** Size of blocks used for buffering */
+    private static final int  BLOCK_SIZE  = 1 << 20;
+
+    /** Size of memory-mapped windows */
+    private static final long WINDOW_SIZE = 1L << 26;
+
+    /**
+     * Returns whether the stream contains data in this format. The stream must support marks.
+     * No bytes will be consumed.
+     *
+     * @param stream
+     * @return
+     * @throws IOException
+     */
+    public static boolean isBinaryFormat(InputStream stream) throws IOException {
+        stream.mark(8);
+        try {
+            byte[] bytes = new byte[4];
+            int offset = 0;
+            while (offset < bytes.length) {
+                int read = stream.read(bytes, offset, bytes.length - offset);
+                if (read < 0) {
+                    return false;
+                }
+                offset += read;
+            }
+            return ByteBuffer.wrap(bytes).order(ByteOrder.LITTLE_ENDIAN).getInt() == MAGIC;
+        } finally {
+            stream.reset();
+        }
+    }
+
+    /**
+     * Creates a reader for the given file, whose content will be memory-mapped.
+     * Checks the magic number and version.
+     *
+     * @param channel
+     * @return
+     * @throws IOException
+     */
+    public static Reader createReader(FileChannel channel) throws IOException {
+        return checkHeader(new ReaderMapped(channel, 0L));
+    }
+
+    /**
+     * Creates a reader for the given stream. Checks the magic number and version.
+     *
+     * @param stream
+     * @return
+     * @throws IOException
+     */
+    public static Reader createReader(InputStream stream) throws IOException {
+        return checkHeader(new ReaderStream(stream));
+    }
+
+    /**
+     * Creates a writer for the given stream and writes the magic number and version.
+     * Call flush() when done.
+     *
+     * @param stream
+     * @return
+     * @throws IOException
+     */
+    public static Writer createWriter(OutputStream stream) throws IOException {
+        Writer writer = new Writer(stream);
+        writer.writeInt(MAGIC);
+        writer.writeInt(VERSION);
+        return writer;
+    }
+
+    /**
+     * Checks magic number and version
+     * @param reader
+     * @return
+     * @throws IOException
+     */
+    private static Reader checkHeader(Reader reader) throws IOException {
+        if (reader.readInt() != MAGIC) {
+            throw new IOException("Invalid file format");
+        }
+        int version = reader.readInt();
+        if (version > VERSION) {
+            throw new IOException("Unsupported version of file format: " + version);
+        }
+        return reader;
+    }
+}
@@ -61,7 +61,7 @@ public class DataManager {
     private final Data                        dataAnalyzed;
 
     /** Data */
-    private final Data                        dataGeneralized;
+    private Data                              dataGeneralized;
 
     /** Data. */
     private final Data                        dataInput;
@@ -275,6 +275,11 @@ public class DataManager {
         dataGeneralized.getDictionary().finalizeAll();
         dataAnalyzed.getDictionary().finalizeAll();
 
+        // Store generalized data compactly, if requested
+        if (config.isUseCompactDataRepresentation()) {
+            dataGeneralized = dataGeneralized.getCompactInstance();
+        }
+
         // Store research subset
         for (PrivacyCriterion c : config.getPrivacyModels()) {
             if (c instanceof EDDifferentialPrivacy) {
@@ -339,6 +344,16 @@ public class DataManager {
         this.subsetSize = 0;
     }
 
+    /**
+     * Returns the size of the data buffers held by this manager in bytes. Buffers which
+     * are views of the buffers of another manager only account for their row indices.
+     * 
+     * @return
+     */
+    public long getByteSize() {
+        return getByteSize(dataGeneralized) + getByteSize(dataAnalyzed) + getByteSize(dataInput);
+    }
+
     /**
      * Returns the input data that will be analyzed.
      * 
@@ -410,7 +425,7 @@ public class DataManager {
      * Returns the domain shares for all generalized quasi-identifiers
      * @return
      */
-    public DomainShare[] getDomainShares() {
+    public synchronized DomainShare[] getDomainShares() {
 
         // Build on-demand
         if (this.shares == null) {
@@ -452,7 +467,7 @@ public class DataManager {
      * Returns the reliable domain shares for all generalized quasi-identifiers
      * @return
      */
-    public DomainShareReliable[] getDomainSharesReliable() {
+    public synchronized DomainShareReliable[] getDomainSharesReliable() {
 
         // Build on-demand
         if (this.sharesReliable == null) {
@@ -577,11 +592,28 @@ public class DataManager {
      * @return
      */
     public DataManager getSubsetInstance(RowSet rowset) {
+        int[] rows = new int[rowset.size()];
+        int index = 0;
+        for (int row = 0; row < rowset.length(); row++) {
+            if (rowset.contains(row)) {
+                rows[index++] = row;
+            }
+        }
+        return getSubsetInstance(rows);
+    }
+
+    /**
+     * Returns an instance of this data manager, that is projected onto the given rows,
+     * which must be sorted in ascending order. The array is not copied.
+     * @param rows
+     * @return
+     */
+    public DataManager getSubsetInstance(int[] rows) {
         
         return new DataManagerSubset(this,
-                                     dataAnalyzed.getSubsetInstance(rowset),
-                                     dataGeneralized.getSubsetInstance(rowset),
-                                     dataInput.getSubsetInstance(rowset),
+                                     dataAnalyzed.getSubsetInstance(rows),
+                                     dataGeneralized.getSubsetInstance(rows),
+                                     dataInput.getSubsetInstance(rows),
                                      definition,
                                      shares,
                                      header,
@@ -719,6 +751,16 @@ public class DataManager {
         return getTree(data, index, hierarchiesAnalyzed[index].map);
     }
     
+    /**
+     * Returns the size of the memory owned by the given data buffer in bytes
+     * @param data
+     * @return
+     */
+    private long getByteSize(Data data) {
+        DataMatrix matrix = data != null ? data.getArray() : null;
+        return matrix != null ? matrix.getByteSize() : 0L;
+    }
+
     /**
      * Simple returns the set of all columns
      * @param header
@@ -19,6 +19,7 @@ package org.deidentifier.arx.framework.data;
 
 import org.deidentifier.arx.DataDefinition;
 import org.deidentifier.arx.metric.v2.DomainShare;
+import org.deidentifier.arx.metric.v2.DomainShareReliable;
 
 /**
  * A data manager that is projected onto a given subset. Used for post-optimization.
@@ -85,6 +86,18 @@ public class DataManagerSubset extends DataManager {
         return source.getDistribution(attribute);
     }
 
+    @Override
+    public DomainShare[] getDomainShares() {
+        // Delegate to source, which caches the shares for all subsets
+        return source.getDomainShares();
+    }
+
+    @Override
+    public DomainShareReliable[] getDomainSharesReliable() {
+        // Delegate to source, which caches the shares for all subsets
+        return source.getDomainSharesReliable();
+    }
+
     @Override
     public int[] getOrder(String attribute) {
         // Delegate to source
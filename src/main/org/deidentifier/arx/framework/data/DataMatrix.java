@@ -30,6 +30,9 @@ public class DataMatrix implements Serializable {
     /** SVUID */
     private static final long serialVersionUID = 1626391500373995527L;
 
+    /** The maximal number of cells of matrices backed by a single array */
+    public static final int   MAX_ARRAY_SIZE   = Integer.MAX_VALUE - 8;
+
     /** Backing array */
     private final int[]       array;
 
@@ -48,6 +51,22 @@ public class DataMatrix implements Serializable {
     /** Iterate */
     private int               baseOffset       = 0;
 
+    /**
+     * Creates a new matrix. Matrices with more than MAX_ARRAY_SIZE cells are backed
+     * by multiple arrays.
+     *
+     * @param rows the num rows
+     * @param columns the num columns
+     * @return
+     */
+    public static DataMatrix create(final int rows, final int columns) {
+        if ((long) rows * (long) columns > MAX_ARRAY_SIZE) {
+            return new DataMatrixChunked(rows, columns);
+        } else {
+            return new DataMatrix(rows, columns);
+        }
+    }
+
     /**
      * Instantiates a new memory block.
      *
@@ -65,6 +84,17 @@ public class DataMatrix implements Serializable {
         }
     }
 
+    /**
+     * Creates a view sharing the backing array of the given matrix
+     * 
+     * @param matrix
+     */
+    private DataMatrix(final DataMatrix matrix) {
+        this.columns = matrix.columns;
+        this.rows = matrix.rows;
+        this.array = matrix.array;
+    }
+
     /**
      * ANDs the first value of the row with the given value
      * @param row
@@ -88,8 +118,14 @@ public class DataMatrix implements Serializable {
      * @param sourceRow
      */
     public void copyFrom(int row, DataMatrix sourceMatrix, int sourceRow) {
-        int sourceOffset = sourceRow * columns;
         int thisOffset = row * columns;
+        if (sourceMatrix.getClass() != DataMatrix.class) {
+            for (int i = 0; i < columns; i++) {
+                this.array[thisOffset + i] = sourceMatrix.get(sourceRow, i);
+            }
+            return;
+        }
+        int sourceOffset = sourceRow * columns;
         System.arraycopy(sourceMatrix.array, sourceOffset, this.array, thisOffset, columns);
     }
 
@@ -245,6 +281,15 @@ public class DataMatrix implements Serializable {
     public int get(final int row, final int col) {
         return this.array[row * columns + col];
     }
+
+    /**
+     * Returns the size of the memory owned by this matrix in bytes, not including the
+     * memory of other matrices which it is based upon
+     * @return
+     */
+    public long getByteSize() {
+        return (long) array.length * 4L;
+    }
     
     /**
      * Returns the number of columns
@@ -272,6 +317,16 @@ public class DataMatrix implements Serializable {
         return this.array[baseOffset + column];
     }
 
+    /**
+     * Returns a view on this matrix which shares the backing array, but
+     * maintains its own row pointer and iterator. Views can be used to
+     * concurrently read data or to concurrently write disjoint rows.
+     * @return
+     */
+    public DataMatrix getView() {
+        return new DataMatrix(this);
+    }
+
     /**
      * Returns an hashcode for the given row
      * @param row
@@ -364,6 +419,15 @@ public class DataMatrix implements Serializable {
         iteratorI++;
     }
 
+    /**
+     * Returns a new matrix with the same dimensions, which is able to store all values
+     * of this matrix as well as the flags used for marking outliers.
+     * @return
+     */
+    public DataMatrix newInstance() {
+        return DataMatrix.create(getNumRows(), getNumColumns());
+    }
+
     /**
      * ORs the first value of the row with the given value
      * @param row
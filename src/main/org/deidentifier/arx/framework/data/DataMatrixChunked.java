@@ -0,0 +1,327 @@
+/*
+ * ARX Data Anonymization Tool
+ * Copyright 2012 - 2025 Fabian Prasser and contributors
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.deidentifier.arx.framework.data;
+
+/**
+ * A data matrix which is backed by multiple arrays. Each array stores a fixed
+ * number of complete rows, which is a power of two. This supports matrices with
+ * more than 2^31-1 cells.
+ *
+ * @author Fabian Prasser
+ */
+public class DataMatrixChunked extends DataMatrix {
+
+    /** SVUID */
+    private static final long serialVersionUID = -3462640936386328317L;
+
+    /** Default maximal number of cells per chunk */
+    public static final int   MAX_CHUNK_SIZE   = 1 << 30;
+
+    /** Backing arrays */
+    private final int[][]     chunks;
+
+    /** The number of rows. */
+    private final int         rows;
+
+    /** The number of columns. */
+    private final int         columns;
+
+    /** Log2 of the number of rows per chunk */
+    private final int         shift;
+
+    /** Mask for the offset of a row in a chunk */
+    private final int         mask;
+
+    /** Iterate */
+    private int[]             iteratorChunk;
+
+    /** Iterate */
+    private int               iteratorI        = 0;
+
+    /** Iterate */
+    private int               iteratorOffset   = 0;
+
+    /** Iterate */
+    private int[]             baseChunk;
+
+    /** Iterate */
+    private int               baseOffset       = 0;
+
+    /**
+     * Instantiates a new matrix.
+     *
+     * @param rows the num rows
+     * @param columns the num columns
+     */
+    public DataMatrixChunked(final int rows, final int columns) {
+        this(rows, columns, MAX_CHUNK_SIZE);
+    }
+
+    /**
+     * Instantiates a new matrix.
+     *
+     * @param rows the num rows
+     * @param columns the num columns
+     * @param maxChunkSize the maximal number of cells per chunk
+     */
+    public DataMatrixChunked(final int rows, final int columns, final int maxChunkSize) {
+        super(0, 0);
+        if (rows < 0 || columns < 0 || maxChunkSize < Math.max(columns, 1)) {
+            throw new IllegalArgumentException("Invalid size of matrix or chunks");
+        }
+        this.rows = rows;
+        this.columns = columns;
+        this.shift = 31 - Integer.numberOfLeadingZeros(maxChunkSize / Math.max(columns, 1));
+        this.mask = (1 << shift) - 1;
+        int numChunks = rows == 0 ? 0 : ((rows - 1) >>> shift) + 1;
+        this.chunks = new int[numChunks][];
+        for (int i = 0; i < numChunks; i++) {
+            int chunkRows = (i == numChunks - 1) ? rows - (i << shift) : 1 << shift;
+            this.chunks[i] = new int[chunkRows * columns];
+        }
+    }
+
+    /**
+     * Creates a matrix with the layout of the given matrix and the given backing arrays
+     *
+     * @param matrix
+     * @param chunks
+     */
+    private DataMatrixChunked(final DataMatrixChunked matrix, final int[][] chunks) {
+        super(0, 0);
+        this.rows = matrix.rows;
+        this.columns = matrix.columns;
+        this.shift = matrix.shift;
+        this.mask = matrix.mask;
+        this.chunks = chunks;
+    }
+
+    @Override
+    public void and(int row, int value) {
+        chunks[row >>> shift][(row & mask) * columns] &= value;
+    }
+
+    @Override
+    public DataMatrix clone() {
+        int[][] chunks = new int[this.chunks.length][];
+        for (int i = 0; i < chunks.length; i++) {
+            chunks[i] = this.chunks[i].clone();
+        }
+        return new DataMatrixChunked(this, chunks);
+    }
+
+    @Override
+    public void copyFrom(int row, DataMatrix sourceMatrix, int sourceRow) {
+        int[] chunk = chunks[row >>> shift];
+        int offset = (row & mask) * columns;
+        for (int i = 0; i < columns; i++) {
+            chunk[offset + i] = sourceMatrix.get(sourceRow, i);
+        }
+    }
+
+    @Override
+    public boolean equals(final int row1, final int row2) {
+        return equals(row1, row2, ~0);
+    }
+
+    @Override
+    public boolean equals(int row, int[] data) {
+        int[] chunk = chunks[row >>> shift];
+        int offset = (row & mask) * columns;
+        for (int i = 0; i < columns; i++) {
+            if (chunk[offset++] != data[i]) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    @Override
+    public boolean equalsIgnore(int row1, int row2, int ignore) {
+        int[] chunk1 = chunks[row1 >>> shift];
+        int[] chunk2 = chunks[row2 >>> shift];
+        int offset1 = (row1 & mask) * columns;
+        int offset2 = (row2 & mask) * columns;
+        for (int i = 0; i < columns; i++) {
+            if ((ignore != i) && chunk1[offset1 + i] != chunk2[offset2 + i]) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    @Override
+    public boolean equalsIgnoringOutliers(int row1, int row2) {
+        return this.equals(row1, row2, Data.REMOVE_OUTLIER_MASK);
+    }
+
+    @Override
+    public int get(final int row, final int col) {
+        return chunks[row >>> shift][(row & mask) * columns + col];
+    }
+
+    @Override
+    public long getByteSize() {
+        long result = 0L;
+        for (int[] chunk : chunks) {
+            result += (long) chunk.length * 4L;
+        }
+        return result;
+    }
+
+    @Override
+    public int getNumColumns() {
+        return columns;
+    }
+
+    @Override
+    public int getNumRows() {
+        return rows;
+    }
+
+    @Override
+    public int getValueAtColumn(int column) {
+        return baseChunk[baseOffset + column];
+    }
+
+    @Override
+    public DataMatrix getView() {
+        return new DataMatrixChunked(this, this.chunks);
+    }
+
+    @Override
+    public int hashCode(final int row) {
+        int[] chunk = chunks[row >>> shift];
+        int offset = (row & mask) * columns;
+        int result = 23;
+        for (int i = 0; i < columns; i++) {
+            result = (37 * result) + chunk[offset++];
+        }
+        return result;
+    }
+
+    @Override
+    public int hashCodeIgnore(final int row, final int ignore) {
+        int[] chunk = chunks[row >>> shift];
+        int offset = (row & mask) * columns;
+        int result = 23;
+        for (int i = 0; i < columns; i++) {
+            result = (i == ignore) ? result : ((37 * result) + chunk[offset]);
+            offset++;
+        }
+        return result;
+    }
+
+    @Override
+    public void iterator(int row) {
+        iteratorChunk = chunks[row >>> shift];
+        iteratorOffset = (row & mask) * columns;
+        iteratorI = 0;
+    }
+
+    @Override
+    public boolean iterator_hasNext() {
+        return iteratorI < columns;
+    }
+
+    @Override
+    public int iterator_next() {
+        int result = iteratorChunk[iteratorOffset++];
+        iteratorI++;
+        return result;
+    }
+
+    @Override
+    public void iterator_write(int value) {
+        iteratorChunk[iteratorOffset++] = value;
+        iteratorI++;
+    }
+
+    @Override
+    public void or(int row, int value) {
+        chunks[row >>> shift][(row & mask) * columns] |= value;
+    }
+
+    @Override
+    public void set(int row, int column, int value) {
+        chunks[row >>> shift][(row & mask) * columns + column] = value;
+    }
+
+    @Override
+    public void setRow(int row) {
+        this.baseChunk = chunks[row >>> shift];
+        this.baseOffset = (row & mask) * columns;
+    }
+
+    @Override
+    public void setRow(int row, int[] data) {
+        System.arraycopy(data, 0, chunks[row >>> shift], (row & mask) * columns, data.length);
+    }
+
+    @Override
+    public void setValueAtColumn(int column, int value) {
+        baseChunk[baseOffset + column] = value;
+    }
+
+    @Override
+    public void swap(int row1, int row2) {
+        int[] chunk1 = chunks[row1 >>> shift];
+        int[] chunk2 = chunks[row2 >>> shift];
+        int offset1 = (row1 & mask) * columns;
+        int offset2 = (row2 & mask) * columns;
+        for (int i = 0; i < this.columns; i++) {
+            int temp = chunk1[offset1];
+            chunk1[offset1] = chunk2[offset2];
+            chunk2[offset2] = temp;
+            offset1++;
+            offset2++;
+        }
+    }
+
+    /**
+     * Internal equals
+     * @param row1
+     * @param row2
+     * @param flag
+     * @return
+     */
+    private boolean equals(int row1, int row2, int flag) {
+        int[] chunk1 = chunks[row1 >>> shift];
+        int[] chunk2 = chunks[row2 >>> shift];
+        int offset1 = (row1 & mask) * columns;
+        int offset2 = (row2 & mask) * columns;
+        if ((chunk1[offset1] & flag) != (chunk2[offset2] & flag)) {
+            return false;
+        }
+        for (int i = 1; i < columns; i++) {
+            if (chunk1[offset1 + i] != chunk2[offset2 + i]) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    @Override
+    protected DataMatrix clone(int[] subset) {
+        DataMatrix result = DataMatrix.create(subset.length, this.columns);
+        for (int row = 0; row < subset.length; row++) {
+            result.copyFrom(row, this, subset[row]);
+        }
+        return result;
+    }
+}
@@ -0,0 +1,399 @@
+/*
+ * ARX Data Anonymization Tool
+ * Copyright 2012 - 2025 Fabian Prasser and contributors
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.deidentifier.arx.framework.data;
+
+import java.util.Arrays;
+
+/**
+ * A data matrix which stores each column with a given number of bits. The cells of
+ * a row are packed into consecutive words of 64 bits, where cells never span two words.
+ * Rows are compared word by word.
+ *
+ * @author Fabian Prasser
+ */
+public class DataMatrixPacked extends DataMatrix {
+
+    /** SVUID */
+    private static final long serialVersionUID = -6412946513462201634L;
+
+    /** Backing array */
+    private final long[]      array;
+
+    /** The number of rows. */
+    private final int         rows;
+
+    /** The number of columns. */
+    private final int         columns;
+
+    /** The number of bits per column */
+    private final int[]       bits;
+
+    /** The number of words per row */
+    private final int         words;
+
+    /** Word of each column */
+    private final int[]       word;
+
+    /** Offset of each column in its word */
+    private final int[]       shift;
+
+    /** Mask for the values of each column, not shifted */
+    private final long[]      mask;
+
+    /** Mask applied to the first word when comparing rows ignoring outliers */
+    private final long        outlierMask;
+
+    /** Iterate */
+    private int               iteratorI        = 0;
+
+    /** Iterate */
+    private int               iteratorOffset   = 0;
+
+    /** Iterate */
+    private int               baseOffset       = 0;
+
+    /**
+     * Instantiates a new matrix.
+     *
+     * @param rows the num rows
+     * @param bits the number of bits used for each column, between 1 and 32
+     */
+    public DataMatrixPacked(final int rows, final int[] bits) {
+        super(0, 0);
+
+        // Layout
+        this.rows = rows;
+        this.columns = bits.length;
+        this.bits = bits.clone();
+        this.word = new int[columns];
+        this.shift = new int[columns];
+        this.mask = new long[columns];
+        int words = columns == 0 ? 0 : 1;
+        int offset = 0;
+        for (int i = 0; i < columns; i++) {
+            if (bits[i] < 1 || bits[i] > 32) {
+                throw new IllegalArgumentException("Number of bits must be between 1 and 32");
+            }
+            if (offset + bits[i] > 64) {
+                words++;
+                offset = 0;
+            }
+            this.word[i] = words - 1;
+            this.shift[i] = offset;
+            this.mask[i] = (1L << bits[i]) - 1L;
+            offset += bits[i];
+        }
+        this.words = words;
+        this.outlierMask = (columns > 0 && bits[0] == 32) ? ~(1L << (shift[0] + 31)) : ~0L;
+
+        // Allocate
+        long cells = (long) rows * (long) words;
+        if (cells > MAX_ARRAY_SIZE) {
+            throw new IllegalArgumentException("Not more then 2^31-1 words supported");
+        }
+        this.array = new long[(int) cells];
+    }
+
+    /**
+     * Creates a matrix with the layout of the given matrix and the given backing array
+     *
+     * @param matrix
+     * @param array
+     */
+    private DataMatrixPacked(final DataMatrixPacked matrix, final long[] array) {
+        super(0, 0);
+        this.rows = matrix.rows;
+        this.columns = matrix.columns;
+        this.bits = matrix.bits;
+        this.words = matrix.words;
+        this.word = matrix.word;
+        this.shift = matrix.shift;
+        this.mask = matrix.mask;
+        this.outlierMask = matrix.outlierMask;
+        this.array = array;
+    }
+
+    /**
+     * Returns the number of words per row needed for the given number of bits per column
+     *
+     * @param bits
+     * @return
+     */
+    public static int getWords(int[] bits) {
+        int words = bits.length == 0 ? 0 : 1;
+        int offset = 0;
+        for (int i = 0; i < bits.length; i++) {
+            if (offset + bits[i] > 64) {
+                words++;
+                offset = 0;
+            }
+            offset += bits[i];
+        }
+        return words;
+    }
+
+    /**
+     * Returns the number of bits needed to store the given number of distinct codes
+     *
+     * @param codes
+     * @return
+     */
+    public static int getBits(int codes) {
+        return Math.max(1, 32 - Integer.numberOfLeadingZeros(codes - 1));
+    }
+
+    @Override
+    public void and(int row, int value) {
+        set(row, 0, get(row, 0) & value);
+    }
+
+    @Override
+    public DataMatrix clone() {
+        return new DataMatrixPacked(this, this.array.clone());
+    }
+
+    @Override
+    public void copyFrom(int row, DataMatrix sourceMatrix, int sourceRow) {
+        if (sourceMatrix instanceof DataMatrixPacked && ((DataMatrixPacked) sourceMatrix).isCompatible(this)) {
+            System.arraycopy(((DataMatrixPacked) sourceMatrix).array, sourceRow * words, this.array, row * words, words);
+        } else {
+            for (int i = 0; i < columns; i++) {
+                set(row, i, sourceMatrix.get(sourceRow, i));
+            }
+        }
+    }
+
+    @Override
+    public boolean equals(final int row1, final int row2) {
+        int offset1 = row1 * words;
+        int offset2 = row2 * words;
+        for (int i = 0; i < words; i++) {
+            if (array[offset1 + i] != array[offset2 + i]) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    @Override
+    public boolean equals(int row, int[] data) {
+        int offset = row * words;
+        for (int i = 0; i < columns; i++) {
+            if ((int) ((array[offset + word[i]] >>> shift[i]) & mask[i]) != data[i]) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    @Override
+    public boolean equalsIgnore(int row1, int row2, int ignore) {
+        int offset1 = row1 * words;
+        int offset2 = row2 * words;
+        long ignoreMask = ~(mask[ignore] << shift[ignore]);
+        for (int i = 0; i < words; i++) {
+            long difference = array[offset1 + i] ^ array[offset2 + i];
+            if (i == word[ignore]) {
+                difference &= ignoreMask;
+            }
+            if (difference != 0L) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    @Override
+    public boolean equalsIgnoringOutliers(int row1, int row2) {
+        int offset1 = row1 * words;
+        int offset2 = row2 * words;
+        if (((array[offset1] ^ array[offset2]) & outlierMask) != 0L) {
+            return false;
+        }
+        for (int i = 1; i < words; i++) {
+            if (array[offset1 + i] != array[offset2 + i]) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    @Override
+    public int get(final int row, final int col) {
+        return (int) ((array[row * words + word[col]] >>> shift[col]) & mask[col]);
+    }
+
+    /**
+     * Returns the number of bits used for each column
+     * @return
+     */
+    public int[] getBits() {
+        return bits.clone();
+    }
+
+    @Override
+    public long getByteSize() {
+        return (long) array.length * 8L;
+    }
+
+    @Override
+    public int getNumColumns() {
+        return columns;
+    }
+
+    @Override
+    public int getNumRows() {
+        return rows;
+    }
+
+    @Override
+    public int getValueAtColumn(int column) {
+        return (int) ((array[baseOffset + word[column]] >>> shift[column]) & mask[column]);
+    }
+
+    @Override
+    public DataMatrix getView() {
+        return new DataMatrixPacked(this, this.array);
+    }
+
+    @Override
+    public int hashCode(final int row) {
+        int offset = row * words;
+        int result = 23;
+        for (int i = 0; i < columns; i++) {
+            result = (37 * result) + (int) ((array[offset + word[i]] >>> shift[i]) & mask[i]);
+        }
+        return result;
+    }
+
+    @Override
+    public int hashCodeIgnore(final int row, final int ignore) {
+        int offset = row * words;
+        int result = 23;
+        for (int i = 0; i < columns; i++) {
+            result = (i == ignore) ? result : ((37 * result) + (int) ((array[offset + word[i]] >>> shift[i]) & mask[i]));
+        }
+        return result;
+    }
+
+    @Override
+    public void iterator(int row) {
+        iteratorOffset = row * words;
+        iteratorI = 0;
+    }
+
+    @Override
+    public boolean iterator_hasNext() {
+        return iteratorI < columns;
+    }
+
+    @Override
+    public int iterator_next() {
+        int result = (int) ((array[iteratorOffset + word[iteratorI]] >>> shift[iteratorI]) & mask[iteratorI]);
+        iteratorI++;
+        return result;
+    }
+
+    @Override
+    public void iterator_write(int value) {
+        write(iteratorOffset, iteratorI, value);
+        iteratorI++;
+    }
+
+    /**
+     * Returns a new matrix with the same dimensions, which uses 32 bits for the first column.
+     */
+    @Override
+    public DataMatrix newInstance() {
+        int[] bits = this.bits.clone();
+        if (columns > 0) {
+            bits[0] = 32;
+        }
+        return new DataMatrixPacked(rows, bits);
+    }
+
+    @Override
+    public void or(int row, int value) {
+        set(row, 0, get(row, 0) | value);
+    }
+
+    @Override
+    public void set(int row, int column, int value) {
+        write(row * words, column, value);
+    }
+
+    @Override
+    public void setRow(int row) {
+        this.baseOffset = row * words;
+    }
+
+    @Override
+    public void setRow(int row, int[] data) {
+        int offset = row * words;
+        for (int i = 0; i < data.length; i++) {
+            write(offset, i, data[i]);
+        }
+    }
+
+    @Override
+    public void setValueAtColumn(int column, int value) {
+        write(baseOffset, column, value);
+    }
+
+    @Override
+    public void swap(int row1, int row2) {
+        int offset1 = row1 * words;
+        int offset2 = row2 * words;
+        for (int i = 0; i < words; i++) {
+            long temp = array[offset1];
+            array[offset1] = array[offset2];
+            array[offset2] = temp;
+            offset1++;
+            offset2++;
+        }
+    }
+
+    /**
+     * Returns whether the given matrix has the same layout
+     * @param other
+     * @return
+     */
+    private boolean isCompatible(DataMatrixPacked other) {
+        return this.words == other.words && Arrays.equals(this.bits, other.bits);
+    }
+
+    /**
+     * Writes a value into the row starting at the given offset
+     * @param offset
+     * @param column
+     * @param value
+     */
+    private void write(int offset, int column, int value) {
+        int index = offset + word[column];
+        array[index] = (array[index] & ~(mask[column] << shift[column])) | ((value & mask[column]) << shift[column]);
+    }
+
+    @Override
+    protected DataMatrix clone(int[] subset) {
+        DataMatrixPacked result = new DataMatrixPacked(subset.length, bits);
+        for (int row = 0; row < subset.length; row++) {
+            System.arraycopy(this.array, subset[row] * words, result.array, row * words, words);
+        }
+        return result;
+    }
+}
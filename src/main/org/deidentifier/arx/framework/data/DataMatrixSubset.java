@@ -73,6 +73,11 @@ public class DataMatrixSubset extends DataMatrix {
         return matrix.get(subset[row], col);
     }
 
+    @Override
+    public long getByteSize() {
+        return (long) subset.length * 4L;
+    }
+
     @Override
     public int getNumColumns() {
         return (matrix == null) ?  0 : matrix.getNumColumns();
@@ -88,6 +93,11 @@ public class DataMatrixSubset extends DataMatrix {
         return matrix.getValueAtColumn(column);
     }
 
+    @Override
+    public DataMatrix getView() {
+        return new DataMatrixSubset(matrix.getView(), subset);
+    }
+
     @Override
     public int hashCode(int row) {
         return matrix.hashCode(subset[row]);
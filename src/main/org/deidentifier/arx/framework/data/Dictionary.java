@@ -62,6 +62,18 @@ public class Dictionary implements Serializable {
         }
     }
     
+    /**
+     * Instantiates a new finalized dictionary from the given mapping
+     * 
+     * @param mapping
+     * @param suppressed
+     */
+    public Dictionary(String[][] mapping, int[] suppressed) {
+        this.mapping = mapping;
+        this.suppressed = suppressed;
+        this.maps = null;
+    }
+    
     /**
      * Instantiates a new dictionary.
      * 
@@ -38,6 +38,9 @@ public class GeneralizationHierarchy {
     /** Name. */
     protected final String  attribute;
 
+    /** Level->input->output, computed on demand. */
+    private int[][]         levels;
+
     /**
      * Creates a new generalization hierarchy.
      *
@@ -230,6 +233,27 @@ public class GeneralizationHierarchy {
         return map[0].length;
     }
 
+    /**
+     * Returns an array mapping input values to output values on the given level.
+     * The array is computed once and must not be modified.
+     *
+     * @param level
+     * @return
+     */
+    public synchronized int[] getLevel(final int level) {
+        if (levels == null) {
+            levels = new int[getLevels()][];
+        }
+        if (levels[level] == null) {
+            int[] result = new int[map.length];
+            for (int i = 0; i < map.length; i++) {
+                result[i] = map[i][level];
+            }
+            levels[level] = result;
+        }
+        return levels[level];
+    }
+
     /**
      * Returns the number of levels
      */
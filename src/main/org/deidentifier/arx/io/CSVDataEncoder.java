@@ -0,0 +1,441 @@
+/*
+ * ARX Data Anonymization Tool
+ * Copyright 2012 - 2025 Fabian Prasser and contributors
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.deidentifier.arx.io;
+
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.io.RandomAccessFile;
+import java.io.Reader;
+import java.nio.charset.Charset;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Future;
+
+import org.apache.commons.io.input.BoundedInputStream;
+import org.deidentifier.arx.DataType;
+import org.deidentifier.arx.common.DaemonThreads;
+import org.deidentifier.arx.framework.data.DataMatrix;
+import org.deidentifier.arx.framework.data.Dictionary;
+
+import com.univocity.parsers.csv.CsvParser;
+
+/**
+ * Encodes CSV data directly into a dictionary and a data matrix, without materializing
+ * records. Files can be split into chunks at line breaks, which are parsed and encoded in
+ * parallel. The resulting encoding is the same as when the data is encoded sequentially.
+ *
+ * @author Fabian Prasser
+ */
+public class CSVDataEncoder implements DataEncoder {
+
+    /**
+     * Encodes a part of the data
+     *
+     * @author Fabian Prasser
+     */
+    private class Chunk implements Callable<Chunk> {
+
+        /** Parser */
+        private final CsvParser  parser;
+
+        /** Dictionary */
+        private final Dictionary dictionary;
+
+        /** Encoded records, stored in blocks */
+        private List<int[]>      blocks = new ArrayList<int[]>();
+
+        /** Number of records */
+        private int              rows   = 0;
+
+        /**
+         * Creates a new instance
+         *
+         * @param parser
+         * @param dictionary
+         */
+        private Chunk(CsvParser parser, Dictionary dictionary) {
+            this.parser = parser;
+            this.dictionary = dictionary;
+        }
+
+        @Override
+        public Chunk call() {
+
+            // Encode
+            int columns = header.length;
+            int[] block = null;
+            int offset = 0;
+            String[] record;
+            while ((record = parser.parseNext()) != null) {
+
+                // Check
+                if (datatypes != null && record.length != datatypes.length) {
+                    parser.stopParsing();
+                    throw new IllegalArgumentException("More columns available in CSV file than data types specified");
+                }
+
+                // Obtain block
+                if (block == null || offset == block.length) {
+                    block = new int[BLOCK_SIZE * columns];
+                    blocks.add(block);
+                    offset = 0;
+                }
+
+                // Encode record
+                for (int i = 0; i < columns; i++) {
+                    String value = (i < record.length) ? record[i] : DataType.NULL_VALUE;
+                    value = (value != null) ? value : DataType.NULL_VALUE;
+                    if (datatypes != null && !datatypes[i].isValid(value)) {
+                        value = DataType.NULL_VALUE;
+                    }
+                    block[offset++] = dictionary.register(i, value);
+                }
+                rows++;
+            }
+
+            // Return
+            parser.stopParsing();
+            return this;
+        }
+
+        /**
+         * Writes the encoded records into the given matrix, starting at the given row,
+         * and releases the blocks
+         *
+         * @param matrix
+         * @param start
+         * @param translation Mapping from local to global codes, null if not required
+         */
+        private void write(DataMatrix matrix, int start, int[][] translation) {
+            int columns = header.length;
+            int row = start;
+            int remaining = rows;
+            for (int b = 0; b < blocks.size(); b++) {
+                int[] block = blocks.get(b);
+                blocks.set(b, null);
+                int records = Math.min(remaining, BLOCK_SIZE);
+                int offset = 0;
+                for (int i = 0; i < records; i++) {
+                    for (int column = 0; column < columns; column++) {
+                        int code = block[offset++];
+                        matrix.set(row, column, translation == null ? code : translation[column][code]);
+                    }
+                    row++;
+                }
+                remaining -= records;
+            }
+            blocks = null;
+        }
+    }
+
+    /** Number of records stored in one block */
+    private static final int    BLOCK_SIZE     = 1 << 14;
+
+    /** Minimal number of bytes parsed by a thread */
+    private static final long   MIN_CHUNK_SIZE = 1 << 20;
+
+    /** Input */
+    private final CSVDataInput  input;
+
+    /** Data types used for cleansing, or null */
+    private final DataType<?>[] datatypes;
+
+    /** Header */
+    private String[]            header;
+
+    /** Dictionary */
+    private Dictionary          dictionary;
+
+    /** Data */
+    private DataMatrix          data;
+
+    /**
+     * Creates a new instance
+     *
+     * @param input
+     */
+    public CSVDataEncoder(CSVDataInput input) {
+        this.input = input;
+        this.datatypes = input.getDataTypes();
+    }
+
+    /**
+     * Parses and encodes the data. Assumes that the first line is the header. The dictionary
+     * is not finalized.
+     *
+     * @return false, if the data is empty
+     * @throws IOException
+     */
+    @Override
+    public boolean encode() throws IOException {
+
+        // Split into chunks
+        long[] boundaries = getChunkBoundaries();
+        try {
+
+            // Header
+            CsvParser parser = createParser(input.getReader());
+            if (!parseHeader(parser)) {
+                return false;
+            }
+            this.dictionary = new Dictionary(header.length);
+
+            // Encode sequentially
+            if (boundaries == null) {
+                Chunk chunk = new Chunk(parser, dictionary).call();
+                this.data = DataMatrix.create(chunk.rows, header.length);
+                chunk.write(data, 0, null);
+                return true;
+            }
+            parser.stopParsing();
+        } finally {
+            input.close();
+        }
+
+        // Encode in parallel
+        encode(boundaries);
+        return true;
+    }
+
+    /**
+     * Returns the data
+     *
+     * @return
+     */
+    @Override
+    public DataMatrix getData() {
+        return data;
+    }
+
+    /**
+     * Returns the dictionary
+     *
+     * @return
+     */
+    @Override
+    public Dictionary getDictionary() {
+        return dictionary;
+    }
+
+    /**
+     * Returns the header
+     *
+     * @return
+     */
+    @Override
+    public String[] getHeader() {
+        return header;
+    }
+
+    /**
+     * Encodes the chunks of the file in parallel and merges the results in order, so that
+     * values are assigned the same codes as when encoding sequentially
+     *
+     * @param boundaries
+     * @throws IOException
+     */
+    private void encode(long[] boundaries) throws IOException {
+
+        int chunks = boundaries.length - 1;
+        ExecutorService pool = DaemonThreads.newFixedThreadPool(chunks, "ARX CSV encoder");
+
+        // Submit
+        List<Reader> readers = new ArrayList<Reader>();
+        List<Future<Chunk>> futures = new ArrayList<Future<Chunk>>();
+        try {
+            for (int i = 0; i < chunks; i++) {
+                Reader reader = createReader(boundaries[i], boundaries[i + 1]);
+                readers.add(reader);
+                CsvParser parser = createParser(reader);
+                if (i == 0) {
+                    parser.parseNext();
+                }
+                futures.add(pool.submit(new Chunk(parser, new Dictionary(header.length))));
+            }
+
+            // Collect
+            List<Chunk> results = new ArrayList<Chunk>();
+            int rows = 0;
+            for (Future<Chunk> future : futures) {
+                Chunk chunk = future.get();
+                results.add(chunk);
+                rows += chunk.rows;
+            }
+
+            // Merge
+            this.data = DataMatrix.create(rows, header.length);
+            int start = 0;
+            for (Chunk chunk : results) {
+                chunk.dictionary.finalizeAll();
+                String[][] mapping = chunk.dictionary.getMapping();
+                int[][] translation = new int[header.length][];
+                for (int column = 0; column < header.length; column++) {
+                    translation[column] = new int[mapping[column].length];
+                    for (int code = 0; code < mapping[column].length; code++) {
+                        translation[column][code] = dictionary.register(column, mapping[column][code]);
+                    }
+                }
+                chunk.write(data, start, translation);
+                start += chunk.rows;
+            }
+
+        } catch (InterruptedException e) {
+            cancel(futures);
+            Thread.currentThread().interrupt();
+            throw new IOException("Interrupted while parsing data", e);
+        } catch (ExecutionException e) {
+            cancel(futures);
+            if (e.getCause() instanceof RuntimeException) {
+                throw (RuntimeException) e.getCause();
+            }
+            throw new IOException("Error while parsing data", e.getCause());
+        } finally {
+            pool.shutdown();
+            for (Reader reader : readers) {
+                reader.close();
+            }
+        }
+    }
+
+    /**
+     * Cancels the given futures
+     *
+     * @param futures
+     */
+    private void cancel(List<Future<Chunk>> futures) {
+        for (Future<Chunk> future : futures) {
+            future.cancel(true);
+        }
+    }
+
+    /**
+     * Creates a parser for the given reader
+     *
+     * @param reader
+     * @return
+     */
+    private CsvParser createParser(Reader reader) {
+        CsvParser parser = new CsvParser(input.getSettings());
+        parser.beginParsing(reader);
+        return parser;
+    }
+
+    /**
+     * Creates a reader for the given range of bytes of the file
+     *
+     * @param start
+     * @param end
+     * @return
+     * @throws IOException
+     */
+    private Reader createReader(long start, long end) throws IOException {
+        FileInputStream stream = new FileInputStream(input.getFile());
+        try {
+            stream.getChannel().position(start);
+        } catch (IOException e) {
+            stream.close();
+            throw e;
+        }
+        return new InputStreamReader(new BoundedInputStream(stream, end - start), input.getCharset());
+    }
+
+    /**
+     * Splits the file into chunks which end with line breaks. Returns null if the data
+     * should be encoded sequentially.
+     *
+     * @return
+     * @throws IOException
+     */
+    private long[] getChunkBoundaries() throws IOException {
+
+        // Check whether line breaks can be found in the raw bytes
+        File file = input.getFile();
+        Charset charset = input.getCharset();
+        if (input.getNumberOfThreads() <= 1 || file == null) {
+            return null;
+        }
+        char[] linebreak = input.getSettings().getFormat().getLineSeparator();
+        byte[] separator = String.valueOf(linebreak[linebreak.length - 1]).getBytes(charset);
+        if (separator.length != 1) {
+            return null;
+        }
+
+        // Determine number of chunks
+        long length = file.length();
+        int chunks = (int) Math.min(input.getNumberOfThreads(), length / MIN_CHUNK_SIZE);
+        if (chunks <= 1) {
+            return null;
+        }
+
+        // Move boundaries to the next line break
+        long[] boundaries = new long[chunks + 1];
+        int count = 1;
+        RandomAccessFile raf = new RandomAccessFile(file, "r");
+        try {
+            byte[] buffer = new byte[8192];
+            for (int i = 1; i < chunks; i++) {
+                long position = Math.max(length * i / chunks, boundaries[count - 1]);
+                long boundary = length;
+                raf.seek(position);
+                int read;
+                search: while ((read = raf.read(buffer)) > 0) {
+                    for (int j = 0; j < read; j++) {
+                        if (buffer[j] == separator[0]) {
+                            boundary = position + j + 1;
+                            break search;
+                        }
+                    }
+                    position += read;
+                }
+                if (boundary >= length) {
+                    break;
+                }
+                if (boundary > boundaries[count - 1]) {
+                    boundaries[count++] = boundary;
+                }
+            }
+        } finally {
+            raf.close();
+        }
+        boundaries[count++] = length;
+
+        // Return
+        return count <= 2 ? null : Arrays.copyOf(boundaries, count);
+    }
+
+    /**
+     * Parses the header
+     *
+     * @param parser
+     * @return false, if the data is empty
+     */
+    private boolean parseHeader(CsvParser parser) {
+        String[] columns = parser.parseNext();
+        if (columns == null) {
+            return false;
+        }
+        this.header = Arrays.copyOf(columns, columns.length);
+        return true;
+    }
+}
@@ -0,0 +1,398 @@
+/*
+ * ARX Data Anonymization Tool
+ * Copyright 2012 - 2025 Fabian Prasser and contributors
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.deidentifier.arx.io;
+
+import java.io.ByteArrayOutputStream;
+import java.io.File;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.Charset;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayDeque;
+import java.util.Arrays;
+import java.util.Deque;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Future;
+import java.util.zip.GZIPOutputStream;
+
+import org.deidentifier.arx.common.DaemonThreads;
+
+import com.univocity.parsers.csv.CsvWriter;
+import com.univocity.parsers.csv.CsvWriterSettings;
+
+/**
+ * Writes encoded data into CSV files. Each distinct value of a column is escaped and encoded
+ * into bytes only once. Disjoint blocks of rows are encoded into byte buffers in parallel,
+ * optionally compressed with gzip, and written to the file in order. Without compression, the
+ * resulting file is the same as the file written by <code>CSVDataOutput</code>.
+ *
+ * @author Fabian Prasser
+ */
+public class CSVDataExporter {
+
+    /**
+     * Data to be exported. Implementations must support concurrent access.
+     *
+     * @author Fabian Prasser
+     */
+    public static interface Source {
+
+        /**
+         * Returns a code, which identifies the value of the given cell within its column.
+         * Codes must be greater than or equal to -1 and should be dense.
+         * 
+         * @param row
+         * @param column
+         * @return
+         */
+        public int getCode(int row, int column);
+
+        /**
+         * Returns the header
+         * 
+         * @return
+         */
+        public String[] getHeader();
+
+        /**
+         * Returns the number of rows
+         * 
+         * @return
+         */
+        public int getNumRows();
+
+        /**
+         * Returns the value of the given cell
+         * 
+         * @param row
+         * @param column
+         * @return
+         */
+        public String getValue(int row, int column);
+    }
+
+    /**
+     * Encodes blocks of rows. Instances are confined to a thread.
+     *
+     * @author Fabian Prasser
+     */
+    private class Encoder {
+
+        /** Writer used for escaping values */
+        private final CsvWriter  writer = new CsvWriter(settings);
+
+        /** Encoded values per column, indexed by code + 1 */
+        private final byte[][][] values;
+
+        /** Buffer */
+        private byte[]           buffer = new byte[1 << 16];
+
+        /** Number of bytes in the buffer */
+        private int              size   = 0;
+
+        /**
+         * Creates a new instance
+         * 
+         * @param columns
+         */
+        private Encoder(int columns) {
+            this.values = new byte[columns][16][];
+        }
+
+        /**
+         * Appends the given bytes
+         * 
+         * @param bytes
+         */
+        private void append(byte[] bytes) {
+            if (size + bytes.length > buffer.length) {
+                buffer = Arrays.copyOf(buffer, Math.max(size + bytes.length, buffer.length * 2));
+            }
+            System.arraycopy(bytes, 0, buffer, size, bytes.length);
+            size += bytes.length;
+        }
+
+        /**
+         * Encodes the header
+         * 
+         * @param header
+         * @return
+         * @throws IOException
+         */
+        private ByteBuffer encode(String[] header) throws IOException {
+            size = 0;
+            append(getBytes(writer.writeRowToString((Object[]) header)));
+            append(linebreak);
+            return toBuffer(buffer, size);
+        }
+
+        /**
+         * Encodes the given range of rows
+         * 
+         * @param from
+         * @param to
+         * @return
+         * @throws IOException
+         */
+        private ByteBuffer encode(int from, int to) throws IOException {
+            size = 0;
+            for (int row = from; row < to; row++) {
+                for (int column = 0; column < values.length; column++) {
+                    if (column != 0) {
+                        append(delimiter);
+                    }
+                    append(getBytes(row, column));
+                }
+                append(linebreak);
+            }
+            return toBuffer(buffer, size);
+        }
+
+        /**
+         * Returns the escaped and encoded value of the given cell
+         * 
+         * @param row
+         * @param column
+         * @return
+         */
+        private byte[] getBytes(int row, int column) {
+            int index = source.getCode(row, column) + 1;
+            byte[][] cache = values[column];
+            if (index >= cache.length) {
+                cache = Arrays.copyOf(cache, Math.max(index + 1, cache.length * 2));
+                values[column] = cache;
+            }
+            byte[] result = cache[index];
+            if (result == null) {
+                result = getBytes(writer.writeRowToString(new Object[] { source.getValue(row, column) }));
+                cache[index] = result;
+            }
+            return result;
+        }
+
+        /**
+         * Encodes the given string
+         * 
+         * @param value
+         * @return
+         */
+        private byte[] getBytes(String value) {
+            return value == null ? new byte[0] : value.getBytes(charset);
+        }
+    }
+
+    /** Number of rows per block */
+    private static final int        BLOCK_SIZE = 10000;
+
+    /** The file */
+    private final File              file;
+
+    /** Settings */
+    private final CsvWriterSettings settings;
+
+    /** Charset */
+    private final Charset           charset;
+
+    /** Number of threads */
+    private final int               threads;
+
+    /** Whether blocks are compressed */
+    private final boolean           compressed;
+
+    /** The encoded delimiter */
+    private final byte[]            delimiter;
+
+    /** The encoded line break */
+    private final byte[]            linebreak;
+
+    /** The source */
+    private Source                  source;
+
+    /**
+     * Creates a new instance, which uses the platform's default charset
+     * 
+     * @param file
+     * @param config
+     * @param options
+     */
+    public CSVDataExporter(File file, CSVSyntax config, CSVOptions options) {
+        this(file, config, options, Charset.defaultCharset());
+    }
+
+    /**
+     * Creates a new instance
+     * 
+     * @param file
+     * @param config
+     * @param options
+     * @param charset
+     */
+    public CSVDataExporter(File file, CSVSyntax config, CSVOptions options, Charset charset) {
+        this.file = file;
+        this.settings = CSVDataOutput.createSettings(config.getDelimiter(),
+                                                     config.getQuote(),
+                                                     config.getEscape(),
+                                                     config.getLinebreak(),
+                                                     options);
+        this.charset = charset;
+        this.threads = options == null ? 1 : options.getNumberOfThreads();
+        this.compressed = options == null ? false : options.isCompressed();
+        this.delimiter = String.valueOf(config.getDelimiter()).getBytes(charset);
+        this.linebreak = new String(config.getLinebreak()).getBytes(charset);
+    }
+
+    /**
+     * Writes the data
+     * 
+     * @param source
+     * @throws IOException
+     */
+    public void write(Source source) throws IOException {
+
+        this.source = source;
+        String[] header = source.getHeader();
+        int rows = source.getNumRows();
+        int blocks = (rows + BLOCK_SIZE - 1) / BLOCK_SIZE;
+        try (FileChannel channel = FileChannel.open(file.toPath(),
+                                                    StandardOpenOption.CREATE,
+                                                    StandardOpenOption.WRITE,
+                                                    StandardOpenOption.TRUNCATE_EXISTING)) {
+
+            // Header
+            Encoder encoder = new Encoder(header.length);
+            write(channel, encoder.encode(header));
+
+            // Sequential
+            if (threads <= 1 || blocks <= 1) {
+                for (int block = 0; block < blocks; block++) {
+                    int from = block * BLOCK_SIZE;
+                    write(channel, encoder.encode(from, Math.min(rows, from + BLOCK_SIZE)));
+                }
+
+            // Parallel
+            } else {
+                write(channel, header.length, rows, blocks);
+            }
+        } finally {
+            this.source = null;
+        }
+    }
+
+    /**
+     * Cancels the given futures
+     * 
+     * @param futures
+     */
+    private void cancel(Deque<Future<ByteBuffer>> futures) {
+        for (Future<ByteBuffer> future : futures) {
+            future.cancel(true);
+        }
+    }
+
+    /**
+     * Returns a buffer containing the given bytes, compressed if required
+     * 
+     * @param bytes
+     * @param size
+     * @return
+     * @throws IOException
+     */
+    private ByteBuffer toBuffer(byte[] bytes, int size) throws IOException {
+        if (!compressed) {
+            return ByteBuffer.wrap(Arrays.copyOf(bytes, size));
+        }
+        ByteArrayOutputStream result = new ByteArrayOutputStream(size / 4 + 64);
+        GZIPOutputStream stream = new GZIPOutputStream(result, 1 << 16);
+        stream.write(bytes, 0, size);
+        stream.close();
+        return ByteBuffer.wrap(result.toByteArray());
+    }
+
+    /**
+     * Writes the given buffer
+     * 
+     * @param channel
+     * @param buffer
+     * @throws IOException
+     */
+    private void write(FileChannel channel, ByteBuffer buffer) throws IOException {
+        while (buffer.hasRemaining()) {
+            channel.write(buffer);
+        }
+    }
+
+    /**
+     * Encodes blocks in parallel and writes them in order. The number of blocks held in
+     * memory is bounded by twice the number of threads.
+     * 
+     * @param channel
+     * @param columns
+     * @param rows
+     * @param blocks
+     * @throws IOException
+     */
+    private void write(FileChannel channel, final int columns, final int rows, int blocks) throws IOException {
+
+        ExecutorService pool = DaemonThreads.newFixedThreadPool(threads, "ARX CSV exporter");
+
+        // One encoder per thread
+        final ThreadLocal<Encoder> encoders = new ThreadLocal<Encoder>() {
+            @Override
+            protected Encoder initialValue() {
+                return new Encoder(columns);
+            }
+        };
+
+        // Submit and write in order
+        Deque<Future<ByteBuffer>> futures = new ArrayDeque<Future<ByteBuffer>>();
+        try {
+            int next = 0;
+            while (next < blocks || !futures.isEmpty()) {
+                while (next < blocks && futures.size() < threads * 2) {
+                    final int from = next * BLOCK_SIZE;
+                    futures.add(pool.submit(new Callable<ByteBuffer>() {
+                        @Override
+                        public ByteBuffer call() throws Exception {
+                            return encoders.get().encode(from, Math.min(rows, from + BLOCK_SIZE));
+                        }
+                    }));
+                    next++;
+                }
+                write(channel, futures.poll().get());
+            }
+        } catch (InterruptedException e) {
+            cancel(futures);
+            Thread.currentThread().interrupt();
+            throw new IOException("Interrupted while writing data", e);
+        } catch (ExecutionException e) {
+            cancel(futures);
+            if (e.getCause() instanceof RuntimeException) {
+                throw (RuntimeException) e.getCause();
+            }
+            throw new IOException("Error while writing data", e.getCause());
+        } catch (IOException e) {
+            cancel(futures);
+            throw e;
+        } finally {
+            pool.shutdown();
+        }
+    }
+}
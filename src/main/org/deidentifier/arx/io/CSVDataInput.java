@@ -19,7 +19,6 @@ package org.deidentifier.arx.io;
 
 import java.io.File;
 import java.io.FileInputStream;
-import java.io.FileReader;
 import java.io.IOException;
 import java.io.InputStream;
 import java.io.InputStreamReader;
@@ -92,6 +91,9 @@ public class CSVDataInput {
 
     /** The data type for each column */
     private final DataType<?>[]     datatypes;
+
+    /** The number of threads used for encoding */
+    private final int               threads;
     
     /**
      * Instantiate.
@@ -188,7 +190,7 @@ public class CSVDataInput {
      * @throws IOException Signals that an I/O exception has occurred.
      */
     public CSVDataInput(final File file, final Charset charset,  final CSVSyntax config, final CSVOptions options) throws IOException {
-        this(new FileReader(file),
+        this(new LazyFileReader(file, charset),
              config.getDelimiter(),
              config.getQuote(),
              config.getEscape(),
@@ -366,6 +368,7 @@ public class CSVDataInput {
             cleansing = false;
         }
         settings = createSettings(delimiter, quote, escape, linebreak, options);
+        threads = options != null ? options.getNumberOfThreads() : 1;
     }
 
     /**
@@ -567,6 +570,60 @@ public class CSVDataInput {
         };
     }
 
+    /**
+     * Returns the charset of the file, if the data is read from a file, null otherwise
+     *
+     * @return
+     */
+    Charset getCharset() {
+        return reader instanceof LazyFileReader ? ((LazyFileReader) reader).charset : null;
+    }
+
+    /**
+     * Returns the data types used for cleansing, or null
+     *
+     * @return
+     */
+    DataType<?>[] getDataTypes() {
+        return datatypes;
+    }
+
+    /**
+     * Returns the file, if the data is read from a file, null otherwise
+     *
+     * @return
+     */
+    File getFile() {
+        return reader instanceof LazyFileReader ? ((LazyFileReader) reader).file : null;
+    }
+
+    /**
+     * Returns the number of threads used for encoding
+     *
+     * @return
+     */
+    int getNumberOfThreads() {
+        return threads;
+    }
+
+    /**
+     * Returns the reader
+     *
+     * @return
+     */
+    Reader getReader() {
+        return reader;
+    }
+
+    /**
+     * Returns a copy of the settings
+     *
+     * @return
+     */
+    CsvParserSettings getSettings() {
+        return settings.clone();
+    }
+
     /**
      * Creates the CsvParserSettings.
      *
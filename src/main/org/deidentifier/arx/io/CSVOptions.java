@@ -33,7 +33,13 @@ public class CSVOptions implements Serializable { // NO_UCD
 
     /** The max columns. */
     private Integer           maxColumns;
-    
+
+    /** The number of threads used for parsing. */
+    private Integer           numberOfThreads;
+
+    /** Whether written files are compressed. */
+    private Boolean           compressed;
+
     /**
      * Creates new options
      * @param maxColumns
@@ -49,6 +55,30 @@ public class CSVOptions implements Serializable { // NO_UCD
         return maxColumns;
     }
 
+    /**
+     * @return the numberOfThreads
+     */
+    public int getNumberOfThreads() {
+        return numberOfThreads == null ? 1 : numberOfThreads;
+    }
+
+    /**
+     * @return whether written files are compressed
+     */
+    public boolean isCompressed() {
+        return compressed == null ? false : compressed;
+    }
+
+    /**
+     * Sets whether files written by <code>CSVDataExporter</code> are compressed with gzip.
+     * Blocks of rows are compressed independently and concatenated, which is a valid gzip file.
+     * 
+     * @param compressed
+     */
+    public void setCompressed(boolean compressed) {
+        this.compressed = compressed;
+    }
+
     /**
      * @param maxColumns the maxColumns to set
      */
@@ -56,6 +86,21 @@ public class CSVOptions implements Serializable { // NO_UCD
         this.maxColumns = maxColumns;
     }
 
+    /**
+     * Sets the number of threads used for parsing and encoding files. Large files are split
+     * into chunks at line breaks, which are parsed in parallel. This requires that quoted
+     * values do not contain line breaks. When writing files with <code>CSVDataExporter</code>,
+     * blocks of rows are encoded in parallel.
+     * 
+     * @param numberOfThreads the numberOfThreads to set
+     */
+    public void setNumberOfThreads(int numberOfThreads) {
+        if (numberOfThreads <= 0) {
+            throw new IllegalArgumentException("Number of threads must be positive");
+        }
+        this.numberOfThreads = numberOfThreads;
+    }
+
     /**
      * Applies the options
      * @param settings
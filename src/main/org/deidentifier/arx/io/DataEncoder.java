@@ -0,0 +1,60 @@
+/*
+ * ARX Data Anonymization Tool
+ * Copyright 2012 - 2025 Fabian Prasser and contributors
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.deidentifier.arx.io;
+
+import java.io.IOException;
+
+import org.deidentifier.arx.framework.data.DataMatrix;
+import org.deidentifier.arx.framework.data.Dictionary;
+
+/**
+ * Encodes data directly into a dictionary and a data matrix, without materializing records.
+ *
+ * @author Fabian Prasser
+ */
+public interface DataEncoder {
+
+    /**
+     * Reads and encodes the data. The dictionary is not finalized.
+     *
+     * @return false, if the data is empty
+     * @throws IOException
+     */
+    public boolean encode() throws IOException;
+
+    /**
+     * Returns the data
+     *
+     * @return
+     */
+    public DataMatrix getData();
+
+    /**
+     * Returns the dictionary
+     *
+     * @return
+     */
+    public Dictionary getDictionary();
+
+    /**
+     * Returns the header
+     *
+     * @return
+     */
+    public String[] getHeader();
+}
@@ -23,6 +23,7 @@ import java.sql.SQLException;
 import java.sql.Statement;
 import java.util.ArrayList;
 import java.util.List;
+import java.util.concurrent.atomic.AtomicInteger;
 
 import org.deidentifier.arx.DataType;
 
@@ -69,6 +70,13 @@ public class ImportAdapterJDBC extends ImportAdapter {
      */
     private int                     totalRows;
     
+    /**
+     * Number of rows that have already been returned or encoded.
+     *
+     * @see {@link #getProgress()}
+     */
+    private final AtomicInteger     processedRows = new AtomicInteger();
+    
     /**
      * Creates a new instance of this object with given configuration.
      *
@@ -107,6 +115,7 @@ public class ImportAdapterJDBC extends ImportAdapter {
             
             /* Query for actual data */
             statement = config.getConnection().createStatement();
+            statement.setFetchSize(config.getFetchSize());
             statement.execute("SELECT * FROM " + config.getTable());
             resultSet = statement.getResultSet();
             hasNext = resultSet.next();
@@ -129,19 +138,14 @@ public class ImportAdapterJDBC extends ImportAdapter {
      * Returns the percentage of data that has already been returned
      * 
      * This divides the number of rows that have already been returned by the
-     * number of total rows and casts the result into a percentage. In case of
-     * an {@link SQLException} 0 will be returned.
+     * number of total rows and casts the result into a percentage. Rows encoded
+     * by a {@link JDBCDataEncoder} are included.
      *
      * @return
      */
     @Override
     public int getProgress() {
-        
-        try {
-            return (int) (((double) resultSet.getRow() / (double) totalRows) * 100d);
-        } catch (SQLException e) {
-            return 0;
-        }
+        return (int) (((double) processedRows.get() / (double) totalRows) * 100d);
     }
     
     /**
@@ -188,6 +192,7 @@ public class ImportAdapterJDBC extends ImportAdapter {
             }
             
             /* Move cursor forward and assign result to {@link #hasNext} */
+            processedRows.incrementAndGet();
             hasNext = resultSet.next();
             
             if (!hasNext) {
@@ -210,10 +215,19 @@ public class ImportAdapterJDBC extends ImportAdapter {
         throw new UnsupportedOperationException();
     }
     
+    /**
+     * Adds the given number of encoded rows to the progress
+     * 
+     * @param rows
+     */
+    void addProcessedRows(int rows) {
+        processedRows.addAndGet(rows);
+    }
+    
     /**
      * Closes the JDBC resources.
      */
-    private void closeResources() {
+    void closeResources() {
         try {
             if (resultSet != null) {
                 resultSet.close();
@@ -237,6 +251,15 @@ public class ImportAdapterJDBC extends ImportAdapter {
         }
     }
     
+    /**
+     * Returns the result set, which is positioned at the next row to return
+     * 
+     * @return
+     */
+    ResultSet getResultSet() {
+        return resultSet;
+    }
+    
     /**
      * Creates the header row
      * 
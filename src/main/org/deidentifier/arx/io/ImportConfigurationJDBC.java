@@ -31,6 +31,9 @@ import java.util.NoSuchElementException;
  */
 public class ImportConfigurationJDBC extends ImportConfiguration {
     
+    /** Default number of rows fetched from the database at once */
+    public static final int DEFAULT_FETCH_SIZE = 10000;
+    
     /**
      * Connection to be used.
      *
@@ -52,6 +55,24 @@ public class ImportConfigurationJDBC extends ImportConfiguration {
      */
     private final boolean manageConnection;
     
+    /** URL, if the connection has been created from a URL */
+    private final String  url;
+    
+    /** User */
+    private final String  user;
+    
+    /** Password */
+    private final String  password;
+    
+    /** Number of rows fetched from the database at once */
+    private int           fetchSize       = DEFAULT_FETCH_SIZE;
+    
+    /** Integral column used for splitting the query into key ranges, or null */
+    private String        keyColumn       = null;
+    
+    /** Number of connections used for importing in parallel */
+    private int           numberOfThreads = 1;
+    
     /**
      * Creates a new instance of this object.
      *
@@ -62,6 +83,9 @@ public class ImportConfigurationJDBC extends ImportConfiguration {
         this.connection = connection;
         this.table = table;
         this.manageConnection = false;
+        this.url = null;
+        this.user = null;
+        this.password = null;
     }
     
     /**
@@ -75,6 +99,9 @@ public class ImportConfigurationJDBC extends ImportConfiguration {
         this.connection = DriverManager.getConnection(url);
         this.table = table;
         this.manageConnection = true;
+        this.url = url;
+        this.user = null;
+        this.password = null;
     }
     
     /**
@@ -90,6 +117,9 @@ public class ImportConfigurationJDBC extends ImportConfiguration {
         this.connection = DriverManager.getConnection(url, user, password);
         this.table = table;
         this.manageConnection = true;
+        this.url = url;
+        this.user = user;
+        this.password = password;
     }
     
     /**
@@ -138,6 +168,40 @@ public class ImportConfigurationJDBC extends ImportConfiguration {
         }
     }
     
+    /**
+     * Sets the number of rows fetched from the database at once
+     * 
+     * @param fetchSize
+     */
+    public void setFetchSize(int fetchSize) {
+        if (fetchSize <= 0) {
+            throw new IllegalArgumentException("Fetch size must be positive");
+        }
+        this.fetchSize = fetchSize;
+    }
+    
+    /**
+     * Enables importing data in parallel. The query is split into ranges of the given
+     * integral key column, which are read via separate connections. Records are ordered
+     * by key ranges. Only supported if the connection has been created from a URL.
+     * 
+     * @param keyColumn
+     * @param numberOfThreads
+     */
+    public void setParallelImport(String keyColumn, int numberOfThreads) {
+        if (url == null) {
+            throw new IllegalStateException("Parallel import requires a connection URL");
+        }
+        if (keyColumn == null) {
+            throw new NullPointerException("Key column must not be null");
+        }
+        if (numberOfThreads <= 0) {
+            throw new IllegalArgumentException("Number of threads must be positive");
+        }
+        this.keyColumn = keyColumn;
+        this.numberOfThreads = numberOfThreads;
+    }
+    
     /**
      * 
      *
@@ -181,6 +245,19 @@ public class ImportConfigurationJDBC extends ImportConfiguration {
         
     }
     
+    /**
+     * Creates an additional connection. Only supported if the connection has been created from a URL.
+     * 
+     * @return
+     * @throws SQLException
+     */
+    protected Connection createConnection() throws SQLException {
+        if (url == null) {
+            throw new IllegalStateException("Connection has not been created from a URL");
+        }
+        return user == null ? DriverManager.getConnection(url) : DriverManager.getConnection(url, user, password);
+    }
+    
     /**
      * @return {@link #connection}
      */
@@ -188,6 +265,27 @@ public class ImportConfigurationJDBC extends ImportConfiguration {
         return this.connection;
     }
     
+    /**
+     * @return {@link #fetchSize}
+     */
+    protected int getFetchSize() {
+        return this.fetchSize;
+    }
+    
+    /**
+     * @return {@link #keyColumn}
+     */
+    protected String getKeyColumn() {
+        return this.keyColumn;
+    }
+    
+    /**
+     * @return {@link #numberOfThreads}
+     */
+    protected int getNumberOfThreads() {
+        return this.numberOfThreads;
+    }
+    
     /**
      * @return {@link #table}
      */
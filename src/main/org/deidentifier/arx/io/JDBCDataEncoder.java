@@ -0,0 +1,574 @@
+/*
+ * ARX Data Anonymization Tool
+ * Copyright 2012 - 2025 Fabian Prasser and contributors
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.deidentifier.arx.io;
+
+import java.io.IOException;
+import java.math.BigDecimal;
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.ResultSetMetaData;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.sql.Timestamp;
+import java.sql.Types;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Future;
+
+import org.deidentifier.arx.DataType;
+import org.deidentifier.arx.common.DaemonThreads;
+import org.deidentifier.arx.framework.data.DataMatrix;
+import org.deidentifier.arx.framework.data.Dictionary;
+
+import com.carrotsearch.hppc.LongIntOpenHashMap;
+import com.carrotsearch.hppc.ObjectIntOpenHashMap;
+
+/**
+ * Encodes data from JDBC sources directly into a dictionary and a data matrix, without
+ * materializing records. Rows are fetched in batches. Columns with integral, floating-point,
+ * decimal or temporal SQL types are read with typed getters, so that values are only converted
+ * to strings, validated and registered once per distinct value. This relies on the column
+ * types reported by the driver. Optionally, the query is split into ranges of an integral key
+ * column, which are read via separate connections in parallel.
+ *
+ * @author Fabian Prasser
+ */
+public class JDBCDataEncoder implements DataEncoder {
+
+    /**
+     * Encodes the rows of a result set
+     *
+     * @author Fabian Prasser
+     */
+    private class Chunk implements Callable<Chunk> {
+
+        /** Query, null if the result set of the adapter is encoded */
+        private final String                          query;
+
+        /** Parameters of the query */
+        private final long[]                          parameters;
+
+        /** Dictionary */
+        private final Dictionary                      dictionary;
+
+        /** Types of columns */
+        private final int[]                           types;
+
+        /** Codes of integral, floating-point and temporal values */
+        private final LongIntOpenHashMap[]            longs;
+
+        /** Codes of decimal values and of timestamps out of the range of longs */
+        private final List<ObjectIntOpenHashMap<BigDecimal>> decimals;
+
+        /** Encoded records, stored in blocks */
+        private List<int[]>                           blocks = new ArrayList<int[]>();
+
+        /** Number of records */
+        private int                                   rows   = 0;
+
+        /** Result set */
+        private ResultSet                             resultSet;
+
+        /**
+         * Creates a new instance
+         *
+         * @param query
+         * @param parameters
+         * @param dictionary
+         */
+        private Chunk(String query, long[] parameters, Dictionary dictionary) {
+            this.query = query;
+            this.parameters = parameters;
+            this.dictionary = dictionary;
+            this.types = columnTypes.clone();
+            this.longs = new LongIntOpenHashMap[types.length];
+            this.decimals = new ArrayList<ObjectIntOpenHashMap<BigDecimal>>();
+            for (int i = 0; i < types.length; i++) {
+                longs[i] = new LongIntOpenHashMap();
+                decimals.add(new ObjectIntOpenHashMap<BigDecimal>());
+            }
+        }
+
+        @Override
+        public Chunk call() throws SQLException {
+
+            // Encode the result set of the adapter
+            if (query == null) {
+                this.resultSet = adapter.getResultSet();
+                encode(adapter.hasNext());
+                return this;
+            }
+
+            // Query
+            Connection connection = config.createConnection();
+            try {
+                PreparedStatement statement = connection.prepareStatement(query);
+                try {
+                    statement.setFetchSize(config.getFetchSize());
+                    for (int i = 0; i < parameters.length; i++) {
+                        statement.setLong(i + 1, parameters[i]);
+                    }
+                    this.resultSet = statement.executeQuery();
+                    encode(resultSet.next());
+                    return this;
+                } finally {
+                    statement.close();
+                }
+            } finally {
+                connection.close();
+            }
+        }
+
+        /**
+         * Encodes all rows, starting with the current one
+         *
+         * @param hasNext
+         * @throws SQLException
+         */
+        private void encode(boolean hasNext) throws SQLException {
+
+            int columns = indexes.length;
+            int[] block = null;
+            int offset = 0;
+            while (hasNext) {
+
+                // Obtain block
+                if (block == null || offset == block.length) {
+                    block = new int[BLOCK_SIZE * columns];
+                    blocks.add(block);
+                    offset = 0;
+                }
+
+                // Encode record
+                for (int i = 0; i < columns; i++) {
+                    block[offset++] = encode(i);
+                }
+
+                // Progress
+                if (++rows % PROGRESS_INTERVAL == 0) {
+                    adapter.addProcessedRows(PROGRESS_INTERVAL);
+                }
+                hasNext = resultSet.next();
+            }
+            adapter.addProcessedRows(rows % PROGRESS_INTERVAL);
+        }
+
+        /**
+         * Encodes the value of the given column in the current row
+         *
+         * @param column
+         * @return
+         * @throws SQLException
+         */
+        private int encode(int column) throws SQLException {
+
+            // Read typed value
+            int index = indexes[column];
+            long key = 0L;
+            BigDecimal decimal = null;
+            try {
+                switch (types[column]) {
+                case TYPE_LONG:
+                    key = resultSet.getLong(index);
+                    break;
+                case TYPE_DOUBLE:
+                    key = Double.doubleToLongBits(resultSet.getDouble(index));
+                    break;
+                case TYPE_TIMESTAMP:
+                    Timestamp timestamp = resultSet.getTimestamp(index);
+                    if (timestamp != null) {
+                        long seconds = Math.floorDiv(timestamp.getTime(), 1000L);
+                        if (seconds >= MIN_TIMESTAMP_SECONDS && seconds <= MAX_TIMESTAMP_SECONDS) {
+                            key = seconds * 1000000000L + timestamp.getNanos();
+                        } else {
+                            // Nanoseconds since the epoch would overflow
+                            decimal = BigDecimal.valueOf(seconds).add(BigDecimal.valueOf(timestamp.getNanos(), 9));
+                        }
+                    }
+                    break;
+                case TYPE_DECIMAL:
+                    decimal = resultSet.getBigDecimal(index);
+                    break;
+                default:
+                    return register(column);
+                }
+            } catch (SQLException e) {
+                // Not supported by the driver for this column
+                types[column] = TYPE_STRING;
+                return register(column);
+            }
+
+            // Null values are not cached
+            if (resultSet.wasNull()) {
+                return register(column);
+            }
+
+            // Lookup or register
+            if (decimal != null) {
+                ObjectIntOpenHashMap<BigDecimal> cache = decimals.get(column);
+                if (cache.containsKey(decimal)) {
+                    return cache.lget();
+                }
+                int code = register(column);
+                cache.put(decimal, code);
+                return code;
+            } else {
+                LongIntOpenHashMap cache = longs[column];
+                if (cache.containsKey(key)) {
+                    return cache.lget();
+                }
+                int code = register(column);
+                cache.put(key, code);
+                return code;
+            }
+        }
+
+        /**
+         * Reads, checks and registers the string value of the given column in the current row
+         *
+         * @param column
+         * @return
+         * @throws SQLException
+         */
+        private int register(int column) throws SQLException {
+            String value = IOUtil.trim(resultSet.getString(indexes[column]));
+            if (!datatypes[column].isValid(value)) {
+                if (cleansing[column]) {
+                    value = DataType.NULL_VALUE;
+                } else {
+                    throw new IllegalArgumentException("Data value does not match data type");
+                }
+            }
+            return dictionary.register(column, value != null ? value : DataType.NULL_VALUE);
+        }
+
+        /**
+         * Writes the encoded records into the given matrix, starting at the given row,
+         * and releases the blocks
+         *
+         * @param matrix
+         * @param start
+         * @param translation Mapping from local to global codes, null if not required
+         */
+        private void write(DataMatrix matrix, int start, int[][] translation) {
+            int columns = indexes.length;
+            int row = start;
+            int remaining = rows;
+            for (int b = 0; b < blocks.size(); b++) {
+                int[] block = blocks.get(b);
+                blocks.set(b, null);
+                int records = Math.min(remaining, BLOCK_SIZE);
+                int offset = 0;
+                for (int i = 0; i < records; i++) {
+                    for (int column = 0; column < columns; column++) {
+                        int code = block[offset++];
+                        matrix.set(row, column, translation == null ? code : translation[column][code]);
+                    }
+                    row++;
+                }
+                remaining -= records;
+            }
+            blocks = null;
+        }
+    }
+
+    /** Number of records stored in one block */
+    private static final int              BLOCK_SIZE            = 1 << 14;
+
+    /** Number of records after which progress is reported */
+    private static final int              PROGRESS_INTERVAL     = 1000;
+
+    /** Minimal number of seconds since the epoch of timestamps represented as longs */
+    private static final long             MIN_TIMESTAMP_SECONDS = Long.MIN_VALUE / 1000000000L;
+
+    /** Maximal number of seconds since the epoch of timestamps represented as longs */
+    private static final long             MAX_TIMESTAMP_SECONDS = Long.MAX_VALUE / 1000000000L - 1L;
+
+    /** Column read as string */
+    private static final int              TYPE_STRING           = 0;
+
+    /** Column read as long */
+    private static final int              TYPE_LONG             = 1;
+
+    /** Column read as double */
+    private static final int              TYPE_DOUBLE           = 2;
+
+    /** Column read as timestamp */
+    private static final int              TYPE_TIMESTAMP        = 3;
+
+    /** Column read as decimal */
+    private static final int              TYPE_DECIMAL          = 4;
+
+    /** Adapter */
+    private final ImportAdapterJDBC       adapter;
+
+    /** Configuration */
+    private final ImportConfigurationJDBC config;
+
+    /** Indexes of imported columns */
+    private final int[]                   indexes;
+
+    /** Data types */
+    private final DataType<?>[]           datatypes;
+
+    /** Whether invalid values are replaced by null values */
+    private final boolean[]               cleansing;
+
+    /** Types of columns */
+    private int[]                         columnTypes;
+
+    /** Dictionary */
+    private Dictionary                    dictionary;
+
+    /** Data */
+    private DataMatrix                    data;
+
+    /**
+     * Creates a new instance for the given adapter, which must not have returned any rows.
+     *
+     * @param adapter
+     */
+    public JDBCDataEncoder(ImportAdapterJDBC adapter) {
+        this.adapter = adapter;
+        this.config = (ImportConfigurationJDBC) adapter.getConfig();
+        this.indexes = adapter.indexes;
+        this.datatypes = adapter.dataTypes;
+        this.cleansing = new boolean[indexes.length];
+        for (int i = 0; i < cleansing.length; i++) {
+            cleansing[i] = config.getColumns().get(i).isCleansing();
+        }
+    }
+
+    /**
+     * Reads and encodes the data. The dictionary is not finalized. Closes the adapter.
+     *
+     * @return false, if the data is empty
+     * @throws IOException
+     */
+    @Override
+    public boolean encode() throws IOException {
+
+        try {
+
+            // Prepare
+            this.columnTypes = getColumnTypes(adapter.getResultSet().getMetaData());
+            this.dictionary = new Dictionary(indexes.length);
+
+            // Encode sequentially
+            List<Chunk> chunks = getChunks();
+            if (chunks == null) {
+                Chunk chunk = new Chunk(null, null, dictionary).call();
+                this.data = DataMatrix.create(chunk.rows, indexes.length);
+                chunk.write(data, 0, null);
+                return chunk.rows != 0;
+            }
+            adapter.closeResources();
+
+            // Encode in parallel
+            encode(chunks);
+            return data.getNumRows() != 0;
+
+        } catch (SQLException e) {
+            throw new IOException("Couldn't retrieve data from database", e);
+        } finally {
+            adapter.closeResources();
+        }
+    }
+
+    @Override
+    public DataMatrix getData() {
+        return data;
+    }
+
+    @Override
+    public Dictionary getDictionary() {
+        return dictionary;
+    }
+
+    @Override
+    public String[] getHeader() {
+        return adapter.getHeader();
+    }
+
+    /**
+     * Cancels the given futures
+     *
+     * @param futures
+     */
+    private void cancel(List<Future<Chunk>> futures) {
+        for (Future<Chunk> future : futures) {
+            future.cancel(true);
+        }
+    }
+
+    /**
+     * Encodes the chunks in parallel and merges the results in order
+     *
+     * @param chunks
+     * @throws IOException
+     */
+    private void encode(List<Chunk> chunks) throws IOException {
+
+        ExecutorService pool = DaemonThreads.newFixedThreadPool(Math.min(chunks.size(), config.getNumberOfThreads()), "ARX JDBC encoder");
+
+        // Submit
+        List<Future<Chunk>> futures = new ArrayList<Future<Chunk>>();
+        try {
+            for (Chunk chunk : chunks) {
+                futures.add(pool.submit(chunk));
+            }
+
+            // Collect
+            int rows = 0;
+            for (Future<Chunk> future : futures) {
+                rows += future.get().rows;
+            }
+
+            // Merge
+            this.data = DataMatrix.create(rows, indexes.length);
+            int start = 0;
+            for (Chunk chunk : chunks) {
+                chunk.dictionary.finalizeAll();
+                String[][] mapping = chunk.dictionary.getMapping();
+                int[][] translation = new int[indexes.length][];
+                for (int column = 0; column < indexes.length; column++) {
+                    translation[column] = new int[mapping[column].length];
+                    for (int code = 0; code < mapping[column].length; code++) {
+                        translation[column][code] = dictionary.register(column, mapping[column][code]);
+                    }
+                }
+                chunk.write(data, start, translation);
+                start += chunk.rows;
+            }
+
+        } catch (InterruptedException e) {
+            cancel(futures);
+            Thread.currentThread().interrupt();
+            throw new IOException("Interrupted while importing data", e);
+        } catch (ExecutionException e) {
+            cancel(futures);
+            if (e.getCause() instanceof RuntimeException) {
+                throw (RuntimeException) e.getCause();
+            }
+            throw new IOException("Couldn't retrieve data from database", e.getCause());
+        } finally {
+            pool.shutdown();
+        }
+    }
+
+    /**
+     * Splits the query into ranges of the key column, followed by a query for rows without
+     * a key. Returns null if the data should be encoded sequentially.
+     *
+     * @return
+     * @throws SQLException
+     */
+    private List<Chunk> getChunks() throws SQLException {
+
+        // Check
+        String key = config.getKeyColumn();
+        if (key == null || config.getNumberOfThreads() <= 1) {
+            return null;
+        }
+
+        // Determine range of keys
+        long min, max;
+        Statement statement = config.getConnection().createStatement();
+        try {
+            ResultSet result = statement.executeQuery("SELECT MIN(" + key + "), MAX(" + key + ") FROM " + config.getTable());
+            if (!result.next()) {
+                return null;
+            }
+            min = result.getLong(1);
+            max = result.getLong(2);
+            if (result.wasNull()) {
+                return null;
+            }
+        } finally {
+            statement.close();
+        }
+
+        // Determine number of chunks
+        long span = max - min;
+        if (span < 0) {
+            return null;
+        }
+        int count = (int) Math.min(config.getNumberOfThreads(), span + 1);
+        if (count <= 1) {
+            return null;
+        }
+
+        // Create chunks
+        List<Chunk> chunks = new ArrayList<Chunk>();
+        String query = "SELECT * FROM " + config.getTable() + " WHERE ";
+        long lower = min;
+        for (int i = 1; i <= count; i++) {
+            if (i == count) {
+                chunks.add(new Chunk(query + key + " >= ?", new long[] { lower }, new Dictionary(indexes.length)));
+            } else {
+                long upper = min + span / count * i + Math.min(i, span % count);
+                chunks.add(new Chunk(query + key + " >= ? AND " + key + " < ?", new long[] { lower, upper }, new Dictionary(indexes.length)));
+                lower = upper;
+            }
+        }
+        chunks.add(new Chunk(query + key + " IS NULL", new long[0], new Dictionary(indexes.length)));
+        return chunks;
+    }
+
+    /**
+     * Determines how the imported columns are read
+     *
+     * @param metadata
+     * @return
+     * @throws SQLException
+     */
+    private int[] getColumnTypes(ResultSetMetaData metadata) throws SQLException {
+        int[] types = new int[indexes.length];
+        for (int i = 0; i < types.length; i++) {
+            switch (metadata.getColumnType(indexes[i])) {
+            case Types.TINYINT:
+            case Types.SMALLINT:
+            case Types.INTEGER:
+            case Types.BIGINT:
+                types[i] = TYPE_LONG;
+                break;
+            case Types.REAL:
+            case Types.FLOAT:
+            case Types.DOUBLE:
+                types[i] = TYPE_DOUBLE;
+                break;
+            case Types.DATE:
+            case Types.TIME:
+            case Types.TIMESTAMP:
+                types[i] = TYPE_TIMESTAMP;
+                break;
+            case Types.DECIMAL:
+            case Types.NUMERIC:
+                types[i] = TYPE_DECIMAL;
+                break;
+            default:
+                types[i] = TYPE_STRING;
+            }
+        }
+        return types;
+    }
+}
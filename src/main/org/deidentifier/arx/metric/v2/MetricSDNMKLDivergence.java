@@ -17,13 +17,23 @@
 
 package org.deidentifier.arx.metric.v2;
 
+import java.util.ArrayList;
 import java.util.HashMap;
+import java.util.List;
 import java.util.Map;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
 
 import org.deidentifier.arx.ARXConfiguration;
 import org.deidentifier.arx.DataDefinition;
 import org.deidentifier.arx.RowSet;
 import org.deidentifier.arx.certificate.elements.ElementData;
+import org.deidentifier.arx.common.DaemonThreads;
+import org.deidentifier.arx.exceptions.ComputationInterruptedException;
+import org.deidentifier.arx.exceptions.UnexpectedErrorException;
 import org.deidentifier.arx.framework.check.groupify.HashGroupify;
 import org.deidentifier.arx.framework.check.groupify.HashGroupifyEntry;
 import org.deidentifier.arx.framework.data.Data;
@@ -38,11 +48,90 @@ import org.deidentifier.arx.metric.MetricConfiguration;
  * Ashwin Machanavajjhala, Daniel Kifer, Johannes Gehrke, Muthuramakrishnan Venkitasubramaniam: 
  * L-diversity: Privacy beyond k-anonymity
  * ACM Transactions on Knowledge Discovery from Data (TKDD), Volume 1 Issue 1, March 2007 
+ * <br>
+ * Identical input records are aggregated into distinct tuples when the metric is initialized.
+ * The divergence is then split into a constant term and a term that depends on the output
+ * frequency of each distinct tuple, which is evaluated in fixed-size chunks. With more than
+ * one thread, the chunks are evaluated concurrently. Results do not depend on the number of threads.
  *
  * @author Fabian Prasser
  */
 public class MetricSDNMKLDivergence extends AbstractMetricSingleDimensional {
 
+    /**
+     * Evaluates a chunk of distinct input tuples
+     *
+     * @author Fabian Prasser
+     */
+    private class Chunk implements Callable<Double> {
+
+        /** Groupify */
+        private final HashGroupify groupify;
+        /** Generalization */
+        private final int[]        generalization;
+        /** Areas for the given generalization */
+        private final double[][]   areas;
+        /** Outliers */
+        private final double       outliers;
+        /** Start index */
+        private final int          start;
+        /** End index */
+        private final int          end;
+
+        /**
+         * Creates a new instance
+         * @param groupify
+         * @param generalization
+         * @param areas
+         * @param outliers
+         * @param start
+         * @param end
+         */
+        Chunk(HashGroupify groupify, int[] generalization, double[][] areas, double outliers, int start, int end) {
+            this.groupify = groupify;
+            this.generalization = generalization;
+            this.areas = areas;
+            this.outliers = outliers;
+            this.start = start;
+            this.end = end;
+        }
+
+        @Override
+        public Double call() {
+
+            // Prepare
+            int dimensions = generalization.length;
+            int[] tuple = new int[dimensions];
+            double total = tuples;
+            double result = 0d;
+
+            // For each distinct tuple
+            for (int index = start; index < end; index++) {
+
+                // Transform the tuple and compute the area
+                double area = 1d;
+                int offset = index * dimensions;
+                for (int dimension = 0; dimension < dimensions; dimension++) {
+                    int value = hierarchies[dimension][inputTuples[offset + dimension]][generalization[dimension]];
+                    tuple[dimension] = value;
+                    area *= areas[dimension][value];
+                }
+
+                // Determine output frequency
+                HashGroupifyEntry entry = groupify.getEntry(tuple);
+                double outputFrequency = entry.isNotOutlier ? entry.count : outliers;
+                outputFrequency /= total;
+                outputFrequency /= entry.isNotOutlier ? area : maximalArea;
+
+                // Sum up
+                result += inputWeights[index] * log2(outputFrequency);
+            }
+
+            // Return
+            return result;
+        }
+    }
+
     /** Tuple wrapper*/
     class TupleWrapper {
 
@@ -81,6 +170,24 @@ public class MetricSDNMKLDivergence extends AbstractMetricSingleDimensional {
     /** SUID. */
     private static final long serialVersionUID  = -4918601543733931921L;
 
+    /** Number of distinct tuples evaluated by one task */
+    private static final int  TUPLES_PER_CHUNK  = 10000;
+
+    /** Pool shared by all instances, created on demand. Idle threads terminate. */
+    private static ExecutorService pool;
+
+    /**
+     * Returns the pool shared by all instances
+     *
+     * @return
+     */
+    private static synchronized ExecutorService getPool() {
+        if (pool == null) {
+            pool = Executors.newCachedThreadPool(DaemonThreads.newThreadFactory("ARX KL-divergence"));
+        }
+        return pool;
+    }
+
     /**
      * Computes log 2.
      *
@@ -100,11 +207,23 @@ public class MetricSDNMKLDivergence extends AbstractMetricSingleDimensional {
     /** Maximum value */
     private Double                 max               = null;
 
-    /** Tuple matcher */
-    private transient TupleMatcher matcher           = null;
+    /** Hierarchies */
+    private transient int[][][]    hierarchies       = null;
+
+    /** Areas of generalized values for each dimension and level, built on demand */
+    private transient double[][][] areas             = null;
+
+    /** Codes of distinct input tuples */
+    private transient int[]        inputTuples       = null;
+
+    /** Weight of each distinct input tuple, i.e. the sum of the frequencies of its records */
+    private transient double[]     inputWeights      = null;
 
-    /** Distribution */
-    private double[]               inputDistribution = null;
+    /** Constant part of the KL-divergence */
+    private transient double       inputEntropy      = 0d;
+
+    /** Number of threads */
+    private transient int          threads           = 1;
 
     /** Log 2. */
     private static final double    LOG2              = Math.log(2);
@@ -165,19 +284,35 @@ public class MetricSDNMKLDivergence extends AbstractMetricSingleDimensional {
     }
     
     /**
-     * Returns the area
-     * @param output
-     * @param generalization
+     * Returns the areas of all values on the given level of the given dimension
+     * @param dimension
+     * @param level
      * @return
      */
-    private double getArea(HashGroupifyEntry entry, int[] generalization) {
+    private double[] getAreas(int dimension, int level) {
         
-        double result = 1d;
-        entry.read();
-        for (int dimension = 0; dimension < generalization.length; dimension++) {
-            DomainShare share = this.shares[dimension];
-            result *= share.getShare(entry.next(), generalization[dimension]) * share.getDomainSize();
+        // Cached
+        if (this.areas[dimension][level] != null) {
+            return this.areas[dimension][level];
+        }
+        
+        // Determine size
+        int[][] hierarchy = this.hierarchies[dimension];
+        int size = 0;
+        for (int[] values : hierarchy) {
+            size = Math.max(size, values[level] + 1);
+        }
+        
+        // Compute
+        DomainShare share = this.shares[dimension];
+        double[] result = new double[size];
+        for (int[] values : hierarchy) {
+            int value = values[level];
+            result[value] = share.getShare(value, level) * share.getDomainSize();
         }
+        
+        // Cache and return
+        this.areas[dimension][level] = result;
         return result;
     }
 
@@ -192,26 +327,64 @@ public class MetricSDNMKLDivergence extends AbstractMetricSingleDimensional {
             m = m.nextOrdered;
         }
         
-        // Init
-        double result = 0d;
+        // Obtain areas
+        int[] generalization = node.getGeneralization();
+        double[][] areas = new double[generalization.length][];
+        for (int dimension = 0; dimension < generalization.length; dimension++) {
+            areas[dimension] = getAreas(dimension, generalization[dimension]);
+        }
         
-        // For each tuple
-        for (int row = 0; row < this.inputDistribution.length; row++) {
-            
-            // Obtain frequency
-            double inputFrequency = inputDistribution[row];
-            
-            // Only if present
-            if (inputFrequency != 0d) {
-                
-                int[] generalization = node.getGeneralization();
-                HashGroupifyEntry entry = this.matcher.getEntry(row, generalization, g);
-                double outputFrequency = entry.isNotOutlier ? entry.count : outliers;
-                outputFrequency /= this.tuples;
-                outputFrequency /= entry.isNotOutlier ? getArea(entry, generalization) : maximalArea;
-                
-                // Compute KL-Divergence
-                result += inputFrequency * log2(inputFrequency / outputFrequency);
+        // Prepare chunks
+        final List<Chunk> chunks = new ArrayList<Chunk>();
+        for (int start = 0; start < inputWeights.length; start += TUPLES_PER_CHUNK) {
+            int end = Math.min(start + TUPLES_PER_CHUNK, inputWeights.length);
+            chunks.add(new Chunk(g, generalization, areas, outliers, start, end));
+        }
+        
+        // Evaluate, summing up in the order of chunks
+        double result = this.inputEntropy;
+        if (threads == 1 || chunks.size() == 1) {
+            for (Chunk chunk : chunks) {
+                result -= chunk.call();
+            }
+        } else {
+
+            // Submit one task per thread, each evaluating every n-th chunk
+            final int tasks = Math.min(threads, chunks.size());
+            final double[] results = new double[chunks.size()];
+            List<Future<Void>> futures = new ArrayList<Future<Void>>();
+            try {
+                for (int task = 0; task < tasks; task++) {
+                    final int offset = task;
+                    futures.add(getPool().submit(new Callable<Void>() {
+                        @Override
+                        public Void call() {
+                            for (int i = offset; i < results.length; i += tasks) {
+                                results[i] = chunks.get(i).call();
+                            }
+                            return null;
+                        }
+                    }));
+                }
+                for (Future<Void> future : futures) {
+                    future.get();
+                }
+                for (double value : results) {
+                    result -= value;
+                }
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                throw new ComputationInterruptedException("Interrupted");
+            } catch (ExecutionException e) {
+                if (e.getCause() instanceof ComputationInterruptedException) {
+                    throw (ComputationInterruptedException)e.getCause();
+                } else {
+                    throw new UnexpectedErrorException(e.getCause());
+                }
+            } finally {
+                for (Future<Void> future : futures) {
+                    future.cancel(true);
+                }
             }
         }
         
@@ -261,8 +434,14 @@ public class MetricSDNMKLDivergence extends AbstractMetricSingleDimensional {
         this.tuples = (double)super.getNumRecords(config, input);
         RowSet subset = super.getSubset(config);
         
-        // Tuple matcher
-        this.matcher = new TupleMatcher(hierarchies);
+        // Hierarchies
+        this.hierarchies = new int[hierarchies.length][][];
+        this.areas = new double[hierarchies.length][][];
+        for (int dimension = 0; dimension < hierarchies.length; dimension++) {
+            this.hierarchies[dimension] = hierarchies[dimension].getArray();
+            this.areas[dimension] = new double[hierarchies[dimension].getHeight()][];
+        }
+        this.threads = config.getNumberOfThreads();
        
         // Areamax
         this.maximalArea = 1d;
@@ -270,27 +449,38 @@ public class MetricSDNMKLDivergence extends AbstractMetricSingleDimensional {
             maximalArea *= this.shares[dimension].getDomainSize();
         }
         
-        // Groupify
-       Map<TupleWrapper, Integer> groupify = new HashMap<TupleWrapper, Integer>();
+        // Groupify, remembering the first row of each distinct tuple
+       Map<TupleWrapper, int[]> groupify = new HashMap<TupleWrapper, int[]>();
        for (int row = 0; row < input.getDataLength(); row++) {
            if (subset == null || subset.contains(row)) {
                TupleWrapper wrapper = new TupleWrapper(input.getArray(), row);
-               Integer count = groupify.get(wrapper);
-               count = count == null ? 1 : count + 1;
-               groupify.put(wrapper, count);
+               int[] count = groupify.get(wrapper);
+               if (count == null) {
+                   groupify.put(wrapper, new int[] { row, 1 });
+               } else {
+                   count[1]++;
+               }
            }
        }
        
-       // Build input distribution and compute max
+       // Build distinct input tuples and compute max. Each record with frequency f contributes
+       // f * log2(f / outputFrequency), which is split into f * log2(f) and f * log2(outputFrequency)
+       int dimensions = hierarchies.length;
+       DataMatrix matrix = input.getArray();
        this.max = 0d;
-       this.inputDistribution = new double[input.getArray().getNumRows()];
-       for (int row = 0; row < input.getDataLength(); row++) {
-           if (subset == null || subset.contains(row)) {
-               TupleWrapper wrapper = new TupleWrapper(input.getArray(), row);
-               double frequency = groupify.get(wrapper).doubleValue() / this.tuples;
-               this.inputDistribution[row] = frequency ;
-               this.max += frequency * log2(frequency * maximalArea);
+       this.inputEntropy = 0d;
+       this.inputTuples = new int[groupify.size() * dimensions];
+       this.inputWeights = new double[groupify.size()];
+       int index = 0;
+       for (int[] count : groupify.values()) {
+           double frequency = (double) count[1] / this.tuples;
+           double weight = count[1] * frequency;
+           for (int dimension = 0; dimension < dimensions; dimension++) {
+               this.inputTuples[index * dimensions + dimension] = matrix.get(count[0], dimension);
            }
+           this.inputWeights[index++] = weight;
+           this.inputEntropy += weight * log2(frequency);
+           this.max += weight * log2(frequency * maximalArea);
        }
     }
 }
@@ -0,0 +1,228 @@
+/*
+ * ARX Data Anonymization Tool
+ * Copyright 2012 - 2025 Fabian Prasser and contributors
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.deidentifier.arx.risk;
+
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.Set;
+
+import org.deidentifier.arx.DataHandleInternal;
+import org.deidentifier.arx.common.Groupify;
+import org.deidentifier.arx.common.TupleWrapper;
+import org.deidentifier.arx.common.WrappedBoolean;
+import org.deidentifier.arx.common.WrappedInteger;
+import org.deidentifier.arx.exceptions.ComputationInterruptedException;
+
+import com.carrotsearch.hppc.IntIntOpenHashMap;
+import com.carrotsearch.hppc.LongIntOpenHashMap;
+
+/**
+ * Equivalence classes of a data handle regarding a set of quasi-identifiers. Classes are
+ * built on dictionary codes instead of strings. Instances are immutable, independent of
+ * the order of rows and cached by the handle, so that they can be shared by all risk models
+ * analyzing the same handle and quasi-identifiers.
+ *
+ * @author Fabian Prasser
+ */
+public class EquivalenceClassIndex {
+
+    /**
+     * Returns the equivalence classes of the given handle, either from the handle's cache or
+     * by building them. Suppressed records are ignored, unless <code>ignoreOutliers</code> is
+     * set, in which case suppression is ignored altogether.
+     *
+     * @param handle
+     * @param qis
+     * @param ignoreOutliers
+     * @param stop
+     * @param progress
+     * @param offset
+     * @param factor
+     * @return
+     */
+    static EquivalenceClassIndex get(DataHandleInternal handle,
+                                     Set<String> qis,
+                                     boolean ignoreOutliers,
+                                     WrappedBoolean stop,
+                                     WrappedInteger progress,
+                                     double offset,
+                                     double factor) {
+
+        /* ********************************
+         * Check
+         * ********************************/
+        if (handle == null) { throw new NullPointerException("Handle is null"); }
+        if (qis == null) { throw new NullPointerException("Quasi identifiers must not be null"); }
+        for (String q : qis) {
+            if (handle.getColumnIndexOf(q) == -1) { throw new IllegalArgumentException(q + " is not an attribute"); }
+        }
+
+        /* ********************************
+         * Determine indices of QIs
+         * ********************************/
+        final int[] indices = new int[qis.size()];
+        int index = 0;
+        for (final String attribute : qis) {
+            indices[index++] = handle.getColumnIndexOf(attribute);
+        }
+        Arrays.sort(indices);
+
+        // Use cache
+        String key = Arrays.toString(indices) + (ignoreOutliers ? "*" : "");
+        EquivalenceClassIndex result = handle.getEquivalenceClassIndex(key);
+        if (result == null) {
+            result = new EquivalenceClassIndex(handle, indices, ignoreOutliers, stop, progress, offset, factor);
+            handle.setEquivalenceClassIndex(key, result);
+        }
+        return result;
+    }
+
+    /** Size of each class */
+    private final int[]      sizes;
+    /** Values of each class */
+    private final String[][] values;
+
+    /**
+     * Creates a new instance
+     *
+     * @param handle
+     * @param indices
+     * @param ignoreOutliers
+     * @param stop
+     * @param progress
+     * @param offset
+     * @param factor
+     */
+    private EquivalenceClassIndex(DataHandleInternal handle,
+                                  int[] indices,
+                                  boolean ignoreOutliers,
+                                  WrappedBoolean stop,
+                                  WrappedInteger progress,
+                                  double offset,
+                                  double factor) {
+
+        // Prepare
+        int numRows = handle.getNumRows();
+        long numCells = Math.max(1L, (long) numRows * (long) indices.length);
+        int[] classes = new int[numRows];
+        int numClasses = 1;
+
+        // Refine classes column by column
+        for (int i = 0; i < indices.length; i++) {
+
+            int column = indices[i];
+            IntIntOpenHashMap codes = new IntIntOpenHashMap();
+            Map<String, Integer> strings = new HashMap<>();
+            LongIntOpenHashMap refinement = new LongIntOpenHashMap();
+            numClasses = 0;
+            for (int row = 0; row < numRows; row++) {
+
+                // Progress
+                int prog = (int) Math.round(offset + (double) ((long) i * numRows + row) / (double) numCells * factor);
+                if (prog != progress.value) {
+                    progress.value = prog;
+                }
+
+                // Map code to value, because equal values may be represented by different codes
+                int code = handle.getEncodedValue(row, column, ignoreOutliers);
+                int value;
+                if (codes.containsKey(code)) {
+                    value = codes.lget();
+                } else {
+                    String string = handle.getValue(row, column, ignoreOutliers);
+                    Integer existing = strings.get(string);
+                    value = existing != null ? existing : strings.size();
+                    strings.put(string, value);
+                    codes.put(code, value);
+                }
+
+                // Refine
+                long key = ((long) classes[row] << 32) | value;
+                int refined;
+                if (refinement.containsKey(key)) {
+                    refined = refinement.lget();
+                } else {
+                    refined = numClasses++;
+                    refinement.put(key, refined);
+                }
+                classes[row] = refined;
+                if (stop.value) { throw new ComputationInterruptedException(); }
+            }
+        }
+
+        // Count, ignoring suppressed records
+        int[] sizes = new int[numClasses];
+        int[] representatives = new int[numClasses];
+        for (int row = 0; row < numRows; row++) {
+            if (ignoreOutliers || !handle.isOutlier(row, indices)) {
+                if (sizes[classes[row]]++ == 0) {
+                    representatives[classes[row]] = row;
+                }
+            }
+            if (stop.value) { throw new ComputationInterruptedException(); }
+        }
+
+        // Compact
+        int count = 0;
+        for (int size : sizes) {
+            count += size != 0 ? 1 : 0;
+        }
+        this.sizes = new int[count];
+        this.values = new String[count][];
+        count = 0;
+        for (int clazz = 0; clazz < numClasses; clazz++) {
+            if (sizes[clazz] != 0) {
+                String[] tuple = new String[indices.length];
+                for (int i = 0; i < indices.length; i++) {
+                    tuple[i] = handle.getValue(representatives[clazz], indices[i], ignoreOutliers);
+                }
+                this.sizes[count] = sizes[clazz];
+                this.values[count++] = tuple;
+            }
+        }
+    }
+
+    /**
+     * Returns the distribution of class sizes, mapping sizes to the number of classes of that size
+     *
+     * @return
+     */
+    IntIntOpenHashMap getDistribution() {
+        IntIntOpenHashMap distribution = new IntIntOpenHashMap();
+        for (int size : sizes) {
+            distribution.putOrAdd(size, 1, 1);
+        }
+        return distribution;
+    }
+
+    /**
+     * Returns a new map of the equivalence classes, which may be modified by the caller
+     *
+     * @return
+     */
+    Groupify<TupleWrapper> getGroups() {
+        Groupify<TupleWrapper> map = new Groupify<TupleWrapper>(Math.max(10, sizes.length));
+        for (int clazz = 0; clazz < sizes.length; clazz++) {
+            TupleWrapper tuple = new TupleWrapper(values[clazz]);
+            map.add(tuple);
+            map.get(tuple).incCount(sizes[clazz] - 1);
+        }
+        return map;
+    }
+}
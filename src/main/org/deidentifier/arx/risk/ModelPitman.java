@@ -40,7 +40,10 @@ import de.linearbits.newtonraphson.Vector2D;
 class ModelPitman extends RiskModelPopulation {
 
     /** The result */
-    private final double numUniques;
+    private final double   numUniques;
+
+    /** The solution */
+    private final Vector2D solution;
 
     /**
      * Creates a new instance
@@ -54,6 +57,23 @@ class ModelPitman extends RiskModelPopulation {
                 final RiskModelHistogram histogram,
                 final NewtonRaphsonConfiguration<?> config,
                 final WrappedBoolean stop) {
+        this(model, histogram, config, null, stop);
+    }
+
+    /**
+     * Creates a new instance
+     * 
+     * @param model
+     * @param histogram
+     * @param config
+     * @param start Start value for the solver, null to use an initial guess
+     * @param stop
+     */
+    ModelPitman(final ARXPopulationModel model,
+                final RiskModelHistogram histogram,
+                final NewtonRaphsonConfiguration<?> config,
+                final Vector2D start,
+                final WrappedBoolean stop) {
 
         super(histogram, model, stop, new WrappedInteger());
 
@@ -70,24 +90,37 @@ class ModelPitman extends RiskModelPopulation {
         double t = ((n * u * c) - (c1 * (n - 1) * ((2 * u) + c))) /
                    (((2 * c1 * u) + (c1 * c)) - (n * c));
         double a = ((t * (c1 - n)) + ((n - 1) * c1)) / (n * u);
+        Vector2D guess = start != null ? start : new Vector2D(t, a);
+
+        // Classes of size 1 do not contribute to the sums over the histogram
+        int[] classes = histogram.getHistogram();
+        int length = classes.length / 2 - (classes.length != 0 && classes[0] == 1 ? 1 : 0);
+        int[] sizes = new int[length];
+        double[] counts = new double[length];
+        for (int i = 0, index = 0; i < classes.length; i += 2) {
+            if (classes[i] != 1) {
+                sizes[index] = classes[i];
+                counts[index++] = classes[i + 1];
+            }
+        }
 
         // Solve the Maximum Likelihood Estimates with Polygamma functions
-        NewtonRaphson2D solver = new NewtonRaphson2D(getMasterFunctionClosed(histogram.getHistogram(), u, n),
+        NewtonRaphson2D solver = new NewtonRaphson2D(getMasterFunctionClosed(sizes, counts, u, n),
                                                      getConstraint()).configure(config);
-        Vector2D result = solver.solve(new Vector2D(t, a));
+        Vector2D result = solver.solve(guess);
 
         // If no result found, use iterative implementation
         if (Double.isNaN(result.x) || Double.isNaN(result.y)) {
 
-            solver = new NewtonRaphson2D(getMasterFunctionIterative(histogram.getHistogram(), u, n),
+            solver = new NewtonRaphson2D(getMasterFunctionIterative(sizes, counts, u, n),
                                          getConstraint()).configure(config);
-            result = solver.solve(new Vector2D(t, a));
+            result = solver.solve(guess);
 
             // Else check the result against the iterative implementation
         } else {
 
             // Run test
-            Vector2D test = getObjectFunctionsIterative(histogram.getHistogram(), u, n).evaluate(result);
+            Vector2D test = getObjectFunctionsIterative(sizes, counts, u, n).evaluate(result);
 
             // Check result of test
             if (Double.isNaN(test.x) || Double.isNaN(test.y) ||
@@ -95,14 +128,15 @@ class ModelPitman extends RiskModelPopulation {
                 Math.abs(test.y) > config.getAccuracy()) {
 
                 // Use iterative implementation
-                solver = new NewtonRaphson2D(getMasterFunctionIterative(histogram.getHistogram(), u, n),
+                solver = new NewtonRaphson2D(getMasterFunctionIterative(sizes, counts, u, n),
                                                                         getConstraint()).configure(config);
-                result = solver.solve(new Vector2D(t, a));
+                result = solver.solve(guess);
             }
         }
 
         // Compile the result
         this.numUniques = getResult(result, p);
+        this.solution = result;
     }
 
     /**
@@ -114,6 +148,15 @@ class ModelPitman extends RiskModelPopulation {
         return this.numUniques;
     }
 
+    /**
+     * Returns the solution found by the solver
+     * 
+     * @return
+     */
+    public Vector2D getSolution() {
+        return this.solution;
+    }
+
     /**
      * Returns a constraint on theta
      * @return
@@ -131,10 +174,15 @@ class ModelPitman extends RiskModelPopulation {
      * Returns the master function including the object function and the
      * derivative functions
      * 
+     * @param sizes Sizes of classes larger than one, in ascending order
+     * @param counts Number of classes of each size
+     * @param u
+     * @param n
      * @return
      */
     private Function<Vector2D, Pair<Vector2D, SquareMatrix2D>>
-            getMasterFunctionClosed(final int[] classes,
+            getMasterFunctionClosed(final int[] sizes,
+                                    final double[] counts,
                                     final double u,
                                     final double n) {
 
@@ -178,14 +226,10 @@ class ModelPitman extends RiskModelPopulation {
                 double o4 = 0;
                 double val6 = Gamma.digamma(1d - a);
                 double val7 = Gamma.trigamma(1d - a);
-                for (int i = 0; i < classes.length; i += 2) {
-                    int key = classes[i];
-                    int value = classes[i + 1];
-
-                    if (key != 1) {
-                        d4 += value * (val7 - Gamma.trigamma(key - a));
-                        o4 += value * (Gamma.digamma(key - a) - val6);
-                    }
+                for (int i = 0; i < sizes.length; i++) {
+                    double val8 = sizes[i] - a;
+                    d4 += counts[i] * (val7 - Gamma.trigamma(val8));
+                    o4 += counts[i] * (Gamma.digamma(val8) - val6);
                     checkInterrupt();
                 }
 
@@ -207,10 +251,15 @@ class ModelPitman extends RiskModelPopulation {
      * Returns the master function including the object function and the
      * derivative functions
      * 
+     * @param sizes Sizes of classes larger than one, in ascending order
+     * @param counts Number of classes of each size
+     * @param u
+     * @param n
      * @return
      */
     private Function<Vector2D, Pair<Vector2D, SquareMatrix2D>>
-            getMasterFunctionIterative(final int[] classes,
+            getMasterFunctionIterative(final int[] sizes,
+                                       final double[] counts,
                                        final double u,
                                        final double n) {
 
@@ -258,22 +307,18 @@ class ModelPitman extends RiskModelPopulation {
                 }
                 checkInterrupt();
 
-                // For each class...
-                for (int i = 0; i < classes.length; i += 2) {
-                    int key = classes[i];
-                    int value = classes[i + 1];
-
-                    if (key != 1) {
-                        double val1 = 0;
-                        double val2 = 0;
-                        for (int j = 1; j < key; j++) {
-                            double val3 = j - a;
-                            val1 += 1d / (val3 * val3);
-                            val2 += 1d / val3;
-                        }
-                        d4 += value * val1;
-                        o4 += value * val2;
+                // For each class, continuing the sums of the previous (smaller) class
+                double val1 = 0;
+                double val2 = 0;
+                int j = 1;
+                for (int i = 0; i < sizes.length; i++) {
+                    for (; j < sizes[i]; j++) {
+                        double val3 = j - a;
+                        val1 += 1d / (val3 * val3);
+                        val2 += 1d / val3;
                     }
+                    d4 += counts[i] * val1;
+                    o4 += counts[i] * val2;
                     checkInterrupt();
                 }
 
@@ -302,10 +347,15 @@ class ModelPitman extends RiskModelPopulation {
     /**
      * Returns the object functions as an iterative implementation
      * 
+     * @param sizes Sizes of classes larger than one, in ascending order
+     * @param counts Number of classes of each size
+     * @param u
+     * @param n
      * @return
      */
     private Function<Vector2D, Vector2D>
-            getObjectFunctionsIterative(final int[] classes,
+            getObjectFunctionsIterative(final int[] sizes,
+                                        final double[] counts,
                                         final double u,
                                         final double n) {
 
@@ -339,19 +389,14 @@ class ModelPitman extends RiskModelPopulation {
                 }
                 checkInterrupt();
 
-                // For each class...
-                for (int i = 0; i < classes.length; i += 2) {
-                    int key = classes[i];
-                    int value = classes[i + 1];
-
-                    if (key != 1) {
-                        double val2 = 0;
-                        for (int j = 1; j < key; j++) {
-                            double val3 = j - a;
-                            val2 += 1d / val3;
-                        }
-                        o4 += value * val2;
+                // For each class, continuing the sum of the previous (smaller) class
+                double val2 = 0;
+                int j = 1;
+                for (int i = 0; i < sizes.length; i++) {
+                    for (; j < sizes[i]; j++) {
+                        val2 += 1d / (j - a);
                     }
+                    o4 += counts[i] * val2;
                     checkInterrupt();
                 }
 
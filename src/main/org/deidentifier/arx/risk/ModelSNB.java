@@ -38,7 +38,10 @@ import de.linearbits.newtonraphson.Vector2D;
 class ModelSNB extends RiskModelPopulation {
 
     /** The result */
-    private final double uniques;
+    private final double   uniques;
+
+    /** The solution */
+    private final Vector2D solution;
 
     /**
      * Creates a new instance
@@ -52,6 +55,23 @@ class ModelSNB extends RiskModelPopulation {
              final RiskModelHistogram histogram,
              final NewtonRaphsonConfiguration<?> config,
              final WrappedBoolean stop) {
+        this(model, histogram, config, null, stop);
+    }
+
+    /**
+     * Creates a new instance
+     * 
+     * @param model
+     * @param histogram
+     * @param config
+     * @param start Start value for the solver, null to use the configured start values
+     * @param stop
+     */
+    ModelSNB(final ARXPopulationModel model,
+             final RiskModelHistogram histogram,
+             final NewtonRaphsonConfiguration<?> config,
+             final Vector2D start,
+             final WrappedBoolean stop) {
 
         super(histogram, model, stop, new WrappedInteger());
 
@@ -64,13 +84,14 @@ class ModelSNB extends RiskModelPopulation {
         double f = getSamplingFraction();
 
         // Solve the maximum likelihood estimates
-        Vector2D result = new NewtonRaphson2D(getObjectFunction(k, f, c1, c2),
-                                              getDerivatives(k, f, c1, c2))
-                                             .configure(config)
-                                             .solve();
+        NewtonRaphson2D solver = new NewtonRaphson2D(getObjectFunction(k, f, c1, c2),
+                                                     getDerivatives(k, f, c1, c2))
+                                                    .configure(config);
+        Vector2D result = start != null ? solver.solve(start) : solver.solve();
 
         // Compile and store
         this.uniques = k * Math.pow(result.y, result.x);
+        this.solution = result;
     }
 
     /**
@@ -82,6 +103,15 @@ class ModelSNB extends RiskModelPopulation {
         return this.uniques;
     }
 
+    /**
+     * Returns the solution found by the solver
+     * 
+     * @return
+     */
+    public Vector2D getSolution() {
+        return this.solution;
+    }
+
     /**
      * @return Shlosser estimator for variable K, giving number of non zero
      *         classes in the population estimated according to Haas, 1998 and
@@ -94,16 +124,19 @@ class ModelSNB extends RiskModelPopulation {
 
         double var1 = 0, var2 = 0, var3 = 0, var4 = 0;
         double var5 = f * f;
+        double var6 = 1 - f;
+        double var7 = 1 - var5;
+        double var8 = 1 + f;
         for (int i = 0; i < histogram.length; i += 2) {
             double val0 = histogram[i];
             double val1 = histogram[i + 1];
-            double val2 = Math.pow(1 - f, val0) * val1;
-            var1 += val0 * var5 * Math.pow(1 - var5, val0 - 1) * val1;
-            var2 += val2 * Math.pow(1 + f, val0) - 1;
+            double val2 = Math.pow(var6, val0) * val1;
+            var1 += val0 * var5 * Math.pow(var7, val0 - 1) * val1;
+            var2 += val2 * Math.pow(var8, val0) - 1;
             var3 += val2;
-            var4 += val0 * f * Math.pow(1 - f, val0 - 1) * val1;
-            checkInterrupt();
+            var4 += val0 * f * Math.pow(var6, val0 - 1) * val1;
         }
+        checkInterrupt();
         return n + n1 * (var1 / var2) * (var3 / var4) * (var3 / var4);
     }
 
@@ -174,8 +174,45 @@ public class RiskEstimateBuilder {
      * @return the RiskModelAttributes data from risk analysis
      */
     public RiskModelAttributes getAttributeRisks() {
+        return getAttributeRisks(1);
+    }
+
+    /**
+     * Returns a class providing access to an analysis of potential quasi-identifiers using
+     * the concepts of alpha distinction and alpha separation. Independent combinations of
+     * attributes are analyzed concurrently.
+     *
+     * @param numberOfThreads
+     * @return the RiskModelAttributes data from risk analysis
+     */
+    public RiskModelAttributes getAttributeRisks(int numberOfThreads) {
+        if (numberOfThreads <= 0) {
+            throw new IllegalArgumentException("Must be >0");
+        }
+        progress.value = 0;
+        return new RiskModelAttributes(this.handle, this.identifiers, this.stop, progress, Double.POSITIVE_INFINITY, Double.POSITIVE_INFINITY, numberOfThreads);
+    }
+
+    /**
+     * Returns a class providing access to an analysis of potential quasi-identifiers using
+     * the concepts of alpha distinction and alpha separation. As soon as a combination of
+     * attributes reaches both thresholds, its supersets will not be analyzed. Independent
+     * combinations of attributes are analyzed concurrently.
+     *
+     * @param distinctionThreshold Threshold for alpha distinction in [0, 1]
+     * @param separationThreshold Threshold for alpha separation in [0, 1]
+     * @param numberOfThreads
+     * @return the RiskModelAttributes data from risk analysis
+     */
+    public RiskModelAttributes getAttributeRisks(double distinctionThreshold, double separationThreshold, int numberOfThreads) {
+        if (distinctionThreshold < 0d || distinctionThreshold > 1d || separationThreshold < 0d || separationThreshold > 1d) {
+            throw new IllegalArgumentException("Thresholds must be in [0, 1]");
+        }
+        if (numberOfThreads <= 0) {
+            throw new IllegalArgumentException("Must be >0");
+        }
         progress.value = 0;
-        return new RiskModelAttributes(this.population, this.handle, this.identifiers, this.stop, progress, this.solverconfig, this.arxconfig);
+        return new RiskModelAttributes(this.handle, this.identifiers, this.stop, progress, distinctionThreshold, separationThreshold, numberOfThreads);
     }
 
     /**
@@ -53,6 +53,40 @@ public class RiskEstimateBuilderInterruptible {
         }
     }
 
+    /**
+     * Returns a class providing access to an analysis of potential quasi-identifiers using
+     * the concepts of alpha distinction and alpha separation. Independent combinations of
+     * attributes are analyzed concurrently.
+     *
+     * @param numberOfThreads
+     * @return the RiskModelAttributes data from risk analysis
+     */
+    public RiskModelAttributes getAttributeRisks(int numberOfThreads) throws InterruptedException {
+        try {
+            return parent.getAttributeRisks(numberOfThreads);
+        } catch (ComputationInterruptedException e) {
+            throw new InterruptedException("Computation interrupted");
+        }
+    }
+
+    /**
+     * Returns a class providing access to an analysis of potential quasi-identifiers using
+     * the concepts of alpha distinction and alpha separation. As soon as a combination of
+     * attributes reaches both thresholds, its supersets will not be analyzed.
+     *
+     * @param distinctionThreshold
+     * @param separationThreshold
+     * @param numberOfThreads
+     * @return the RiskModelAttributes data from risk analysis
+     */
+    public RiskModelAttributes getAttributeRisks(double distinctionThreshold, double separationThreshold, int numberOfThreads) throws InterruptedException {
+        try {
+            return parent.getAttributeRisks(distinctionThreshold, separationThreshold, numberOfThreads);
+        } catch (ComputationInterruptedException e) {
+            throw new InterruptedException("Computation interrupted");
+        }
+    }
+
     /**
      * Returns a model of the equivalence classes in this data set
      * 
@@ -22,24 +22,34 @@ import java.util.Arrays;
 import java.util.Collections;
 import java.util.Comparator;
 import java.util.HashMap;
-import java.util.HashSet;
 import java.util.List;
 import java.util.Map;
 import java.util.Set;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicInteger;
 
-import org.deidentifier.arx.ARXConfiguration;
-import org.deidentifier.arx.ARXPopulationModel;
-import org.deidentifier.arx.ARXSolverConfiguration;
 import org.deidentifier.arx.DataHandleInternal;
+import org.deidentifier.arx.common.DaemonThreads;
 import org.deidentifier.arx.common.WrappedBoolean;
 import org.deidentifier.arx.common.WrappedInteger;
 import org.deidentifier.arx.exceptions.ComputationInterruptedException;
+import org.deidentifier.arx.exceptions.UnexpectedErrorException;
+
+import com.carrotsearch.hppc.IntIntOpenHashMap;
+import com.carrotsearch.hppc.LongIntOpenHashMap;
 
 /**
  * A class for analyzing attribute-related risks. Calculates alpha-distinction and
  * alpha separation as described in R. Motwani et al.
  * "Efficient algorithms for masking and finding quasi-identifiers" Proc. VLDB Conf., 2007.
- *
+ * <br>
+ * Combinations of attributes are analyzed level by level. The equivalence classes of
+ * a combination are derived by refining the partitioning induced by one of its subsets,
+ * which avoids re-scanning the data set for every combination.
  *
  * @author Fabian Prasser
  * @author Maximilian Zitzmann
@@ -65,20 +75,13 @@ public class RiskModelAttributes {
          * Creates a new instance
          *
          * @param identifier
+         * @param histogram
          */
-        private QuasiIdentifierRisk(List<String> identifier) {
+        private QuasiIdentifierRisk(List<String> identifier, RiskModelHistogram histogram) {
 
             // Store identifier
             this.identifier = identifier;
 
-            // Calculate distribution of class sizes
-            RiskModelHistogram histogram = new RiskEstimateBuilder(population,
-                                                                   handle,
-                                                                   new HashSet<String>(identifier),
-                                                                   stop,
-                                                                   solverconfig,
-                                                                   arxconfig).getEquivalenceClassModel();
-
             // Calculate distinction and separation
             this.alphaDistinction = getAlphaDistinction(histogram);
             this.alphaSeparation = getAlphaSeparation(histogram);
@@ -86,7 +89,7 @@ public class RiskModelAttributes {
 
         @Override
         public int compareTo(QuasiIdentifierRisk other) {
-            
+
             // Compare size
             int cmp = Integer.compare(this.identifier.size(), other.identifier.size());
             if (cmp != 0) {
@@ -104,14 +107,14 @@ public class RiskModelAttributes {
             if (cmp != 0) {
                 return cmp;
             }
-            
+
             // Compare lexicographically
             return this.identifier.toString().compareTo(other.identifier.toString());
         }
 
         /**
          * Returns the alpha distinction parameter of this quasi-identifier
-         * 
+         *
          * @return the alpha distinction
          */
         public double getDistinction() {
@@ -120,7 +123,7 @@ public class RiskModelAttributes {
 
         /**
          * Returns the attributes in this quasi-identifier
-         * 
+         *
          * @return the identifier
          */
         public List<String> getIdentifier() {
@@ -129,89 +132,235 @@ public class RiskModelAttributes {
 
         /**
          * Returns the alpha separation parameter of this quasi-identifier
-         * 
+         *
          * @return the alpha separation
          */
         public double getSeparation() {
             return Double.isNaN(alphaSeparation) ? 0d : alphaSeparation;
         }
     }
+
+    /**
+     * Partitioning of the rows induced by a combination of attributes
+     *
+     * @author Fabian Prasser
+     */
+    private static class Partition {
+
+        /** Equivalence class of each row */
+        private final int[]     classes;
+        /** Number of equivalence classes */
+        private final int       numClasses;
+        /** Rows which are suppressed in all attributes, null if there are none */
+        private final boolean[] excluded;
+
+        /**
+         * Creates a new instance
+         * @param classes
+         * @param numClasses
+         * @param excluded
+         */
+        private Partition(int[] classes, int numClasses, boolean[] excluded) {
+            this.classes = classes;
+            this.numClasses = numClasses;
+            this.excluded = excluded;
+        }
+    }
+
+    /**
+     * Analyzes all extensions of a combination by one further attribute
+     *
+     * @author Fabian Prasser
+     */
+    private class Refinement implements Callable<List<QuasiIdentifierRisk>> {
+
+        /** Combination to extend, 0 for the empty combination */
+        private final long                 parent;
+        /** Attributes to add */
+        private final int[]                extensions;
+        /** Partitions of the parent's level */
+        private final Map<Long, Partition> cache;
+        /** Partitions of the next level */
+        private final Map<Long, Partition> next;
+        /** Combinations that may be extended further */
+        private final Set<Long>            open;
+
+        /**
+         * Creates a new instance
+         * @param parent
+         * @param extensions
+         * @param cache
+         * @param next
+         * @param open
+         */
+        private Refinement(long parent,
+                           int[] extensions,
+                           Map<Long, Partition> cache,
+                           Map<Long, Partition> next,
+                           Set<Long> open) {
+            this.parent = parent;
+            this.extensions = extensions;
+            this.cache = cache;
+            this.next = next;
+            this.open = open;
+        }
+
+        @Override
+        public List<QuasiIdentifierRisk> call() {
+
+            // Obtain partitioning of parent
+            Partition partition = parent == 0L ? null : getPartition(parent, cache);
+            List<QuasiIdentifierRisk> result = new ArrayList<>();
+            for (int column : extensions) {
+
+                // Derive equivalence classes
+                checkInterrupt();
+                long combination = parent | (1L << column);
+                Partition refined = partition == null ? partitions[column] : refine(partition, column);
+                QuasiIdentifierRisk risk = new QuasiIdentifierRisk(getIdentifier(combination), getHistogram(refined));
+                result.add(risk);
+
+                // Keep for next level, if it may be extended
+                if (!isCutoff(risk)) {
+                    open.add(combination);
+                    if (column < partitions.length - 1 && slots.getAndDecrement() > 0) {
+                        next.put(combination, refined);
+                    }
+                }
+
+                // Track progress
+                percentageDone.value = (int) Math.round((double) done.incrementAndGet() / (double) total * 100d);
+            }
+            return result;
+        }
+    }
+
+    /** Maximal number of rows in partitions cached per level */
+    private static final long           MAX_CACHE_SIZE = 1L << 25;
+
     /** Stop flag */
     private final WrappedBoolean        stop;
     /** Results */
     private final QuasiIdentifierRisk[] risks;
-    /** Just needed for creating risk models */
-    private ARXPopulationModel          population;
-    /** Data handle */
-    private DataHandleInternal          handle;
-    /** Just needed for creating risk models */
-    private ARXSolverConfiguration      solverconfig;
-    /** Just needed for creating risk models */
-    private ARXConfiguration            arxconfig;
+    /** Attributes, sorted by column index */
+    private final String[]              attributes;
+    /** Partitioning induced by each individual attribute */
+    private final Partition[]           partitions;
+    /** Number of rows */
+    private final int                   numRows;
+    /** Threshold for early cutoff */
+    private final double                distinctionThreshold;
+    /** Threshold for early cutoff */
+    private final double                separationThreshold;
+    /** Progress */
+    private final WrappedInteger        percentageDone;
+    /** Progress */
+    private final AtomicInteger         done           = new AtomicInteger();
+    /** Progress */
+    private final long                  total;
+    /** Remaining cache slots on the current level */
+    private final AtomicInteger         slots          = new AtomicInteger();
 
     /**
      * Creates a new instance
-     * @param population
      * @param handle
      * @param identifiers
      * @param stop
      * @param percentageDone
-     * @param solverconfig
-     * @param arxconfig
+     * @param distinctionThreshold
+     * @param separationThreshold
+     * @param numberOfThreads
      */
-    RiskModelAttributes(final ARXPopulationModel population,
-                        final DataHandleInternal handle,
+    RiskModelAttributes(final DataHandleInternal handle,
                         final Set<String> identifiers,
                         final WrappedBoolean stop,
                         final WrappedInteger percentageDone,
-                        final ARXSolverConfiguration solverconfig,
-                        final ARXConfiguration arxconfig) {
-        
-        this.population = population;
-        this.handle = handle;
+                        final double distinctionThreshold,
+                        final double separationThreshold,
+                        final int numberOfThreads) {
+
         this.stop = stop;
-        this.solverconfig = solverconfig;
-        this.arxconfig = arxconfig;
-
-        // Find order list of qis
-        List<List<String>> qis = new ArrayList<>();
-        Set<Set<String>> powerset = getPowerSet(identifiers);
-        for (Set<String> set : powerset) {
-            
-            // Exclude empty set
-            if (!set.isEmpty()) {
-                
-                // Create and add
-                List<String> qi = new ArrayList<String>(set);
-                qis.add(qi);
-                
-                // Sort by column index
-                Collections.sort(qi, new Comparator<String>(){
-                    @Override
-                    public int compare(String o1, String o2) {
-                        int index1 = handle.getColumnIndexOf(o1);
-                        int index2 = handle.getColumnIndexOf(o2);
-                        return Integer.valueOf(index1).compareTo(index2);
-                    }
-                });
+        this.percentageDone = percentageDone;
+        this.distinctionThreshold = distinctionThreshold;
+        this.separationThreshold = separationThreshold;
+        this.numRows = handle.getNumRows();
+
+        // Check
+        for (String attribute : identifiers) {
+            if (handle.getColumnIndexOf(attribute) == -1) { throw new IllegalArgumentException(attribute + " is not an attribute"); }
+        }
+        if (identifiers.size() >= Long.SIZE - 1) {
+            throw new IllegalArgumentException("Too many attributes");
+        }
+
+        // Sort attributes by column index
+        List<String> list = new ArrayList<>(identifiers);
+        Collections.sort(list, new Comparator<String>(){
+            @Override
+            public int compare(String o1, String o2) {
+                int index1 = handle.getColumnIndexOf(o1);
+                int index2 = handle.getColumnIndexOf(o2);
+                return Integer.valueOf(index1).compareTo(index2);
             }
+        });
+        this.attributes = list.toArray(new String[list.size()]);
+        this.total = (1L << attributes.length) - 1L;
+
+        // Encode each attribute once
+        this.partitions = new Partition[attributes.length];
+        for (int i = 0; i < attributes.length; i++) {
+            this.partitions[i] = getPartition(handle, handle.getColumnIndexOf(attributes[i]));
         }
-        
+
         // Compute risk estimates for all elements in the power set
-        Map<List<String>, QuasiIdentifierRisk> scores = new HashMap<>();
-        int done = 0;
-        for (List<String> qi : qis) {
-            checkInterrupt();
-            scores.put(qi, new QuasiIdentifierRisk(qi));
-            percentageDone.value = (int) Math.round((double) done++ / (double) (powerset.size() - 1) * 100d);
+        List<QuasiIdentifierRisk> scores = new ArrayList<>();
+        ExecutorService pool = null;
+        try {
+
+            // Prepare
+            if (numberOfThreads > 1 && attributes.length > 1) {
+
+                pool = DaemonThreads.newFixedThreadPool(numberOfThreads, "ARX risk analysis");
+            }
+
+            // Level one
+            List<Long> level = new ArrayList<>();
+            level.add(0L);
+            Set<Long> open = null;
+            Map<Long, Partition> cache = null;
+            while (!level.isEmpty()) {
+
+                // Prepare next level
+                Map<Long, Partition> next = new ConcurrentHashMap<>();
+                Set<Long> nextOpen = Collections.newSetFromMap(new ConcurrentHashMap<Long, Boolean>());
+                slots.set((int) Math.min(Integer.MAX_VALUE, MAX_CACHE_SIZE / Math.max(1, numRows)));
+
+                // Create tasks
+                List<Refinement> tasks = new ArrayList<>();
+                for (long combination : level) {
+                    int[] extensions = getExtensions(combination, open);
+                    if (extensions.length > 0) {
+                        tasks.add(new Refinement(combination, extensions, cache, next, nextOpen));
+                    }
+                }
+
+                // Execute
+                scores.addAll(execute(tasks, pool));
+
+                // Next level
+                level = new ArrayList<>(nextOpen);
+                Collections.sort(level);
+                open = nextOpen;
+                cache = next;
+            }
+        } finally {
+            if (pool != null) {
+                pool.shutdown();
+            }
         }
 
         // Now create sorted array
-        risks = new QuasiIdentifierRisk[scores.size()];
-        int idx = 0;
-        for (QuasiIdentifierRisk value : scores.values()) {
-            risks[idx++] = value;
-        }
+        risks = scores.toArray(new QuasiIdentifierRisk[scores.size()]);
         Arrays.sort(risks);
     }
 
@@ -233,9 +382,53 @@ public class RiskModelAttributes {
         }
     }
 
+    /**
+     * Executes the given tasks
+     *
+     * @param tasks
+     * @param pool null for sequential execution
+     * @return
+     */
+    private List<QuasiIdentifierRisk> execute(List<Refinement> tasks, ExecutorService pool) {
+
+        // Sequential
+        List<QuasiIdentifierRisk> result = new ArrayList<>();
+        if (pool == null || tasks.size() <= 1) {
+            for (Refinement task : tasks) {
+                result.addAll(task.call());
+            }
+            return result;
+        }
+
+        // Submit
+        List<Future<List<QuasiIdentifierRisk>>> futures = new ArrayList<>();
+        try {
+            for (Refinement task : tasks) {
+                futures.add(pool.submit(task));
+            }
+            for (Future<List<QuasiIdentifierRisk>> future : futures) {
+                result.addAll(future.get());
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new ComputationInterruptedException("Interrupted");
+        } catch (ExecutionException e) {
+            if (e.getCause() instanceof ComputationInterruptedException) {
+                throw (ComputationInterruptedException)e.getCause();
+            } else {
+                throw new UnexpectedErrorException(e.getCause());
+            }
+        } finally {
+            for (Future<List<QuasiIdentifierRisk>> future : futures) {
+                future.cancel(true);
+            }
+        }
+        return result;
+    }
+
     /**
      * Calculates the Gaussian sum formula
-     * 
+     *
      * @param n the number to sum to
      * @return the sum from 1 to n
      */
@@ -251,7 +444,7 @@ public class RiskModelAttributes {
      * @return the calculated alpha distinction
      */
     private double getAlphaDistinction(RiskModelHistogram histogramm) {
-        
+
         // This is almost trivial
         return histogramm.getNumClasses() / histogramm.getNumRecords();
     }
@@ -264,7 +457,7 @@ public class RiskModelAttributes {
      * @return the calculated alpha separation
      */
     private double getAlphaSeparation(RiskModelHistogram histogram) {
-        
+
         // Obtain class sizes
         int[] classes = histogram.getHistogram();
 
@@ -298,7 +491,7 @@ public class RiskModelAttributes {
 
             // add number of separated classes to result
             separatedRecords += separatedRecordsCurrentClass;
-            
+
             // Check interrupt
             checkInterrupt();
         }
@@ -309,29 +502,205 @@ public class RiskModelAttributes {
     }
 
     /**
-     * Returns the power set
+     * Returns the attributes which extend the given combination on the next level. When a cutoff
+     * has been specified, extensions are only generated if all direct subsets are still open.
      *
-     * @param originalSet
+     * @param combination
+     * @param open open combinations of the current level, null on level one
      * @return
      */
-    private <T> Set<Set<T>> getPowerSet(Set<T> originalSet) {
-        checkInterrupt();
-        Set<Set<T>> sets = new HashSet<Set<T>>();
-        if (originalSet.isEmpty()) {
-            sets.add(new HashSet<T>());
-            return sets;
+    private int[] getExtensions(long combination, Set<Long> open) {
+
+        // Only extend with attributes to the right
+        int first = Long.SIZE - Long.numberOfLeadingZeros(combination);
+        int[] extensions = new int[attributes.length - first];
+        int count = 0;
+        for (int column = first; column < attributes.length; column++) {
+
+            // Check all subsets, apriori-style
+            long candidate = combination | (1L << column);
+            boolean valid = true;
+            if (open != null && isCutoffEnabled()) {
+                for (long bits = combination; bits != 0L; bits &= bits - 1L) {
+                    if (!open.contains(candidate & ~Long.lowestOneBit(bits))) {
+                        valid = false;
+                        break;
+                    }
+                }
+            }
+            if (valid) {
+                extensions[count++] = column;
+            }
         }
-        List<T> list = new ArrayList<T>(originalSet);
-        T head = list.get(0);
-        Set<T> rest = new HashSet<T>(list.subList(1, list.size()));
-        for (Set<T> set : getPowerSet(rest)) {
+        return Arrays.copyOf(extensions, count);
+    }
+
+    /**
+     * Returns the class size distribution of the given partitioning
+     *
+     * @param partition
+     * @return
+     */
+    private RiskModelHistogram getHistogram(Partition partition) {
+
+        // Sizes of classes, ignoring suppressed records
+        int[] sizes = new int[partition.numClasses];
+        int[] classes = partition.classes;
+        boolean[] excluded = partition.excluded;
+        for (int row = 0; row < numRows; row++) {
+            if (excluded == null || !excluded[row]) {
+                sizes[classes[row]]++;
+            }
+        }
+
+        // Group by size
+        IntIntOpenHashMap grouped = new IntIntOpenHashMap();
+        for (int size : sizes) {
+            if (size != 0) {
+                grouped.putOrAdd(size, 1, 1);
+            }
+        }
+        return new RiskModelHistogram(grouped);
+    }
+
+    /**
+     * Returns the attributes in the given combination
+     *
+     * @param combination
+     * @return
+     */
+    private List<String> getIdentifier(long combination) {
+        List<String> result = new ArrayList<>();
+        for (int column = 0; column < attributes.length; column++) {
+            if ((combination & (1L << column)) != 0L) {
+                result.add(attributes[column]);
+            }
+        }
+        return result;
+    }
+
+    /**
+     * Encodes the given column
+     *
+     * @param handle
+     * @param column
+     * @return
+     */
+    private Partition getPartition(DataHandleInternal handle, int column) {
+        Map<String, Integer> codes = new HashMap<>();
+        int[] classes = new int[numRows];
+        boolean[] excluded = new boolean[numRows];
+        boolean suppressed = false;
+        int[] columns = new int[] { column };
+        for (int row = 0; row < numRows; row++) {
+            String value = handle.getValue(row, column, false);
+            Integer code = codes.get(value);
+            if (code == null) {
+                code = codes.size();
+                codes.put(value, code);
+            }
+            classes[row] = code;
+            excluded[row] = handle.isOutlier(row, columns);
+            suppressed |= excluded[row];
             checkInterrupt();
-            Set<T> newSet = new HashSet<T>();
-            newSet.add(head);
-            newSet.addAll(set);
-            sets.add(newSet);
-            sets.add(set);
         }
-        return sets;
+        return new Partition(classes, codes.size(), suppressed ? excluded : null);
+    }
+
+    /**
+     * Returns the partitioning for the given combination. Rebuilds it from the individual attributes,
+     * if it has not been cached.
+     *
+     * @param combination
+     * @param cache
+     * @return
+     */
+    private Partition getPartition(long combination, Map<Long, Partition> cache) {
+        Partition partition = cache == null ? null : cache.get(combination);
+        if (partition == null) {
+            for (long bits = combination; bits != 0L; bits &= bits - 1L) {
+                int column = Long.numberOfTrailingZeros(bits);
+                partition = partition == null ? partitions[column] : refine(partition, column);
+            }
+        }
+        return partition;
+    }
+
+    /**
+     * Returns whether the cutoff has been reached for the given combination
+     * @param risk
+     * @return
+     */
+    private boolean isCutoff(QuasiIdentifierRisk risk) {
+        return risk.alphaDistinction >= distinctionThreshold && risk.alphaSeparation >= separationThreshold;
+    }
+
+    /**
+     * Returns whether a cutoff has been specified
+     * @return
+     */
+    private boolean isCutoffEnabled() {
+        return !Double.isInfinite(distinctionThreshold) || !Double.isInfinite(separationThreshold);
+    }
+
+    /**
+     * Refines the given partitioning with the values of the given column
+     *
+     * @param partition
+     * @param column
+     * @return
+     */
+    private Partition refine(Partition partition, int column) {
+
+        // Prepare
+        checkInterrupt();
+        Partition attribute = partitions[column];
+        int[] classes = new int[numRows];
+        int numClasses = 0;
+        long width = attribute.numClasses;
+
+        // Refine with direct addressing, if feasible
+        if ((long) partition.numClasses * width <= numRows) {
+            int[] map = new int[partition.numClasses * (int) width];
+            for (int row = 0; row < numRows; row++) {
+                int key = partition.classes[row] * (int) width + attribute.classes[row];
+                int value = map[key];
+                if (value == 0) {
+                    value = ++numClasses;
+                    map[key] = value;
+                }
+                classes[row] = value - 1;
+            }
+
+        // Refine with hashing
+        } else {
+            LongIntOpenHashMap map = new LongIntOpenHashMap();
+            for (int row = 0; row < numRows; row++) {
+                long key = partition.classes[row] * width + attribute.classes[row];
+                int value;
+                if (map.containsKey(key)) {
+                    value = map.lget();
+                } else {
+                    value = numClasses++;
+                    map.put(key, value);
+                }
+                classes[row] = value;
+            }
+        }
+
+        // Records are only excluded if they are suppressed in all attributes
+        boolean[] excluded = null;
+        if (partition.excluded != null && attribute.excluded != null) {
+            excluded = new boolean[numRows];
+            boolean suppressed = false;
+            for (int row = 0; row < numRows; row++) {
+                excluded[row] = partition.excluded[row] && attribute.excluded[row];
+                suppressed |= excluded[row];
+            }
+            excluded = suppressed ? excluded : null;
+        }
+
+        // Done
+        return new Partition(classes, numClasses, excluded);
     }
-}
\ No newline at end of file
+}
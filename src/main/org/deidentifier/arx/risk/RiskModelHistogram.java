@@ -22,9 +22,6 @@ import java.util.Comparator;
 import java.util.Set;
 
 import org.deidentifier.arx.DataHandleInternal;
-import org.deidentifier.arx.common.Groupify;
-import org.deidentifier.arx.common.Groupify.Group;
-import org.deidentifier.arx.common.TupleWrapper;
 import org.deidentifier.arx.common.WrappedBoolean;
 import org.deidentifier.arx.common.WrappedInteger;
 import org.deidentifier.arx.exceptions.ComputationInterruptedException;
@@ -72,63 +69,12 @@ public class RiskModelHistogram {
                        final WrappedInteger progress,
                        double factor) {
 
-        /* ********************************
-         * Check 
-         * ********************************/
-        if (handle == null) { throw new NullPointerException("Handle is null"); }
-        if (qis == null) { throw new NullPointerException("Quasi identifiers must not be null"); }
-        for (String q : qis) {
-            if (handle.getColumnIndexOf(q) == -1) { throw new IllegalArgumentException(q + " is not an attribute"); }
-        }
-
-        /* ********************************
-         * Build equivalence classes 
-         * ********************************/
-        final int[] indices = new int[qis.size()];
-        int index = 0;
-        for (final String attribute : qis) {
-            indices[index++] = handle.getColumnIndexOf(attribute);
-        }
-        Arrays.sort(indices);
-
         // Calculate equivalence classes
-        int capacity = handle.getNumRows() / 10;
-        capacity = capacity > 10 ? capacity : 10;
-        Groupify<TupleWrapper> map = new Groupify<TupleWrapper>(capacity);
-        int numRows = handle.getNumRows();
-        for (int row = 0; row < numRows; row++) {
-
-            int prog = (int) Math.round((double) row / (double) numRows * factor * 80d);
-            if (prog != progress.value) {
-                progress.value = prog;
-            }
-
-            if (!handle.isOutlier(row, indices)) {
-                TupleWrapper tuple = new TupleWrapper(handle, indices, row);
-                map.add(tuple);
-            }
-            if (stop.value) { throw new ComputationInterruptedException(); }
-        }
+        EquivalenceClassIndex index = EquivalenceClassIndex.get(handle, qis, false, stop, progress, 0d, factor * 80d);
 
         // Group by size
-        IntIntOpenHashMap grouped = new IntIntOpenHashMap();
-
-        int i = 0;
-        int size = map.size();
-        Group<TupleWrapper> element = map.first();
-        while (element != null) {
-            int prog = (int) Math.round((80d + (double) i++ / (double) size * 20d) * factor);
-            if (prog != progress.value) {
-                progress.value = prog;
-            }
-            grouped.putOrAdd(element.getCount(), 1, 1);
-            element = element.next();
-            if (stop.value) { throw new ComputationInterruptedException(); }
-        }
-
-        map = null;
-
-        convertAndAnalyze(grouped, stop, progress);
+        progress.value = (int) Math.round(80d * factor);
+        convertAndAnalyze(index.getDistribution(), stop, progress);
     }
 
     /**
@@ -24,6 +24,8 @@ import org.deidentifier.arx.ARXSolverConfiguration;
 import org.deidentifier.arx.common.WrappedBoolean;
 import org.deidentifier.arx.common.WrappedInteger;
 
+import de.linearbits.newtonraphson.Vector2D;
+
 /**
  * Class for risks based on population uniqueness. It implements Dankar et al.'s
  * decision rule.
@@ -66,6 +68,8 @@ public class RiskModelPopulationUniqueness extends RiskModelPopulation {
     private ARXSolverConfiguration    config;
     /** Parameter */
     private WrappedBoolean            stop;
+    /** Cache, null if disabled */
+    private SolverCache               cache;
 
     /**
      * Creates a new instance
@@ -110,6 +114,7 @@ public class RiskModelPopulationUniqueness extends RiskModelPopulation {
         this.histogram = histogram;
         this.config = config;
         this.stop = stop;
+        this.cache = config == null ? null : config.getCache();
 
         // Handle cases where there are no sample uniques
         if (numClassesOfSize1 == 0) {
@@ -270,10 +275,18 @@ public class RiskModelPopulationUniqueness extends RiskModelPopulation {
             if (this.numClassesOfSize1 == 0) {
                 numUniquesPitman = 0;
             } else {
-                numUniquesPitman = new ModelPitman(model,
-                                                   histogram,
-                                                   config,
-                                                   stop).getNumUniques();
+                SolverCache.Entry entry = getCachedResult(PopulationUniquenessModel.PITMAN);
+                if (entry != null) {
+                    numUniquesPitman = entry.getResult();
+                } else {
+                    Vector2D start = getStartValue(PopulationUniquenessModel.PITMAN);
+                    ModelPitman pitman = new ModelPitman(model, histogram, config, start, stop);
+                    if (start != null && !isValid(pitman.getNumUniques())) {
+                        pitman = new ModelPitman(model, histogram, config, stop);
+                    }
+                    numUniquesPitman = pitman.getNumUniques();
+                    setCachedResult(PopulationUniquenessModel.PITMAN, pitman.getSolution(), numUniquesPitman);
+                }
             }
         }
         return isValid(numUniquesPitman) ? numUniquesPitman : 0d;
@@ -288,10 +301,18 @@ public class RiskModelPopulationUniqueness extends RiskModelPopulation {
             if (this.numClassesOfSize1 == 0) {
                 numUniquesSNB = 0;
             } else {
-                numUniquesSNB = new ModelSNB(model,
-                                             histogram,
-                                             config,
-                                             stop).getNumUniques();
+                SolverCache.Entry entry = getCachedResult(PopulationUniquenessModel.SNB);
+                if (entry != null) {
+                    numUniquesSNB = entry.getResult();
+                } else {
+                    Vector2D start = getStartValue(PopulationUniquenessModel.SNB);
+                    ModelSNB snb = new ModelSNB(model, histogram, config, start, stop);
+                    if (start != null && !isValid(snb.getNumUniques())) {
+                        snb = new ModelSNB(model, histogram, config, stop);
+                    }
+                    numUniquesSNB = snb.getNumUniques();
+                    setCachedResult(PopulationUniquenessModel.SNB, snb.getSolution(), numUniquesSNB);
+                }
             }
         }
         return isValid(numUniquesSNB) ? numUniquesSNB : 0d;
@@ -306,9 +327,15 @@ public class RiskModelPopulationUniqueness extends RiskModelPopulation {
             if (this.numClassesOfSize1 == 0) {
                 numUniquesZayatz = 0;
             } else {
-                numUniquesZayatz = new ModelZayatz(model,
-                                                   histogram,
-                                                   stop).getNumUniques();
+                SolverCache.Entry entry = getCachedResult(PopulationUniquenessModel.ZAYATZ);
+                if (entry != null) {
+                    numUniquesZayatz = entry.getResult();
+                } else {
+                    numUniquesZayatz = new ModelZayatz(model,
+                                                       histogram,
+                                                       stop).getNumUniques();
+                    setCachedResult(PopulationUniquenessModel.ZAYATZ, null, numUniquesZayatz);
+                }
             }
         }
         return isValid(numUniquesZayatz) ? numUniquesZayatz : 0d;
@@ -368,6 +395,48 @@ public class RiskModelPopulationUniqueness extends RiskModelPopulation {
         return getNumUniqueTuplesZayatz() != 0d || numClassesOfSize1 == 0;
     }
 
+    /**
+     * Returns the cached result for the given model, or null
+     * 
+     * @param model
+     * @return
+     */
+    private SolverCache.Entry getCachedResult(PopulationUniquenessModel model) {
+        return cache == null ? null : cache.get(model, getPopulationSize(), histogram.getHistogram());
+    }
+
+    /**
+     * Returns features of the histogram, which are used to find similar histograms
+     * 
+     * @return
+     */
+    private double[] getFeatures() {
+        return new double[] { numClassesOfSize1, getNumClassesOfSize(2), getNumClasses(), getSampleSize() };
+    }
+
+    /**
+     * Returns a start value for the solver from the most similar histogram, or null
+     * 
+     * @param model
+     * @return
+     */
+    private Vector2D getStartValue(PopulationUniquenessModel model) {
+        return cache == null || !config.isWarmStart() ? null : cache.getNearestSolution(model, getPopulationSize(), getFeatures());
+    }
+
+    /**
+     * Caches the result for the given model
+     * 
+     * @param model
+     * @param solution
+     * @param result
+     */
+    private void setCachedResult(PopulationUniquenessModel model, Vector2D solution, double result) {
+        if (cache != null) {
+            cache.put(model, getPopulationSize(), histogram.getHistogram(), getFeatures(), solution, result);
+        }
+    }
+
     /**
      * Is an estimate valid?
      * 
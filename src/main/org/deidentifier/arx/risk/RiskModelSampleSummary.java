@@ -16,7 +16,6 @@
  */
 package org.deidentifier.arx.risk;
 
-import java.util.Arrays;
 import java.util.Set;
 
 import org.deidentifier.arx.DataHandleInternal;
@@ -314,46 +313,8 @@ public class RiskModelSampleSummary {
                                              boolean ignoreOutliers,
                                              String suppressed) {
 
-        /* ********************************
-         * Check 
-         * ********************************/
-        if (handle == null) { throw new NullPointerException("Handle is null"); }
-        if (qis == null) { throw new NullPointerException("Quasi identifiers must not be null"); }
-        for (String q : qis) {
-            if (handle.getColumnIndexOf(q) == -1) { throw new IllegalArgumentException(q + " is not an attribute"); }
-        }
-
-        /* ********************************
-         * Build equivalence classes 
-         * ********************************/
-        final int[] indices = new int[qis.size()];
-        int index = 0;
-        for (final String attribute : qis) {
-            indices[index++] = handle.getColumnIndexOf(attribute);
-        }
-        Arrays.sort(indices);
-
-        // Calculate equivalence classes
-        int capacity = handle.getNumRows() / 10;
-        capacity = capacity > 10 ? capacity : 10;
-        Groupify<TupleWrapper> map = new Groupify<TupleWrapper>(capacity);
-        int numRows = handle.getNumRows();
-        for (int row = 0; row < numRows; row++) {
-
-            int prog = (int) Math.round(offset + (double) row / (double) numRows * factor);
-            if (prog != progress.value) {
-                progress.value = prog;
-            }
-
-            if (ignoreOutliers || !handle.isOutlier(row, indices)) {
-                TupleWrapper tuple = new TupleWrapper(handle, indices, row, ignoreOutliers);
-                map.add(tuple);
-            }
-            if (stop.value) { throw new ComputationInterruptedException(); }
-        }
-
-        // Return
-        return map;
+        // Obtain shared equivalence classes
+        return EquivalenceClassIndex.get(handle, qis, ignoreOutliers, stop, progress, offset, factor).getGroups();
     }
 
     /**
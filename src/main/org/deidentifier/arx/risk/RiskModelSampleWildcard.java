@@ -17,7 +17,6 @@
 package org.deidentifier.arx.risk;
 
 import java.util.ArrayList;
-import java.util.Arrays;
 import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
@@ -320,57 +319,8 @@ public class RiskModelSampleWildcard {
                                              WrappedBoolean stop,
                                              WrappedInteger progress) {
 
-        /* ********************************
-         * Check 
-         * ********************************/
-        if (handle == null) { 
-            throw new NullPointerException("Handle is null"); 
-        }
-        if (qis == null) {
-            throw new NullPointerException("Quasi-identifiers must not be null");
-        }
-        for (String q : qis) {
-            if (handle.getColumnIndexOf(q) == -1) { 
-                throw new IllegalArgumentException(q + " is not an attribute"); 
-            }
-        }
-
-        /* ********************************
-         * Determine indices of QIs
-         * ********************************/
-        final int[] indices = new int[qis.size()];
-        int index = 0;
-        for (final String attribute : qis) {
-            indices[index++] = handle.getColumnIndexOf(attribute);
-        }
-        Arrays.sort(indices);
-
-
-        /* ********************************
-         * Build equivalence classes 
-         * ********************************/
-        int capacity = handle.getNumRows() / 10;
-        capacity = capacity > 10 ? capacity : 10;
-        Groupify<TupleWrapper> map = new Groupify<TupleWrapper>(capacity);
-        int numRows = handle.getNumRows();
-        for (int row = 0; row < numRows; row++) {
-
-            int prog = (int) Math.round(offset + (double) row / (double) numRows * factor);
-            if (prog != progress.value) {
-                progress.value = prog;
-            }
-
-            if (!handle.isOutlier(row, indices)) {
-                TupleWrapper tuple = new TupleWrapper(handle, indices, row);
-                map.add(tuple);
-            }
-            if (stop.value) { 
-                throw new ComputationInterruptedException();
-            }
-        }
-
-        // Return
-        return map;
+        // Obtain shared equivalence classes
+        return EquivalenceClassIndex.get(handle, qis, false, stop, progress, offset, factor).getGroups();
     }
     
     /**
@@ -0,0 +1,207 @@
+/*
+ * ARX Data Anonymization Tool
+ * Copyright 2012 - 2025 Fabian Prasser and contributors
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.deidentifier.arx.risk;
+
+import java.util.Arrays;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+import org.deidentifier.arx.risk.RiskModelPopulationUniqueness.PopulationUniquenessModel;
+
+import de.linearbits.newtonraphson.Vector2D;
+
+/**
+ * A bounded cache for the results of population uniqueness models, keyed by the model, the
+ * population size and the histogram of class sizes. Entries are evicted in LRU order. Solutions
+ * of previously solved histograms can be used to warm-start the solver for similar histograms.
+ * Instances are thread-safe.
+ *
+ * @author Fabian Prasser
+ */
+public class SolverCache {
+
+    /**
+     * A cached result
+     *
+     * @author Fabian Prasser
+     */
+    static class Entry {
+
+        /** Features of the histogram */
+        private final double[] features;
+
+        /** The solution found by the solver, if any */
+        private final double[] solution;
+
+        /** The estimated number of uniques */
+        private final double   result;
+
+        /**
+         * Creates a new instance
+         * 
+         * @param features
+         * @param solution
+         * @param result
+         */
+        private Entry(double[] features, Vector2D solution, double result) {
+            this.features = features;
+            this.solution = solution == null ? null : new double[] { solution.x, solution.y };
+            this.result = result;
+        }
+
+        /**
+         * Returns the estimated number of uniques
+         * 
+         * @return
+         */
+        double getResult() {
+            return result;
+        }
+    }
+
+    /**
+     * Key of a cached result
+     *
+     * @author Fabian Prasser
+     */
+    private static class Key {
+
+        /** Model */
+        private final PopulationUniquenessModel model;
+
+        /** Population size */
+        private final double                    populationSize;
+
+        /** Histogram */
+        private final int[]                     histogram;
+
+        /** Hash code */
+        private final int                       hashCode;
+
+        /**
+         * Creates a new instance
+         * 
+         * @param model
+         * @param populationSize
+         * @param histogram
+         */
+        private Key(PopulationUniquenessModel model, double populationSize, int[] histogram) {
+            this.model = model;
+            this.populationSize = populationSize;
+            this.histogram = histogram;
+            this.hashCode = 31 * (31 * model.hashCode() + Double.hashCode(populationSize)) + Arrays.hashCode(histogram);
+        }
+
+        @Override
+        public boolean equals(Object obj) {
+            if (this == obj) return true;
+            if (!(obj instanceof Key)) return false;
+            Key other = (Key) obj;
+            return model == other.model && populationSize == other.populationSize &&
+                   Arrays.equals(histogram, other.histogram);
+        }
+
+        @Override
+        public int hashCode() {
+            return hashCode;
+        }
+    }
+
+    /** Entries in LRU order */
+    private final LinkedHashMap<Key, Entry> entries;
+
+    /**
+     * Creates a new instance
+     * 
+     * @param size The maximal number of entries
+     */
+    public SolverCache(final int size) {
+        if (size <= 0) {
+            throw new IllegalArgumentException("Size must be positive");
+        }
+        this.entries = new LinkedHashMap<Key, Entry>(16, 0.75f, true) {
+            private static final long serialVersionUID = -2766433227441547305L;
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<Key, Entry> eldest) {
+                return size() > size;
+            }
+        };
+    }
+
+    /**
+     * Returns the cached result, or null
+     * 
+     * @param model
+     * @param populationSize
+     * @param histogram
+     * @return
+     */
+    synchronized Entry get(PopulationUniquenessModel model, double populationSize, int[] histogram) {
+        return entries.get(new Key(model, populationSize, histogram));
+    }
+
+    /**
+     * Returns the solution found for the cached histogram with the most similar features,
+     * or null if there is none
+     * 
+     * @param model
+     * @param populationSize
+     * @param features
+     * @return
+     */
+    synchronized Vector2D getNearestSolution(PopulationUniquenessModel model, double populationSize, double[] features) {
+        double[] nearest = null;
+        double minimum = Double.MAX_VALUE;
+        for (Map.Entry<Key, Entry> entry : entries.entrySet()) {
+            Key key = entry.getKey();
+            double[] solution = entry.getValue().solution;
+            if (key.model != model || key.populationSize != populationSize || solution == null ||
+                Double.isNaN(solution[0]) || Double.isNaN(solution[1])) {
+                continue;
+            }
+            double distance = 0d;
+            for (int i = 0; i < features.length; i++) {
+                distance += Math.abs(Math.log1p(features[i]) - Math.log1p(entry.getValue().features[i]));
+            }
+            if (distance < minimum) {
+                minimum = distance;
+                nearest = solution;
+            }
+        }
+        return nearest == null ? null : new Vector2D(nearest[0], nearest[1]);
+    }
+
+    /**
+     * Stores a result
+     * 
+     * @param model
+     * @param populationSize
+     * @param histogram
+     * @param features
+     * @param solution
+     * @param result
+     */
+    synchronized void put(PopulationUniquenessModel model,
+                          double populationSize,
+                          int[] histogram,
+                          double[] features,
+                          Vector2D solution,
+                          double result) {
+        entries.put(new Key(model, populationSize, histogram.clone()), new Entry(features, solution, result));
+    }
+}
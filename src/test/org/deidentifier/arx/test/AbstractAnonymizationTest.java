@@ -104,6 +104,8 @@ public abstract class AbstractAnonymizationTest extends AbstractTest {
         public Map<String, HierarchyBuilder<?>> builders;
         /** Delta accepted when comparing the resulting information loss */
         public Double                           delta              = null;
+        /** Number of threads used for local recoding */
+        public int                              threads            = 1;
                                  
         /**
          * Creates a new instance.
@@ -299,6 +301,23 @@ public abstract class AbstractAnonymizationTest extends AbstractTest {
             this.hashcode = hashcode;
         }
         
+        /**
+         * Constructor for local recoding tests with multiple threads
+         * @param config
+         * @param dataset
+         * @param sensitiveAttribute
+         * @param hashcode
+         * @param threads
+         */
+        public ARXAnonymizationTestCase(final ARXConfiguration config,
+                                        final String dataset,
+                                        final String sensitiveAttribute,
+                                        final int hashcode,
+                                        final int threads) {
+            this(config, dataset, sensitiveAttribute, hashcode);
+            this.threads = threads;
+        }
+        
         /**
          * Creates a new instance.
          *
@@ -501,7 +520,7 @@ public abstract class AbstractAnonymizationTest extends AbstractTest {
         if (testCase.hashcode != -1) {
             try {
                 output = result.getOutput();
-                result.optimizeIterative(output, 0.05d, 100, 0.05d);
+                optimize(result, output);
             } catch (RollbackRequiredException e) {
                 throw new RuntimeException(e);
             }
@@ -526,7 +545,7 @@ public abstract class AbstractAnonymizationTest extends AbstractTest {
                 if (testCase.hashcode != -1) {
                     try {
                         output = result.getOutput();
-                        result.optimizeIterative(output, 0.05d, 100, 0.05d);
+                        optimize(result, output);
                     } catch (RollbackRequiredException e) {
                         throw new RuntimeException(e);
                     }
@@ -710,6 +729,20 @@ public abstract class AbstractAnonymizationTest extends AbstractTest {
         return config.getMonotonicityOfPrivacy() + " monotonicity of privacy with " + config.getMonotonicityOfUtility() + " monotonicity of utility";
     }
     
+    /**
+     * Performs local recoding with the number of threads specified by the test case
+     * @param result
+     * @param output
+     * @throws RollbackRequiredException
+     */
+    private void optimize(ARXResult result, DataHandle output) throws RollbackRequiredException {
+        if (testCase.threads == 1) {
+            result.optimizeIterative(output, 0.05d, 100, 0.05d);
+        } else {
+            result.optimizeIterativeParallel(output, 0.05d, 100, 0.05d, testCase.threads);
+        }
+    }
+    
     /**
      * Appends the given value to the file
      * @param value
@@ -260,4 +260,28 @@ public class TestClassification {
         assertEquals(30162, classResult.getNumMeasurements(), 0d);
     }
 
+    @Test
+    public void testParallel() throws IOException, ParseException {
+
+        // Classify
+        ARXClassificationConfiguration<?> config = ARXClassificationConfiguration.createNaiveBayes();
+        StatisticsClassification sequential = getResult().getOutput().getStatistics().getClassificationPerformance(getFeatures(), getClazz(), config);
+        config = ARXClassificationConfiguration.createNaiveBayes().setNumberOfThreads(4);
+        StatisticsClassification parallel = getResult().getOutput().getStatistics().getClassificationPerformance(getFeatures(), getClazz(), config);
+
+        // Compare
+        assertEquals(sequential.getOriginalAccuracy(), parallel.getOriginalAccuracy(), 0d);
+        assertEquals(sequential.getZeroRAccuracy(), parallel.getZeroRAccuracy(), 0d);
+        assertEquals(sequential.getAccuracy(), parallel.getAccuracy(), 0d);
+        assertEquals(sequential.getOriginalAverageError(), parallel.getOriginalAverageError(), 0d);
+        assertEquals(sequential.getZeroRAverageError(), parallel.getZeroRAverageError(), 0d);
+        assertEquals(sequential.getAverageError(), parallel.getAverageError(), 0d);
+        assertEquals(sequential.getBrierScore(), parallel.getBrierScore(), 0d);
+        for (String clazz : sequential.getClassValues()) {
+            assertEquals(sequential.getROCCurve(clazz).getAUC(), parallel.getROCCurve(clazz).getAUC(), 0d);
+            assertEquals(sequential.getOriginalROCCurve(clazz).getAUC(), parallel.getOriginalROCCurve(clazz).getAUC(), 0d);
+        }
+        assertEquals(sequential.getNumMeasurements(), parallel.getNumMeasurements());
+    }
+
 }
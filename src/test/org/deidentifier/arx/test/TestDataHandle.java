@@ -19,9 +19,18 @@ package org.deidentifier.arx.test;
 
 import static org.junit.Assert.assertTrue;
 
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.FileOutputStream;
 import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
 import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
 import java.util.Arrays;
+import java.util.zip.GZIPInputStream;
 
 import org.deidentifier.arx.ARXAnonymizer;
 import org.deidentifier.arx.ARXConfiguration;
@@ -30,13 +39,18 @@ import org.deidentifier.arx.ARXLattice.ARXNode;
 import org.deidentifier.arx.ARXResult;
 import org.deidentifier.arx.AttributeType;
 import org.deidentifier.arx.AttributeType.Hierarchy;
+import org.deidentifier.arx.AttributeType.MicroAggregationFunction;
 import org.deidentifier.arx.Data;
 import org.deidentifier.arx.DataHandle;
+import org.deidentifier.arx.DataHandleOutput;
+import org.deidentifier.arx.DataType;
 import org.deidentifier.arx.DataSelector;
 import org.deidentifier.arx.DataSubset;
 import org.deidentifier.arx.criteria.DPresence;
 import org.deidentifier.arx.criteria.Inclusion;
 import org.deidentifier.arx.criteria.KAnonymity;
+import org.deidentifier.arx.io.CSVOptions;
+import org.deidentifier.arx.io.CSVSyntax;
 import org.junit.Assert;
 import org.junit.Test;
 
@@ -47,6 +61,63 @@ import org.junit.Test;
  */
 public class TestDataHandle extends AbstractTest {
     
+    /**
+     * Test case
+     *
+     * @throws IllegalArgumentException
+     * @throws IOException
+     */
+    @Test
+    public void testRepeatedOutput() throws IllegalArgumentException, IOException {
+        
+        provider.createDataDefinition();
+        final ARXAnonymizer anonymizer = new ARXAnonymizer();
+        final ARXConfiguration config = ARXConfiguration.create();
+        config.addPrivacyModel(new KAnonymity(3));
+        config.setSuppressionLimit(1d);
+        
+        final ARXResult result = anonymizer.anonymize(provider.getData(), config);
+        final ARXLattice lattice = result.getLattice();
+        final String[][] expected = iteratorToArray(result.getOutput().iterator());
+        
+        // Apply other transformations and the optimum again
+        result.getOutput(lattice.getTop());
+        result.getOutput(lattice.getBottom());
+        DataHandle handle = result.getOutput();
+        assertTrue(Arrays.deepEquals(iteratorToArray(handle.iterator()), expected));
+    }
+    
+    /**
+     * Test case
+     *
+     * @throws IllegalArgumentException
+     * @throws IOException
+     */
+    @Test
+    public void testSaveParallel() throws IllegalArgumentException, IOException {
+
+        // Input with multiple blocks
+        assertSaveEquals(Data.create(new File("data/adult.csv"), StandardCharsets.UTF_8, ';').getHandle());
+
+        // Values which must be escaped
+        Data.DefaultData data = Data.create();
+        data.add("a", "b");
+        data.add("x;y", "\"q\"");
+        data.add("", " c");
+        data.add("", "");
+        assertSaveEquals(data.getHandle());
+
+        // Output with suppressed records and a view
+        provider.createDataDefinition();
+        final ARXAnonymizer anonymizer = new ARXAnonymizer();
+        final ARXConfiguration config = ARXConfiguration.create();
+        config.addPrivacyModel(new KAnonymity(3));
+        config.setSuppressionLimit(1d);
+        final ARXResult result = anonymizer.anonymize(provider.getData(), config);
+        assertSaveEquals(result.getOutput());
+        assertSaveEquals(result.getOutput().getView());
+    }
+    
     /**
      * Test case
      *
@@ -242,6 +313,48 @@ public class TestDataHandle extends AbstractTest {
         
     }
     
+    /**
+     * Test case
+     *
+     * @throws IllegalArgumentException
+     * @throws IOException
+     * @throws ClassNotFoundException
+     */
+    @Test
+    public void testReadWrite() throws IllegalArgumentException, IOException, ClassNotFoundException {
+        
+        provider.createDataDefinition();
+        provider.getData().getDefinition().setAttributeType("age", MicroAggregationFunction.createArithmeticMean());
+        provider.getData().getDefinition().setDataType("age", DataType.INTEGER);
+        
+        final ARXAnonymizer anonymizer = new ARXAnonymizer();
+        final ARXConfiguration config = ARXConfiguration.create();
+        config.addPrivacyModel(new KAnonymity(2));
+        config.setSuppressionLimit(0d);
+        
+        final ARXResult result = anonymizer.anonymize(provider.getData(), config);
+        final ARXNode optimum = result.getGlobalOptimum();
+        final String[][] expected = iteratorToArray(result.getOutput().iterator());
+        
+        // Stream
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+        ((DataHandleOutput) result.getOutput()).write(bytes);
+        DataHandle handle = result.getOutput(new ByteArrayInputStream(bytes.toByteArray()), optimum);
+        assertTrue(Arrays.deepEquals(iteratorToArray(handle.iterator()), expected));
+        
+        // File
+        File file = File.createTempFile("arx", ".dat");
+        try {
+            try (OutputStream out = new FileOutputStream(file)) {
+                ((DataHandleOutput) handle).write(out);
+            }
+            handle = result.getOutput(file, optimum);
+            assertTrue(Arrays.deepEquals(iteratorToArray(handle.iterator()), expected));
+        } finally {
+            file.delete();
+        }
+    }
+    
     /**
      * Test case
      *
@@ -498,4 +611,48 @@ public class TestDataHandle extends AbstractTest {
         
         assertTrue(Arrays.deepEquals(given, expected));
     }
+
+    /**
+     * Asserts that writing the handle in parallel and with compression yields the same data
+     * as writing it sequentially
+     * 
+     * @param handle
+     * @throws IOException
+     */
+    private void assertSaveEquals(DataHandle handle) throws IOException {
+
+        CSVSyntax syntax = new CSVSyntax(';');
+        File expected = File.createTempFile("arx", ".csv");
+        File actual = File.createTempFile("arx", ".csv");
+        try {
+            handle.save(expected, syntax);
+            byte[] bytes = Files.readAllBytes(expected.toPath());
+
+            // Sequential
+            handle.save(actual, syntax, new CSVOptions(0));
+            assertTrue(Arrays.equals(bytes, Files.readAllBytes(actual.toPath())));
+
+            // Parallel
+            CSVOptions options = new CSVOptions(0);
+            options.setNumberOfThreads(4);
+            handle.save(actual, syntax, options);
+            assertTrue(Arrays.equals(bytes, Files.readAllBytes(actual.toPath())));
+
+            // Compressed
+            options.setCompressed(true);
+            handle.save(actual, syntax, options);
+            ByteArrayOutputStream decompressed = new ByteArrayOutputStream();
+            try (InputStream stream = new GZIPInputStream(new FileInputStream(actual))) {
+                byte[] buffer = new byte[4096];
+                int read;
+                while ((read = stream.read(buffer)) != -1) {
+                    decompressed.write(buffer, 0, read);
+                }
+            }
+            assertTrue(Arrays.equals(bytes, decompressed.toByteArray()));
+        } finally {
+            expected.delete();
+            actual.delete();
+        }
+    }
 }
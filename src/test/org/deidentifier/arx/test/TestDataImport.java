@@ -17,14 +17,32 @@
 
 package org.deidentifier.arx.test;
 
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+
 import java.io.File;
 import java.io.IOException;
 import java.nio.charset.StandardCharsets;
+import java.sql.Connection;
+import java.sql.DriverManager;
+import java.sql.PreparedStatement;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.sql.Types;
 import java.util.ArrayList;
 import java.util.Iterator;
 import java.util.List;
 
 import org.deidentifier.arx.Data;
+import org.deidentifier.arx.DataHandle;
+import org.deidentifier.arx.DataSource;
+import org.deidentifier.arx.DataType;
+import org.deidentifier.arx.io.CSVDataInput;
+import org.deidentifier.arx.io.CSVOptions;
+import org.deidentifier.arx.io.CSVSyntax;
+import org.deidentifier.arx.io.ImportAdapter;
+import org.deidentifier.arx.io.ImportColumnJDBC;
+import org.deidentifier.arx.io.ImportConfigurationJDBC;
 import org.junit.Test;
 
 import cern.colt.Arrays;
@@ -52,4 +70,105 @@ public class TestDataImport extends AbstractTest {
             System.out.println(Arrays.toString(result.get(result.size() - 1)));
         }
     }
+
+    /**
+     * Tests that encoding JDBC sources, sequentially and in parallel, yields the same result as
+     * iterating over records
+     *
+     * @throws IOException
+     * @throws SQLException
+     * @throws ClassNotFoundException
+     */
+    @Test
+    public void testJDBC() throws IOException, SQLException, ClassNotFoundException {
+
+        // Create database
+        Class.forName("org.sqlite.JDBC");
+        File file = File.createTempFile("arx", ".db");
+        file.deleteOnExit();
+        String url = "jdbc:sqlite:" + file.getAbsolutePath();
+        DataHandle input = Data.create(new File("data/adult.csv"), StandardCharsets.UTF_8, ';').getHandle();
+        Connection connection = DriverManager.getConnection(url);
+        try {
+            Statement statement = connection.createStatement();
+            statement.execute("CREATE TABLE adult (id INTEGER PRIMARY KEY, sex TEXT, age INTEGER, weight REAL, education TEXT)");
+            statement.close();
+            connection.setAutoCommit(false);
+            PreparedStatement insert = connection.prepareStatement("INSERT INTO adult VALUES (?, ?, ?, ?, ?)");
+            for (int row = 0; row < input.getNumRows(); row++) {
+                int age = Integer.parseInt(input.getValue(row, 1));
+                insert.setInt(1, row);
+                insert.setString(2, input.getValue(row, 0));
+                if (row % 100 == 0) {
+                    insert.setNull(3, Types.INTEGER);
+                } else {
+                    insert.setInt(3, age);
+                }
+                insert.setDouble(4, age / 4d);
+                insert.setString(5, input.getValue(row, 4));
+                insert.addBatch();
+            }
+            insert.executeBatch();
+            insert.close();
+            connection.commit();
+        } finally {
+            connection.close();
+        }
+
+        // Load
+        ImportConfigurationJDBC config = new ImportConfigurationJDBC(url, "adult");
+        DataSource source = DataSource.createJDBCSource(url, "adult");
+        DataSource parallelSource = DataSource.createJDBCSource(url, "adult");
+        parallelSource.setParallelImport("id", 3);
+        DataType<?>[] types = new DataType<?>[] { DataType.STRING, DataType.INTEGER, DataType.DECIMAL, DataType.STRING };
+        for (int i = 0; i < types.length; i++) {
+            config.addColumn(new ImportColumnJDBC(i + 1, types[i], true));
+            source.addColumn(i + 1, types[i], true);
+            parallelSource.addColumn(i + 1, types[i], true);
+        }
+        DataHandle iterated = Data.create(ImportAdapter.create(config)).getHandle();
+        DataHandle sequential = Data.create(source).getHandle();
+        DataHandle parallel = Data.create(parallelSource).getHandle();
+
+        // Compare
+        assertEquals(input.getNumRows(), iterated.getNumRows());
+        for (DataHandle handle : new DataHandle[] { sequential, parallel }) {
+            assertEquals(iterated.getNumRows(), handle.getNumRows());
+            assertEquals(iterated.getNumColumns(), handle.getNumColumns());
+            for (int column = 0; column < iterated.getNumColumns(); column++) {
+                assertEquals(iterated.getAttributeName(column), handle.getAttributeName(column));
+                assertEquals(iterated.getDataType(iterated.getAttributeName(column)), handle.getDataType(handle.getAttributeName(column)));
+                for (int row = 0; row < iterated.getNumRows(); row++) {
+                    assertEquals(iterated.getValue(row, column), handle.getValue(row, column));
+                }
+            }
+        }
+    }
+
+    /**
+     * Tests that encoding in parallel yields the same result as iterating over records
+     *
+     * @throws IOException
+     */
+    @Test
+    public void testParallel() throws IOException {
+
+        // Load
+        File file = new File("data/adult.csv");
+        CSVOptions options = new CSVOptions(0);
+        options.setNumberOfThreads(3);
+        DataHandle parallel = Data.create(file, StandardCharsets.UTF_8, new CSVSyntax(';'), options).getHandle();
+        DataHandle sequential = Data.create(new CSVDataInput(file, StandardCharsets.UTF_8, ';').iterator()).getHandle();
+
+        // Compare
+        assertEquals(sequential.getNumRows(), parallel.getNumRows());
+        assertEquals(sequential.getNumColumns(), parallel.getNumColumns());
+        for (int column = 0; column < sequential.getNumColumns(); column++) {
+            assertEquals(sequential.getAttributeName(column), parallel.getAttributeName(column));
+            assertArrayEquals(sequential.getDistinctValues(column), parallel.getDistinctValues(column));
+            for (int row = 0; row < sequential.getNumRows(); row++) {
+                assertEquals(sequential.getValue(row, column), parallel.getValue(row, column));
+            }
+        }
+    }
 }
@@ -0,0 +1,148 @@
+/*
+ * ARX Data Anonymization Tool
+ * Copyright 2012 - 2025 Fabian Prasser and contributors
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.deidentifier.arx.test;
+
+import static org.junit.Assert.assertEquals;
+
+import java.util.Random;
+
+import org.deidentifier.arx.framework.data.DataMatrix;
+import org.deidentifier.arx.framework.data.DataMatrixChunked;
+import org.deidentifier.arx.framework.data.DataMatrixPacked;
+import org.deidentifier.arx.framework.data.DataMatrixSubset;
+import org.junit.Test;
+
+/**
+ * Tests the implementations of data matrices
+ *
+ * @author Fabian Prasser
+ */
+public class TestDataMatrix {
+
+    /** Rows */
+    private static final int ROWS    = 1000;
+
+    /** Columns */
+    private static final int COLUMNS = 7;
+
+    /**
+     * Tests a matrix backed by multiple arrays against a matrix backed by a single array
+     */
+    @Test
+    public void testChunked() {
+
+        // Chunks with 16 rows each, the last chunk is not full
+        compare(new DataMatrix(ROWS, COLUMNS), new DataMatrixChunked(ROWS, COLUMNS, 16 * COLUMNS + 3));
+    }
+
+    /**
+     * Tests the memory accounting of the implementations
+     */
+    @Test
+    public void testByteSize() {
+        int[] bits = new int[] { 32, 3, 1, 7, 16, 31, 8 };
+        assertEquals(ROWS * COLUMNS * 4L, new DataMatrix(ROWS, COLUMNS).getByteSize());
+        assertEquals(ROWS * COLUMNS * 4L, new DataMatrixChunked(ROWS, COLUMNS, 16 * COLUMNS + 3).getByteSize());
+        assertEquals(ROWS * 2 * 8L, new DataMatrixPacked(ROWS, bits).getByteSize());
+        assertEquals(10 * 4L, new DataMatrixSubset(new DataMatrix(ROWS, COLUMNS), new int[10]).getByteSize());
+    }
+
+    /**
+     * Tests the selection of implementations
+     */
+    @Test
+    public void testCreate() {
+        assertEquals(DataMatrix.class, DataMatrix.create(ROWS, COLUMNS).getClass());
+        assertEquals(DataMatrixChunked.class, new DataMatrixChunked(ROWS, COLUMNS).getView().getClass());
+    }
+
+    /**
+     * Tests a matrix with packed columns against a matrix backed by a single array
+     */
+    @Test
+    public void testPacked() {
+
+        // The first column can store outlier flags, the last two columns are stored in a second word
+        int[] bits = new int[] { 32, 3, 1, 7, 16, 31, 8 };
+        DataMatrix matrix = new DataMatrixPacked(ROWS, bits).newInstance();
+        assertEquals(2, DataMatrixPacked.getWords(bits));
+        assertEquals(1, DataMatrixPacked.getBits(2));
+        assertEquals(8, DataMatrixPacked.getBits(256));
+        assertEquals(9, DataMatrixPacked.getBits(257));
+        compare(new DataMatrix(ROWS, COLUMNS), matrix);
+    }
+
+    /**
+     * Performs random operations on both matrices and compares the results
+     * @param expected
+     * @param actual
+     */
+    private void compare(DataMatrix expected, DataMatrix actual) {
+
+        // Fill
+        Random random = new Random(0xDEADBEEF);
+        for (int row = 0; row < ROWS; row++) {
+            int[] tuple = new int[COLUMNS];
+            for (int column = 0; column < COLUMNS; column++) {
+                tuple[column] = random.nextInt(2);
+            }
+            expected.setRow(row, tuple);
+            actual.setRow(row, tuple);
+        }
+
+        // Modify
+        for (int i = 0; i < ROWS; i++) {
+            int row1 = random.nextInt(ROWS);
+            int row2 = random.nextInt(ROWS);
+            int column = random.nextInt(COLUMNS);
+            int value = random.nextInt(2);
+            expected.swap(row1, row2);
+            actual.swap(row1, row2);
+            expected.set(row1, column, value);
+            actual.set(row1, column, value);
+            expected.or(row2, 1 << 31);
+            actual.or(row2, 1 << 31);
+            expected.copyFrom(row2, actual, row1);
+            actual.copyFrom(row2, expected, row1);
+        }
+
+        // Compare
+        assertEquals(expected.getNumRows(), actual.getNumRows());
+        assertEquals(expected.getNumColumns(), actual.getNumColumns());
+        DataMatrix view = actual.getView();
+        DataMatrix clone = actual.clone();
+        for (int row = 0; row < ROWS; row++) {
+            int other = random.nextInt(ROWS);
+            int ignore = random.nextInt(COLUMNS);
+            assertEquals(expected.hashCode(row), actual.hashCode(row));
+            assertEquals(expected.hashCodeIgnore(row, ignore), actual.hashCodeIgnore(row, ignore));
+            assertEquals(expected.equals(row, other), actual.equals(row, other));
+            assertEquals(expected.equalsIgnore(row, other, ignore), actual.equalsIgnore(row, other, ignore));
+            assertEquals(expected.equalsIgnoringOutliers(row, other), actual.equalsIgnoringOutliers(row, other));
+            expected.iterator(row);
+            view.iterator(row);
+            clone.setRow(row);
+            for (int column = 0; column < COLUMNS; column++) {
+                int value = expected.iterator_next();
+                assertEquals(value, actual.get(row, column));
+                assertEquals(value, view.iterator_next());
+                assertEquals(value, clone.getValueAtColumn(column));
+            }
+        }
+    }
+}
@@ -38,9 +38,14 @@ import org.deidentifier.arx.DataHandle;
 import org.deidentifier.arx.DataType;
 import org.deidentifier.arx.aggregates.StatisticsSummary;
 import org.deidentifier.arx.criteria.KAnonymity;
+import org.deidentifier.arx.framework.check.distribution.Distribution;
+import org.deidentifier.arx.framework.check.distribution.DistributionAggregateFunction;
+import org.deidentifier.arx.framework.check.distribution.DistributionAggregateFunction.DistributionAggregateFunctionArithmeticMean;
+import org.deidentifier.arx.framework.check.distribution.DistributionAggregateFunction.DistributionAggregateFunctionGeometricMean;
 import org.deidentifier.arx.io.CSVHierarchyInput;
 import org.deidentifier.arx.metric.Metric;
 import org.deidentifier.arx.metric.Metric.AggregateFunction;
+import org.apache.commons.math3.stat.descriptive.DescriptiveStatistics;
 import org.junit.Test;
 
 /**
@@ -189,4 +194,76 @@ public class TestMicroaggregation extends AbstractTest {
                                            
         assertTrue(Arrays.deepEquals(resultArray, expectedArray));
     }
+    
+    /**
+     * Test microaggregation median
+     * @throws IOException
+     */
+    @Test
+    public void testMicroaggregationMedian() throws IOException {
+        DataProvider provider = new DataProvider();
+        provider.createDataDefinition();
+        provider.data.getDefinition().setAttributeType("age", MicroAggregationFunction.createMedian());
+        provider.data.getDefinition().setAttributeType("gender", provider.getGender());
+        provider.data.getDefinition().setAttributeType("zipcode", provider.getZipcode());
+        
+        provider.data.getDefinition().setDataType("age", DataType.INTEGER);
+        
+        final ARXAnonymizer anonymizer = new ARXAnonymizer();
+        final ARXConfiguration config = ARXConfiguration.create();
+        config.addPrivacyModel(new KAnonymity(2));
+        config.setSuppressionLimit(0d);
+        
+        ARXResult result = anonymizer.anonymize(provider.data, config);
+        
+        final String[][] resultArray = resultToArray(result);
+        
+        final String[][] expectedArray = { { "age", "gender", "zipcode" },
+                                           { "56", "male", "81***" },
+                                           { "45", "female", "81***" },
+                                           { "56", "male", "81***" },
+                                           { "45", "female", "81***" },
+                                           { "45", "female", "81***" },
+                                           { "56", "male", "81***" },
+                                           { "56", "male", "81***" } };
+                                           
+        assertTrue(Arrays.deepEquals(resultArray, expectedArray));
+    }
+    
+    /**
+     * Test numeric aggregation against commons math
+     */
+    @Test
+    public void testMicroaggregationNumeric() {
+        
+        String[] dictionary = new String[] { "0.1", "12.7", "3.3", "NULL", "1e6", "0.0" };
+        Distribution distribution = new Distribution(new int[] { 0, 1, 2, 3, 4, 5 }, new int[] { 3, 1, 7, 2, 1, 5 });
+        
+        for (boolean ignoreMissingData : new boolean[] { true, false }) {
+            
+            // Reference
+            DescriptiveStatistics stats = new DescriptiveStatistics();
+            DescriptiveStatistics statsOffset = new DescriptiveStatistics();
+            int[] buckets = distribution.getBuckets();
+            for (int i = 0; i < buckets.length; i += 2) {
+                if (buckets[i] != -1) {
+                    Double value = DataType.DECIMAL.parse(dictionary[buckets[i]]);
+                    if (value != null || !ignoreMissingData) {
+                        for (int j = 0; j < buckets[i + 1]; j++) {
+                            stats.addValue(value == null ? 0d : value);
+                            statsOffset.addValue((value == null ? 0d : value) + 1d);
+                        }
+                    }
+                }
+            }
+            
+            // Compare
+            DistributionAggregateFunction function = new DistributionAggregateFunctionArithmeticMean(ignoreMissingData);
+            function.initialize(dictionary, DataType.DECIMAL);
+            assertEquals(DataType.DECIMAL.format(stats.getMean()), function.aggregate(distribution));
+            function = new DistributionAggregateFunctionGeometricMean(ignoreMissingData);
+            function.initialize(dictionary, DataType.DECIMAL);
+            assertEquals(DataType.DECIMAL.format(statsOffset.getGeometricMean() - 1d), function.aggregate(distribution));
+        }
+    }
 }
@@ -0,0 +1,127 @@
+/*
+ * ARX Data Anonymization Tool
+ * Copyright 2012 - 2025 Fabian Prasser and contributors
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.deidentifier.arx.test;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.util.concurrent.atomic.AtomicLong;
+
+import org.deidentifier.arx.ARXAnonymizer;
+import org.deidentifier.arx.ARXConfiguration;
+import org.deidentifier.arx.ARXPerformanceListener;
+import org.deidentifier.arx.ARXPerformanceStatistics;
+import org.deidentifier.arx.ARXPerformanceStatistics.Check;
+import org.deidentifier.arx.ARXPerformanceStatistics.TransitionType;
+import org.deidentifier.arx.AttributeType;
+import org.deidentifier.arx.AttributeType.Hierarchy;
+import org.deidentifier.arx.Data;
+import org.deidentifier.arx.criteria.KAnonymity;
+import org.junit.Test;
+
+/**
+ * Tests the statistics about the performance of the anonymization process
+ *
+ * @author Fabian Prasser
+ */
+public class TestPerformanceStatistics {
+
+    /**
+     * Compares the statistics with the checks reported to the listener
+     * @throws IOException
+     */
+    @Test
+    public void testListener() throws IOException {
+
+        // Collect checks
+        final AtomicLong checks = new AtomicLong();
+        final AtomicLong classes = new AtomicLong();
+        ARXAnonymizer anonymizer = new ARXAnonymizer();
+        anonymizer.setPerformanceListener(new ARXPerformanceListener() {
+            @Override
+            public void checked(Check check) {
+                checks.incrementAndGet();
+                classes.addAndGet(check.getNumberOfEquivalenceClasses());
+            }
+        });
+        ARXPerformanceStatistics statistics = anonymizer.anonymize(getData(), getConfiguration()).getProcessStatistics().getPerformanceStatistics();
+
+        // Compare
+        long transitions = 0;
+        for (TransitionType type : TransitionType.values()) {
+            transitions += statistics.getNumberOfTransitions(type);
+        }
+        assertTrue(statistics.getNumberOfChecks() > 0);
+        assertEquals(checks.get(), statistics.getNumberOfChecks());
+        assertEquals(checks.get(), transitions);
+        assertEquals(classes.get(), (long) (statistics.getAverageNumberOfEquivalenceClasses() * checks.get() + 0.5d));
+
+        // Each transition except the first one looks up a snapshot
+        assertEquals(statistics.getNumberOfTransitions(TransitionType.SNAPSHOT), statistics.getNumberOfHistoryHits());
+        assertEquals(checks.get() - 1, statistics.getNumberOfHistoryHits() + statistics.getNumberOfHistoryMisses());
+        assertTrue(statistics.getNumberOfHistoryStores() > 0);
+        assertTrue(statistics.getMemoryUsageHistory() > 0);
+        assertTrue(statistics.getMemoryUsageData() > 0);
+    }
+
+    /**
+     * Tests that no snapshots are used, if the history is disabled
+     * @throws IOException
+     */
+    @Test
+    public void testNoHistory() throws IOException {
+
+        ARXAnonymizer anonymizer = new ARXAnonymizer();
+        anonymizer.setHistorySize(0);
+        ARXPerformanceStatistics statistics = anonymizer.anonymize(getData(), getConfiguration()).getProcessStatistics().getPerformanceStatistics();
+
+        assertTrue(statistics.getNumberOfChecks() > 0);
+        assertEquals(0, statistics.getNumberOfTransitions(TransitionType.SNAPSHOT));
+        assertEquals(0, statistics.getNumberOfHistoryHits());
+        assertEquals(0, statistics.getNumberOfHistoryStores());
+        assertEquals(0, statistics.getMemoryUsageHistory());
+        assertEquals(0d, statistics.getHistoryHitRate(), 0d);
+    }
+
+    /**
+     * Returns the configuration
+     * @return
+     */
+    private ARXConfiguration getConfiguration() {
+        ARXConfiguration config = ARXConfiguration.create();
+        config.addPrivacyModel(new KAnonymity(5));
+        config.setSuppressionLimit(0.02d);
+        return config;
+    }
+
+    /**
+     * Returns the adult dataset
+     * @return
+     * @throws IOException
+     */
+    private Data getData() throws IOException {
+        Data data = Data.create("./data/adult.csv", StandardCharsets.UTF_8, ';');
+        for (String attribute : new String[] { "age", "education", "marital-status", "native-country", "race", "salary-class", "sex", "workclass" }) {
+            data.getDefinition().setAttributeType(attribute, Hierarchy.create("./data/adult_hierarchy_" + attribute + ".csv", StandardCharsets.UTF_8, ';'));
+        }
+        data.getDefinition().setAttributeType("occupation", AttributeType.INSENSITIVE_ATTRIBUTE);
+        return data;
+    }
+}
@@ -24,6 +24,9 @@ import java.io.File;
 import java.io.FilenameFilter;
 import java.io.IOException;
 import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
+import java.util.HashSet;
+import java.util.Set;
 import java.util.regex.Matcher;
 import java.util.regex.Pattern;
 
@@ -31,6 +34,7 @@ import org.deidentifier.arx.ARXAnonymizer;
 import org.deidentifier.arx.ARXConfiguration;
 import org.deidentifier.arx.ARXPopulationModel;
 import org.deidentifier.arx.ARXResult;
+import org.deidentifier.arx.ARXSolverConfiguration;
 import org.deidentifier.arx.AttributeType.Hierarchy;
 import org.deidentifier.arx.Data;
 import org.deidentifier.arx.DataHandle;
@@ -93,6 +97,30 @@ public class TestRiskMetrics {
         return data;
     }
     
+    /**
+     * Test that equivalence classes shared by risk models are invalidated when the data changes
+     *
+     * @throws IOException Signals that an I/O exception has occurred.
+     */
+    @Test
+    public void testCachedEquivalenceClasses() throws IOException {
+        Data data = getDataObject("./data/adult.csv");
+        DataHandle handle = data.getHandle();
+        ARXPopulationModel population = ARXPopulationModel.create(handle.getNumRows(), 0.1d);
+        
+        // Classes do not depend on the order of records
+        double risk = handle.getRiskEstimator(population).getSampleBasedReidentificationRisk().getAverageRisk();
+        double wildcard = handle.getRiskEstimator(population).getSampleBasedRiskSummaryWildcard(0.1d, "Any").getAverageRisk();
+        handle.sort(true, 1);
+        assertTrue("Is: " + risk, risk == handle.getRiskEstimator(population).getSampleBasedReidentificationRisk().getAverageRisk());
+        assertTrue("Is: " + wildcard, wildcard == handle.getRiskEstimator(population).getSampleBasedRiskSummaryWildcard(0.1d, "Any").getAverageRisk());
+        
+        // Values matter for wildcard matching
+        handle.replace(handle.getColumnIndexOf("sex"), "Male", "Any");
+        double replaced = handle.getRiskEstimator(population).getSampleBasedRiskSummaryWildcard(0.1d, "Any").getAverageRisk();
+        assertTrue("Is: " + replaced, replaced < wildcard);
+    }
+    
     /**
      * Test average risk using the example dataset.
      */
@@ -200,6 +228,38 @@ public class TestRiskMetrics {
         assertTrue(populationUniqueness + "/" + sampleUniqueness, compareUniqueness(populationUniqueness, sampleUniqueness) == 0);
     }
     
+    /**
+     * Test that cached and warm-started solutions match solutions computed from scratch.
+     *
+     * @throws IOException Signals that an I/O exception has occurred.
+     */
+    @Test
+    public void testSolverCache() throws IOException {
+        
+        DataHandle handle = getDataObject("./data/adult.csv").getHandle();
+        ARXSolverConfiguration uncached = ARXSolverConfiguration.create().cacheSize(0);
+        ARXSolverConfiguration cached = ARXSolverConfiguration.create();
+        ARXSolverConfiguration warm = ARXSolverConfiguration.create().warmStart(true);
+        assertTrue(uncached.getCache() == null && cached.getCache() != null);
+        
+        String[][] qis = { { "age", "sex", "race" }, { "age", "sex" }, { "age", "race" }, { "age", "sex", "education" } };
+        for (int pass = 0; pass < 2; pass++) {
+            for (String[] attributes : qis) {
+                Set<String> set = new HashSet<String>(Arrays.asList(attributes));
+                for (double fraction : new double[] { 0.01d, 0.2d }) {
+                    ARXPopulationModel population = ARXPopulationModel.create(handle.getNumRows(), fraction);
+                    RiskModelPopulationUniqueness expected = handle.getRiskEstimator(population, set, uncached).getPopulationBasedUniquenessRisk();
+                    RiskModelPopulationUniqueness actual = handle.getRiskEstimator(population, set, cached).getPopulationBasedUniquenessRisk();
+                    RiskModelPopulationUniqueness started = handle.getRiskEstimator(population, set, warm).getPopulationBasedUniquenessRisk();
+                    for (PopulationUniquenessModel model : PopulationUniquenessModel.values()) {
+                        assertTrue(model + ": " + pass, expected.getFractionOfUniqueTuples(model) == actual.getFractionOfUniqueTuples(model));
+                        assertTrue(model + ": " + pass, compareUniqueness(expected.getFractionOfUniqueTuples(model), started.getFractionOfUniqueTuples(model)) == 0);
+                    }
+                }
+            }
+        }
+    }
+    
     /**
      * Compares two uniqueness measures with four significant digits
      * @param val1
@@ -17,12 +17,18 @@
 
 package org.deidentifier.arx.test;
 
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.util.HashSet;
+
 import org.deidentifier.arx.AttributeType;
 import org.deidentifier.arx.Data;
 import org.deidentifier.arx.risk.RiskEstimateBuilder;
 import org.deidentifier.arx.risk.RiskModelAttributes;
+import org.deidentifier.arx.risk.RiskModelHistogram;
 import org.junit.Test;
 
+import static org.junit.Assert.assertEquals;
 import static org.junit.Assert.assertTrue;
 
 /**
@@ -104,4 +110,63 @@ public class TestRiskQuasiIdentifiers {
             assertTrue("Separation expected: " + expectedResults[i].separation + "; got: " + risks[i].getSeparation(), expectedResults[i].separation == risks[i].getSeparation());
         }
     }
+
+    /**
+     * Compares the results of concurrent analyses with the equivalence classes of each combination
+     *
+     * @throws IOException
+     */
+    @Test
+    public void testParallel() throws IOException {
+
+        // Define data
+        Data data = Data.create("./data/adult.csv", StandardCharsets.UTF_8, ';');
+        for (int i = 0; i < data.getHandle().getNumColumns(); i++) {
+            data.getDefinition().setAttributeType(data.getHandle().getAttributeName(i), AttributeType.QUASI_IDENTIFYING_ATTRIBUTE);
+        }
+
+        // Perform calculation
+        RiskEstimateBuilder builder = data.getHandle().getRiskEstimator(null);
+        RiskModelAttributes.QuasiIdentifierRisk[] sequential = builder.getAttributeRisks().getAttributeRisks();
+        RiskModelAttributes.QuasiIdentifierRisk[] parallel = builder.getAttributeRisks(4).getAttributeRisks();
+
+        // Check
+        assertEquals((1 << data.getHandle().getNumColumns()) - 1, sequential.length);
+        assertEquals(sequential.length, parallel.length);
+        for (int i = 0; i < sequential.length; i++) {
+            assertEquals(sequential[i].getIdentifier(), parallel[i].getIdentifier());
+            assertTrue(sequential[i].getDistinction() == parallel[i].getDistinction());
+            assertTrue(sequential[i].getSeparation() == parallel[i].getSeparation());
+
+            // Compare with equivalence classes
+            RiskModelHistogram histogram = data.getHandle().getRiskEstimator(null, new HashSet<String>(sequential[i].getIdentifier())).getEquivalenceClassModel();
+            assertTrue(sequential[i].getDistinction() == histogram.getNumClasses() / histogram.getNumRecords());
+        }
+    }
+
+    @Test
+    public void testCutoff() {
+
+        // Define data
+        Data.DefaultData data = Data.create();
+        data.add("age", "sex", "state");
+        data.add("20", "Female", "CA");
+        data.add("30", "Female", "CA");
+        data.add("40", "Female", "TX");
+        data.add("20", "Male", "NY");
+        data.add("40", "Male", "CA");
+        for (int i = 0; i < data.getHandle().getNumColumns(); i++) {
+            data.getDefinition().setAttributeType(data.getHandle().getAttributeName(i), AttributeType.QUASI_IDENTIFYING_ATTRIBUTE);
+        }
+
+        // Supersets of [age, sex] and [age, state] are not analyzed
+        RiskEstimateBuilder builder = data.getHandle().getRiskEstimator(null);
+        RiskModelAttributes.QuasiIdentifierRisk risks[] = builder.getAttributeRisks(1d, 1d, 2).getAttributeRisks();
+        assertEquals(6, risks.length);
+        assertEquals("[age, state]", risks[5].getIdentifier().toString());
+
+        // Only the single attributes reach a threshold of zero
+        risks = builder.getAttributeRisks(0d, 0d, 1).getAttributeRisks();
+        assertEquals(3, risks.length);
+    }
 }
@@ -0,0 +1,88 @@
+/*
+ * ARX Data Anonymization Tool
+ * Copyright 2012 - 2025 Fabian Prasser and contributors
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.deidentifier.arx.test;
+
+import static org.junit.Assert.assertSame;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+
+import org.deidentifier.arx.framework.check.history.MRUCacheEntryMetadata;
+import org.deidentifier.arx.framework.check.history.SnapshotIndex;
+import org.deidentifier.arx.framework.lattice.SolutionSpace;
+import org.deidentifier.arx.framework.lattice.SolutionSpaceLong;
+import org.deidentifier.arx.framework.lattice.Transformation;
+import org.junit.Test;
+
+/**
+ * Tests finding the smallest snapshot of an ancestor
+ *
+ * @author Fabian Prasser
+ */
+public class TestSnapshotIndex {
+
+    /**
+     * Compares the index with a linear scan
+     */
+    @Test
+    public void testAncestors() {
+
+        // Prepare
+        SolutionSpace<Long> solutionSpace = new SolutionSpaceLong(new int[] { 0, 0, 0, 0 }, new int[] { 3, 4, 2, 5 });
+        SnapshotIndex index = new SnapshotIndex();
+        List<MRUCacheEntryMetadata> entries = new ArrayList<MRUCacheEntryMetadata>();
+        Random random = new Random(0xDEADBEEF);
+        long stamp = 0;
+
+        for (int i = 0; i < 10000; i++) {
+
+            // Add or remove
+            int[] generalization = getRandomGeneralization(random);
+            if (entries.size() < 50 || random.nextBoolean()) {
+                MRUCacheEntryMetadata entry = new MRUCacheEntryMetadata(solutionSpace.getTransformation(generalization), random.nextInt(10));
+                entry.stamp = stamp++;
+                entries.add(entry);
+                index.add(entry);
+            } else {
+                index.remove(entries.remove(random.nextInt(entries.size())));
+            }
+
+            // Compare
+            Transformation<Long> transformation = solutionSpace.getTransformation(generalization);
+            MRUCacheEntryMetadata expected = null;
+            for (MRUCacheEntryMetadata entry : entries) {
+                if (entry.level < transformation.getLevel() && solutionSpace.isParentChildOrEqual(generalization, entry.transformation) &&
+                    (expected == null || entry.length < expected.length || (entry.length == expected.length && entry.stamp < expected.stamp))) {
+                    expected = entry;
+                }
+            }
+            assertSame(expected, index.get(generalization, transformation.getLevel()));
+        }
+    }
+
+    /**
+     * Returns a random generalization
+     *
+     * @param random
+     * @return
+     */
+    private int[] getRandomGeneralization(Random random) {
+        return new int[] { random.nextInt(4), random.nextInt(5), random.nextInt(3), random.nextInt(6) };
+    }
+}
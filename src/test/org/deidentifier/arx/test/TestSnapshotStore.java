@@ -0,0 +1,92 @@
+/*
+ * ARX Data Anonymization Tool
+ * Copyright 2012 - 2025 Fabian Prasser and contributors
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.deidentifier.arx.test;
+
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNull;
+
+import org.deidentifier.arx.framework.check.history.SnapshotStore;
+import org.junit.Test;
+
+/**
+ * Tests spilling snapshots to disk
+ *
+ * @author Fabian Prasser
+ */
+public class TestSnapshotStore {
+
+    /**
+     * Stores snapshots exceeding the memory budget
+     */
+    @Test
+    public void testSpill() {
+
+        // Budget for two snapshots
+        SnapshotStore store = new SnapshotStore(2 * 100 * 4);
+        int[][] snapshots = new int[5][100];
+        for (int i = 0; i < snapshots.length; i++) {
+            for (int j = 0; j < snapshots[i].length; j++) {
+                snapshots[i][j] = i * j;
+            }
+            store.put(i, snapshots[i]);
+        }
+        assertEquals(3, store.getNumSpilledSnapshots());
+        assertEquals(2 * 100 * 4, store.getMemoryUsagePeak());
+
+        // Read, remove and replace
+        for (int i = 0; i < snapshots.length; i++) {
+            assertArrayEquals(snapshots[i], store.get(i));
+        }
+        assertArrayEquals(snapshots[0], store.remove(0));
+        assertNull(store.get(0));
+        store.put(0, snapshots[1]);
+        assertArrayEquals(snapshots[1], store.get(0));
+
+        // Clear
+        store.clear();
+        assertEquals(0, store.getNumSpilledSnapshots());
+        assertNull(store.get(1));
+    }
+
+    /**
+     * Reuses the space of snapshots which have been removed from disk
+     */
+    @Test
+    public void testReuse() {
+
+        // Budget for one snapshot
+        SnapshotStore store = new SnapshotStore(100 * 4);
+        for (int i = 0; i < 10; i++) {
+            store.put(i, new int[100]);
+        }
+        long size = store.getFileSize();
+
+        // Replace spilled snapshots repeatedly
+        for (int i = 0; i < 10000; i++) {
+            int[] snapshot = new int[50 + i % 100];
+            snapshot[0] = i;
+            store.remove(i % 10);
+            store.put(i % 10, snapshot);
+            assertArrayEquals(snapshot, store.get(i % 10));
+        }
+        assertEquals(size, store.getFileSize());
+        store.clear();
+        assertEquals(0, store.getFileSize());
+    }
+}